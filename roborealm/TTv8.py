@@ -20,6 +20,12 @@ Created on Sat Mar  5 16:54:45 2016
 
 import rr 
 import math 
+import time
+import socket
+import struct
+
+# time processing of frame started (for robot latency compensation)
+frameStartTime = time.time()
 
 # initialize variables 
 validUpdate = False  # boolean determining if data is good/if we should use data 
@@ -54,6 +60,13 @@ minY = 220 # y values below this in BFR are from blobs created by the bar
 targetHeight = 14.0 # in  
 targetWidth = 20.0 # in 	
 
+# UDP datagram to the robot (UdpVision; turned on by its useUdpVision preference)
+useUdp = True
+udpHost = "10.5.1.2" # roboRIO of team 501
+udpPort = 5801 # udpVisionPort preference
+udpMagic = 0x54543856 # "TT8V"
+udpVersion = 1
+
 
 # Declare Functions 
 def xIsValid(minX, maxX, lowerRightX, upperRightX, lowerLeftX, upperLeftX):
@@ -107,6 +120,29 @@ def prioritizeTarget(distFromCenter, lrDiff_list, distance): # prioritize which
 	return index
 	
 
+def sendUdpUpdate(valid, targets, angle, distance): # send the frame as one datagram (layout in UdpVisionPacket on the robot)
+	try:
+		sequence = int(rr.GetVariable("udpSequence")) + 1 # RoboRealm variables last between frames
+	except (TypeError, ValueError):
+		sequence = 1
+	rr.SetVariable("udpSequence", sequence)
+	
+	now = time.time()
+	captureTime = int(frameStartTime * 1000000) # usec (sender's clock)
+	age = int((now - frameStartTime) * 1000000) # usec
+	flags = 1 if valid else 0
+	packet = struct.pack(">iBBhqqqdd", udpMagic, udpVersion, flags, targets, sequence, captureTime, age, angle, distance)
+	
+	try:
+		sock = socket.socket(socket.AF_INET, socket.SOCK_DGRAM)
+		try:
+			sock.sendto(packet, (udpHost, udpPort))
+		finally:
+			sock.close()
+	except socket.error:
+		pass # never let the datagram get in the way of the Network Tables update
+	
+
 def badBlob(BFR):
 	needToRemove = False
 	blob =[]
@@ -334,9 +370,11 @@ if isinstance(rectangleCoordinates, list):
 					
 						
 				validUpdate = True 
+				rr.SetVariable("Latency", int((time.time() - frameStartTime) * 1000))
 				rr.SetVariable("validUpdate", validUpdate)
 	else:
 		validUpdate = False
+		rr.SetVariable("Latency", int((time.time() - frameStartTime) * 1000))
 		rr.SetVariable("validUpdate", validUpdate)
 		rr.SetVariable("RectCoor len", len(rectangleCoordinates))
 		
@@ -346,4 +384,10 @@ if isinstance(rectangleCoordinates, list):
 
 				
 		
-		
\ No newline at end of file
+		
+# Send the frame to the robot as one datagram as well
+if useUdp:
+	if validUpdate:
+		sendUdpUpdate(True, targetSamples, angle_avg, distance_final)
+	else:
+		sendUdpUpdate(False, 0, 0.0, 0.0)
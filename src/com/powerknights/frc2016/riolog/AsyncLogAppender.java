@@ -0,0 +1,431 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.riolog;
+
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggerContextVO;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+
+
+/**
+ * Appender that hands events to other appenders (the console and log file) on
+ * its own writer thread; so logging from a control loop never waits on the
+ * USB stick (or console).
+ * <p>
+ * Events go into a fixed size ring (allocated up front); putting one in is a
+ * compare-and-set to claim a slot, and never blocks. The writer thread takes
+ * them out in batches, and flushes the file once per batch. When the ring
+ * gets close to full, events at or below the discard level (TRACE by default)
+ * are dropped to leave room for the rest; when it is full, everything is
+ * dropped. Dropped events are counted by level.
+ * <p>
+ * The thread name (and caller data, if used) is captured when the event is
+ * put in the ring, but the message is formatted by the writer thread; so
+ * arguments must not be changed after they are logged.
+ * <p>
+ * Each slot also has a <code>PrimitiveLogEvent</code> (allocated up front),
+ * that <code>PrimitiveLog</code> fills in directly; so logging primitives
+ * doesn't allocate anything on the logging thread.
+ *
+ * @author first.stu
+ **/
+class AsyncLogAppender
+   extends UnsynchronizedAppenderBase< ILoggingEvent >
+{
+
+   /** Most events the writer handles before flushing **/
+   private static final int batchSize = 64;
+   /** How long the writer waits when the ring is empty (msec) **/
+   private static final long idleWait = 10;
+
+   /** Appenders doing the actual writing **/
+   private final List< Appender< ILoggingEvent > > delegates;
+   /** Whether to capture caller data (needed if the layout uses it) **/
+   private final boolean includeCallerData;
+
+   /** Ring of events waiting to be written **/
+   private final ILoggingEvent[] events;
+   /** Primitive events of each slot of the ring (created when started) **/
+   private final PrimitiveLogEvent[] primitiveEvents;
+   /**
+    * Sequence of each slot; equals the position when free to be put in, and
+    * position + 1 when holding an event to be written
+    **/
+   private final AtomicLongArray sequences;
+   private final int mask;
+
+   /** Next position to be put in **/
+   private final AtomicLong tail;
+   /** Next position to be written (only changed by the writer) **/
+   private volatile long head;
+
+   /** Events at or below this level (int) are dropped when getting full **/
+   private volatile int discardLevel;
+   /** Free slots below which the discard level is dropped **/
+   private volatile int discardThreshold;
+
+   /** Count of dropped events, indexed by <code>levelIndex()</code> **/
+   private final AtomicLongArray droppedCounts;
+
+   /** Writer thread **/
+   private Thread writer;
+   private volatile boolean running;
+
+
+   /**
+    * @param capacity - size of the ring (rounded up to a power of 2)
+    * @param includeCallerData - whether to capture caller data of events
+    * @param delegates - (started) appenders to write the events to
+    **/
+   AsyncLogAppender( int capacity, boolean includeCallerData,
+      List< Appender< ILoggingEvent > > delegates )
+   {
+      this.delegates = new ArrayList< Appender< ILoggingEvent > >( delegates );
+      this.includeCallerData = includeCallerData;
+
+      int size = 1;
+      while ( size < capacity )
+      {
+         size <<= 1;
+      }
+      events = new ILoggingEvent[ size ];
+      primitiveEvents = new PrimitiveLogEvent[ size ];
+      sequences = new AtomicLongArray( size );
+      for ( int i = 0; i < size; i++ )
+      {
+         sequences.set( i, i );
+      }
+      mask = size - 1;
+
+      tail = new AtomicLong( 0 );
+      head = 0;
+
+      discardLevel = Level.TRACE.level.toInt();
+      discardThreshold = size / 4;
+
+      droppedCounts = new AtomicLongArray( 5 );
+   }
+
+
+   /**
+    * Sets the overflow policy: once fewer than the threshold slots are free,
+    * events at or below the level are dropped. (Use <code>Level.OFF</code> to
+    * only drop when full.)
+    *
+    * @param level - level (and below) to drop first
+    * @param threshold - free slots to keep for more important events
+    **/
+   void setDiscardPolicy( Level level, int threshold )
+   {
+      discardLevel =
+         ( level == Level.OFF ) ? Integer.MIN_VALUE : level.level.toInt();
+      discardThreshold = threshold;
+   }
+
+
+   @Override
+   public void start()
+   {
+      final LoggerContextVO contextVO =
+         ( (LoggerContext) getContext() ).getLoggerContextRemoteView();
+      for ( int i = 0; i < primitiveEvents.length; i++ )
+      {
+         primitiveEvents[ i ] = new PrimitiveLogEvent( contextVO );
+      }
+
+      running = true;
+      writer = new Thread( new Runnable()
+      {
+
+         @Override
+         public void run()
+         {
+            write();
+         }
+      }, "Log Writer" );
+      writer.setDaemon( true );
+      writer.setPriority( Thread.MIN_PRIORITY );
+      writer.start();
+
+      super.start();
+   }
+
+
+   /**
+    * Stops the writer, after it has written everything already in the ring.
+    **/
+   @Override
+   public void stop()
+   {
+      if ( !isStarted() )
+      {
+         return;
+      }
+      super.stop();
+
+      running = false;
+      LockSupport.unpark( writer );
+      try
+      {
+         writer.join( 1000 );
+      }
+      catch ( final InterruptedException ex )
+      {
+         Thread.currentThread().interrupt();
+      }
+      for ( int i = 0; i < delegates.size(); i++ )
+      {
+         delegates.get( i ).stop();
+      }
+   }
+
+
+   @Override
+   protected void append( ILoggingEvent event )
+   {
+      // These have to be captured on the thread doing the logging
+      event.getThreadName();
+      if ( includeCallerData )
+      {
+         event.getCallerData();
+      }
+
+      final long position = claim( event.getLevel() );
+      if ( position >= 0 )
+      {
+         publish( position, event );
+      }
+   }
+
+
+   /**
+    * Claims the slot for a primitive event; which the caller fills in, and
+    * then passes to <code>publish()</code>.
+    *
+    * @param level - level of the event
+    * @return event to fill in, or null if it has to be dropped
+    **/
+   PrimitiveLogEvent claimPrimitive( ch.qos.logback.classic.Level level )
+   {
+      if ( !isStarted() )
+      {
+         return null;
+      }
+      final long position = claim( level );
+      if ( position < 0 )
+      {
+         return null;
+      }
+      final PrimitiveLogEvent event =
+         primitiveEvents[ (int) position & mask ];
+      event.position = position;
+      return event;
+   }
+
+
+   /**
+    * Puts a primitive event (that was claimed and filled in) in the ring.
+    **/
+   void publish( PrimitiveLogEvent event )
+   {
+      publish( event.position, event );
+   }
+
+
+   /**
+    * @return position of the slot claimed, or -1 if the event was dropped
+    **/
+   private long claim( ch.qos.logback.classic.Level level )
+   {
+      if ( ( level.toInt() <= discardLevel )
+         && ( ( events.length - ( tail.get() - head ) ) < discardThreshold ) )
+      {
+         drop( level );
+         return -1;
+      }
+
+      while ( true )
+      {
+         final long position = tail.get();
+         final long available =
+            sequences.get( (int) position & mask ) - position;
+         if ( available == 0 )
+         {
+            if ( tail.compareAndSet( position, position + 1 ) )
+            {
+               return position;
+            }
+         }
+         else if ( available < 0 )
+         {
+            // Still holding an event from a lap ago; so full
+            drop( level );
+            return -1;
+         }
+         // Else another thread got this slot first; try the next one
+      }
+   }
+
+
+   private void publish( long position, ILoggingEvent event )
+   {
+      final int index = (int) position & mask;
+      events[ index ] = event;
+      sequences.set( index, position + 1 );
+      // Wake the writer early if it is filling up (only the one putting in
+      // the half way event does, so it isn't every time)
+      if ( ( position - head ) == ( events.length / 2 ) )
+      {
+         LockSupport.unpark( writer );
+      }
+   }
+
+
+   private void drop( ch.qos.logback.classic.Level level )
+   {
+      droppedCounts.incrementAndGet( levelIndex( level ) );
+   }
+
+
+   private static int levelIndex( ch.qos.logback.classic.Level level )
+   {
+      switch ( level.toInt() )
+      {
+      case ch.qos.logback.classic.Level.TRACE_INT:
+         return 0;
+      case ch.qos.logback.classic.Level.DEBUG_INT:
+         return 1;
+      case ch.qos.logback.classic.Level.INFO_INT:
+         return 2;
+      case ch.qos.logback.classic.Level.WARN_INT:
+         return 3;
+      default:
+         return 4;
+      }
+   }
+
+
+   /**
+    * @return how many events of the level were dropped
+    **/
+   long getDroppedCount( Level level )
+   {
+      return droppedCounts.get( levelIndex( level.level ) );
+   }
+
+
+   /**
+    * @return how many events were dropped (of all levels)
+    **/
+   long getDroppedCount()
+   {
+      long count = 0;
+      for ( int i = 0; i < droppedCounts.length(); i++ )
+      {
+         count += droppedCounts.get( i );
+      }
+      return count;
+   }
+
+
+   /**
+    * Writer thread; writes out batches until stopped, and then whatever is
+    * left.
+    **/
+   private void write()
+   {
+      while ( running )
+      {
+         if ( writeBatch() == 0 )
+         {
+            LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( idleWait ) );
+         }
+      }
+      while ( writeBatch() > 0 )
+      {
+         // Draining
+      }
+   }
+
+
+   /**
+    * @return how many events were written
+    **/
+   private int writeBatch()
+   {
+      int count = 0;
+      while ( count < batchSize )
+      {
+         final long position = head;
+         final int index = (int) position & mask;
+         if ( sequences.get( index ) != ( position + 1 ) )
+         {
+            break;
+         }
+         final ILoggingEvent event = events[ index ];
+         for ( int i = 0; i < delegates.size(); i++ )
+         {
+            delegates.get( i ).doAppend( event );
+         }
+
+         // Only free the slot once written, as primitive events get reused
+         events[ index ] = null;
+         sequences.lazySet( index, position + events.length );
+         head = position + 1;
+         count++;
+      }
+
+      if ( count > 0 )
+      {
+         flush();
+      }
+      return count;
+   }
+
+
+   private void flush()
+   {
+      for ( int i = 0; i < delegates.size(); i++ )
+      {
+         final Appender< ILoggingEvent > delegate = delegates.get( i );
+         if ( !( delegate instanceof OutputStreamAppender ) )
+         {
+            continue;
+         }
+         final OutputStream out =
+            ( (OutputStreamAppender< ILoggingEvent >) delegate )
+               .getOutputStream();
+         try
+         {
+            if ( out != null )
+            {
+               out.flush();
+            }
+         }
+         catch ( final IOException ex )
+         {
+            addError( "failed to flush log", ex );
+         }
+      }
+   }
+
+}
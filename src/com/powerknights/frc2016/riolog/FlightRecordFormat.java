@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.riolog;
+
+
+/**
+ * Layout of the files written by the <code>FlightRecorder</code> (and read by
+ * the offline decoder). Kept free of any WPILib dependencies so the decoder
+ * can be built and run on a laptop.
+ * <p>
+ * A recording is split into segments (<code>flight-NNN-SS-mode.rec</code>;
+ * a new one for each mode, or when the last fills up). Each is a header
+ * followed by fixed width records, all big-endian:
+ *
+ * <pre>
+ * header:  long magic, int version, int recordSize,
+ *          long startTime (FPGA usec), long startWallTime (msec since epoch),
+ *          int segment, int (unused)
+ * record:  short type, short (unused), int keyId,
+ *          long time (FPGA usec), long value
+ * </pre>
+ *
+ * A record with a type of 0 is unused, and marks the end of the segment. The
+ * value is the raw bits of a number, 0 / 1 for a boolean, or a string id. The
+ * start times are of the recording, so are the same in all its segments.
+ * <p>
+ * The keys file (<code>flight-NNN.keys</code>; one for all the segments) is
+ * text; a line per id, in the order they were defined: <code>K,id,name</code>
+ * for keys, and <code>S,id,value</code> for string values.
+ *
+ * @author first.stu
+ **/
+public final class FlightRecordFormat
+{
+
+   /** "501FREC" **/
+   public static final long magic = 0x3530314652454300L;
+   public static final int version = 2;
+
+   public static final int headerSize = 40;
+   public static final int recordSize = 24;
+
+   /** Offsets within a record **/
+   public static final int typeOffset = 0;
+   public static final int keyIdOffset = 4;
+   public static final int timeOffset = 8;
+   public static final int valueOffset = 16;
+
+   /** Record types **/
+   public static final short unusedType = 0;
+   public static final short numberType = 1;
+   public static final short booleanType = 2;
+   public static final short stringType = 3;
+
+   /** Line prefixes in keys file **/
+   public static final String keyPrefix = "K";
+   public static final String stringPrefix = "S";
+
+   public static final String recordFileExtension = ".rec";
+   public static final String keysFileExtension = ".keys";
+
+
+   private FlightRecordFormat()
+   {
+   }
+
+}
@@ -0,0 +1,553 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.riolog;
+
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+
+import com.powerknights.frc2016.utils.TimeUtils;
+
+
+/**
+ * Records every telemetry write (key, FPGA time, value) as a fixed width
+ * binary record in a memory-mapped file on the log drive; so what was sent to
+ * the dashboard can be looked at after the match (see
+ * <code>FlightRecordFormat</code> for the layout, and the decoder in tools).
+ * <p>
+ * The recording is split into segments (files of their own), sized up front;
+ * recording a value is an atomic add to claim a record and a few stores into
+ * it, and nothing is allocated once a key has been seen. A thread of its own
+ * forces the segment out to the drive every second (so little is lost if the
+ * robot is turned off), and starts a new segment on each mode change (forcing
+ * out the last one) or when the segment is getting full; the oldest are
+ * deleted past <code>maxSegments</code>. Records are only dropped (and
+ * counted) if a segment fills before the next one is started.
+ *
+ * @author first.stu
+ **/
+public class FlightRecorder
+{
+
+   /** Our classes' logger **/
+   private static final Logger logger =
+      RioLogger.getLogger( FlightRecorder.class.getName() );
+
+   /** Singleton instance of class for all to use **/
+   private static FlightRecorder ourInstance;
+
+
+   /**
+    * Constructs the singleton instance of the flight recorder. Assumed to be
+    * called before any use of the recorder; and verifies only called once.
+    *
+    * @param enabled - whether to record (if there is a log drive)
+    * @throws IllegalStateException
+    **/
+   public static synchronized void constructInstance( boolean enabled )
+   {
+      if ( ourInstance != null )
+      {
+         throw new IllegalStateException(
+            "FlightRecorder Already Constructed" );
+      }
+      ourInstance = new FlightRecorder( enabled );
+   }
+
+
+   /**
+    * Returns the singleton instance of the flight recorder. Verifies the
+    * recorder has been successfully created prior to use.
+    *
+    * @return singleton instance of flight recorder
+    * @throws IllegalStateException
+    **/
+   public static FlightRecorder getInstance()
+   {
+      if ( ourInstance == null )
+      {
+         throw new IllegalStateException(
+            "FlightRecorder Not Constructed Yet" );
+      }
+      return ourInstance;
+   }
+
+   /** Name of recording files (numbered like the log files) **/
+   private static final String recordFileName = "flight-";
+   /** Size of a segment of the recording (~700,000 records) **/
+   private static final int segmentSize = 16 * 1024 * 1024;
+   /** How full a segment gets before the next one is started **/
+   private static final long rollOverSize = ( segmentSize / 4 ) * 3;
+   /** Most segments kept on the log drive (the oldest are deleted) **/
+   private static final int maxSegments = 16;
+   /** How often the segment is forced out to the drive (msec) **/
+   private static final long forcePeriod = 1000;
+
+   /** Whether recording (enabled, and file was set up) **/
+   private final boolean recording;
+
+   /** Path (without segment and extension) of the recording **/
+   private String baseName;
+   /** When the recording started (in each segment's header) **/
+   private long startTime; // FPGA usec
+   private long startWallTime; // msec since epoch
+
+   /** Segment being recorded into **/
+   private volatile Segment segment;
+   /** Segment before it (forced once more, for records claimed late) **/
+   private Segment previous;
+   /** Files of the segments kept (by number, modulo maxSegments) **/
+   private final String[] segmentFiles;
+   /** Mode to start a new segment for (null if none asked for) **/
+   private final AtomicReference< String > pendingMode;
+   /** Forces segments out, and starts new ones **/
+   private Thread writer;
+
+   /** How many records didn't fit **/
+   private final AtomicLong droppedCount;
+
+   /** Ids of the keys seen so far **/
+   private final ConcurrentHashMap< String, Integer > keyIds;
+   /** Ids of the string values seen so far **/
+   private final ConcurrentHashMap< String, Integer > stringIds;
+   /** Writer for key and string definitions **/
+   private Writer keysWriter;
+
+
+   /**
+    * A segment of the recording; a file of its own, mapped.
+    **/
+   private static final class Segment
+   {
+
+      final int number;
+      final String mode;
+      final String fileName;
+      final MappedByteBuffer buffer;
+      /** Offset of the next record to claim **/
+      final AtomicLong nextOffset;
+
+
+      Segment( int number, String mode, String fileName,
+         MappedByteBuffer buffer )
+      {
+         this.number = number;
+         this.mode = mode;
+         this.fileName = fileName;
+         this.buffer = buffer;
+         nextOffset = new AtomicLong( FlightRecordFormat.headerSize );
+      }
+
+   }
+
+
+   private FlightRecorder( boolean enabled )
+   {
+      logger.info( "constructing" );
+
+      droppedCount = new AtomicLong( 0 );
+      pendingMode = new AtomicReference< String >( null );
+      segmentFiles = new String[ maxSegments ];
+
+      keyIds = new ConcurrentHashMap< String, Integer >();
+      stringIds = new ConcurrentHashMap< String, Integer >();
+
+      Segment first = null;
+      if ( enabled && RioLogger.useLogFiles() )
+      {
+         first = openFiles();
+      }
+      segment = first;
+      recording = ( first != null );
+      if ( recording )
+      {
+         segmentFiles[ first.number % maxSegments ] = first.fileName;
+
+         writer = new Thread( new Runnable()
+         {
+
+            @Override
+            public void run()
+            {
+               force();
+            }
+         }, "Flight Recorder" );
+         writer.setDaemon( true );
+         writer.setPriority( Thread.MIN_PRIORITY );
+         writer.start();
+      }
+
+      logger.info( "constructed; recording={}", recording );
+   }
+
+
+   private Segment openFiles()
+   {
+      baseName = findBaseName();
+      logger.info( "recording to {}", baseName );
+
+      startTime = TimeUtils.microTime();
+      startWallTime = System.currentTimeMillis();
+      try
+      {
+         keysWriter = new FileWriter(
+            baseName + FlightRecordFormat.keysFileExtension );
+      }
+      catch ( final IOException ex )
+      {
+         logger.error( "failed to set up recording; not recording", ex );
+         return null;
+      }
+      return openSegment( 1, "init" );
+   }
+
+
+   /**
+    * Creates and maps the file of a segment, and writes its header.
+    *
+    * @return the segment, or null if it couldn't be set up
+    **/
+   private Segment openSegment( int number, String mode )
+   {
+      final String fileName = getSegmentFileName( number, mode );
+      try
+      {
+         final RandomAccessFile file = new RandomAccessFile( fileName, "rw" );
+         final MappedByteBuffer mapped;
+         try
+         {
+            // Cleared, in case it is left over from an earlier recording
+            file.setLength( 0 );
+            file.setLength( segmentSize );
+            mapped = file.getChannel()
+               .map( FileChannel.MapMode.READ_WRITE, 0, segmentSize );
+         }
+         finally
+         {
+            // Mapping stays valid after the file is closed
+            file.close();
+         }
+
+         mapped.putLong( 0, FlightRecordFormat.magic );
+         mapped.putInt( 8, FlightRecordFormat.version );
+         mapped.putInt( 12, FlightRecordFormat.recordSize );
+         mapped.putLong( 16, startTime );
+         mapped.putLong( 24, startWallTime );
+         mapped.putInt( 32, number );
+
+         logger.info( "recording segment {}", fileName );
+         return new Segment( number, mode, fileName, mapped );
+      }
+      catch ( final IOException ex )
+      {
+         logger.error( "failed to set up segment {}", fileName, ex );
+         return null;
+      }
+   }
+
+
+   private String getSegmentFileName( int number, String mode )
+   {
+      return baseName + String.format( "-%02d-", number ) + mode
+         + FlightRecordFormat.recordFileExtension;
+   }
+
+
+   /**
+    * @return path (without extension) of first recording not used yet
+    **/
+   private static String findBaseName()
+   {
+      final StringBuilder buf = new StringBuilder();
+      buf.append( RioLogger.getLogDirectory() ).append( recordFileName );
+      final int keepBufLen = buf.length();
+      for ( int i = 1; i <= 100; i++ )
+      {
+         buf.setLength( keepBufLen );
+         buf.append( String.format( "%03d", i ) );
+         // Segments are named after it; but there is only one keys file
+         final File keysFile =
+            new File( buf.toString() + FlightRecordFormat.keysFileExtension );
+         if ( !keysFile.exists() )
+         {
+            break;
+         }
+      }
+      // If we get to 100; we are just going to re-use it regardless
+      return buf.toString();
+   }
+
+
+   /**
+    * Starts a new segment of the recording for a mode (e.g. on entering
+    * disabled), after forcing the last one out to the drive. Done on the
+    * recorder's thread; records go to the last segment until it is.
+    *
+    * @param mode - name of the mode (goes in the file name)
+    **/
+   public void startSegment( String mode )
+   {
+      if ( !recording )
+      {
+         return;
+      }
+      pendingMode.set( mode );
+      LockSupport.unpark( writer );
+   }
+
+
+   /**
+    * Recorder thread; forces the segment out every so often, and starts a new
+    * one when asked to, or when it is getting full.
+    **/
+   private void force()
+   {
+      while ( true )
+      {
+         LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( forcePeriod ) );
+
+         if ( previous != null )
+         {
+            previous.buffer.force();
+            previous = null;
+         }
+
+         final Segment current = segment;
+         final String mode = pendingMode.getAndSet( null );
+         if ( mode != null )
+         {
+            rollOver( current, mode );
+         }
+         else if ( current.nextOffset.get() >= rollOverSize )
+         {
+            rollOver( current, current.mode );
+         }
+         else
+         {
+            current.buffer.force();
+         }
+      }
+   }
+
+
+   /**
+    * Moves the recording on to the next segment (unless it can't be set up,
+    * in which case the current one is kept).
+    **/
+   private void rollOver( Segment current, String mode )
+   {
+      final int number = current.number + 1;
+
+      // Keep the drive from filling up; the oldest segment makes way
+      final int slot = number % maxSegments;
+      if ( segmentFiles[ slot ] != null )
+      {
+         new File( segmentFiles[ slot ] ).delete();
+         segmentFiles[ slot ] = null;
+      }
+
+      final Segment next = openSegment( number, mode );
+      if ( next != null )
+      {
+         segmentFiles[ slot ] = next.fileName;
+         segment = next;
+         previous = current;
+      }
+      current.buffer.force();
+   }
+
+
+   public boolean isRecording()
+   {
+      return recording;
+   }
+
+
+   /**
+    * @return how many records were dropped because a segment was full
+    **/
+   public long getDroppedCount()
+   {
+      return droppedCount.get();
+   }
+
+
+   /**
+    * Defines a key ahead of time, so it can be recorded by id without looking
+    * it up.
+    *
+    * @param key - key to define
+    * @return id of the key, or -1 if not recording
+    **/
+   public int defineKey( String key )
+   {
+      if ( !recording )
+      {
+         return -1;
+      }
+      return getKeyId( key );
+   }
+
+
+   public void recordNumber( String key, double value )
+   {
+      if ( !recording )
+      {
+         return;
+      }
+      write( FlightRecordFormat.numberType, getKeyId( key ),
+         Double.doubleToRawLongBits( value ) );
+   }
+
+
+   public void recordBoolean( String key, boolean value )
+   {
+      if ( !recording )
+      {
+         return;
+      }
+      write( FlightRecordFormat.booleanType, getKeyId( key ), value ? 1 : 0 );
+   }
+
+
+   public void recordString( String key, String value )
+   {
+      if ( !recording )
+      {
+         return;
+      }
+      write( FlightRecordFormat.stringType, getKeyId( key ),
+         getStringId( value ) );
+   }
+
+
+   public void recordNumber( int keyId, double value )
+   {
+      if ( !recording )
+      {
+         return;
+      }
+      write( FlightRecordFormat.numberType, keyId,
+         Double.doubleToRawLongBits( value ) );
+   }
+
+
+   public void recordBoolean( int keyId, boolean value )
+   {
+      if ( !recording )
+      {
+         return;
+      }
+      write( FlightRecordFormat.booleanType, keyId, value ? 1 : 0 );
+   }
+
+
+   public void recordString( int keyId, String value )
+   {
+      if ( !recording )
+      {
+         return;
+      }
+      write( FlightRecordFormat.stringType, keyId, getStringId( value ) );
+   }
+
+
+   private void write( short type, int keyId, long value )
+   {
+      final long time = TimeUtils.microTime();
+
+      final Segment current = segment;
+      final long offset =
+         current.nextOffset.getAndAdd( FlightRecordFormat.recordSize );
+      if ( ( offset + FlightRecordFormat.recordSize ) > segmentSize )
+      {
+         // Filled before the next one could be started
+         if ( droppedCount.getAndIncrement() == 0 )
+         {
+            logger.warn( "recording segment is full; dropping until the next" );
+         }
+         LockSupport.unpark( writer );
+         return;
+      }
+
+      final MappedByteBuffer buffer = current.buffer;
+      final int base = (int) offset;
+      buffer.putInt( base + FlightRecordFormat.keyIdOffset, keyId );
+      buffer.putLong( base + FlightRecordFormat.timeOffset, time );
+      buffer.putLong( base + FlightRecordFormat.valueOffset, value );
+      // Type last, so a partly written record reads as unused
+      buffer.putShort( base + FlightRecordFormat.typeOffset, type );
+   }
+
+
+   private int getKeyId( String key )
+   {
+      final Integer id = keyIds.get( key );
+      if ( id != null )
+      {
+         return id.intValue();
+      }
+      return define( keyIds, FlightRecordFormat.keyPrefix, key );
+   }
+
+
+   private int getStringId( String value )
+   {
+      final String safeValue = ( value == null ) ? "" : value;
+      final Integer id = stringIds.get( safeValue );
+      if ( id != null )
+      {
+         return id.intValue();
+      }
+      return define( stringIds, FlightRecordFormat.stringPrefix, safeValue );
+   }
+
+
+   /**
+    * Assigns the next id to the name, and writes the definition to the keys
+    * file (only happens the first time a name is seen).
+    **/
+   private synchronized int define( ConcurrentHashMap< String, Integer > ids,
+      String prefix, String name )
+   {
+      final Integer existing = ids.get( name );
+      if ( existing != null )
+      {
+         return existing.intValue();
+      }
+
+      final int id = ids.size();
+      try
+      {
+         // Line breaks would break the file; names shouldn't have them anyway
+         keysWriter.write( prefix + "," + id + ","
+            + name.replace( '\n', ' ' ).replace( '\r', ' ' ) + "\n" );
+         keysWriter.flush();
+      }
+      catch ( final IOException ex )
+      {
+         logger.error( "failed to write definition of {}", name, ex );
+      }
+      ids.put( name, Integer.valueOf( id ) );
+      return id;
+   }
+
+}
@@ -0,0 +1,350 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.riolog;
+
+
+import org.slf4j.Logger;
+
+
+/**
+ * Logging of primitive (<code>double</code>, <code>long</code> and
+ * <code>boolean</code>) arguments, for the control loops; e.g.:
+ *
+ * <pre>
+ * PrimitiveLog.trace( logger, "setMotorSpeed = {}", speed );
+ * </pre>
+ *
+ * The level is checked before the arguments are touched; so nothing is boxed
+ * when it is off. When it is on, the arguments go into an event allocated up
+ * front by the log writer, which formats them on its own thread; so the
+ * caller doesn't allocate anything either way.
+ * <p>
+ * Events go straight to the shared sinks (see <code>RioLogger</code>), and
+ * are dropped if the writer can't keep up.
+ *
+ * @author first.stu
+ **/
+public final class PrimitiveLog
+{
+
+   private static final ch.qos.logback.classic.Level traceLevel =
+      ch.qos.logback.classic.Level.TRACE;
+   private static final ch.qos.logback.classic.Level debugLevel =
+      ch.qos.logback.classic.Level.DEBUG;
+
+
+   private PrimitiveLog()
+   {
+   }
+
+
+   /**
+    * @return event to fill in, or null if it has to be dropped
+    **/
+   private static PrimitiveLogEvent start( Logger logger,
+      ch.qos.logback.classic.Level level, String format )
+   {
+      final PrimitiveLogEvent event =
+         RioLogger.getLogAppender().claimPrimitive( level );
+      if ( event != null )
+      {
+         event.start( level, logger.getName(), format );
+      }
+      return event;
+   }
+
+
+   private static void publish( PrimitiveLogEvent event )
+   {
+      RioLogger.getLogAppender().publish( event );
+   }
+
+
+   public static void trace( Logger logger, String format, double arg )
+   {
+      if ( logger.isTraceEnabled() )
+      {
+         final PrimitiveLogEvent event = start( logger, traceLevel, format );
+         if ( event != null )
+         {
+            event.addDouble( arg );
+            publish( event );
+         }
+      }
+   }
+
+
+   public static void trace( Logger logger, String format, long arg )
+   {
+      if ( logger.isTraceEnabled() )
+      {
+         final PrimitiveLogEvent event = start( logger, traceLevel, format );
+         if ( event != null )
+         {
+            event.addLong( arg );
+            publish( event );
+         }
+      }
+   }
+
+
+   public static void trace( Logger logger, String format, boolean arg )
+   {
+      if ( logger.isTraceEnabled() )
+      {
+         final PrimitiveLogEvent event = start( logger, traceLevel, format );
+         if ( event != null )
+         {
+            event.addBoolean( arg );
+            publish( event );
+         }
+      }
+   }
+
+
+   public static void trace( Logger logger, String format,
+      double arg1, double arg2 )
+   {
+      if ( logger.isTraceEnabled() )
+      {
+         final PrimitiveLogEvent event = start( logger, traceLevel, format );
+         if ( event != null )
+         {
+            event.addDouble( arg1 );
+            event.addDouble( arg2 );
+            publish( event );
+         }
+      }
+   }
+
+
+   public static void trace( Logger logger, String format,
+      double arg1, long arg2 )
+   {
+      if ( logger.isTraceEnabled() )
+      {
+         final PrimitiveLogEvent event = start( logger, traceLevel, format );
+         if ( event != null )
+         {
+            event.addDouble( arg1 );
+            event.addLong( arg2 );
+            publish( event );
+         }
+      }
+   }
+
+
+   public static void trace( Logger logger, String format,
+      boolean arg1, boolean arg2 )
+   {
+      if ( logger.isTraceEnabled() )
+      {
+         final PrimitiveLogEvent event = start( logger, traceLevel, format );
+         if ( event != null )
+         {
+            event.addBoolean( arg1 );
+            event.addBoolean( arg2 );
+            publish( event );
+         }
+      }
+   }
+
+
+   public static void trace( Logger logger, String format,
+      double arg1, double arg2, double arg3 )
+   {
+      if ( logger.isTraceEnabled() )
+      {
+         final PrimitiveLogEvent event = start( logger, traceLevel, format );
+         if ( event != null )
+         {
+            event.addDouble( arg1 );
+            event.addDouble( arg2 );
+            event.addDouble( arg3 );
+            publish( event );
+         }
+      }
+   }
+
+
+   public static void trace( Logger logger, String format,
+      double arg1, double arg2, boolean arg3 )
+   {
+      if ( logger.isTraceEnabled() )
+      {
+         final PrimitiveLogEvent event = start( logger, traceLevel, format );
+         if ( event != null )
+         {
+            event.addDouble( arg1 );
+            event.addDouble( arg2 );
+            event.addBoolean( arg3 );
+            publish( event );
+         }
+      }
+   }
+
+
+   public static void trace( Logger logger, String format,
+      boolean arg1, boolean arg2, boolean arg3 )
+   {
+      if ( logger.isTraceEnabled() )
+      {
+         final PrimitiveLogEvent event = start( logger, traceLevel, format );
+         if ( event != null )
+         {
+            event.addBoolean( arg1 );
+            event.addBoolean( arg2 );
+            event.addBoolean( arg3 );
+            publish( event );
+         }
+      }
+   }
+
+
+   public static void debug( Logger logger, String format, double arg )
+   {
+      if ( logger.isDebugEnabled() )
+      {
+         final PrimitiveLogEvent event = start( logger, debugLevel, format );
+         if ( event != null )
+         {
+            event.addDouble( arg );
+            publish( event );
+         }
+      }
+   }
+
+
+   public static void debug( Logger logger, String format, long arg )
+   {
+      if ( logger.isDebugEnabled() )
+      {
+         final PrimitiveLogEvent event = start( logger, debugLevel, format );
+         if ( event != null )
+         {
+            event.addLong( arg );
+            publish( event );
+         }
+      }
+   }
+
+
+   public static void debug( Logger logger, String format, boolean arg )
+   {
+      if ( logger.isDebugEnabled() )
+      {
+         final PrimitiveLogEvent event = start( logger, debugLevel, format );
+         if ( event != null )
+         {
+            event.addBoolean( arg );
+            publish( event );
+         }
+      }
+   }
+
+
+   public static void debug( Logger logger, String format,
+      double arg1, double arg2 )
+   {
+      if ( logger.isDebugEnabled() )
+      {
+         final PrimitiveLogEvent event = start( logger, debugLevel, format );
+         if ( event != null )
+         {
+            event.addDouble( arg1 );
+            event.addDouble( arg2 );
+            publish( event );
+         }
+      }
+   }
+
+
+   public static void debug( Logger logger, String format,
+      double arg1, long arg2 )
+   {
+      if ( logger.isDebugEnabled() )
+      {
+         final PrimitiveLogEvent event = start( logger, debugLevel, format );
+         if ( event != null )
+         {
+            event.addDouble( arg1 );
+            event.addLong( arg2 );
+            publish( event );
+         }
+      }
+   }
+
+
+   public static void debug( Logger logger, String format,
+      boolean arg1, boolean arg2 )
+   {
+      if ( logger.isDebugEnabled() )
+      {
+         final PrimitiveLogEvent event = start( logger, debugLevel, format );
+         if ( event != null )
+         {
+            event.addBoolean( arg1 );
+            event.addBoolean( arg2 );
+            publish( event );
+         }
+      }
+   }
+
+
+   public static void debug( Logger logger, String format,
+      double arg1, double arg2, double arg3 )
+   {
+      if ( logger.isDebugEnabled() )
+      {
+         final PrimitiveLogEvent event = start( logger, debugLevel, format );
+         if ( event != null )
+         {
+            event.addDouble( arg1 );
+            event.addDouble( arg2 );
+            event.addDouble( arg3 );
+            publish( event );
+         }
+      }
+   }
+
+
+   public static void debug( Logger logger, String format,
+      double arg1, double arg2, boolean arg3 )
+   {
+      if ( logger.isDebugEnabled() )
+      {
+         final PrimitiveLogEvent event = start( logger, debugLevel, format );
+         if ( event != null )
+         {
+            event.addDouble( arg1 );
+            event.addDouble( arg2 );
+            event.addBoolean( arg3 );
+            publish( event );
+         }
+      }
+   }
+
+
+   public static void debug( Logger logger, String format,
+      boolean arg1, boolean arg2, boolean arg3 )
+   {
+      if ( logger.isDebugEnabled() )
+      {
+         final PrimitiveLogEvent event = start( logger, debugLevel, format );
+         if ( event != null )
+         {
+            event.addBoolean( arg1 );
+            event.addBoolean( arg2 );
+            event.addBoolean( arg3 );
+            publish( event );
+         }
+      }
+   }
+
+}
@@ -0,0 +1,243 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.riolog;
+
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.slf4j.Marker;
+import org.slf4j.helpers.MessageFormatter;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.CallerData;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.LoggerContextVO;
+
+
+/**
+ * Reusable logging event with primitive arguments, for
+ * <code>PrimitiveLog</code>. There is one per slot of the
+ * <code>AsyncLogAppender</code> ring, allocated up front; the logging thread
+ * fills it in (no boxing), and the writer thread formats it.
+ *
+ * @author first.stu
+ **/
+final class PrimitiveLogEvent
+   implements ILoggingEvent
+{
+
+   /** Most arguments an event holds **/
+   static final int maxArgs = 3;
+
+   /** Kinds of argument **/
+   private static final byte doubleArg = 1;
+   private static final byte longArg = 2;
+   private static final byte booleanArg = 3;
+
+   /** Context of the loggers (for layouts that want it) **/
+   private final LoggerContextVO contextVO;
+
+   /** Position in the ring this was claimed for **/
+   long position;
+
+   private Level level;
+   private String loggerName;
+   private String threadName;
+   private String message;
+   private long timeStamp;
+
+   /** Arguments; the raw bits of doubles, and 0 / 1 for booleans **/
+   private final byte[] argKinds;
+   private final long[] argValues;
+   private int argCount;
+
+   /** Formatted message (only used by the writer thread) **/
+   private String formattedMessage;
+
+
+   PrimitiveLogEvent( LoggerContextVO contextVO )
+   {
+      this.contextVO = contextVO;
+
+      argKinds = new byte[ maxArgs ];
+      argValues = new long[ maxArgs ];
+   }
+
+
+   /**
+    * Starts filling in the event for a new message (on the logging thread).
+    **/
+   void start( Level level, String loggerName, String message )
+   {
+      this.level = level;
+      this.loggerName = loggerName;
+      this.message = message;
+      threadName = Thread.currentThread().getName();
+      timeStamp = System.currentTimeMillis();
+
+      argCount = 0;
+      formattedMessage = null;
+   }
+
+
+   void addDouble( double value )
+   {
+      addArg( doubleArg, Double.doubleToRawLongBits( value ) );
+   }
+
+
+   void addLong( long value )
+   {
+      addArg( longArg, value );
+   }
+
+
+   void addBoolean( boolean value )
+   {
+      addArg( booleanArg, value ? 1 : 0 );
+   }
+
+
+   private void addArg( byte kind, long value )
+   {
+      argKinds[ argCount ] = kind;
+      argValues[ argCount ] = value;
+      argCount++;
+   }
+
+
+   @Override
+   public String getThreadName()
+   {
+      return threadName;
+   }
+
+
+   @Override
+   public Level getLevel()
+   {
+      return level;
+   }
+
+
+   @Override
+   public String getMessage()
+   {
+      return message;
+   }
+
+
+   @Override
+   public Object[] getArgumentArray()
+   {
+      final Object[] args = new Object[ argCount ];
+      for ( int i = 0; i < argCount; i++ )
+      {
+         switch ( argKinds[ i ] )
+         {
+         case doubleArg:
+            args[ i ] = Double.longBitsToDouble( argValues[ i ] );
+            break;
+         case booleanArg:
+            args[ i ] = ( argValues[ i ] != 0 );
+            break;
+         default:
+            args[ i ] = argValues[ i ];
+            break;
+         }
+      }
+      return args;
+   }
+
+
+   @Override
+   public String getFormattedMessage()
+   {
+      if ( formattedMessage == null )
+      {
+         formattedMessage = MessageFormatter
+            .arrayFormat( message, getArgumentArray() ).getMessage();
+      }
+      return formattedMessage;
+   }
+
+
+   @Override
+   public String getLoggerName()
+   {
+      return loggerName;
+   }
+
+
+   @Override
+   public LoggerContextVO getLoggerContextVO()
+   {
+      return contextVO;
+   }
+
+
+   @Override
+   public IThrowableProxy getThrowableProxy()
+   {
+      return null;
+   }
+
+
+   @Override
+   public StackTraceElement[] getCallerData()
+   {
+      return CallerData.EMPTY_CALLER_DATA_ARRAY;
+   }
+
+
+   @Override
+   public boolean hasCallerData()
+   {
+      return false;
+   }
+
+
+   @Override
+   public Marker getMarker()
+   {
+      return null;
+   }
+
+
+   @Override
+   public Map< String, String > getMDCPropertyMap()
+   {
+      return Collections.emptyMap();
+   }
+
+
+   @Override
+   @Deprecated
+   public Map< String, String > getMdc()
+   {
+      return getMDCPropertyMap();
+   }
+
+
+   @Override
+   public long getTimeStamp()
+   {
+      return timeStamp;
+   }
+
+
+   @Override
+   public void prepareForDeferredProcessing()
+   {
+      // Everything is already captured
+   }
+
+}
@@ -10,6 +10,8 @@ package com.powerknights.frc2016.riolog;
 
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,11 +19,20 @@ import org.slf4j.LoggerFactory;
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
 import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
 import ch.qos.logback.core.ConsoleAppender;
 import ch.qos.logback.core.FileAppender;
 
 
 /**
+ * Creates the loggers for the robot code. Everything goes to the console;
+ * and, if there is a USB stick with a log directory, to a new log file on it.
+ * There is only one of each of these sinks, behind a single appender on the
+ * root logger that all the loggers share. It writes them on its own thread
+ * (see <code>AsyncLogAppender</code>), and drops events (TRACE first) rather
+ * than making the code logging them wait. <code>PrimitiveLog</code> logs
+ * primitive arguments without boxing them.
+ *
  * @author first.stu
  **/
 public class RioLogger
@@ -34,6 +45,32 @@ public class RioLogger
    private static final String logFile;
    private static final boolean useLogFile;
 
+   /** Size of the ring of events waiting to be written to the log file **/
+   private static final int logQueueSize = 1024;
+   /** Free slots in the ring kept for DEBUG and above **/
+   private static final int logQueueReserve = 256;
+
+   /**
+    * Whether to log the line number each event came from. Finding it means
+    * building a stack trace for every event (even ones dropped later); so it
+    * is off, and the (cached) abbreviated logger name says where it's from.
+    **/
+   private static final boolean logCallerLine = false;
+
+   /** Layout of each line with the caller line (costly) **/
+   static final String callerLinePattern =
+      "%date{HH:mm:ss.SSS} %level [%thread] %logger{10}[%line] %msg%n";
+   /** Layout of each line without caller data **/
+   static final String shortLoggerPattern =
+      "%date{HH:mm:ss.SSS} %level [%thread] %shortLogger{10} %msg%n";
+
+   /** Layout of each line logged (to both console and file) **/
+   private static final String logPattern =
+      logCallerLine ? callerLinePattern : shortLoggerPattern;
+
+   /** Writes to the console and log file (on its own thread) **/
+   private static final AsyncLogAppender logAppender;
+
 
    static
    {
@@ -65,64 +102,172 @@ public class RioLogger
       {
          logFile = "";
       }
-   }
-
-
-   public static Logger getLogger( String loggerName )
-   {
-      final ch.qos.logback.classic.Logger logger =
-         (ch.qos.logback.classic.Logger) LoggerFactory.getLogger( loggerName );
 
+      /*
+       * One of each sink for the whole context, on the root logger; so every
+       * logger shares them (loggers are additive)
+       */
       final LoggerContext lc =
          (LoggerContext) LoggerFactory.getILoggerFactory();
+      final ch.qos.logback.classic.Logger rootLogger =
+         lc.getLogger( Logger.ROOT_LOGGER_NAME );
+      // Get rid of the default configuration's console appender
+      rootLogger.detachAndStopAllAppenders();
 
-      /*
-       * Can't share encoders, so each appender needs to have it's own
-       */
+      ShortLoggerConverter.register( lc );
+
+      logAppender = createLogAppender( lc );
+      rootLogger.addAppender( logAppender );
+   }
 
-      {
-         final PatternLayoutEncoder ple = new PatternLayoutEncoder();
-         ple.setPattern(
-            "%date{HH:mm:ss.SSS} %level [%thread] %logger{10}[%line] %msg%n" );
-         ple.setContext( lc );
-         ple.start();
-
-         final ConsoleAppender< ILoggingEvent > consoleAppender =
-            new ConsoleAppender< ILoggingEvent >();
-         consoleAppender.setEncoder( ple );
-         consoleAppender.setContext( lc );
-         consoleAppender.start();
-         //
-         logger.addAppender( consoleAppender );
-      }
 
+   /**
+    * Creates the one appender shared by all the loggers, which writes to the
+    * console and log file on its own thread; so logging doesn't wait on the
+    * USB stick (or console).
+    **/
+   private static AsyncLogAppender createLogAppender( LoggerContext lc )
+   {
+      // If the pattern has the line, the caller has to be found when logged
+      final List< Appender< ILoggingEvent > > sinks =
+         new ArrayList< Appender< ILoggingEvent > >();
+      sinks.add( createConsoleAppender( lc ) );
       if ( useLogFile )
       {
-         final PatternLayoutEncoder ple = new PatternLayoutEncoder();
-         ple.setPattern(
-            "%date{HH:mm:ss.SSS} %level [%thread] %logger{10}[%line] %msg%n" );
-         ple.setContext( lc );
-         ple.start();
-
-         final FileAppender< ILoggingEvent > fileAppender =
-            new FileAppender< ILoggingEvent >();
-         fileAppender.setFile( logFile );
-         fileAppender.setEncoder( ple );
-         fileAppender.setContext( lc );
-         fileAppender.setAppend( true );
-         fileAppender.start();
-         //
-         logger.addAppender( fileAppender );
+         sinks.add( createFileAppender( lc ) );
       }
+      final AsyncLogAppender asyncAppender =
+         new AsyncLogAppender( logQueueSize, logCallerLine, sinks );
+      asyncAppender.setDiscardPolicy( Level.TRACE, logQueueReserve );
+      asyncAppender.setContext( lc );
+      asyncAppender.start();
+
+      // Get what is still queued out on the way down
+      Runtime.getRuntime().addShutdownHook( new Thread( new Runnable()
+      {
+
+         @Override
+         public void run()
+         {
+            asyncAppender.stop();
+         }
+      }, "Log Flusher" ) );
+
+      return asyncAppender;
+   }
+
+
+   /**
+    * Creates the one appender to the console, shared by all the loggers.
+    **/
+   private static ConsoleAppender< ILoggingEvent > createConsoleAppender(
+      LoggerContext lc )
+   {
+      // Can't share encoders, so each appender needs to have it's own
+      final PatternLayoutEncoder ple = new PatternLayoutEncoder();
+      ple.setPattern( logPattern );
+      ple.setContext( lc );
+      // Writer thread flushes after each batch
+      ple.setImmediateFlush( false );
+      ple.start();
+
+      final ConsoleAppender< ILoggingEvent > appender =
+         new ConsoleAppender< ILoggingEvent >();
+      appender.setEncoder( ple );
+      appender.setContext( lc );
+      appender.start();
+
+      return appender;
+   }
+
+
+   /**
+    * Creates the one appender to the log file, shared by all the loggers; so
+    * there is a single writer (and file handle).
+    **/
+   private static FileAppender< ILoggingEvent > createFileAppender(
+      LoggerContext lc )
+   {
+      final PatternLayoutEncoder ple = new PatternLayoutEncoder();
+      ple.setPattern( logPattern );
+      ple.setContext( lc );
+      // Writer thread flushes after each batch
+      ple.setImmediateFlush( false );
+      ple.start();
+
+      final FileAppender< ILoggingEvent > fileAppender =
+         new FileAppender< ILoggingEvent >();
+      fileAppender.setFile( logFile );
+      fileAppender.setEncoder( ple );
+      fileAppender.setContext( lc );
+      fileAppender.setAppend( true );
+      fileAppender.start();
+
+      return fileAppender;
+   }
+
+
+   public static Logger getLogger( String loggerName )
+   {
+      final ch.qos.logback.classic.Logger logger =
+         (ch.qos.logback.classic.Logger) LoggerFactory.getLogger( loggerName );
+
+      // Writes go to the sinks on the root logger (set up once, above)
 
       // LOGGER - Setting of default level (DEBUG)
       logger.setLevel( Level.DEBUG.level );
-      logger.setAdditive( false ); /* set to true if root should log too */
 
       return logger;
    }
 
 
+   /**
+    * @return whether the log directory exists (and files are written to it)
+    **/
+   public static boolean useLogFiles()
+   {
+      return useLogFile;
+   }
+
+
+   /**
+    * @return directory the log files are written to
+    **/
+   public static String getLogDirectory()
+   {
+      return logMountPoint + logDirName;
+   }
+
+
+   /**
+    * @return how many events of the level were dropped (not written out)
+    *         because the writer couldn't keep up
+    **/
+   public static long getDroppedCount( Level level )
+   {
+      return logAppender.getDroppedCount( level );
+   }
+
+
+   /**
+    * @return how many events were dropped (not written out) because the
+    *         writer couldn't keep up
+    **/
+   public static long getDroppedCount()
+   {
+      return logAppender.getDroppedCount();
+   }
+
+
+   /**
+    * @return the appender all the loggers write through
+    **/
+   static AsyncLogAppender getLogAppender()
+   {
+      return logAppender;
+   }
+
+
    public static void setLevel( Logger logger, Level level )
    {
       ( (ch.qos.logback.classic.Logger) logger ).setLevel( level.level );
@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.riolog;
+
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import ch.qos.logback.classic.pattern.Abbreviator;
+import ch.qos.logback.classic.pattern.ClassicConverter;
+import ch.qos.logback.classic.pattern.TargetLengthBasedClassNameAbbreviator;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Context;
+import ch.qos.logback.core.CoreConstants;
+
+
+/**
+ * Layout converter (<code>%shortLogger{length}</code>) for the logger name,
+ * abbreviated the same as <code>%logger{length}</code>; but the abbreviation
+ * is worked out once per logger and cached, instead of on every event. It is
+ * what tells where a line came from, now that the (costly) caller data
+ * isn't used.
+ *
+ * @author first.stu
+ **/
+public class ShortLoggerConverter
+   extends ClassicConverter
+{
+
+   /** Conversion word used in the pattern **/
+   static final String conversionWord = "shortLogger";
+
+   /** Abbreviations already worked out, by logger name **/
+   private final ConcurrentHashMap< String, String > names =
+      new ConcurrentHashMap< String, String >();
+
+   /** Abbreviator, or null if the names are used as is **/
+   private Abbreviator abbreviator;
+
+
+   /**
+    * Makes the conversion word known to the layouts created in the context
+    * (must be called before they are started).
+    **/
+   static synchronized void register( Context context )
+   {
+      @SuppressWarnings( "unchecked" )
+      Map< String, String > registry = (Map< String, String >) context
+         .getObject( CoreConstants.PATTERN_RULE_REGISTRY );
+      if ( registry == null )
+      {
+         registry = new HashMap< String, String >();
+         context.putObject( CoreConstants.PATTERN_RULE_REGISTRY, registry );
+      }
+      registry.put( conversionWord, ShortLoggerConverter.class.getName() );
+   }
+
+
+   @Override
+   public void start()
+   {
+      final String option = getFirstOption();
+      if ( option != null )
+      {
+         try
+         {
+            final int length = Integer.parseInt( option );
+            if ( length > 0 )
+            {
+               abbreviator =
+                  new TargetLengthBasedClassNameAbbreviator( length );
+            }
+         }
+         catch ( final NumberFormatException ex )
+         {
+            addError( "bad length \"" + option + "\" for shortLogger", ex );
+         }
+      }
+      super.start();
+   }
+
+
+   @Override
+   public String convert( ILoggingEvent event )
+   {
+      final String loggerName = event.getLoggerName();
+      if ( abbreviator == null )
+      {
+         return loggerName;
+      }
+
+      final String name = names.get( loggerName );
+      if ( name != null )
+      {
+         return name;
+      }
+      final String abbreviated = abbreviator.abbreviate( loggerName );
+      names.put( loggerName, abbreviated );
+      return abbreviated;
+   }
+
+}
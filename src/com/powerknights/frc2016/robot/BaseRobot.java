@@ -9,13 +9,21 @@
 package com.powerknights.frc2016.robot;
 
 
+import java.io.IOException;
+
 import org.slf4j.Logger;
 
+import com.powerknights.frc2016.riolog.FlightRecorder;
 import com.powerknights.frc2016.riolog.RioLogger;
 import com.powerknights.frc2016.robot.config.SubsystemsConfig;
+import com.powerknights.frc2016.robot.controllers.DriverController;
 import com.powerknights.frc2016.robot.controllers.HistoryCollector;
 import com.powerknights.frc2016.robot.controllers.MatchTimeUpdater;
+import com.powerknights.frc2016.robot.controllers.OperatorController;
+import com.powerknights.frc2016.robot.controllers.RateGroupExecutor;
 import com.powerknights.frc2016.robot.controllers.SensorUpdater;
+import com.powerknights.frc2016.robot.controllers.StallWatchdog;
+import com.powerknights.frc2016.robot.controllers.TelemetryPublisher;
 import com.powerknights.frc2016.robot.managers.DashboardManager;
 import com.powerknights.frc2016.robot.managers.DriverStationManager;
 import com.powerknights.frc2016.robot.managers.LCDManager;
@@ -24,12 +32,15 @@ import com.powerknights.frc2016.robot.managers.PreferencesManager;
 import com.powerknights.frc2016.robot.managers.RobotManager;
 import com.powerknights.frc2016.robot.managers.SmartDashboardManager;
 import com.powerknights.frc2016.robot.modes.ModeImplementer;
+import com.powerknights.frc2016.robot.ophmi.HidRecorder;
+import com.powerknights.frc2016.robot.ophmi.HidReplayer;
 import com.powerknights.frc2016.robot.subsystems.Chassis;
 import com.powerknights.frc2016.robot.subsystems.DriveTrain;
 import com.powerknights.frc2016.robot.subsystems.HMIControllers;
 import com.powerknights.frc2016.robot.subsystems.Lifter;
 import com.powerknights.frc2016.robot.subsystems.Shooter;
 import com.powerknights.frc2016.robot.vision.NetworkTablesVision;
+import com.powerknights.frc2016.robot.vision.UdpVision;
 
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.SampleRobot;
@@ -179,6 +190,9 @@ abstract class BaseRobot
        */
       smartDashboard.putTimeout( false, "" );
 
+      // Everything has registered its telemetry by now
+      smartDashboard.logKeys();
+
       logger.info( "initialized" );
    }
 
@@ -202,9 +216,22 @@ abstract class BaseRobot
       // LCD Display on Driver Station
       LCDManager.constructInstance();
 
+      // Flight Recorder on Robot (of everything sent to Smart Dashboard)
+      FlightRecorder.constructInstance(
+         PreferencesManager.getInstance().useFlightRecorder() );
+
       // Smart Dashboard on Laptop
       SmartDashboardManager.constructInstance();
 
+      // Publisher of the values put to Smart Dashboard (started right away,
+      // so the values put during start up get out)
+      TelemetryPublisher.constructInstance();
+      TelemetryPublisher.getInstance().start();
+
+      // HID Recorder on Robot (of all the gamepad inputs)
+      HidRecorder.constructInstance(
+         PreferencesManager.getInstance().useHidRecorder() );
+
       // Live Window on Laptop
       LiveWindowManager.constructInstance();
 
@@ -246,6 +273,12 @@ abstract class BaseRobot
             logger.info( "running vision and using NetworkTables" );
             NetworkTablesVision.constructInstance();
          }
+         else if ( PreferencesManager.getInstance().useUdpVision() )
+         {
+            logger.info( "running vision and using UDP" );
+            UdpVision.constructInstance(
+               PreferencesManager.getInstance().getUdpVisionPort() );
+         }
       }
       else
       {
@@ -274,6 +307,12 @@ abstract class BaseRobot
       // History
       HistoryCollector.constructInstance();
 
+      // Single thread executor (if enabled in preferences)
+      RateGroupExecutor.constructInstance();
+
+      // Watchdog for stalled controllers
+      StallWatchdog.constructInstance();
+
       logger.info( "constructed" );
    }
 
@@ -392,6 +431,10 @@ abstract class BaseRobot
       lcdManager.appendSubsystem( 'H' );
       smartDashboard.putBoolean( "HMI", true );
 
+      // Driver & Operator (created once; paused until teleoperated)
+      DriverController.constructInstance();
+      OperatorController.constructInstance();
+
       logger.info( "initialized" );
    }
 
@@ -400,6 +443,37 @@ abstract class BaseRobot
    {
       logger.info( "starting" );
 
+      final StallWatchdog watchdog = StallWatchdog.getInstance();
+
+      // Telemetry Publisher is already running (on its own thread)
+      watchdog.watch( TelemetryPublisher.getInstance() );
+
+      // Driver & Operator don't run until a mode resumes them
+      DriverController.getInstance().pauseWork();
+      OperatorController.getInstance().pauseWork();
+
+      final RateGroupExecutor executor = RateGroupExecutor.getInstance();
+      if ( executor.isEnabled() )
+      {
+         logger.info( "running controllers on rate group executor" );
+
+         // Order added is order run within a rate group
+         executor.addController( MatchTimeUpdater.getInstance() );
+         executor.addController( SensorUpdater.getInstance() );
+         executor.addController( HistoryCollector.getInstance() );
+         // Driver input is processed before operator input
+         executor.addController( DriverController.getInstance() );
+         executor.addController( OperatorController.getInstance() );
+
+         executor.start();
+
+         watchdog.watch( executor );
+         watchdog.start();
+
+         logger.info( "started" );
+         return;
+      }
+
       // Dashboard Updater
       // DashboardUpdater.getInstance( ).start( );
 
@@ -412,6 +486,18 @@ abstract class BaseRobot
       // History
       HistoryCollector.getInstance().start();
 
+      // Driver & Operator
+      DriverController.getInstance().start();
+      OperatorController.getInstance().start();
+
+      // Watchdog (watches all the others; not itself)
+      watchdog.watch( MatchTimeUpdater.getInstance() );
+      watchdog.watch( SensorUpdater.getInstance() );
+      watchdog.watch( HistoryCollector.getInstance() );
+      watchdog.watch( DriverController.getInstance() );
+      watchdog.watch( OperatorController.getInstance() );
+      watchdog.start();
+
       logger.info( "started" );
    }
 
@@ -426,16 +512,81 @@ abstract class BaseRobot
    {
       logger.info( "entering" );
 
+      // Get the recording of the last mode onto the log drive (the robot may
+      // be turned off any time now), and start the disabled one
+      FlightRecorder.getInstance().startSegment( "disabled" );
+
       // Reset the driver station GUI
       lcdManager.reset();
 
       // Ensure all the subsystems are shut down
       resetSubsystems();
 
+      // Get the gamepad inputs of the last mode onto the log drive
+      HidRecorder.getInstance().flush();
+
       logger.info( "exiting" );
    }
 
 
+   /**
+    * Replays a gamepad recording through the gamepads, with their traces
+    * standing in for the actuators (so nothing moves, and nothing goes to the
+    * dashboard or flight recording). For test mode; the replay runs on a
+    * thread of its own, and is stopped if the mode is left before it is done.
+    *
+    * @param replayFile - recording to replay
+    **/
+   protected void replayHidRecording( final String replayFile )
+   {
+      final DriverController driver = DriverController.getInstance();
+      final OperatorController operator = OperatorController.getInstance();
+      if ( !driver.isPaused() || !operator.isPaused() )
+      {
+         logger.warn( "controllers running; not replaying {}", replayFile );
+         return;
+      }
+
+      final HidReplayer replayer =
+         new HidReplayer( driver.getGamepad(), operator.getGamepad() );
+      final Thread replayThread = new Thread( new Runnable()
+      {
+
+         @Override
+         public void run()
+         {
+            try
+            {
+               final long mismatches = replayer.replay( replayFile );
+               smartDashboard.putNumber( "hidReplayMismatches", mismatches );
+            }
+            catch ( final IOException ex )
+            {
+               logger.error( "failed to replay {}", replayFile, ex );
+            }
+         }
+      }, "HID Replay" );
+      replayThread.setDaemon( true );
+      replayThread.start();
+
+      while ( replayThread.isAlive() && isTest() && isEnabled() )
+      {
+         Timer.delay( 0.1 ); // wait just to break up busy loop
+      }
+      replayer.stop();
+      try
+      {
+         replayThread.join();
+      }
+      catch ( final InterruptedException ex )
+      {
+         Thread.currentThread().interrupt();
+      }
+
+      resetSubsystems();
+   }
+
+
    /*
     * (non-Javadoc)
     *
@@ -11,6 +11,7 @@ package com.powerknights.frc2016.robot;
 
 import org.slf4j.Logger;
 
+import com.powerknights.frc2016.riolog.FlightRecorder;
 import com.powerknights.frc2016.riolog.RioLogger;
 import com.powerknights.frc2016.robot.modes.autonomous.EmptyAutonomousMode;
 import com.powerknights.frc2016.robot.modes.autonomous.SimpleDriveForwardAutonomousMode;
@@ -65,6 +66,8 @@ public class Team501Robot
        */
       logger.info( "starting autonomous" );
 
+      FlightRecorder.getInstance().startSegment( "autonomous" );
+
       if ( autonomous == null )
       {
          initAutonomousMode();
@@ -118,6 +121,8 @@ public class Team501Robot
        */
       logger.info( "starting teleoperated" );
 
+      FlightRecorder.getInstance().startSegment( "teleoperated" );
+
       if ( teleoperated == null )
       {
          initTeleoperatedMode();
@@ -129,11 +134,9 @@ public class Team501Robot
       // Setup
       teleoperated.setUp();
 
-      // Do it all
+      // Do it all (controller threads are paused when it returns)
       teleoperated.runIt();
 
-      // FIXME - Does not stop the threads of controller / gamepads
-
       // Clean up
       teleoperated.cleanUp();
 
@@ -162,6 +165,21 @@ public class Team501Robot
    {
       logger.info( "starting test" );
 
+      FlightRecorder.getInstance().startSegment( "test" );
+
+      // A gamepad recording to replay takes the place of the elevation test
+      final String replayFile = prefsManager.getHidReplayFile();
+      if ( !replayFile.isEmpty() )
+      {
+         replayHidRecording( replayFile );
+         while ( isTest() && isEnabled() )
+         {
+            Timer.delay( 0.1 ); // wait just to break up busy loop
+         }
+         logger.info( "stopping test" );
+         return;
+      }
+
       boolean doHome = true;
       while ( isTest() && isEnabled() )
       {
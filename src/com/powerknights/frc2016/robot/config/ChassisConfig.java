@@ -9,6 +9,9 @@
 package com.powerknights.frc2016.robot.config;
 
 
+import edu.wpi.first.wpilibj.SPI;
+
+
 /**
  * first.stu
  **/
@@ -16,9 +19,34 @@ public class ChassisConfig
 {
 
    /*
-    * Gyro (??? Board)
+    * Gyro (navX MXP Board)
+    */
+   private static final SPI.Port navBoardPort = SPI.Port.kMXP;
+
+
+   public static SPI.Port getNavBoardPort()
+   {
+      return navBoardPort;
+   }
+
+   /*
+    * Aiming (at the tower, with vision)
     */
+   /** Off by less than this, the robot is aimed **/
+   private static final double aimTolerance = 1.0; // degrees
+   /** Speed of rotating in place to aim **/
+   private static final double aimSpeed = 0.35;
+
+
+   public static double getAimTolerance()
+   {
+      return aimTolerance;
+   }
+
 
-   // TODO - Implement Nav Board in Chassis for gyro
+   public static double getAimSpeed()
+   {
+      return aimSpeed;
+   }
 
 }
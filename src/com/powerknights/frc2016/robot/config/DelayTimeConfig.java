@@ -11,6 +11,10 @@
 package com.powerknights.frc2016.robot.config;
 
 
+import com.powerknights.frc2016.utils.LoopTiming;
+import com.powerknights.frc2016.utils.OverrunPolicy;
+
+
 /**
  * @author first.stu
  **/
@@ -22,12 +26,27 @@ public class DelayTimeConfig
     */
    public static final double minLoopPercent = 0.10; // 10%
 
+   /*
+    * How long before a deadline the PRECISE loop timing stops parking the
+    * thread and spins on the clock instead (usec)
+    */
+   private static final long spinWindow = 250;
+
+
+   public static long getSpinWindowUsec()
+   {
+      return spinWindow;
+   }
+
    // All delays are in msec; getters convert appropriately
 
    /*
     * Driver Update Rate (for driver changes)
     */
    private static final long driverController = 10; // 25
+   private static final LoopTiming driverControllerTiming = LoopTiming.PRECISE;
+   private static final OverrunPolicy driverControllerPolicy =
+      OverrunPolicy.SKIP_AHEAD;
 
 
    public static long getDriverControllerDelay()
@@ -41,10 +60,26 @@ public class DelayTimeConfig
       return driverController / 1000;
    }
 
+
+   public static LoopTiming getDriverControllerTiming()
+   {
+      return driverControllerTiming;
+   }
+
+
+   public static OverrunPolicy getDriverControllerOverrunPolicy()
+   {
+      return driverControllerPolicy;
+   }
+
    /*
     * Operator Update Rate (for operator changes)
     */
    private static final long operatorController = 10; // 25
+   private static final LoopTiming operatorControllerTiming =
+      LoopTiming.PRECISE;
+   private static final OverrunPolicy operatorControllerPolicy =
+      OverrunPolicy.SKIP_AHEAD;
 
 
    public static long getOperatorControllerDelay()
@@ -58,6 +93,18 @@ public class DelayTimeConfig
       return operatorController / 1000;
    }
 
+
+   public static LoopTiming getOperatorControllerTiming()
+   {
+      return operatorControllerTiming;
+   }
+
+
+   public static OverrunPolicy getOperatorControllerOverrunPolicy()
+   {
+      return operatorControllerPolicy;
+   }
+
    /*
     * Dashboard Update Rate (for triggering updates)
     */
@@ -76,9 +123,13 @@ public class DelayTimeConfig
    }
 
    /*
-    * Sensor Update Rate (for triggering updates)
+    * Sensor Update Rate (for triggering updates; the base tick, with each
+    * sensor sampled on a multiple of it)
     */
-   private static final long sensorUpdater = 200;
+   private static final long sensorUpdater = 20;
+   private static final LoopTiming sensorUpdaterTiming = LoopTiming.SLEEP;
+   private static final OverrunPolicy sensorUpdaterPolicy =
+      OverrunPolicy.CATCH_UP;
 
 
    public static long getSensorUpaterDelay()
@@ -92,10 +143,60 @@ public class DelayTimeConfig
       return sensorUpdater / 1000;
    }
 
+
+   public static LoopTiming getSensorUpdaterTiming()
+   {
+      return sensorUpdaterTiming;
+   }
+
+
+   public static OverrunPolicy getSensorUpdaterOverrunPolicy()
+   {
+      return sensorUpdaterPolicy;
+   }
+
+   /*
+    * Sensor Sample Rates (multiples of the sensor updater rate)
+    */
+   private static final long sensorSample = 200;
+   private static final long feederRotationSample = 20;
+   private static final long shooterElevationSample = 20;
+   private static final long robotHeadingSample = 20;
+
+
+   /**
+    * @return sample period for sensors that don't have their own (msec)
+    **/
+   public static long getSensorSampleDelay()
+   {
+      return sensorSample;
+   }
+
+
+   public static long getFeederRotationSampleDelay()
+   {
+      return feederRotationSample;
+   }
+
+
+   public static long getShooterElevationSampleDelay()
+   {
+      return shooterElevationSample;
+   }
+
+
+   public static long getRobotHeadingSampleDelay()
+   {
+      return robotHeadingSample;
+   }
+
    /*
     * Match Time Update Rate (for time count down)
     */
    private static final long matchTimeUpdater = 1000;
+   private static final LoopTiming matchTimeUpdaterTiming = LoopTiming.SLEEP;
+   private static final OverrunPolicy matchTimeUpdaterPolicy =
+      OverrunPolicy.SKIP_AHEAD;
 
 
    public static long getMatchTimeUpdaterDelay()
@@ -109,10 +210,26 @@ public class DelayTimeConfig
       return matchTimeUpdater / 1000;
    }
 
+
+   public static LoopTiming getMatchTimeUpdaterTiming()
+   {
+      return matchTimeUpdaterTiming;
+   }
+
+
+   public static OverrunPolicy getMatchTimeUpdaterOverrunPolicy()
+   {
+      return matchTimeUpdaterPolicy;
+   }
+
    /*
-    * History Collect Rate (for triggering collects)
+    * History Collect Rate (for triggering collects; fast enough to look back
+    * a fraction of a second)
     */
-   private static final long historyCollector = 200;
+   private static final long historyCollector = 20;
+   private static final LoopTiming historyCollectorTiming = LoopTiming.SLEEP;
+   private static final OverrunPolicy historyCollectorPolicy =
+      OverrunPolicy.CATCH_UP;
 
 
    public static long getHistoryCollectorDelay()
@@ -126,6 +243,166 @@ public class DelayTimeConfig
       return historyCollector / 1000;
    }
 
+
+   public static LoopTiming getHistoryCollectorTiming()
+   {
+      return historyCollectorTiming;
+   }
+
+
+   public static OverrunPolicy getHistoryCollectorOverrunPolicy()
+   {
+      return historyCollectorPolicy;
+   }
+
+   /*
+    * Rate Group Executor (single thread running all the controllers); the
+    * fast group is also the base tick of the executor
+    */
+   private static final long rateGroupFast = 10;
+   private static final long rateGroupMedium = 200;
+   private static final long rateGroupSlow = 1000;
+   private static final LoopTiming rateGroupExecutorTiming =
+      LoopTiming.PRECISE;
+   private static final OverrunPolicy rateGroupExecutorPolicy =
+      OverrunPolicy.SKIP_AHEAD;
+
+
+   public static long getRateGroupFastDelay()
+   {
+      return rateGroupFast;
+   }
+
+
+   public static long getRateGroupMediumDelay()
+   {
+      return rateGroupMedium;
+   }
+
+
+   public static long getRateGroupSlowDelay()
+   {
+      return rateGroupSlow;
+   }
+
+
+   public static LoopTiming getRateGroupExecutorTiming()
+   {
+      return rateGroupExecutorTiming;
+   }
+
+
+   public static OverrunPolicy getRateGroupExecutorOverrunPolicy()
+   {
+      return rateGroupExecutorPolicy;
+   }
+
+   /*
+    * Stall Watchdog Rate (for checking on the other threads)
+    */
+   private static final long stallWatchdog = 20;
+   /** How many multiples of its loop delay before a thread is stalled **/
+   private static final double stallBudgetMultiple = 3.0;
+   /** How many stalls are kept for looking at **/
+   private static final int stallRecordSize = 32;
+
+
+   public static long getStallWatchdogDelay()
+   {
+      return stallWatchdog;
+   }
+
+
+   public static double getStallBudgetMultiple()
+   {
+      return stallBudgetMultiple;
+   }
+
+
+   public static int getStallRecordSize()
+   {
+      return stallRecordSize;
+   }
+
+   /*
+    * Vision Latency (from frame capture to update arriving at the robot)
+    */
+   /** Used when the pipeline doesn't report its own latency **/
+   private static final long visionLatency = 100;
+   /** Capture and network time not seen by the pipeline's own latency **/
+   private static final long visionTransportLatency = 40;
+   /** Older than this, a vision update is too stale to aim with **/
+   private static final long visionMaxAge = 500;
+
+
+   public static long getVisionLatencyDelay()
+   {
+      return visionLatency;
+   }
+
+
+   public static long getVisionTransportLatencyDelay()
+   {
+      return visionTransportLatency;
+   }
+
+
+   /**
+    * @return age past which a vision update isn't used for aiming (msec)
+    **/
+   public static long getVisionMaxAgeDelay()
+   {
+      return visionMaxAge;
+   }
+
+   /*
+    * Telemetry Publisher Rate (how often dirty values go to the dashboard)
+    */
+   private static final long telemetryPublisher = 50;
+   private static final LoopTiming telemetryPublisherTiming = LoopTiming.SLEEP;
+   private static final OverrunPolicy telemetryPublisherPolicy =
+      OverrunPolicy.SKIP_AHEAD;
+
+
+   public static long getTelemetryPublisherDelay()
+   {
+      return telemetryPublisher;
+   }
+
+
+   public static LoopTiming getTelemetryPublisherTiming()
+   {
+      return telemetryPublisherTiming;
+   }
+
+
+   public static OverrunPolicy getTelemetryPublisherOverrunPolicy()
+   {
+      return telemetryPublisherPolicy;
+   }
+
+   /*
+    * Telemetry Refresh (unchanged values are re-sent this often)
+    */
+   private static final long telemetryRefresh = 1000;
+
+
+   public static long getTelemetryRefreshDelay()
+   {
+      return telemetryRefresh;
+   }
+
+   /*
+    * LCD Flush (changed lines go to the Driver Station at most this often)
+    */
+   private static final long lcdFlush = 200;
+
+
+   public static long getLCDFlushDelay()
+   {
+      return lcdFlush;
+   }
+
    /*
     * History Collection Size (I know it's not a time)
     */
@@ -18,6 +18,7 @@ import com.powerknights.frc2016.robot.config.DelayTimeConfig;
 import com.powerknights.frc2016.robot.config.hw.GamepadModels;
 import com.powerknights.frc2016.robot.managers.PreferencesManager;
 import com.powerknights.frc2016.robot.ophmi.DriverGamepad;
+import com.powerknights.frc2016.robot.ophmi.Gamepad;
 import com.powerknights.frc2016.robot.subsystems.HMIControllers;
 import com.powerknights.frc2016.utils.Controller;
 
@@ -35,16 +36,45 @@ public class DriverController
    private static final Logger logger =
       RioLogger.getLogger( DriverController.class.getName() );
 
-   /** Handle to driver gamepad **/
-   private final IHmiController pad;
+   /** Singleton instance of class for all to use **/
+   private static DriverController ourInstance;
 
 
    /**
-    * Constructs an instance of the driver controller
+    * Constructs the instance of the driver controller; done once at robot
+    * initialization, so the thread and gamepad are ready before the first mode
+    * starts.
     **/
-   public DriverController()
+   public static synchronized void constructInstance()
    {
-      super( "Driver Controller", DelayTimeConfig.getDriverControllerDelay() );
+      if ( ourInstance != null )
+      {
+         throw new IllegalStateException(
+            "DriverController Already Constructed" );
+      }
+      ourInstance = new DriverController();
+   }
+
+
+   public static DriverController getInstance()
+   {
+      if ( ourInstance == null )
+      {
+         throw new IllegalStateException(
+            "DriverController Not Constructed Yet" );
+      }
+      return ourInstance;
+   }
+
+   /** Handle to driver gamepad **/
+   private final Gamepad pad;
+
+
+   private DriverController()
+   {
+      super( "Driver Controller", DelayTimeConfig.getDriverControllerDelay(),
+         DelayTimeConfig.getDriverControllerTiming(),
+         DelayTimeConfig.getDriverControllerOverrunPolicy() );
 
       final PreferencesManager prefs = PreferencesManager.getInstance();
       final String controller = prefs.getDriverController();
@@ -77,15 +107,24 @@ public class DriverController
    }
 
 
+   /**
+    * @return driver gamepad (e.g., to replay recorded inputs through)
+    **/
+   public Gamepad getGamepad()
+   {
+      return pad;
+   }
+
+
    /*
     * (non-Javadoc)
     *
-    * @see com.powerknights.frc2014.utils.Controller#setUp()
+    * @see com.powerknights.frc2016.utils.StoppableThread#onResume()
     */
    @Override
-   public void setUp()
+   public void onResume()
    {
-      pad.initForModeStart();
+      pad.startMode();
    }
 
 
@@ -98,7 +137,7 @@ public class DriverController
    public boolean doIt()
    {
       // Look at current driver pad values and process them
-      pad.performUpdate();
+      pad.update();
 
       // Keep on going
       return false;
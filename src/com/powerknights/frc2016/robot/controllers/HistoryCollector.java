@@ -11,16 +11,24 @@
 package com.powerknights.frc2016.robot.controllers;
 
 
-import java.util.Vector;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.slf4j.Logger;
 
 import com.powerknights.frc2016.riolog.RioLogger;
 import com.powerknights.frc2016.robot.config.DelayTimeConfig;
 import com.powerknights.frc2016.utils.Controller;
+import com.powerknights.frc2016.utils.TimeSeries;
+import com.powerknights.frc2016.utils.TimeUtils;
 
 
 /**
+ * Keeps the recent history of signals for looking back in time (e.g., where
+ * the elevation was when a vision frame was taken). Each signal has a
+ * <code>TimeSeries</code> created here, which its collector adds a sample to
+ * every time it is collected.
+ *
  * @author first.stu
  **/
 public class HistoryCollector
@@ -34,15 +42,25 @@ public class HistoryCollector
    /** Singleton instance of class for all to use **/
    private static HistoryCollector ourInstance;
 
-   /** List of all the collectors to collect **/
-   private final Vector< IHistoryCollector > collectors;
+   /** All the collectors (replaced, never modified, on add / remove) **/
+   private volatile IHistoryCollector[] collectors;
+
+   /** All the signal histories, by name **/
+   private final Map< String, TimeSeries > histories;
+   /** How many samples each history keeps **/
+   private final int historySize;
 
 
    private HistoryCollector()
    {
-      super( "History Collector", DelayTimeConfig.getHistoryCollectorDelay() );
+      super( "History Collector", DelayTimeConfig.getHistoryCollectorDelay(),
+         DelayTimeConfig.getHistoryCollectorTiming(),
+         DelayTimeConfig.getHistoryCollectorOverrunPolicy() );
+
+      collectors = new IHistoryCollector[ 0 ];
 
-      collectors = new Vector< IHistoryCollector >();
+      histories = new HashMap< String, TimeSeries >();
+      historySize = DelayTimeConfig.getHistoryCollectionSize();
    }
 
 
@@ -68,15 +86,69 @@ public class HistoryCollector
    }
 
 
-   public void addCollector( IHistoryCollector collector )
+   /**
+    * Creates the history for a signal (sized from the configuration).
+    *
+    * @param name - name of the signal
+    * @return the history to add samples to
+    **/
+   public TimeSeries createHistory( String name )
    {
-      collectors.addElement( collector );
+      final TimeSeries history = new TimeSeries( name, historySize );
+      synchronized ( histories )
+      {
+         if ( histories.containsKey( name ) )
+         {
+            throw new IllegalStateException(
+               "History for " + name + " Already Created" );
+         }
+         histories.put( name, history );
+      }
+      return history;
    }
 
 
-   public void removeCollector( IHistoryCollector collector )
+   /**
+    * @param name - name of the signal
+    * @return the history of the signal, or <code>null</code> if none
+    **/
+   public TimeSeries getHistory( String name )
    {
-      collectors.removeElement( collector );
+      synchronized ( histories )
+      {
+         return histories.get( name );
+      }
+   }
+
+
+   public synchronized void addCollector( IHistoryCollector collector )
+   {
+      final IHistoryCollector[] oldCollectors = collectors;
+      final IHistoryCollector[] newCollectors =
+         new IHistoryCollector[ oldCollectors.length + 1 ];
+      System.arraycopy( oldCollectors, 0, newCollectors, 0,
+         oldCollectors.length );
+      newCollectors[ oldCollectors.length ] = collector;
+      collectors = newCollectors;
+   }
+
+
+   public synchronized void removeCollector( IHistoryCollector collector )
+   {
+      final IHistoryCollector[] oldCollectors = collectors;
+      for ( int i = 0; i < oldCollectors.length; i++ )
+      {
+         if ( oldCollectors[ i ] == collector )
+         {
+            final IHistoryCollector[] newCollectors =
+               new IHistoryCollector[ oldCollectors.length - 1 ];
+            System.arraycopy( oldCollectors, 0, newCollectors, 0, i );
+            System.arraycopy( oldCollectors, i + 1, newCollectors, i,
+               oldCollectors.length - i - 1 );
+            collectors = newCollectors;
+            return;
+         }
+      }
    }
 
 
@@ -88,17 +160,20 @@ public class HistoryCollector
    @Override
    public boolean doIt()
    {
-      for ( final IHistoryCollector collector : collectors )
+      // All the samples of a collection get the same time
+      final long now = TimeUtils.microTime();
+
+      final IHistoryCollector[] current = collectors;
+      for ( int i = 0; i < current.length; i++ )
       {
          try
          {
-            collector.collect();
+            current[ i ].collect( now );
          }
          catch ( final Exception ex )
          {
-            logger.error( "IHistoryCollector failed; removing from list" );
-            collectors.removeElement( collector );
-            break;
+            logger.error( "IHistoryCollector failed; removing from list", ex );
+            removeCollector( current[ i ] );
          }
       }
 
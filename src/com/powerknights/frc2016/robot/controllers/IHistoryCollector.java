@@ -17,6 +17,13 @@ package com.powerknights.frc2016.robot.controllers;
 public interface IHistoryCollector
 {
 
-   public void collect();
+   /**
+    * Adds a sample of the current value(s) to the history. Collectors of
+    * cached sensor samples add those (with their own sample time), and only
+    * when there is a new one.
+    *
+    * @param time - time of the collection (usec)
+    **/
+   public void collect( long time );
 
 }
@@ -19,4 +19,14 @@ public interface ISensorUpdater
 
    public void update();
 
+
+   /**
+    * Returns how often the sensor should be updated. It is rounded down to a
+    * multiple of the <code>SensorUpdater</code> rate. It is read when the
+    * sensor is added, which may be before the sensor is fully constructed.
+    *
+    * @return time between updates (msec)
+    **/
+   public long getSamplePeriod();
+
 }
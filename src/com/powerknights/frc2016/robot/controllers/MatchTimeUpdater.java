@@ -19,7 +19,6 @@ import com.powerknights.frc2016.robot.config.FRCConfig;
 import com.powerknights.frc2016.robot.managers.DriverStationManager;
 import com.powerknights.frc2016.robot.managers.LCDManager;
 import com.powerknights.frc2016.utils.Controller;
-import com.powerknights.frc2016.utils.StringUtils;
 
 import edu.wpi.first.wpilibj.DriverStation;
 
@@ -49,7 +48,9 @@ public class MatchTimeUpdater
 
    private MatchTimeUpdater()
    {
-      super( "MatchTime Updater", DelayTimeConfig.getMatchTimeUpdaterDelay() );
+      super( "MatchTime Updater", DelayTimeConfig.getMatchTimeUpdaterDelay(),
+         DelayTimeConfig.getMatchTimeUpdaterTiming(),
+         DelayTimeConfig.getMatchTimeUpdaterOverrunPolicy() );
 
       dsManager = DriverStationManager.getInstance();
       lcdManager = LCDManager.getInstance();
@@ -110,12 +111,13 @@ public class MatchTimeUpdater
          // Keep on going
          return false;
       }
-      double secondsLeft = secondsDuration - dsManager.getMatchTime();
-      // round down to handle update rate
-      secondsLeft -= 0.5;
+      final double secondsLeft = secondsDuration - dsManager.getMatchTime();
+      // Whole seconds, a second early to handle update rate (floored here,
+      // as the LCD rounds what it is given)
+      final double secondsShown = Math.max( 0, Math.floor( secondsLeft - 1 ) );
 
       // Send new data set to the LCDManager
-      lcdManager.setTime( StringUtils.format( ( secondsLeft - 0.5 ), 0 ) );
+      lcdManager.setTime( secondsShown );
 
       // Keep on going
       return false;
@@ -17,6 +17,7 @@ import com.powerknights.frc2016.riolog.RioLogger;
 import com.powerknights.frc2016.robot.config.DelayTimeConfig;
 import com.powerknights.frc2016.robot.config.hw.GamepadModels;
 import com.powerknights.frc2016.robot.managers.PreferencesManager;
+import com.powerknights.frc2016.robot.ophmi.Gamepad;
 import com.powerknights.frc2016.robot.ophmi.OperatorGamepad;
 import com.powerknights.frc2016.robot.subsystems.HMIControllers;
 import com.powerknights.frc2016.utils.Controller;
@@ -35,14 +36,46 @@ public class OperatorController
    private static final Logger logger =
       RioLogger.getLogger( OperatorController.class.getName() );
 
+   /** Singleton instance of class for all to use **/
+   private static OperatorController ourInstance;
+
+
+   /**
+    * Constructs the instance of the operator controller; done once at robot
+    * initialization, so the thread and gamepad are ready before the first mode
+    * starts.
+    **/
+   public static synchronized void constructInstance()
+   {
+      if ( ourInstance != null )
+      {
+         throw new IllegalStateException(
+            "OperatorController Already Constructed" );
+      }
+      ourInstance = new OperatorController();
+   }
+
+
+   public static OperatorController getInstance()
+   {
+      if ( ourInstance == null )
+      {
+         throw new IllegalStateException(
+            "OperatorController Not Constructed Yet" );
+      }
+      return ourInstance;
+   }
+
    /** Handle to operator gamepad **/
-   private final IHmiController pad;
+   private final Gamepad pad;
 
 
-   public OperatorController()
+   private OperatorController()
    {
       super( "Operator Controller",
-         DelayTimeConfig.getOperatorControllerDelay() );
+         DelayTimeConfig.getOperatorControllerDelay(),
+         DelayTimeConfig.getOperatorControllerTiming(),
+         DelayTimeConfig.getOperatorControllerOverrunPolicy() );
 
       final PreferencesManager prefs = PreferencesManager.getInstance();
       final String controller = prefs.getOperatorController();
@@ -81,15 +114,24 @@ public class OperatorController
    }
 
 
+   /**
+    * @return operator gamepad (e.g., to replay recorded inputs through)
+    **/
+   public Gamepad getGamepad()
+   {
+      return pad;
+   }
+
+
    /*
     * (non-Javadoc)
     *
-    * @see com.powerknights.frc2014.utils.Controller#setUp()
+    * @see com.powerknights.frc2016.utils.StoppableThread#onResume()
     */
    @Override
-   public void setUp()
+   public void onResume()
    {
-      pad.initForModeStart();
+      pad.startMode();
    }
 
 
@@ -102,7 +144,7 @@ public class OperatorController
    public boolean doIt()
    {
       // Look at current operator pad values and process them
-      pad.performUpdate();
+      pad.update();
 
       // Keep on going
       return false;
@@ -0,0 +1,382 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.robot.controllers;
+
+
+import org.slf4j.Logger;
+
+import com.powerknights.frc2016.riolog.RioLogger;
+import com.powerknights.frc2016.robot.config.DelayTimeConfig;
+import com.powerknights.frc2016.robot.managers.NumberEntry;
+import com.powerknights.frc2016.robot.managers.PreferencesManager;
+import com.powerknights.frc2016.robot.managers.SmartDashboardManager;
+import com.powerknights.frc2016.utils.Controller;
+import com.powerknights.frc2016.utils.LoopTimingStats;
+import com.powerknights.frc2016.utils.TimeUtils;
+
+
+/**
+ * Runs the <code>doIt()</code> of all the registered controllers on this one
+ * thread, instead of each controller having its own thread.
+ * <p>
+ * Controllers are placed in a rate group (fast / medium / slow) based on their
+ * loop delay. Each tick of the executor runs the due groups fastest first, and
+ * the controllers within a group in the order they were added; so the order
+ * of input processing and actuator writes is the same every time.
+ *
+ * @author first.stu
+ **/
+public class RateGroupExecutor
+   extends Controller
+{
+
+   /** Our classes' logger **/
+   private static final Logger logger =
+      RioLogger.getLogger( RateGroupExecutor.class.getName() );
+
+   /** Singleton instance of class for all to use **/
+   private static RateGroupExecutor ourInstance;
+
+
+   public static synchronized void constructInstance()
+   {
+      if ( ourInstance != null )
+      {
+         throw new IllegalStateException(
+            "RateGroupExecutor Already Constructed" );
+      }
+      ourInstance = new RateGroupExecutor();
+   }
+
+
+   public static RateGroupExecutor getInstance()
+   {
+      if ( ourInstance == null )
+      {
+         throw new IllegalStateException(
+            "RateGroupExecutor Not Constructed Yet" );
+      }
+      return ourInstance;
+   }
+
+   /**
+    * A controller registered with the executor, and its state
+    **/
+   private static class Member
+   {
+
+      final Controller controller;
+      /** How many runs of the group per run of controller **/
+      final long divisor;
+      volatile boolean isSetUp;
+      /** How many runs of the group since added **/
+      long runCount;
+
+
+      Member( Controller controller, long divisor )
+      {
+         this.controller = controller;
+         this.divisor = divisor;
+         isSetUp = false;
+         runCount = 0;
+      }
+   }
+
+   /**
+    * A set of controllers that run at the same rate, and the budget they used
+    **/
+   private static class RateGroup
+   {
+
+      /** Name of group (for telemetry) **/
+      final String name;
+      /** Period of group (msec) **/
+      final long period;
+      /** How many executor ticks per run of group **/
+      final long divisor;
+      /** Telemetry handle for average budget use **/
+      final NumberEntry budgetEntry;
+      /** Telemetry handle for maximum budget use **/
+      final NumberEntry maxBudgetEntry;
+
+      /** Members of group (replaced, never modified, on add / remove) **/
+      volatile Member[] members;
+
+      /** Time used by the group since the last report (usec) **/
+      long usedTime;
+      /** Number of runs since the last report **/
+      long runCount;
+      /** Maximum time used by single run since the last report (usec) **/
+      long maxUsedTime;
+
+
+      RateGroup( String name, long period, long tickPeriod )
+      {
+         this.name = name;
+         this.period = period;
+         divisor = Math.max( 1, period / tickPeriod );
+         final SmartDashboardManager smartDashboard =
+            SmartDashboardManager.getInstance();
+         budgetEntry =
+            smartDashboard.registerNumber( "rateGroup" + name + "Budget" );
+         maxBudgetEntry =
+            smartDashboard.registerNumber( "rateGroup" + name + "MaxBudget" );
+
+         members = new Member[ 0 ];
+      }
+   }
+
+   /** Whether preferences have the executor in use **/
+   private final boolean enabled;
+
+   /** Time between ticks of the executor (msec) **/
+   private final long tickPeriod;
+   /** The rate groups (ordered fastest to slowest) **/
+   private final RateGroup[] groups;
+   /** How many ticks between budget reports **/
+   private final long reportTicks;
+   /** How many ticks we've run **/
+   private long tickCount;
+
+
+   private RateGroupExecutor()
+   {
+      super( "RateGroup Executor", DelayTimeConfig.getRateGroupFastDelay(),
+         DelayTimeConfig.getRateGroupExecutorTiming(),
+         DelayTimeConfig.getRateGroupExecutorOverrunPolicy() );
+
+      enabled = PreferencesManager.getInstance().useRateGroupExecutor();
+
+      tickPeriod = DelayTimeConfig.getRateGroupFastDelay();
+      groups = new RateGroup[] {
+         new RateGroup( "Fast", DelayTimeConfig.getRateGroupFastDelay(),
+            tickPeriod ),
+         new RateGroup( "Medium", DelayTimeConfig.getRateGroupMediumDelay(),
+            tickPeriod ),
+         new RateGroup( "Slow", DelayTimeConfig.getRateGroupSlowDelay(),
+            tickPeriod ) };
+      reportTicks = groups[ groups.length - 1 ].divisor;
+      tickCount = 0;
+   }
+
+
+   /**
+    * @return <code>true</code> if the preferences have the controllers running
+    *         on the executor; <code>false</code> if on their own threads
+    **/
+   public boolean isEnabled()
+   {
+      return enabled;
+   }
+
+
+   /**
+    * Adds the controller to the end of the rate group matching its loop delay
+    * (the slowest group that is not slower than the controller), to be run
+    * every so many runs of the group to match its loop delay. The controller
+    * must not also be started as its own thread. It is skipped while paused.
+    *
+    * @param controller - controller to run on the executor
+    **/
+   public synchronized void addController( Controller controller )
+   {
+      final RateGroup group = findGroup( controller.getLoopDelay() );
+      // Controllers slower than the group run every so many runs of it
+      final long divisor =
+         Math.max( 1, controller.getLoopDelay() / group.period );
+      if ( ( divisor * group.period ) != controller.getLoopDelay() )
+      {
+         logger.warn( "{} delay of {} msec run in {} group at {} msec",
+            controller.getName(), controller.getLoopDelay(), group.name,
+            group.period * divisor );
+      }
+
+      final Member[] oldMembers = group.members;
+      final Member[] newMembers = new Member[ oldMembers.length + 1 ];
+      System.arraycopy( oldMembers, 0, newMembers, 0, oldMembers.length );
+      newMembers[ oldMembers.length ] = new Member( controller, divisor );
+      group.members = newMembers;
+
+      logger.info( "added {} to {} group", controller.getName(), group.name );
+   }
+
+
+   /**
+    * Removes the controller from the executor. If it was already set up, it
+    * is cleaned up.
+    *
+    * @param controller - controller to stop running on the executor
+    **/
+   public synchronized void removeController( Controller controller )
+   {
+      for ( final RateGroup group : groups )
+      {
+         final Member[] oldMembers = group.members;
+         for ( int i = 0; i < oldMembers.length; i++ )
+         {
+            if ( oldMembers[ i ].controller == controller )
+            {
+               removeMember( group, i );
+               if ( oldMembers[ i ].isSetUp )
+               {
+                  controller.cleanUp();
+               }
+               logger.info( "removed {} from {} group", controller.getName(),
+                  group.name );
+               return;
+            }
+         }
+      }
+   }
+
+
+   private void removeMember( RateGroup group, int index )
+   {
+      final Member[] oldMembers = group.members;
+      final Member[] newMembers = new Member[ oldMembers.length - 1 ];
+      System.arraycopy( oldMembers, 0, newMembers, 0, index );
+      System.arraycopy( oldMembers, index + 1, newMembers, index,
+         oldMembers.length - index - 1 );
+      group.members = newMembers;
+   }
+
+
+   private RateGroup findGroup( long loopDelay )
+   {
+      RateGroup found = groups[ 0 ];
+      for ( final RateGroup group : groups )
+      {
+         if ( group.period <= loopDelay )
+         {
+            found = group;
+         }
+      }
+      return found;
+   }
+
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see com.powerknights.frc2016.utils.StoppableThread#doIt()
+    */
+   @Override
+   public boolean doIt()
+   {
+      for ( final RateGroup group : groups )
+      {
+         if ( ( tickCount % group.divisor ) == 0 )
+         {
+            runGroup( group );
+         }
+      }
+
+      tickCount++;
+      if ( ( tickCount % reportTicks ) == 0 )
+      {
+         reportBudgets();
+      }
+
+      // Keep on going ...
+      return false;
+   }
+
+
+   private void runGroup( RateGroup group )
+   {
+      final long startTime = TimeUtils.microTime();
+
+      final Member[] members = group.members;
+      for ( int i = 0; i < members.length; i++ )
+      {
+         final Member member = members[ i ];
+         final Controller controller = member.controller;
+         if ( ( member.runCount++ % member.divisor ) != 0 )
+         {
+            continue;
+         }
+         if ( controller.isPaused() )
+         {
+            continue;
+         }
+         try
+         {
+            if ( !member.isSetUp )
+            {
+               controller.setUp();
+               member.isSetUp = true;
+            }
+            final LoopTimingStats stats = controller.getTimingStats();
+            if ( controller.checkResumed() )
+            {
+               stats.restart();
+               controller.onResume();
+            }
+            stats.recordStart( TimeUtils.microTime() );
+            final boolean done = controller.doIt();
+            stats.recordEnd( TimeUtils.microTime() );
+            if ( done )
+            {
+               logger.info( "{} is done; removing from executor",
+                  controller.getName() );
+               removeController( controller );
+            }
+         }
+         catch ( final Exception ex )
+         {
+            logger.error( "{} failed; removing from executor",
+               controller.getName(), ex );
+            removeController( controller );
+         }
+      }
+
+      final long usedTime = TimeUtils.microTime() - startTime;
+      group.usedTime += usedTime;
+      group.runCount++;
+      if ( usedTime > group.maxUsedTime )
+      {
+         group.maxUsedTime = usedTime;
+      }
+   }
+
+
+   /**
+    * Reports the percent of each group's period used by running the group;
+    * both average and maximum since the last report.
+    **/
+   private void reportBudgets()
+   {
+      for ( final RateGroup group : groups )
+      {
+         if ( group.runCount == 0 )
+         {
+            continue;
+         }
+
+         final double periodTime = TimeUtils.msecToUsec( group.period );
+         final double budget =
+            ( 100.0 * group.usedTime ) / ( group.runCount * periodTime );
+         final double maxBudget = ( 100.0 * group.maxUsedTime ) / periodTime;
+
+         group.budgetEntry.put( budget );
+         group.maxBudgetEntry.put( maxBudget );
+         if ( PreferencesManager.getInstance().runThreadTiming() )
+         {
+            logger.debug( "{} group: members={}, budget={}%, max={}%",
+               group.name, group.members.length, (long) budget,
+               (long) maxBudget );
+         }
+
+         group.usedTime = 0;
+         group.runCount = 0;
+         group.maxUsedTime = 0;
+      }
+   }
+
+}
@@ -11,8 +11,6 @@
 package com.powerknights.frc2016.robot.controllers;
 
 
-import java.util.Vector;
-
 import org.slf4j.Logger;
 
 import com.powerknights.frc2016.riolog.RioLogger;
@@ -22,6 +20,9 @@ import com.powerknights.frc2016.utils.Controller;
 
 
 /**
+ * Updates all the sensors from a single thread. Each sensor is updated at its
+ * own sample period, as a multiple of the rate of this thread.
+ *
  * @author first.stu
  **/
 public class SensorUpdater
@@ -35,8 +36,28 @@ public class SensorUpdater
    /** Singleton instance of class for all to use **/
    private static SensorUpdater ourInstance;
 
-   /** List of all the sensors to update **/
-   private final Vector< ISensorUpdater > sensors;
+   /**
+    * A sensor to update, and how often
+    **/
+   private static class Entry
+   {
+
+      final ISensorUpdater sensor;
+      /** How many loops per update of sensor **/
+      final long divisor;
+
+
+      Entry( ISensorUpdater sensor, long divisor )
+      {
+         this.sensor = sensor;
+         this.divisor = divisor;
+      }
+   }
+
+   /** All the sensors to update (replaced, never modified, on add / remove) **/
+   private volatile Entry[] sensors;
+   /** How many loops we've run **/
+   private long loopCount;
 
    /** Whether to update on thread or not **/
    private final boolean runThread;
@@ -44,9 +65,12 @@ public class SensorUpdater
 
    private SensorUpdater()
    {
-      super( "Sensor Updater", DelayTimeConfig.getSensorUpaterDelay() );
+      super( "Sensor Updater", DelayTimeConfig.getSensorUpaterDelay(),
+         DelayTimeConfig.getSensorUpdaterTiming(),
+         DelayTimeConfig.getSensorUpdaterOverrunPolicy() );
 
-      sensors = new Vector< ISensorUpdater >();
+      sensors = new Entry[ 0 ];
+      loopCount = 0;
 
       runThread = PreferencesManager.getInstance().runSensorsThread();
    }
@@ -72,15 +96,34 @@ public class SensorUpdater
    }
 
 
-   public void addSensor( ISensorUpdater sensor )
+   public synchronized void addSensor( ISensorUpdater sensor )
    {
-      sensors.addElement( sensor );
+      final long divisor =
+         Math.max( 1, sensor.getSamplePeriod() / getLoopDelay() );
+
+      final Entry[] oldSensors = sensors;
+      final Entry[] newSensors = new Entry[ oldSensors.length + 1 ];
+      System.arraycopy( oldSensors, 0, newSensors, 0, oldSensors.length );
+      newSensors[ oldSensors.length ] = new Entry( sensor, divisor );
+      sensors = newSensors;
    }
 
 
-   public void removeSensor( ISensorUpdater sensor )
+   public synchronized void removeSensor( ISensorUpdater sensor )
    {
-      sensors.removeElement( sensor );
+      final Entry[] oldSensors = sensors;
+      for ( int i = 0; i < oldSensors.length; i++ )
+      {
+         if ( oldSensors[ i ].sensor == sensor )
+         {
+            final Entry[] newSensors = new Entry[ oldSensors.length - 1 ];
+            System.arraycopy( oldSensors, 0, newSensors, 0, i );
+            System.arraycopy( oldSensors, i + 1, newSensors, i,
+               oldSensors.length - i - 1 );
+            sensors = newSensors;
+            return;
+         }
+      }
    }
 
 
@@ -97,19 +140,27 @@ public class SensorUpdater
          return true;
       }
 
-      for ( final ISensorUpdater sensor : sensors )
+      final Entry[] current = sensors;
+      for ( int i = 0; i < current.length; i++ )
       {
+         final Entry entry = current[ i ];
+         if ( ( loopCount % entry.divisor ) != 0 )
+         {
+            continue;
+         }
+
          try
          {
-            sensor.update();
+            entry.sensor.update();
          }
          catch ( final Exception ex )
          {
-            logger.error( "ISensorUpdater failed; removing from list" );
-            sensors.removeElement( sensor );
-            break;
+            // Rest of this loop still uses the (unchanged) snapshot
+            logger.error( "ISensorUpdater failed; removing from list", ex );
+            removeSensor( entry.sensor );
          }
       }
+      loopCount++;
 
       // Keep on going ...
       return false;
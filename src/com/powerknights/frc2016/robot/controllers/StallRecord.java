@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.robot.controllers;
+
+
+/**
+ * A stall of a thread caught by the <code>StallWatchdog</code>: which thread,
+ * which loop, when it started and was caught, and where it was stuck.
+ *
+ * @author first.stu
+ **/
+public class StallRecord
+{
+
+   /** Name of the stalled thread **/
+   public final String threadName;
+   /** Loop count of the stalled <code>doIt()</code> **/
+   public final long loopCount;
+   /** When the stalled <code>doIt()</code> started (usec) **/
+   public final long startTime;
+   /** When the stall was caught (usec) **/
+   public final long detectTime;
+   /** Stack of the stalled thread when the stall was caught **/
+   public final StackTraceElement[] stack;
+
+
+   StallRecord( String threadName, long loopCount, long startTime,
+      long detectTime, StackTraceElement[] stack )
+   {
+      this.threadName = threadName;
+      this.loopCount = loopCount;
+      this.startTime = startTime;
+      this.detectTime = detectTime;
+      this.stack = stack;
+   }
+
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see java.lang.Object#toString()
+    */
+   @Override
+   public String toString()
+   {
+      final StringBuilder buf = new StringBuilder();
+      buf.append( "STALL @ " );
+      buf.append( loopCount );
+      buf.append( " " );
+      buf.append( threadName );
+      buf.append( " => Start: " );
+      buf.append( startTime );
+      buf.append( ", Caught: " );
+      buf.append( detectTime );
+      buf.append( ", Stalled: " );
+      buf.append( detectTime - startTime );
+      for ( final StackTraceElement element : stack )
+      {
+         buf.append( "\n   at " );
+         buf.append( element );
+      }
+      return buf.toString();
+   }
+
+}
@@ -0,0 +1,249 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.robot.controllers;
+
+
+import org.slf4j.Logger;
+
+import com.powerknights.frc2016.riolog.RioLogger;
+import com.powerknights.frc2016.robot.config.DelayTimeConfig;
+import com.powerknights.frc2016.robot.managers.SmartDashboardManager;
+import com.powerknights.frc2016.utils.Controller;
+import com.powerknights.frc2016.utils.LoopTimingStats;
+import com.powerknights.frc2016.utils.StoppableThread;
+import com.powerknights.frc2016.utils.TimeUtils;
+
+
+/**
+ * Watches the <code>doIt()</code> of the other threads, and when one runs for
+ * longer than a multiple of its loop delay, captures the stack of the thread
+ * (once per stalled loop) so we can find what it was blocked on.
+ * <p>
+ * The most recent stalls are kept in a bounded buffer, and each is also
+ * logged as it is caught.
+ *
+ * @author first.stu
+ **/
+public class StallWatchdog
+   extends Controller
+{
+
+   /** Our classes' logger **/
+   private static final Logger logger =
+      RioLogger.getLogger( StallWatchdog.class.getName() );
+
+   /** Singleton instance of class for all to use **/
+   private static StallWatchdog ourInstance;
+
+
+   public static synchronized void constructInstance()
+   {
+      if ( ourInstance != null )
+      {
+         throw new IllegalStateException( "StallWatchdog Already Constructed" );
+      }
+      ourInstance = new StallWatchdog();
+   }
+
+
+   public static StallWatchdog getInstance()
+   {
+      if ( ourInstance == null )
+      {
+         throw new IllegalStateException( "StallWatchdog Not Constructed Yet" );
+      }
+      return ourInstance;
+   }
+
+   /**
+    * A thread being watched, and its stall budget
+    **/
+   private static class Watched
+   {
+
+      final StoppableThread thread;
+      /** How long doIt() can run before it is stalled (usec) **/
+      final long budget;
+      /** Loop count of last stall caught (so only caught once per loop) **/
+      long lastStallCount;
+
+
+      Watched( StoppableThread thread, long budget )
+      {
+         this.thread = thread;
+         this.budget = budget;
+         lastStallCount = -1;
+      }
+   }
+
+   /** Threads being watched (replaced, never modified, on watch / unwatch) **/
+   private volatile Watched[] watched;
+
+   /** Multiple of loop delay before a thread is stalled **/
+   private final double budgetMultiple;
+
+   /** Most recent stalls (oldest overwritten once full) **/
+   private final StallRecord[] records;
+   /** How many stalls have been caught **/
+   private long stallCount;
+
+   /** Handle to smart dashboard **/
+   private final SmartDashboardManager smartDashboard;
+   /** Telemetry name for stall count **/
+   private final String stallCountTelemetryName = "stallCount";
+
+
+   private StallWatchdog()
+   {
+      super( "Stall Watchdog", DelayTimeConfig.getStallWatchdogDelay() );
+
+      watched = new Watched[ 0 ];
+      budgetMultiple = DelayTimeConfig.getStallBudgetMultiple();
+
+      records = new StallRecord[ DelayTimeConfig.getStallRecordSize() ];
+      stallCount = 0;
+
+      smartDashboard = SmartDashboardManager.getInstance();
+      smartDashboard.putNumber( stallCountTelemetryName, stallCount );
+   }
+
+
+   /**
+    * Starts watching the thread. The thread should be the one actually running
+    * the <code>doIt()</code> (e.g., the executor rather than the controllers
+    * it runs).
+    *
+    * @param thread - thread to watch
+    **/
+   public synchronized void watch( StoppableThread thread )
+   {
+      final long budget = (long) ( TimeUtils.msecToUsec( thread.getLoopDelay() )
+         * budgetMultiple );
+
+      final Watched[] oldWatched = watched;
+      final Watched[] newWatched = new Watched[ oldWatched.length + 1 ];
+      System.arraycopy( oldWatched, 0, newWatched, 0, oldWatched.length );
+      newWatched[ oldWatched.length ] = new Watched( thread, budget );
+      watched = newWatched;
+
+      logger.info( "watching {} with budget of {} usec", thread.getName(),
+         budget );
+   }
+
+
+   /**
+    * Stops watching the thread.
+    *
+    * @param thread - thread to stop watching
+    **/
+   public synchronized void unwatch( StoppableThread thread )
+   {
+      final Watched[] oldWatched = watched;
+      for ( int i = 0; i < oldWatched.length; i++ )
+      {
+         if ( oldWatched[ i ].thread == thread )
+         {
+            final Watched[] newWatched = new Watched[ oldWatched.length - 1 ];
+            System.arraycopy( oldWatched, 0, newWatched, 0, i );
+            System.arraycopy( oldWatched, i + 1, newWatched, i,
+               oldWatched.length - i - 1 );
+            watched = newWatched;
+
+            logger.info( "stopped watching {}", thread.getName() );
+            return;
+         }
+      }
+   }
+
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see com.powerknights.frc2016.utils.StoppableThread#doIt()
+    */
+   @Override
+   public boolean doIt()
+   {
+      final long now = TimeUtils.microTime();
+
+      final Watched[] current = watched;
+      for ( int i = 0; i < current.length; i++ )
+      {
+         final Watched entry = current[ i ];
+         final LoopTimingStats stats = entry.thread.getTimingStats();
+
+         final long startTime = stats.getCycleStartTime();
+         if ( ( startTime == 0 ) || ( ( now - startTime ) <= entry.budget ) )
+         {
+            continue;
+         }
+
+         final long loopCount = stats.getCycleCount();
+         if ( loopCount == entry.lastStallCount )
+         {
+            // Already caught this one
+            continue;
+         }
+         entry.lastStallCount = loopCount;
+
+         recordStall( new StallRecord( entry.thread.getName(), loopCount,
+            startTime, now, entry.thread.getStackTrace() ) );
+      }
+
+      // Keep on going ...
+      return false;
+   }
+
+
+   private void recordStall( StallRecord record )
+   {
+      synchronized ( records )
+      {
+         records[ (int) ( stallCount % records.length ) ] = record;
+         stallCount++;
+      }
+
+      smartDashboard.putNumber( stallCountTelemetryName, stallCount );
+      logger.warn( record.toString() );
+   }
+
+
+   /**
+    * @return how many stalls have been caught since start
+    **/
+   public long getStallCount()
+   {
+      synchronized ( records )
+      {
+         return stallCount;
+      }
+   }
+
+
+   /**
+    * Returns the most recent stalls caught (at most the size of the buffer).
+    *
+    * @return stalls, oldest first
+    **/
+   public StallRecord[] getStallRecords()
+   {
+      synchronized ( records )
+      {
+         final int count = (int) Math.min( stallCount, records.length );
+         final long first = stallCount - count;
+         final StallRecord[] recent = new StallRecord[ count ];
+         for ( int i = 0; i < count; i++ )
+         {
+            recent[ i ] = records[ (int) ( ( first + i ) % records.length ) ];
+         }
+         return recent;
+      }
+   }
+
+}
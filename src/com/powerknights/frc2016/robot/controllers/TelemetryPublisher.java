@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.robot.controllers;
+
+
+import org.slf4j.Logger;
+
+import com.powerknights.frc2016.riolog.Level;
+import com.powerknights.frc2016.riolog.RioLogger;
+import com.powerknights.frc2016.robot.config.DelayTimeConfig;
+import com.powerknights.frc2016.robot.managers.LCDManager;
+import com.powerknights.frc2016.robot.managers.NumberEntry;
+import com.powerknights.frc2016.robot.managers.SmartDashboardManager;
+import com.powerknights.frc2016.utils.Controller;
+import com.powerknights.frc2016.utils.TimeUtils;
+
+
+/**
+ * Publishes the values put to the <code>SmartDashboardManager</code> to the
+ * dashboard at its own rate; so the NetworkTables locking and serialization
+ * happens on this thread, and never in a control loop. The changed lines of
+ * the Driver Station LCD are flushed from here too (at a slower rate), and the
+ * counts of log events dropped by the log writer, and of the values the
+ * dashboard coalesced, published and suppressed, are put.
+ *
+ * @author first.stu
+ **/
+public class TelemetryPublisher
+   extends Controller
+{
+
+   /** Our classes' logger **/
+   @SuppressWarnings( "unused" )
+   private static final Logger logger =
+      RioLogger.getLogger( TelemetryPublisher.class.getName() );
+
+   /** Singleton instance of class for all to use **/
+   private static TelemetryPublisher ourInstance;
+
+
+   public static synchronized void constructInstance()
+   {
+      if ( ourInstance != null )
+      {
+         throw new IllegalStateException(
+            "TelemetryPublisher Already Constructed" );
+      }
+      ourInstance = new TelemetryPublisher();
+   }
+
+
+   public static TelemetryPublisher getInstance()
+   {
+      if ( ourInstance == null )
+      {
+         throw new IllegalStateException(
+            "TelemetryPublisher Not Constructed Yet" );
+      }
+      return ourInstance;
+   }
+
+   /** Handle to the dashboard being published **/
+   private final SmartDashboardManager smartDashboard;
+   /** Handle to the LCD being flushed **/
+   private final LCDManager lcdManager;
+
+   /** How often to flush the LCD (usec) **/
+   private final long lcdFlushPeriod;
+   /** When the LCD was last flushed (usec) **/
+   private long lcdFlushTime;
+
+   /** Levels the dropped log events are counted for **/
+   private static final Level[] logLevels =
+      { Level.TRACE, Level.DEBUG, Level.INFO, Level.WARN, Level.ERROR };
+   /** Telemetry handles of dropped log events (by level, and total) **/
+   private final NumberEntry[] logDroppedEntries;
+   private final NumberEntry logDroppedEntry;
+   /** Telemetry handles of the dashboard's own counts **/
+   private final NumberEntry coalescedEntry;
+   private final NumberEntry publishedEntry;
+   private final NumberEntry suppressedEntry;
+
+
+   private TelemetryPublisher()
+   {
+      super( "Telemetry Publisher",
+         DelayTimeConfig.getTelemetryPublisherDelay(),
+         DelayTimeConfig.getTelemetryPublisherTiming(),
+         DelayTimeConfig.getTelemetryPublisherOverrunPolicy() );
+
+      smartDashboard = SmartDashboardManager.getInstance();
+      lcdManager = LCDManager.getInstance();
+
+      lcdFlushPeriod =
+         TimeUtils.msecToUsec( DelayTimeConfig.getLCDFlushDelay() );
+      lcdFlushTime = 0;
+
+      logDroppedEntries = new NumberEntry[ logLevels.length ];
+      for ( int i = 0; i < logLevels.length; i++ )
+      {
+         logDroppedEntries[ i ] = smartDashboard
+            .registerNumber( "logDropped" + logLevels[ i ].name() );
+      }
+      logDroppedEntry = smartDashboard.registerNumber( "logDropped" );
+
+      coalescedEntry = smartDashboard.registerNumber( "telemetryCoalesced" );
+      publishedEntry = smartDashboard.registerNumber( "telemetryPublished" );
+      suppressedEntry = smartDashboard.registerNumber( "telemetrySuppressed" );
+   }
+
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see com.powerknights.frc2016.utils.Controller#doIt()
+    */
+   @Override
+   public boolean doIt()
+   {
+      smartDashboard.publish();
+
+      final long now = TimeUtils.microTime();
+      if ( ( now - lcdFlushTime ) >= lcdFlushPeriod )
+      {
+         lcdManager.flush();
+         lcdFlushTime = now;
+      }
+
+      for ( int i = 0; i < logLevels.length; i++ )
+      {
+         logDroppedEntries[ i ]
+            .put( RioLogger.getDroppedCount( logLevels[ i ] ) );
+      }
+      logDroppedEntry.put( RioLogger.getDroppedCount() );
+
+      coalescedEntry.put( smartDashboard.getCoalescedCount() );
+      publishedEntry.put( smartDashboard.getPublishedCount() );
+      suppressedEntry.put( smartDashboard.getSuppressedCount() );
+
+      // Keep on going
+      return false;
+   }
+
+}
@@ -14,6 +14,7 @@ package com.powerknights.frc2016.robot.managers;
 import org.slf4j.Logger;
 
 import com.powerknights.frc2016.riolog.RioLogger;
+import com.powerknights.frc2016.utils.StringUtils;
 import com.powerknights.frc2016.wpilibif.DriverStationLCD;
 
 
@@ -69,13 +70,13 @@ public class LCDManager
    /** Handle to the framework LCD **/
    private final DriverStationLCD userLCD;
 
-   private final StringBuffer line1Buf;
-   private final StringBuffer line2Buf;
-   private final StringBuffer line3Buf;
-   private final StringBuffer line4Buf;
-   private final StringBuffer line5Buf;
-   private final StringBuffer line6Buf;
-   private final StringBuffer line7Buf;
+   private final StringBuilder line1Buf;
+   private final StringBuilder line2Buf;
+   private final StringBuilder line3Buf;
+   private final StringBuilder line4Buf;
+   private final StringBuilder line5Buf;
+   private final StringBuilder line6Buf;
+   private final StringBuilder line7Buf;
 
 
    private LCDManager()
@@ -84,13 +85,13 @@ public class LCDManager
 
       userLCD = DriverStationLCD.getInstance();
 
-      line1Buf = new StringBuffer();
-      line2Buf = new StringBuffer();
-      line3Buf = new StringBuffer();
-      line4Buf = new StringBuffer();
-      line5Buf = new StringBuffer();
-      line6Buf = new StringBuffer();
-      line7Buf = new StringBuffer();
+      line1Buf = new StringBuilder();
+      line2Buf = new StringBuilder();
+      line3Buf = new StringBuilder();
+      line4Buf = new StringBuilder();
+      line5Buf = new StringBuilder();
+      line6Buf = new StringBuilder();
+      line7Buf = new StringBuilder();
 
       init();
 
@@ -120,15 +121,13 @@ public class LCDManager
    private void resetUnused()
    {
       line4Buf.setLength( 0 );
-
-      userLCD.updateLCD();
    }
 
 
    /**
     *
     **/
-   private void trimAndFillLine( StringBuffer buf )
+   private void trimAndFillLine( StringBuilder buf )
    {
       final int length = buf.length();
       final int numBlanks = maxColumns - length;
@@ -163,6 +162,18 @@ public class LCDManager
    // }
 
 
+   /**
+    * Sends the lines changed since the last flush to the Driver Station. The
+    * setters only update the text; this is called at a bounded rate by the
+    * <code>TelemetryPublisher</code>, so bursts of updates (e.g., vision) are
+    * coalesced and the callers never wait on the send.
+    **/
+   public void flush()
+   {
+      userLCD.updateLCD();
+   }
+
+
    /*
     * Line 1 - Config
     */
@@ -174,8 +185,7 @@ public class LCDManager
       line1Buf.append( config );
 
       trimAndFillLine( line1Buf );
-      userLCD.println( DriverStationLCD.Line.kUser1, 1, line1Buf.toString() );
-      userLCD.updateLCD();
+      userLCD.println( DriverStationLCD.Line.kUser1, 1, line1Buf );
    }
 
    private int subsystemIndex = maxColumns - 1;
@@ -188,8 +198,7 @@ public class LCDManager
       subsystemIndex--;
 
       trimAndFillLine( line1Buf );
-      userLCD.println( DriverStationLCD.Line.kUser1, 1, line1Buf.toString() );
-      userLCD.updateLCD();
+      userLCD.println( DriverStationLCD.Line.kUser1, 1, line1Buf );
    }
 
 
@@ -198,8 +207,7 @@ public class LCDManager
       line1Buf.setLength( 0 );
 
       trimAndFillLine( line1Buf );
-      userLCD.println( DriverStationLCD.Line.kUser1, 1, line1Buf.toString() );
-      userLCD.updateLCD();
+      userLCD.println( DriverStationLCD.Line.kUser1, 1, line1Buf );
    }
 
 
@@ -215,8 +223,7 @@ public class LCDManager
       line2Buf.append( mode );
 
       trimAndFillLine( line2Buf );
-      userLCD.println( DriverStationLCD.Line.kUser2, 1, line2Buf.toString() );
-      userLCD.updateLCD();
+      userLCD.println( DriverStationLCD.Line.kUser2, 1, line2Buf );
    }
 
 
@@ -227,8 +234,7 @@ public class LCDManager
       line2Buf.append( "MODE: " );
 
       trimAndFillLine( line2Buf );
-      userLCD.println( DriverStationLCD.Line.kUser2, 1, line2Buf.toString() );
-      userLCD.updateLCD();
+      userLCD.println( DriverStationLCD.Line.kUser2, 1, line2Buf );
    }
 
 
@@ -243,8 +249,7 @@ public class LCDManager
       line3Buf.append( "VIS: Started" );
 
       trimAndFillLine( line3Buf );
-      userLCD.println( DriverStationLCD.Line.kUser3, 1, line3Buf.toString() );
-      userLCD.updateLCD();
+      userLCD.println( DriverStationLCD.Line.kUser3, 1, line3Buf );
    }
 
 
@@ -255,8 +260,7 @@ public class LCDManager
       line3Buf.append( "VIS: Connected" );
 
       trimAndFillLine( line3Buf );
-      userLCD.println( DriverStationLCD.Line.kUser3, 1, line3Buf.toString() );
-      userLCD.updateLCD();
+      userLCD.println( DriverStationLCD.Line.kUser3, 1, line3Buf );
    }
 
 
@@ -267,8 +271,7 @@ public class LCDManager
       line3Buf.append( "VIS: Updating" );
 
       trimAndFillLine( line3Buf );
-      userLCD.println( DriverStationLCD.Line.kUser3, 1, line3Buf.toString() );
-      userLCD.updateLCD();
+      userLCD.println( DriverStationLCD.Line.kUser3, 1, line3Buf );
    }
 
 
@@ -283,8 +286,7 @@ public class LCDManager
       line3Buf.append( "]" );
 
       trimAndFillLine( line3Buf );
-      userLCD.println( DriverStationLCD.Line.kUser3, 1, line3Buf.toString() );
-      userLCD.updateLCD();
+      userLCD.println( DriverStationLCD.Line.kUser3, 1, line3Buf );
    }
 
 
@@ -295,8 +297,7 @@ public class LCDManager
       line3Buf.append( "VIS: " );
 
       trimAndFillLine( line3Buf );
-      userLCD.println( DriverStationLCD.Line.kUser3, 1, line3Buf.toString() );
-      userLCD.updateLCD();
+      userLCD.println( DriverStationLCD.Line.kUser3, 1, line3Buf );
    }
 
    /*
@@ -316,8 +317,23 @@ public class LCDManager
       line5Buf.append( time );
 
       trimAndFillLine( line5Buf );
-      userLCD.println( DriverStationLCD.Line.kUser5, 1, line5Buf.toString() );
-      userLCD.updateLCD();
+      userLCD.println( DriverStationLCD.Line.kUser5, 1, line5Buf );
+   }
+
+
+   /**
+    * Sets the time to the seconds (rounded to whole seconds), without
+    * building a string each update.
+    **/
+   public void setTime( double seconds )
+   {
+      line5Buf.setLength( 0 );
+
+      line5Buf.append( "TIME: " );
+      StringUtils.format( line5Buf, seconds, 0 );
+
+      trimAndFillLine( line5Buf );
+      userLCD.println( DriverStationLCD.Line.kUser5, 1, line5Buf );
    }
 
 
@@ -328,8 +344,7 @@ public class LCDManager
       line5Buf.append( "TIME: " );
 
       trimAndFillLine( line5Buf );
-      userLCD.println( DriverStationLCD.Line.kUser5, 1, line5Buf.toString() );
-      userLCD.updateLCD();
+      userLCD.println( DriverStationLCD.Line.kUser5, 1, line5Buf );
    }
 
 
@@ -344,8 +359,7 @@ public class LCDManager
       line6Buf.append( message );
 
       trimAndFillLine( line6Buf );
-      userLCD.println( DriverStationLCD.Line.kUser6, 1, line6Buf.toString() );
-      userLCD.updateLCD();
+      userLCD.println( DriverStationLCD.Line.kUser6, 1, line6Buf );
    }
 
 
@@ -354,8 +368,7 @@ public class LCDManager
       line6Buf.setLength( 0 );
 
       trimAndFillLine( line6Buf );
-      userLCD.println( DriverStationLCD.Line.kUser6, 1, line6Buf.toString() );
-      userLCD.updateLCD();
+      userLCD.println( DriverStationLCD.Line.kUser6, 1, line6Buf );
    }
 
 
@@ -370,8 +383,7 @@ public class LCDManager
       line7Buf.append( build );
 
       trimAndFillLine( line7Buf );
-      userLCD.println( DriverStationLCD.Line.kUser7, 1, line7Buf.toString() );
-      userLCD.updateLCD();
+      userLCD.println( DriverStationLCD.Line.kUser7, 1, line7Buf );
    }
 
 
@@ -380,8 +392,7 @@ public class LCDManager
       line7Buf.setLength( 0 );
 
       trimAndFillLine( line7Buf );
-      userLCD.println( DriverStationLCD.Line.kUser7, 1, line7Buf.toString() );
-      userLCD.updateLCD();
+      userLCD.println( DriverStationLCD.Line.kUser7, 1, line7Buf );
    }
 
 }
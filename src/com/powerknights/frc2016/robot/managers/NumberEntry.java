@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.robot.managers;
+
+
+
+/**
+ * Handle to a number telemetry key, registered once with the
+ * <code>SmartDashboardManager</code>; putting through it goes straight to the
+ * key's slot, without looking the key up.
+ *
+ * @author first.stu
+ **/
+public final class NumberEntry
+{
+
+   /** Manager the key is registered with **/
+   private final SmartDashboardManager manager;
+   /** Slot of the key **/
+   private final TelemetrySlot slot;
+
+
+   NumberEntry( SmartDashboardManager manager, TelemetrySlot slot )
+   {
+      this.manager = manager;
+      this.slot = slot;
+   }
+
+
+   public String getKey()
+   {
+      return slot.key;
+   }
+
+
+   public void put( double value )
+   {
+      manager.putNumber( slot, value );
+   }
+
+}
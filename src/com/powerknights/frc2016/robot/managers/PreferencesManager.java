@@ -156,6 +156,32 @@ public class PreferencesManager
    }
 
 
+   /**
+    * Whether to use the UDP datagrams for vision source (true) or not (false)
+    * (when not using NetworkTables)
+    *
+    * @return
+    **/
+   public boolean useUdpVision()
+   {
+      final String key = "useUdpVision";
+      return getBoolean( key, false );
+   }
+
+
+   /**
+    * What port the UDP vision datagrams are sent to on the roboRIO (one of
+    * the team use ports, 5800 to 5810)
+    *
+    * @return port number
+    **/
+   public int getUdpVisionPort()
+   {
+      final String key = "udpVisionPort";
+      return getInt( key, 5801 );
+   }
+
+
    /**
     * Whether to display / use SmartDashboard (true) or not (false)
     *
@@ -287,6 +313,58 @@ public class PreferencesManager
    }
 
 
+   /**
+    * Whether to run all the controllers on the single rate group executor
+    * thread (true) or each on their own thread (false)
+    *
+    * @return
+    **/
+   public boolean useRateGroupExecutor()
+   {
+      final String key = "useRateGroupExecutor";
+      return getBoolean( key, false );
+   }
+
+
+   /**
+    * Whether to record all the telemetry to the log drive (true) or not
+    * (false)
+    *
+    * @return
+    **/
+   public boolean useFlightRecorder()
+   {
+      final String key = "useFlightRecorder";
+      return getBoolean( key, false );
+   }
+
+
+   /**
+    * Whether to record the gamepad inputs to the log drive (true) or not
+    * (false)
+    *
+    * @return
+    **/
+   public boolean useHidRecorder()
+   {
+      final String key = "useHidRecorder";
+      return getBoolean( key, false );
+   }
+
+
+   /**
+    * Name of a gamepad recording to replay (through the gamepads, with the
+    * actuators stood in for) in test mode; or empty for none
+    *
+    * @return
+    **/
+   public String getHidReplayFile()
+   {
+      final String key = "hidReplayFile";
+      return getString( key, "" );
+   }
+
+
    /**
     * Whether to run thread timing prints (true) or not (false)
     *
@@ -310,7 +388,6 @@ public class PreferencesManager
    }
 
 
-   @SuppressWarnings( "unused" )
    private int getInt( String key, int ifMissing )
    {
       final Preferences prefs = Preferences.getInstance();
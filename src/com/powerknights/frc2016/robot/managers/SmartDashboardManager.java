@@ -11,14 +11,43 @@
 package com.powerknights.frc2016.robot.managers;
 
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.slf4j.Logger;
 
+import com.powerknights.frc2016.riolog.FlightRecorder;
 import com.powerknights.frc2016.riolog.RioLogger;
+import com.powerknights.frc2016.robot.config.DelayTimeConfig;
+import com.powerknights.frc2016.utils.ActuatorTrace;
+import com.powerknights.frc2016.utils.TimeUtils;
 
+import edu.wpi.first.wpilibj.networktables.NetworkTable;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj.tables.IRemote;
+import edu.wpi.first.wpilibj.tables.IRemoteConnectionListener;
 
 
 /**
+ * Front end to the SmartDashboard. Puts don't go to NetworkTables directly;
+ * they just store the value in the key's slot and mark it dirty (no locking),
+ * and the <code>TelemetryPublisher</code> thread publishes the dirty slots at
+ * its own rate. Several puts to a key between publishes are coalesced into
+ * the last one.
+ * <p>
+ * The publisher doesn't send a value that hasn't changed since it was last
+ * published (numbers within the key's epsilon); unchanged values are still
+ * re-published every refresh period, so the dashboard ends up correct even if
+ * an update was lost, and everything is re-published as soon as a dashboard
+ * (re)connects. Every value put is recorded by the flight recorder whether
+ * published or not.
+ * <p>
+ * Code that puts a key every loop should register it once up front (e.g.
+ * <code>registerNumber()</code>) and put through the returned entry; that
+ * goes straight to the slot (and the key's flight recorder id) without
+ * looking up the name. Putting by name still works for one-off values.
+ *
  * @author first.stu
  **/
 public class SmartDashboardManager
@@ -68,6 +97,33 @@ public class SmartDashboardManager
 
    /** Cached flag for whether to use Smart Dashboard **/
    private final boolean enableSmartDashboard;
+   /** Records every value put (whether displayed or not) **/
+   private final FlightRecorder recorder;
+
+   /** Default for how much a number must change to be published **/
+   static final double defaultEpsilon = 0.001;
+
+   /** Types of value in a slot **/
+   static final int noType = 0;
+   static final int numberType = 1;
+   static final int booleanType = 2;
+   static final int stringType = 3;
+
+   /** Slot of each key **/
+   private final ConcurrentHashMap< String, TelemetrySlot > slotMap;
+   /** All the slots (copy on write), for the publisher to walk **/
+   private volatile TelemetrySlot[] slots;
+   /** How often unchanged values are re-published (usec) **/
+   private final long refreshPeriod;
+   /** Whether to re-publish everything on the next publish **/
+   private final AtomicBoolean refreshAll;
+
+   /** Count of puts replaced by a later put before being published **/
+   private final AtomicLong coalescedCount;
+   /** Count of values published (publisher thread only) **/
+   private volatile long publishedCount;
+   /** Count of values not published as unchanged (publisher thread only) **/
+   private volatile long suppressedCount;
 
 
    private SmartDashboardManager()
@@ -76,34 +132,476 @@ public class SmartDashboardManager
 
       enableSmartDashboard =
          PreferencesManager.getInstance().useSmartDashboard();
+      recorder = FlightRecorder.getInstance();
+
+      slotMap = new ConcurrentHashMap< String, TelemetrySlot >();
+      slots = new TelemetrySlot[ 0 ];
+      refreshPeriod =
+         TimeUtils.msecToUsec( DelayTimeConfig.getTelemetryRefreshDelay() );
+      refreshAll = new AtomicBoolean( false );
+
+      coalescedCount = new AtomicLong( 0 );
+      publishedCount = 0;
+      suppressedCount = 0;
+
+      if ( enableSmartDashboard )
+      {
+         NetworkTable.getTable( "SmartDashboard" )
+            .addConnectionListener( new IRemoteConnectionListener()
+            {
+
+               @Override
+               public void connected( IRemote remote )
+               {
+                  // A new dashboard has none of the unchanged values
+                  forceRefresh();
+               }
+
+
+               @Override
+               public void disconnected( IRemote remote )
+               {
+                  // Nothing to publish to
+               }
+            }, false );
+      }
 
       logger.info( "constructed" );
    }
 
 
-   public void putNumber( String key, double value )
+   private TelemetrySlot getSlot( String key )
    {
-      if ( enableSmartDashboard )
+      final TelemetrySlot slot = slotMap.get( key );
+      if ( slot != null )
       {
-         SmartDashboard.putNumber( key, value );
+         return slot;
       }
+      return addSlot( key );
    }
 
 
-   public void putBoolean( String key, boolean value )
+   private synchronized TelemetrySlot addSlot( String key )
    {
-      if ( enableSmartDashboard )
+      TelemetrySlot slot = slotMap.get( key );
+      if ( slot == null )
+      {
+         slot = new TelemetrySlot( key );
+
+         final TelemetrySlot[] oldSlots = slots;
+         final TelemetrySlot[] newSlots =
+            new TelemetrySlot[ oldSlots.length + 1 ];
+         System.arraycopy( oldSlots, 0, newSlots, 0, oldSlots.length );
+         newSlots[ oldSlots.length ] = slot;
+         slots = newSlots;
+
+         slotMap.put( key, slot );
+      }
+      return slot;
+   }
+
+
+   /**
+    * Marks the slot as needing to be published (after its value is written).
+    **/
+   private void markDirty( TelemetrySlot slot )
+   {
+      if ( slot.dirty )
+      {
+         // Publisher hasn't got to the last one yet; so it's replaced
+         coalescedCount.incrementAndGet();
+      }
+      else
+      {
+         slot.dirty = true;
+      }
+   }
+
+
+   /**
+    * Makes every key get re-published on the next publish, whether changed or
+    * not (done when a dashboard connects).
+    **/
+   public void forceRefresh()
+   {
+      refreshAll.set( true );
+   }
+
+
+   /**
+    * Publishes the dirty slots (and refreshes any that are due) to the
+    * SmartDashboard. Only to be called by the publisher thread.
+    **/
+   public void publish()
+   {
+      if ( !enableSmartDashboard )
       {
-         SmartDashboard.putBoolean( key, value );
+         return;
+      }
+
+      final long now = TimeUtils.microTime();
+      // Read and clear together, so a refresh forced meanwhile isn't lost
+      final boolean refresh = refreshAll.getAndSet( false );
+
+      final TelemetrySlot[] current = slots;
+      for ( final TelemetrySlot slot : current )
+      {
+         if ( slot.dirty )
+         {
+            // Cleared before reading, so a put after this is not lost
+            slot.dirty = false;
+            publish( slot, now, false );
+         }
+         else if ( slot.valid
+            && ( refresh || ( ( now - slot.publishTime ) >= refreshPeriod ) ) )
+         {
+            publish( slot, now, true );
+         }
       }
    }
 
 
+   private void publish( TelemetrySlot slot, long now, boolean refresh )
+   {
+      try
+      {
+         switch ( slot.type )
+         {
+         case numberType:
+            publishNumber( slot, now, refresh );
+            break;
+         case booleanType:
+            publishBoolean( slot, now, refresh );
+            break;
+         case stringType:
+            publishString( slot, now, refresh );
+            break;
+         default:
+            break;
+         }
+      }
+      catch ( final RuntimeException ex )
+      {
+         logger.error( "failed to publish {}", slot.key, ex );
+      }
+   }
+
+
+   private void publishNumber( TelemetrySlot slot, long now,
+      boolean refresh )
+   {
+      final double value = slot.number;
+      if ( !refresh && slot.valid
+         && ( ( Math.abs( value - slot.publishedNumber ) <= slot.epsilon )
+            || ( Double.compare( value, slot.publishedNumber ) == 0 ) ) )
+      {
+         suppressedCount++;
+         return;
+      }
+      SmartDashboard.putNumber( slot.key, value );
+      slot.publishedNumber = value;
+      published( slot, now );
+   }
+
+
+   private void publishBoolean( TelemetrySlot slot, long now,
+      boolean refresh )
+   {
+      final boolean value = slot.bool;
+      if ( !refresh && slot.valid && ( value == slot.publishedBool ) )
+      {
+         suppressedCount++;
+         return;
+      }
+      SmartDashboard.putBoolean( slot.key, value );
+      slot.publishedBool = value;
+      published( slot, now );
+   }
+
+
+   private void publishString( TelemetrySlot slot, long now,
+      boolean refresh )
+   {
+      final String value = slot.string;
+      if ( !refresh && slot.valid && value.equals( slot.publishedString ) )
+      {
+         suppressedCount++;
+         return;
+      }
+      SmartDashboard.putString( slot.key, value );
+      slot.publishedString = value;
+      published( slot, now );
+   }
+
+
+   private void published( TelemetrySlot slot, long now )
+   {
+      slot.publishTime = now;
+      slot.valid = true;
+      publishedCount++;
+   }
+
+
+   /**
+    * @return count of puts replaced by a later put before being published
+    **/
+   public long getCoalescedCount()
+   {
+      return coalescedCount.get();
+   }
+
+
+   /**
+    * @return count of values published
+    **/
+   public long getPublishedCount()
+   {
+      return publishedCount;
+   }
+
+
+   /**
+    * @return count of values not published since they hadn't changed
+    **/
+   public long getSuppressedCount()
+   {
+      return suppressedCount;
+   }
+
+
+   /**
+    * Registers a number key (normally once, at construction), returning the
+    * handle to put it with.
+    *
+    * @param key - key of the number
+    * @return handle to the key
+    **/
+   public NumberEntry registerNumber( String key )
+   {
+      return new NumberEntry( this, register( key, numberType ) );
+   }
+
+
+   /**
+    * Registers a number key with how much it must change to be published.
+    *
+    * @param key - key of the number
+    * @param epsilon - smallest change to publish; 0 publishes every change
+    * @return handle to the key
+    **/
+   public NumberEntry registerNumber( String key, double epsilon )
+   {
+      final TelemetrySlot slot = register( key, numberType );
+      slot.epsilon = epsilon;
+      return new NumberEntry( this, slot );
+   }
+
+
+   /**
+    * Registers a boolean key (normally once, at construction), returning the
+    * handle to put it with.
+    *
+    * @param key - key of the boolean
+    * @return handle to the key
+    **/
+   public BooleanEntry registerBoolean( String key )
+   {
+      return new BooleanEntry( this, register( key, booleanType ) );
+   }
+
+
+   /**
+    * Registers a string key (normally once, at construction), returning the
+    * handle to put it with.
+    *
+    * @param key - key of the string
+    * @return handle to the key
+    **/
+   public StringEntry registerString( String key )
+   {
+      return new StringEntry( this, register( key, stringType ) );
+   }
+
+
+   private TelemetrySlot register( String key, int type )
+   {
+      final TelemetrySlot slot = getSlot( key );
+      synchronized ( this )
+      {
+         if ( ( slot.registeredType != noType )
+            && ( slot.registeredType != type ) )
+         {
+            logger.error( "{} registered as both {} and {}", key,
+               typeName( slot.registeredType ), typeName( type ) );
+         }
+         slot.registeredType = type;
+         slot.registrations++;
+      }
+      slot.recorderId = recorder.defineKey( key );
+      return slot;
+   }
+
+
+   private static String typeName( int type )
+   {
+      switch ( type )
+      {
+      case numberType:
+         return "number";
+      case booleanType:
+         return "boolean";
+      case stringType:
+         return "string";
+      default:
+         return "none";
+      }
+   }
+
+
+   /**
+    * Logs all the keys known so far (registered, or put by name), and warns
+    * about any registered more than once (which likely means two places are
+    * writing the same key).
+    **/
+   public synchronized void logKeys()
+   {
+      final TelemetrySlot[] current = slots;
+      int registeredCount = 0;
+      for ( final TelemetrySlot slot : current )
+      {
+         if ( slot.registrations == 0 )
+         {
+            logger.info( "key {}: {}, put by name", slot.key,
+               typeName( slot.type ) );
+            continue;
+         }
+         registeredCount++;
+         if ( slot.registrations > 1 )
+         {
+            logger.warn( "key {}: {}, registered {} times", slot.key,
+               typeName( slot.registeredType ), slot.registrations );
+         }
+         else
+         {
+            logger.info( "key {}: {}", slot.key,
+               typeName( slot.registeredType ) );
+         }
+      }
+      logger.info( "{} keys, {} registered", current.length, registeredCount );
+   }
+
+
+   public void putNumber( String key, double value )
+   {
+      putNumber( getSlot( key ), value );
+   }
+
+
+   public void putBoolean( String key, boolean value )
+   {
+      putBoolean( getSlot( key ), value );
+   }
+
+
    public void putString( String key, String value )
    {
-      if ( enableSmartDashboard )
+      putString( getSlot( key ), value );
+   }
+
+
+   void putNumber( TelemetrySlot slot, double value )
+   {
+      // Replayed commands go neither to the dashboard nor the recording
+      if ( ActuatorTrace.isStandIn() )
+      {
+         return;
+      }
+      recordNumber( slot, value );
+      if ( !enableSmartDashboard )
+      {
+         return;
+      }
+
+      slot.number = value;
+      slot.type = numberType;
+      markDirty( slot );
+   }
+
+
+   void putBoolean( TelemetrySlot slot, boolean value )
+   {
+      if ( ActuatorTrace.isStandIn() )
+      {
+         return;
+      }
+      recordBoolean( slot, value );
+      if ( !enableSmartDashboard )
+      {
+         return;
+      }
+
+      slot.bool = value;
+      slot.type = booleanType;
+      markDirty( slot );
+   }
+
+
+   void putString( TelemetrySlot slot, String value )
+   {
+      if ( ActuatorTrace.isStandIn() )
+      {
+         return;
+      }
+      recordString( slot, value );
+      if ( !enableSmartDashboard )
+      {
+         return;
+      }
+
+      slot.string = ( value == null ) ? "" : value;
+      slot.type = stringType;
+      markDirty( slot );
+   }
+
+
+   private void recordNumber( TelemetrySlot slot, double value )
+   {
+      final int id = slot.recorderId;
+      if ( id >= 0 )
+      {
+         recorder.recordNumber( id, value );
+      }
+      else
+      {
+         recorder.recordNumber( slot.key, value );
+      }
+   }
+
+
+   private void recordBoolean( TelemetrySlot slot, boolean value )
+   {
+      final int id = slot.recorderId;
+      if ( id >= 0 )
+      {
+         recorder.recordBoolean( id, value );
+      }
+      else
+      {
+         recorder.recordBoolean( slot.key, value );
+      }
+   }
+
+
+   private void recordString( TelemetrySlot slot, String value )
+   {
+      final int id = slot.recorderId;
+      if ( id >= 0 )
+      {
+         recorder.recordString( id, value );
+      }
+      else
       {
-         SmartDashboard.putString( key, value );
+         recorder.recordString( slot.key, value );
       }
    }
 
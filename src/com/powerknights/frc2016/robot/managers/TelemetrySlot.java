@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.robot.managers;
+
+
+
+/**
+ * Latest value put for a telemetry key (only the one of its type is used),
+ * and what was last published for it. Owned by the
+ * <code>SmartDashboardManager</code>; entries write to it directly.
+ *
+ * @author first.stu
+ **/
+final class TelemetrySlot
+{
+
+   final String key;
+
+   /*
+    * Written by the putting threads; the value is always written before the
+    * slot is marked dirty
+    */
+   volatile int type = SmartDashboardManager.noType;
+   volatile double number;
+   volatile boolean bool;
+   volatile String string;
+   volatile boolean dirty;
+
+   /** How much a number must change to be published **/
+   volatile double epsilon = SmartDashboardManager.defaultEpsilon;
+
+   /*
+    * Set when registered
+    */
+   /** Flight recorder id of the key (or -1 if not recording) **/
+   volatile int recorderId = -1;
+   /** Type the key was registered as **/
+   int registeredType = SmartDashboardManager.noType;
+   /** How many times the key was registered **/
+   int registrations = 0;
+
+   /*
+    * Only used by the publisher thread
+    */
+   double publishedNumber;
+   boolean publishedBool;
+   String publishedString;
+   /** When last published (usec) **/
+   long publishTime;
+   /** Whether there is a published value **/
+   boolean valid;
+
+
+   TelemetrySlot( String key )
+   {
+      this.key = key;
+   }
+
+}
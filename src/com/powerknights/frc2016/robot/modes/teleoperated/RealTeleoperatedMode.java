@@ -47,14 +47,16 @@ public class RealTeleoperatedMode
    @Override
    public void runIt()
    {
-      final Controller driverController = new DriverController();
-      final Controller operatorController = new OperatorController();
+      // Created (and started) once at robot initialization
+      final Controller driverController = DriverController.getInstance();
+      final Controller operatorController = OperatorController.getInstance();
 
       /*
-       * Start the controllers / enable them
+       * Enable the controllers (they re-initialize their gamepads for the mode
+       * start before processing any input)
        */
-      driverController.start();
-      operatorController.start();
+      driverController.resumeWork();
+      operatorController.resumeWork();
 
       /*
        * Temporary loop to allow everything in the thread to continue
@@ -64,8 +66,12 @@ public class RealTeleoperatedMode
          Timer.delay( 250 );
       }
 
-      driverController.quit();
-      operatorController.quit();
+      /*
+       * Stop processing input until the next time we're enabled (but leave the
+       * threads alive, so there's no start up cost then)
+       */
+      driverController.pauseWork();
+      operatorController.pauseWork();
    }
 
 }
@@ -48,14 +48,15 @@ public class SimpleDriveTeleoperatedMode
       lcdManager.logMessage( "Teloperated - Drive" );
 
       /*
-       * Create the controllers (one for driver only)
+       * Get the controllers (one for driver only; created and started once at
+       * robot initialization)
        */
-      final Controller driverController = new DriverController();
+      final Controller driverController = DriverController.getInstance();
 
       /*
-       * Start the controllers
+       * Enable the controllers
        */
-      driverController.start();
+      driverController.resumeWork();
 
       /*
        * Something just to hold us here so the threads keep running ...
@@ -66,9 +67,9 @@ public class SimpleDriveTeleoperatedMode
       }
 
       /*
-       * Stop the controllers
+       * Pause the controllers (threads stay alive for the next mode)
        */
-      driverController.quit();
+      driverController.pauseWork();
 
       logger.info( "finished" );
    }
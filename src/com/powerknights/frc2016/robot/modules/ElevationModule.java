@@ -11,11 +11,14 @@ package com.powerknights.frc2016.robot.modules;
 
 import org.slf4j.Logger;
 
+import com.powerknights.frc2016.riolog.PrimitiveLog;
 import com.powerknights.frc2016.riolog.RioLogger;
 import com.powerknights.frc2016.robot.config.ShooterConfig;
+import com.powerknights.frc2016.robot.managers.BooleanEntry;
+import com.powerknights.frc2016.robot.managers.NumberEntry;
 import com.powerknights.frc2016.robot.managers.PreferencesManager;
 import com.powerknights.frc2016.robot.sensors.ShooterElevation;
-import com.powerknights.frc2016.utils.StringUtils;
+import com.powerknights.frc2016.utils.ActuatorTrace;
 
 import edu.wpi.first.wpilibj.CANTalon;
 import edu.wpi.first.wpilibj.SpeedController;
@@ -87,8 +90,14 @@ public class ElevationModule
 
    /** Telemetry state name for motor **/
    private final String elevationMotorTelemetryState = elevationMotorName;
+   /** Telemetry state handle for motor **/
+   private final BooleanEntry elevationMotorStateEntry;
    /** Telemetry speed name for motor **/
    private final String elevationMotorTelemetrySpeed = "elevationSpeed";
+   /** Telemetry speed handle for motor **/
+   private final NumberEntry elevationMotorSpeedEntry;
+   /** Trace name for motor set point **/
+   private final String elevationSetPointTrace = "elevationSetPoint";
    /** Sensor for elevation encoder **/
    @SuppressWarnings( "unused" )
    private final ShooterElevation shooterElevation;
@@ -99,6 +108,8 @@ public class ElevationModule
    private boolean autoElevationActive;
    /** Telemetry state name for auto-elevation **/
    private final String autoElevationActiveTelemetryState = "autoElevation";
+   /** Telemetry state handle for auto-elevation **/
+   private final BooleanEntry autoElevationActiveStateEntry;
 
    /** Current encoder / PID set point for distance to target **/
    private double distanceSetPoint;
@@ -112,6 +123,13 @@ public class ElevationModule
    {
       logger.info( "constructing" );
 
+      autoElevationActiveStateEntry =
+         smartDashboard.registerBoolean( autoElevationActiveTelemetryState );
+      elevationMotorStateEntry =
+         smartDashboard.registerBoolean( elevationMotorTelemetryState );
+      elevationMotorSpeedEntry =
+         smartDashboard.registerNumber( elevationMotorTelemetrySpeed );
+
       motor = constructMotor();
       shooterElevation = constructEncoder();
 
@@ -236,13 +254,13 @@ public class ElevationModule
 
    private void setAutoElevationActive( boolean active )
    {
-      smartDashboard.putBoolean( autoElevationActiveTelemetryState, active );
+      autoElevationActiveStateEntry.put( active );
    }
 
 
    private void setMotorRunning( boolean motor )
    {
-      smartDashboard.putBoolean( elevationMotorTelemetryState, motor );
+      elevationMotorStateEntry.put( motor );
    }
 
 
@@ -324,6 +342,11 @@ public class ElevationModule
       }
       logger.debug( "setHome()" );
 
+      ActuatorTrace.record( elevationSetPointTrace, 0.0 );
+      if ( ActuatorTrace.isStandIn() )
+      {
+         return;
+      }
       getMotor().set( 0.0 );
    }
 
@@ -340,22 +363,29 @@ public class ElevationModule
          logger.trace( "not active; ignoring setForDistance()" );
          return;
       }
-      logger.trace( "setForDistance() @ {}", distance );
+      PrimitiveLog.trace( logger, "setForDistance() @ {}", distance );
 
       if ( !isUpdateToDistance( distance ) )
       {
-         logger.trace( "already at {} so ignore update", distance );
+         PrimitiveLog.trace( logger, "already at {} so ignore update",
+            distance );
          return;
       }
 
       distanceSetPoint = distance;
 
       final long clicks = convertDistanceToEncoder( distance );
-      logger.trace( "active and update required: distance={}, clicks={}",
-         StringUtils.format( distance, 2 ), clicks );
+      PrimitiveLog.trace( logger,
+         "active and update required: distance={}, clicks={}", distance,
+         clicks );
 
       final double revs = convertEncoderToRevolutions( clicks );
 
+      ActuatorTrace.record( elevationSetPointTrace, -15.10 );
+      if ( ActuatorTrace.isStandIn() )
+      {
+         return;
+      }
       getMotor().set( -15.10 ); // -15 14.5 14.75
    }
 
@@ -453,9 +483,14 @@ public class ElevationModule
     **/
    private void setMotorSpeed( double speed )
    {
-      logger.trace( "setMotorSpeed = {}", speed );
-      smartDashboard.putNumber( elevationMotorTelemetrySpeed, speed );
+      PrimitiveLog.trace( logger, "setMotorSpeed = {}", speed );
+      elevationMotorSpeedEntry.put( speed );
       setMotorRunning( !isZero( speed ) );
+      ActuatorTrace.record( elevationMotorTelemetrySpeed, speed );
+      if ( ActuatorTrace.isStandIn() )
+      {
+         return;
+      }
       motor.set( speed );
    }
 
@@ -11,10 +11,14 @@ package com.powerknights.frc2016.robot.modules;
 
 import org.slf4j.Logger;
 
+import com.powerknights.frc2016.riolog.PrimitiveLog;
 import com.powerknights.frc2016.riolog.RioLogger;
 import com.powerknights.frc2016.robot.config.ShooterConfig;
+import com.powerknights.frc2016.robot.managers.BooleanEntry;
+import com.powerknights.frc2016.robot.managers.NumberEntry;
 import com.powerknights.frc2016.robot.managers.PreferencesManager;
 import com.powerknights.frc2016.robot.sensors.FeederRotation;
+import com.powerknights.frc2016.utils.ActuatorTrace;
 import com.powerknights.frc2016.utils.StringUtils;
 
 import edu.wpi.first.wpilibj.CANTalon;
@@ -86,8 +90,14 @@ public class FeederModule
 
    /** Telemetry state name for motor **/
    private final String feederMotorTelemetryState = feederMotorName;
+   /** Telemetry state handle for motor **/
+   private final BooleanEntry feederMotorStateEntry;
    /** Telemetry speed name for motor **/
    private final String feederMotorTelemetrySpeed = "feederSpeed";
+   /** Telemetry speed handle for motor **/
+   private final NumberEntry feederMotorSpeedEntry;
+   /** Trace name for motor set point **/
+   private final String feederSetPointTrace = "feederSetPoint";
    /** Sensor for rotation encoder **/
    @SuppressWarnings( "unused" )
    private final FeederRotation feederRotation;
@@ -98,6 +108,8 @@ public class FeederModule
    private boolean pidRotationActive;
    /** Telemetry state name for PID-based rotation **/
    private final String autoRotationActiveTelemetryState = "pidRotation";
+   /** Telemetry state handle for PID-based rotation **/
+   private final BooleanEntry autoRotationActiveStateEntry;
 
    /** Current encoder / PID set point for rotation **/
    private FeederPosition positionSetPoint;
@@ -107,6 +119,13 @@ public class FeederModule
    {
       logger.info( "constructing" );
 
+      autoRotationActiveStateEntry =
+         smartDashboard.registerBoolean( autoRotationActiveTelemetryState );
+      feederMotorStateEntry =
+         smartDashboard.registerBoolean( feederMotorTelemetryState );
+      feederMotorSpeedEntry =
+         smartDashboard.registerNumber( feederMotorTelemetrySpeed );
+
       motor = constructMotor();
       feederRotation = constructEncoder();
 
@@ -235,13 +254,13 @@ public class FeederModule
 
    private void setPIDRotationActive( boolean active )
    {
-      smartDashboard.putBoolean( autoRotationActiveTelemetryState, active );
+      autoRotationActiveStateEntry.put( active );
    }
 
 
    private void setMotorRunning( boolean motor )
    {
-      smartDashboard.putBoolean( feederMotorTelemetryState, motor );
+      feederMotorStateEntry.put( motor );
    }
 
 
@@ -349,20 +368,27 @@ public class FeederModule
       System.out
          .println( "updateRevs=" + updateRevs + ", finalRevs=" + finalRevs );
 
-      logger.debug( "setting to: {} for position {}",
-         StringUtils.format( finalRevs, 3 ), position );
+      if ( logger.isDebugEnabled() )
+      {
+         logger.debug( "setting to: {} for position {}",
+            StringUtils.format( finalRevs, 3 ), position );
+      }
       System.out
          .println( "setting to " + finalRevs + " for position " + position );
 
+      ActuatorTrace.record( feederSetPointTrace, finalRevs );
+      if ( ActuatorTrace.isStandIn() )
+      {
+         return;
+      }
       getMotor().set( finalRevs );
    }
 
 
    private double correctToShortestPath( double currentRevs, double targetRevs )
    {
-      logger.debug( "currentRevs={}, targetRevs={}",
-         StringUtils.format( currentRevs, 3 ),
-         StringUtils.format( targetRevs, 3 ) );
+      PrimitiveLog.debug( logger, "currentRevs={}, targetRevs={}",
+         currentRevs, targetRevs );
 
       double retValue = 0;
       if ( currentRevs < targetRevs )
@@ -371,10 +397,8 @@ public class FeederModule
          final double distance2 = Math.abs( currentRevs + ( 1 - targetRevs ) );
 
          final double shortest = Math.min( distance1, distance2 );
-         logger.debug( "distance1={}, distance2={}, shortest={}",
-            StringUtils.format( distance1, 3 ),
-            StringUtils.format( distance2, 3 ),
-            StringUtils.format( shortest, 3 ) );
+         PrimitiveLog.debug( logger, "distance1={}, distance2={}, shortest={}",
+            distance1, distance2, shortest );
 
          if ( distance1 == shortest )
          {
@@ -391,10 +415,8 @@ public class FeederModule
          final double distance2 = Math.abs( ( 1 - currentRevs ) + targetRevs );
 
          final double shortest = Math.min( distance1, distance2 );
-         logger.debug( "distance1={}, distance2={}, shortest={}",
-            StringUtils.format( distance1, 3 ),
-            StringUtils.format( distance2, 3 ),
-            StringUtils.format( shortest, 3 ) );
+         PrimitiveLog.debug( logger, "distance1={}, distance2={}, shortest={}",
+            distance1, distance2, shortest );
 
          if ( distance1 == shortest )
          {
@@ -453,8 +475,13 @@ public class FeederModule
     **/
    private void setMotorSpeed( double speed )
    {
-      smartDashboard.putNumber( feederMotorTelemetrySpeed, speed );
+      feederMotorSpeedEntry.put( speed );
       setMotorRunning( !isZero( speed ) );
+      ActuatorTrace.record( feederMotorTelemetrySpeed, speed );
+      if ( ActuatorTrace.isStandIn() )
+      {
+         return;
+      }
       motor.set( speed );
    }
 
@@ -13,6 +13,9 @@ import org.slf4j.Logger;
 
 import com.powerknights.frc2016.riolog.RioLogger;
 import com.powerknights.frc2016.robot.config.LifterConfig;
+import com.powerknights.frc2016.robot.managers.BooleanEntry;
+import com.powerknights.frc2016.robot.managers.NumberEntry;
+import com.powerknights.frc2016.utils.ActuatorTrace;
 
 import edu.wpi.first.wpilibj.CANTalon;
 import edu.wpi.first.wpilibj.SpeedController;
@@ -72,14 +75,21 @@ public class ScissorLiftModule
 
    /** **/
    private final String telemetryStateName = "scissorLiftMotor";
+   /** Telemetry handle **/
+   private final BooleanEntry stateEntry;
    /** **/
    private final String telemetrySpeedName = "scissorLiftSpeed";
+   /** Telemetry handle **/
+   private final NumberEntry speedEntry;
 
 
    private ScissorLiftModule()
    {
       logger.info( "constructing" );
 
+      stateEntry = smartDashboard.registerBoolean( telemetryStateName );
+      speedEntry = smartDashboard.registerNumber( telemetrySpeedName );
+
       /*
        * Speed Controllers
        */
@@ -130,7 +140,7 @@ public class ScissorLiftModule
     **/
    private void setMotorRunning( boolean motor )
    {
-      smartDashboard.putBoolean( telemetryStateName, motor );
+      stateEntry.put( motor );
    }
 
 
@@ -207,9 +217,14 @@ public class ScissorLiftModule
     **/
    private void setMotorSpeed( double speed )
    {
-      smartDashboard.putNumber( telemetrySpeedName, speed );
+      speedEntry.put( speed );
       setMotorRunning( !isZero( speed ) );
 
+      ActuatorTrace.record( telemetrySpeedName, speed );
+      if ( ActuatorTrace.isStandIn() )
+      {
+         return;
+      }
       motor.set( speed );
    }
 
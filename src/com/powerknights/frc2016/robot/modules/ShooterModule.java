@@ -9,6 +9,9 @@ import org.slf4j.Logger;
 
 import com.powerknights.frc2016.riolog.RioLogger;
 import com.powerknights.frc2016.robot.config.ShooterConfig;
+import com.powerknights.frc2016.robot.managers.BooleanEntry;
+import com.powerknights.frc2016.robot.managers.NumberEntry;
+import com.powerknights.frc2016.utils.ActuatorTrace;
 
 import edu.wpi.first.wpilibj.CANTalon;
 import edu.wpi.first.wpilibj.SpeedController;
@@ -76,18 +79,35 @@ public class ShooterModule
 
    /** Telemetry state name for motor **/
    private final String leftMotorTelemetryState = "leftShooterMotor";
+   /** Telemetry state handle for motor **/
+   private final BooleanEntry leftMotorStateEntry;
    /** Telemetry speed name for motor **/
    private final String leftMotorTelemetrySpeed = "leftShooterSpeed";
+   /** Telemetry speed handle for motor **/
+   private final NumberEntry leftMotorSpeedEntry;
    /** Telemetry state name for motor **/
    private final String rightMotorTelemetryState = "rightShooterMotor";
+   /** Telemetry state handle for motor **/
+   private final BooleanEntry rightMotorStateEntry;
    /** Telemetry speed name for motor **/
    private final String rightMotorTelemetrySpeed = "rightShooterSpeed";
+   /** Telemetry speed handle for motor **/
+   private final NumberEntry rightMotorSpeedEntry;
 
 
    private ShooterModule()
    {
       logger.info( "constructing" );
 
+      leftMotorStateEntry =
+         smartDashboard.registerBoolean( leftMotorTelemetryState );
+      leftMotorSpeedEntry =
+         smartDashboard.registerNumber( leftMotorTelemetrySpeed );
+      rightMotorStateEntry =
+         smartDashboard.registerBoolean( rightMotorTelemetryState );
+      rightMotorSpeedEntry =
+         smartDashboard.registerNumber( rightMotorTelemetrySpeed );
+
       /*
        * Speed Controllers
        */
@@ -146,13 +166,13 @@ public class ShooterModule
 
    private void setLeftMotorRunning( boolean motor )
    {
-      smartDashboard.putBoolean( leftMotorTelemetryState, motor );
+      leftMotorStateEntry.put( motor );
    }
 
 
    private void setRightMotorRunning( boolean motor )
    {
-      smartDashboard.putBoolean( rightMotorTelemetryState, motor );
+      rightMotorStateEntry.put( motor );
    }
 
    /***********************************
@@ -246,11 +266,18 @@ public class ShooterModule
     */
    private void setMotorSpeeds( double leftSpeed, double rightSpeed )
    {
-      smartDashboard.putNumber( leftMotorTelemetrySpeed, leftSpeed );
+      leftMotorSpeedEntry.put( leftSpeed );
       setLeftMotorRunning( !isZero( leftSpeed ) );
-      smartDashboard.putNumber( rightMotorTelemetrySpeed, rightSpeed );
+      rightMotorSpeedEntry.put( rightSpeed );
       setRightMotorRunning( !isZero( rightSpeed ) );
 
+      ActuatorTrace.record( leftMotorTelemetrySpeed, leftSpeed );
+      ActuatorTrace.record( rightMotorTelemetrySpeed, rightSpeed );
+      if ( ActuatorTrace.isStandIn() )
+      {
+         return;
+      }
+
       leftMotor.set( leftSpeed );
       rightMotor.set( rightSpeed );
    }
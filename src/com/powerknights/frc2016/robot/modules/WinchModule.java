@@ -13,6 +13,9 @@ import org.slf4j.Logger;
 
 import com.powerknights.frc2016.riolog.RioLogger;
 import com.powerknights.frc2016.robot.config.LifterConfig;
+import com.powerknights.frc2016.robot.managers.BooleanEntry;
+import com.powerknights.frc2016.robot.managers.NumberEntry;
+import com.powerknights.frc2016.utils.ActuatorTrace;
 
 import edu.wpi.first.wpilibj.CANTalon;
 import edu.wpi.first.wpilibj.SpeedController;
@@ -84,18 +87,35 @@ public class WinchModule
 
    /** **/
    private final String leftMotorsTelemetryState = "leftWinchMotor(s)";
+   /** Telemetry handle **/
+   private final BooleanEntry leftMotorsStateEntry;
    /** **/
    private final String leftMotorsTelemetrySpeed = "leftWinchSpeed";
+   /** Telemetry handle **/
+   private final NumberEntry leftMotorsSpeedEntry;
    /** **/
    private final String rightMotorsTelemetryState = "rightWinchMotor(s)";
+   /** Telemetry handle **/
+   private final BooleanEntry rightMotorsStateEntry;
    /** **/
    private final String rightMotorsTelemetrySpeed = "rightWinchSpeed";
+   /** Telemetry handle **/
+   private final NumberEntry rightMotorsSpeedEntry;
 
 
    private WinchModule()
    {
       logger.info( "constructing" );
 
+      leftMotorsStateEntry =
+         smartDashboard.registerBoolean( leftMotorsTelemetryState );
+      leftMotorsSpeedEntry =
+         smartDashboard.registerNumber( leftMotorsTelemetrySpeed );
+      rightMotorsStateEntry =
+         smartDashboard.registerBoolean( rightMotorsTelemetryState );
+      rightMotorsSpeedEntry =
+         smartDashboard.registerNumber( rightMotorsTelemetrySpeed );
+
       /*
        * Speed Controllers
        */
@@ -195,13 +215,13 @@ public class WinchModule
 
    private void setLeftMotorsRunning( boolean motor )
    {
-      smartDashboard.putBoolean( leftMotorsTelemetryState, motor );
+      leftMotorsStateEntry.put( motor );
    }
 
 
    private void setRightMotorsRunning( boolean motor )
    {
-      smartDashboard.putBoolean( rightMotorsTelemetryState, motor );
+      rightMotorsStateEntry.put( motor );
    }
 
 
@@ -295,11 +315,18 @@ public class WinchModule
     **/
    private void setMotorSpeeds( double leftSpeed, double rightSpeed )
    {
-      smartDashboard.putNumber( leftMotorsTelemetrySpeed, leftSpeed );
+      leftMotorsSpeedEntry.put( leftSpeed );
       setLeftMotorsRunning( !isZero( leftSpeed ) );
-      smartDashboard.putNumber( rightMotorsTelemetrySpeed, rightSpeed );
+      rightMotorsSpeedEntry.put( rightSpeed );
       setRightMotorsRunning( !isZero( rightSpeed ) );
 
+      ActuatorTrace.record( leftMotorsTelemetrySpeed, leftSpeed );
+      ActuatorTrace.record( rightMotorsTelemetrySpeed, rightSpeed );
+      if ( ActuatorTrace.isStandIn() )
+      {
+         return;
+      }
+
       leftMotor.set( leftSpeed );
       leftAuxMotor.set( leftSpeed );
       rightMotor.set( rightSpeed );
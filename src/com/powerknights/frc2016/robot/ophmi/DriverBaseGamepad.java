@@ -76,6 +76,23 @@ public abstract class DriverBaseGamepad
    }
 
 
+   public int getAutoAimButton()
+   {
+      switch ( model )
+      {
+      case Xbox360:
+         return Xbox360Gamepad.getRightBumper();
+      case LogitechDualAction:
+         return LogitechDualActionGamepad.getRightBumper();
+      case LogitechF310:
+         return LogitechF301Gamepad.getRightBumper();
+      default:
+         logger.warn( "default gamepad used as none specified" );
+         return LogitechF301Gamepad.getRightBumper();
+      }
+   }
+
+
    public int getPitWinchEnableButton()
    {
       switch ( model )
@@ -14,13 +14,14 @@ package com.powerknights.frc2016.robot.ophmi;
 import org.slf4j.Logger;
 
 import com.powerknights.frc2016.riolog.Level;
+import com.powerknights.frc2016.riolog.PrimitiveLog;
 import com.powerknights.frc2016.riolog.RioLogger;
 import com.powerknights.frc2016.robot.config.hw.GamepadModels;
+import com.powerknights.frc2016.robot.managers.NumberEntry;
 import com.powerknights.frc2016.robot.managers.PreferencesManager;
 import com.powerknights.frc2016.robot.modules.WinchModule;
 import com.powerknights.frc2016.robot.subsystems.Chassis;
 import com.powerknights.frc2016.robot.subsystems.DriveTrain;
-import com.powerknights.frc2016.utils.StringUtils;
 
 import edu.wpi.first.wpilibj.Joystick;
 
@@ -46,7 +47,6 @@ public class DriverGamepad
    /** Handle to the robot drive **/
    private final DriveTrain drive;
    /** Handle to the robot chassis **/
-   @SuppressWarnings( "unused" )
    private final Chassis chassis;
 
    /** Whether to drive Stu's or WPI's way **/
@@ -59,6 +59,17 @@ public class DriverGamepad
    /** **/
    private boolean flattenInputs; // comes from I/O on laptop
 
+   /** 'Index' of the auto aim button (held to aim at the tower) **/
+   private final int autoAimButton;
+   /** Whether aiming (so the change is logged once) **/
+   private boolean aiming;
+
+   /** Telemetry handles for raw and adjusted speed and turn **/
+   private final NumberEntry hmiSpeedEntry;
+   private final NumberEntry speedEntry;
+   private final NumberEntry hmiTurnEntry;
+   private final NumberEntry turnEntry;
+
    /** 'Index' of the winch in speed input device axis (pit) **/
    private final int winchInAxis;
    /** 'Index' of the winch out speed input device axis (pit) **/
@@ -91,6 +102,13 @@ public class DriverGamepad
       speedAxis = getSpeedAxis();
       turnAxis = getTurnAxis();
 
+      autoAimButton = getAutoAimButton();
+
+      hmiSpeedEntry = smartDashboard.registerNumber( "hmiSpeed" );
+      speedEntry = smartDashboard.registerNumber( "speed" );
+      hmiTurnEntry = smartDashboard.registerNumber( "hmiTurn" );
+      turnEntry = smartDashboard.registerNumber( "turn" );
+
       winchInAxis = getPitWinchInAxis();
       winchOutAxis = getPitWinchOutAxis();
       winchEnableButton = getPitWinchEnableButton();
@@ -100,6 +118,18 @@ public class DriverGamepad
    }
 
 
+   /*
+    * (non-Javadoc)
+    *
+    * @see com.powerknights.frc2016.robot.ophmi.Gamepad#getStreamId()
+    */
+   @Override
+   protected int getStreamId()
+   {
+      return HidRecorder.driverStream;
+   }
+
+
    /*
     * (non-Javadoc)
     *
@@ -117,6 +147,7 @@ public class DriverGamepad
 
    private void initState()
    {
+      aiming = false;
    }
 
 
@@ -141,10 +172,27 @@ public class DriverGamepad
 
    private void processDriving()
    {
+      // Aiming takes over the driving while held
+      if ( isAutoAimButtonPressed() )
+      {
+         if ( !aiming )
+         {
+            logger.debug( "aiming at tower" );
+            aiming = true;
+         }
+         chassis.aimAtTower();
+         return;
+      }
+      if ( aiming )
+      {
+         logger.debug( "driving" );
+         aiming = false;
+      }
+
       final double speed = getSpeed();
-      smartDashboard.putNumber( "speed", speed );
+      speedEntry.put( speed );
       final double turn = getTurn();
-      smartDashboard.putNumber( "turn", turn );
+      turnEntry.put( turn );
 
       driveArcadeWay( speed, turn );
    }
@@ -173,10 +221,17 @@ public class DriverGamepad
    }
 
 
+   private boolean isAutoAimButtonPressed()
+   {
+      final boolean pressed = input.getRawButton( autoAimButton );
+      return pressed;
+   }
+
+
    private double getSpeed()
    {
-      final double speed = joystick.getRawAxis( speedAxis );
-      smartDashboard.putNumber( "hmiSpeed", speed );
+      final double speed = input.getRawAxis( speedAxis );
+      hmiSpeedEntry.put( speed );
       if ( isZero( speed ) )
       {
          return 0.0;
@@ -216,8 +271,8 @@ public class DriverGamepad
 
    private double getTurn()
    {
-      final double turn = joystick.getRawAxis( turnAxis );
-      smartDashboard.putNumber( "hmiTurn", turn );
+      final double turn = input.getRawAxis( turnAxis );
+      hmiTurnEntry.put( turn );
       if ( isZero( turn ) )
       {
          return 0.0;
@@ -273,9 +328,8 @@ public class DriverGamepad
       {
          final double winchInSpeed = getWinchInSpeed();
          final double winchOutSpeed = getWinchOutSpeed();
-         logger.debug( "PitWinch: in={}, out={}",
-            StringUtils.format( winchInSpeed, 2 ),
-            StringUtils.format( winchOutSpeed, 2 ) );
+         PrimitiveLog.debug( logger, "PitWinch: in={}, out={}", winchInSpeed,
+            winchOutSpeed );
          // TODO - Put in the actual call to winch movement
          if ( winchOutSpeed > 0.0 )
          {
@@ -298,14 +352,14 @@ public class DriverGamepad
 
    private boolean getWinchEnableButtonPressed()
    {
-      final boolean pressed = joystick.getRawButton( winchEnableButton );
+      final boolean pressed = input.getRawButton( winchEnableButton );
       return pressed;
    }
 
 
    private double getWinchInSpeed()
    {
-      final double speed = joystick.getRawAxis( winchInAxis );
+      final double speed = input.getRawAxis( winchInAxis );
       if ( isZero( speed ) )
       {
          return 0.0;
@@ -346,7 +400,7 @@ public class DriverGamepad
 
    private double getWinchOutSpeed()
    {
-      final double speed = joystick.getRawAxis( winchOutAxis );
+      final double speed = input.getRawAxis( winchOutAxis );
       if ( isZero( speed ) )
       {
          return 0.0;
@@ -11,6 +11,9 @@
 package com.powerknights.frc2016.robot.ophmi;
 
 
+import java.io.DataInputStream;
+import java.io.IOException;
+
 import org.slf4j.Logger;
 
 import com.powerknights.frc2016.riolog.RioLogger;
@@ -19,11 +22,20 @@ import com.powerknights.frc2016.robot.managers.DriverStationManager;
 import com.powerknights.frc2016.robot.managers.LCDManager;
 import com.powerknights.frc2016.robot.managers.PreferencesManager;
 import com.powerknights.frc2016.robot.managers.SmartDashboardManager;
+import com.powerknights.frc2016.utils.ActuatorTrace;
+import com.powerknights.frc2016.utils.IClock;
+import com.powerknights.frc2016.utils.TimeUtils;
 
 import edu.wpi.first.wpilibj.Joystick;
 
 
 /**
+ * Base of the gamepads. Each update (see <code>update()</code>) latches all
+ * the raw inputs first, and the gamepad reads them through its
+ * <code>HidInput</code>s rather than the joysticks; so the inputs can be
+ * recorded, and replayed against a simulated clock (gamepads take their time
+ * from <code>clock</code> rather than the FPGA).
+ *
  * @author first.stu
  **/
 public abstract class Gamepad
@@ -40,6 +52,22 @@ public abstract class Gamepad
 
    /** Handle to operator control device **/
    protected final Joystick joystick;
+   /** Latched inputs of the operator control device **/
+   protected final HidInput input;
+   /** All the latched inputs (control device first) **/
+   private HidInput[] inputs;
+
+   /** Clock being followed (simulated while replaying) **/
+   private volatile IClock timeSource;
+   /** Clock for gamepad timing; follows the current time source **/
+   protected final IClock clock;
+   /** Whether inputs are coming from a replay **/
+   private volatile boolean replaying;
+
+   /** Trace of actuator commands made by this gamepad **/
+   private final ActuatorTrace trace;
+   /** Handle to HID recorder **/
+   private final HidRecorder recorder;
 
    /** Handle to driver station to get inputs **/
    protected final DriverStationManager dsManager;
@@ -54,6 +82,31 @@ public abstract class Gamepad
    protected Gamepad( Joystick joystick )
    {
       this.joystick = joystick;
+      input = new HidInput( joystick );
+      inputs = new HidInput[] { input };
+
+      timeSource = TimeUtils.getFPGAClock();
+      clock = new IClock()
+      {
+
+         @Override
+         public long microTime()
+         {
+            return timeSource.microTime();
+         }
+
+
+         @Override
+         public void delay( long usecs )
+         {
+            timeSource.delay( usecs );
+         }
+
+      };
+      replaying = false;
+
+      trace = new ActuatorTrace();
+      recorder = HidRecorder.getInstance();
 
       dsManager = DriverStationManager.getInstance();
       smartDashboard = SmartDashboardManager.getInstance();
@@ -62,6 +115,147 @@ public abstract class Gamepad
    }
 
 
+   /**
+    * Adds another joystick to be latched (and recorded) with the gamepad's
+    * own; for gamepads that look at buttons on another controller.
+    *
+    * @param other - joystick to add
+    * @return latched inputs of the joystick
+    **/
+   protected HidInput addInput( Joystick other )
+   {
+      final HidInput added = new HidInput( other );
+      final HidInput[] newInputs = new HidInput[ inputs.length + 1 ];
+      System.arraycopy( inputs, 0, newInputs, 0, inputs.length );
+      newInputs[ inputs.length ] = added;
+      inputs = newInputs;
+      return added;
+   }
+
+
+   /**
+    * @return stream the gamepad is recorded as (see <code>HidRecorder</code>)
+    **/
+   protected abstract int getStreamId();
+
+
+   /**
+    * Starts a mode; to be used by the controller instead of calling
+    * <code>initForModeStart()</code> directly, so the start is recorded.
+    **/
+   public void startMode()
+   {
+      if ( !replaying )
+      {
+         recorder.recordModeStart( getStreamId(), clock.microTime(),
+            trace.getFingerprint() );
+      }
+
+      ActuatorTrace.bind( trace );
+      try
+      {
+         initForModeStart();
+      }
+      finally
+      {
+         ActuatorTrace.unbind();
+      }
+   }
+
+
+   /**
+    * Latches (and records) the current inputs, and processes them; to be used
+    * by the controller instead of calling <code>performUpdate()</code>
+    * directly.
+    **/
+   public void update()
+   {
+      if ( replaying )
+      {
+         // Replay drives the updates itself
+         return;
+      }
+
+      for ( final HidInput latched : inputs )
+      {
+         latched.latch();
+      }
+      recorder.recordUpdate( getStreamId(), clock.microTime(),
+         trace.getFingerprint(), inputs );
+
+      processInputs();
+   }
+
+
+   private void processInputs()
+   {
+      ActuatorTrace.bind( trace );
+      try
+      {
+         performUpdate();
+      }
+      finally
+      {
+         ActuatorTrace.unbind();
+      }
+   }
+
+
+   /**
+    * Switches the gamepad over to replayed inputs on the clock, with its trace
+    * standing in for the actuators. The gamepad's controller must be paused
+    * while replaying.
+    **/
+   void startReplay( IClock replayClock )
+   {
+      timeSource = replayClock;
+      trace.reset();
+      trace.setStandIn( true );
+      replaying = true;
+   }
+
+
+   /**
+    * Switches the gamepad back to live inputs and real time.
+    **/
+   void stopReplay()
+   {
+      replaying = false;
+      trace.setStandIn( false );
+      timeSource = TimeUtils.getFPGAClock();
+   }
+
+
+   /**
+    * Replays a recorded update: the inputs are read from the recording.
+    **/
+   void replayUpdate( DataInputStream in )
+      throws IOException
+   {
+      final int count = in.readUnsignedByte();
+      if ( count != inputs.length )
+      {
+         throw new IOException( "recorded " + count + " inputs, gamepad has "
+            + inputs.length );
+      }
+      for ( final HidInput latched : inputs )
+      {
+         latched.read( in );
+      }
+
+      processInputs();
+   }
+
+
+   /**
+    * @return trace of the actuator commands made by this gamepad
+    **/
+   ActuatorTrace getTrace()
+   {
+      return trace;
+   }
+
+
    /**
     * Determines whether input is to be considered 'zero' or not. This allows
     * for the slop in the input devices, where they don't necessarily drop to
@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.robot.ophmi;
+
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import edu.wpi.first.wpilibj.Joystick;
+
+
+/**
+ * Latched copy of all the raw axis, button and POV values of a joystick; so a
+ * gamepad sees one consistent set of inputs per update, and the set can be
+ * recorded and later replayed exactly (axis values are kept as the doubles
+ * that were read).
+ * <p>
+ * Indexes follow the <code>Joystick</code> (buttons are from 1); anything
+ * outside of what the joystick reported reads as 0, not pressed, or -1 (POV).
+ *
+ * @author first.stu
+ **/
+public class HidInput
+{
+
+   /** Most axes the driver station reports **/
+   private static final int maxAxes = 12;
+   /** Most buttons (held as bits of an int) **/
+   private static final int maxButtons = 32;
+   /** Most POVs the driver station reports **/
+   private static final int maxPOVs = 4;
+
+   /** Most bytes <code>write()</code> puts in **/
+   static final int maxRecordSize =
+      1 + ( maxAxes * 8 ) + 1 + 4 + 1 + ( maxPOVs * 2 );
+
+   /** Joystick the inputs are read from **/
+   private final Joystick joystick;
+
+   /** Raw axis values **/
+   private final double[] axes;
+   private int axisCount;
+   /** Raw buttons (button n is bit n-1) **/
+   private int buttons;
+   private int buttonCount;
+   /** Raw POV angles **/
+   private final int[] povs;
+   private int povCount;
+
+
+   public HidInput( Joystick joystick )
+   {
+      this.joystick = joystick;
+
+      axes = new double[ maxAxes ];
+      povs = new int[ maxPOVs ];
+   }
+
+
+   /**
+    * Reads all the current values from the joystick.
+    **/
+   public void latch()
+   {
+      axisCount = Math.min( joystick.getAxisCount(), maxAxes );
+      for ( int i = 0; i < axisCount; i++ )
+      {
+         axes[ i ] = joystick.getRawAxis( i );
+      }
+
+      buttonCount = Math.min( joystick.getButtonCount(), maxButtons );
+      int pressed = 0;
+      for ( int i = 0; i < buttonCount; i++ )
+      {
+         if ( joystick.getRawButton( i + 1 ) )
+         {
+            pressed |= ( 1 << i );
+         }
+      }
+      buttons = pressed;
+
+      povCount = Math.min( joystick.getPOVCount(), maxPOVs );
+      for ( int i = 0; i < povCount; i++ )
+      {
+         povs[ i ] = joystick.getPOV( i );
+      }
+   }
+
+
+   public double getRawAxis( int axis )
+   {
+      if ( ( axis < 0 ) || ( axis >= axisCount ) )
+      {
+         return 0.0;
+      }
+      return axes[ axis ];
+   }
+
+
+   public boolean getRawButton( int button )
+   {
+      if ( ( button < 1 ) || ( button > buttonCount ) )
+      {
+         return false;
+      }
+      return ( buttons & ( 1 << ( button - 1 ) ) ) != 0;
+   }
+
+
+   public int getPOV( int pov )
+   {
+      if ( ( pov < 0 ) || ( pov >= povCount ) )
+      {
+         return -1;
+      }
+      return povs[ pov ];
+   }
+
+
+   /**
+    * Writes the latched values (see <code>HidRecorder</code> for the layout).
+    **/
+   void write( ByteBuffer out )
+   {
+      out.put( (byte) axisCount );
+      for ( int i = 0; i < axisCount; i++ )
+      {
+         out.putDouble( axes[ i ] );
+      }
+      out.put( (byte) buttonCount );
+      out.putInt( buttons );
+      out.put( (byte) povCount );
+      for ( int i = 0; i < povCount; i++ )
+      {
+         out.putShort( (short) povs[ i ] );
+      }
+   }
+
+
+   /**
+    * Replaces the latched values with ones read from a recording.
+    **/
+   void read( DataInputStream in )
+      throws IOException
+   {
+      axisCount = Math.min( in.readUnsignedByte(), maxAxes );
+      for ( int i = 0; i < axisCount; i++ )
+      {
+         axes[ i ] = in.readDouble();
+      }
+      buttonCount = Math.min( in.readUnsignedByte(), maxButtons );
+      buttons = in.readInt();
+      povCount = Math.min( in.readUnsignedByte(), maxPOVs );
+      for ( int i = 0; i < povCount; i++ )
+      {
+         povs[ i ] = in.readShort();
+      }
+   }
+
+}
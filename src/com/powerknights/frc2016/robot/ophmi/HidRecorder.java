@@ -0,0 +1,461 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.robot.ophmi;
+
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+
+import com.powerknights.frc2016.riolog.RioLogger;
+import com.powerknights.frc2016.utils.ActuatorTrace;
+
+
+/**
+ * Records the raw inputs every gamepad update latched (and when each mode
+ * started), so a match can be replayed through the gamepads afterwards with
+ * the <code>HidReplayer</code>.
+ * <p>
+ * The recording (<code>hid-NNN.rec</code> on the log drive) is a header
+ * followed by entries, all big-endian:
+ *
+ * <pre>
+ * header:  long magic, int version
+ * entry:   byte type, byte stream, long time (usec), long fingerprint,
+ *          then for an update: byte inputCount, and per input
+ *             byte axisCount, double[] axes, byte buttonCount, int buttons,
+ *             byte povCount, short[] povs
+ * </pre>
+ *
+ * The fingerprint is the gamepad's actuator trace before the entry; replay
+ * checks it matches at every entry.
+ * <p>
+ * The gamepads' threads never wait on the file (or each other): an entry is
+ * put into a slot of a fixed size ring (allocated up front), claimed with a
+ * compare-and-set, and a writer thread of its own writes the slots out to the
+ * log drive. If the ring is full, the entry is dropped (and counted); the
+ * replay will then show a mismatch at that point.
+ *
+ * @author first.stu
+ **/
+public class HidRecorder
+{
+
+   /** Our classes' logger **/
+   private static final Logger logger =
+      RioLogger.getLogger( HidRecorder.class.getName() );
+
+   /** Singleton instance of class for all to use **/
+   private static HidRecorder ourInstance;
+
+
+   /**
+    * Constructs the singleton instance of the HID recorder. Assumed to be
+    * called before the gamepads are constructed; and verifies only called
+    * once.
+    *
+    * @param enabled - whether to record (if there is a log drive)
+    * @throws IllegalStateException
+    **/
+   public static synchronized void constructInstance( boolean enabled )
+   {
+      if ( ourInstance != null )
+      {
+         throw new IllegalStateException( "HidRecorder Already Constructed" );
+      }
+      ourInstance = new HidRecorder( enabled );
+   }
+
+
+   /**
+    * Returns the singleton instance of the HID recorder. Verifies the recorder
+    * has been successfully created prior to use.
+    *
+    * @return singleton instance of HID recorder
+    * @throws IllegalStateException
+    **/
+   public static HidRecorder getInstance()
+   {
+      if ( ourInstance == null )
+      {
+         throw new IllegalStateException( "HidRecorder Not Constructed Yet" );
+      }
+      return ourInstance;
+   }
+
+   /** "501HIDRC" **/
+   static final long magic = 0x3530314849445243L;
+   static final int version = 1;
+
+   /** Entry types **/
+   static final int updateEntry = 1;
+   static final int modeStartEntry = 2;
+
+   /** Streams (one per gamepad) **/
+   public static final int driverStream = 0;
+   public static final int operatorStream = 1;
+   static final int streamCount = 2;
+
+   /** Name of recording files (numbered like the log files) **/
+   private static final String recordFileName = "hid-";
+   /** Extension of recording files **/
+   private static final String recordFileExtension = ".rec";
+
+   /** Most inputs an update entry holds **/
+   private static final int maxInputs = 4;
+   /** Size of the start of an entry (type, stream, time, fingerprint) **/
+   private static final int entryHeaderSize = 1 + 1 + 8 + 8;
+   /** Size of each slot; room for the largest entry **/
+   private static final int slotSize =
+      entryHeaderSize + 1 + ( maxInputs * HidInput.maxRecordSize );
+   /** Number of slots (about 5 sec of both gamepads at 10 msec) **/
+   private static final int slotCount = 1024;
+   /** How long the writer waits when the ring is empty (msec) **/
+   private static final long idleWait = 20;
+
+   /** Recording file (or null if not recording) **/
+   private final OutputStream out;
+   /** Whether still recording (stops on a write failure) **/
+   private volatile boolean recording;
+
+   /** Entries waiting to be written; each slot holds one **/
+   private final ByteBuffer[] slots;
+   /**
+    * Sequence of each slot; equals the position when free to be put in, and
+    * position + 1 when holding an entry to be written
+    **/
+   private final AtomicLongArray sequences;
+   private final int mask;
+   /** Next position to be put in **/
+   private final AtomicLong tail;
+   /** Next position to be written (only changed by the writer) **/
+   private volatile long head;
+
+   /** Count of entries dropped (ring full, or too many inputs) **/
+   private final AtomicLong droppedCount;
+   /** Whether the file has been asked to be flushed **/
+   private volatile boolean flushRequested;
+
+   /** Writer thread (or null if not recording) **/
+   private final Thread writer;
+
+
+   private HidRecorder( boolean enabled )
+   {
+      logger.info( "constructing" );
+
+      OutputStream stream = null;
+      if ( enabled && RioLogger.useLogFiles() )
+      {
+         stream = openFile();
+      }
+      out = stream;
+      recording = ( out != null );
+
+      final int size = recording ? slotCount : 1;
+      slots = new ByteBuffer[ size ];
+      sequences = new AtomicLongArray( size );
+      for ( int i = 0; i < size; i++ )
+      {
+         slots[ i ] = ByteBuffer.allocate( recording ? slotSize : 0 );
+         sequences.set( i, i );
+      }
+      mask = size - 1;
+      tail = new AtomicLong( 0 );
+      head = 0;
+
+      droppedCount = new AtomicLong( 0 );
+      flushRequested = false;
+
+      if ( recording )
+      {
+         writer = new Thread( new Runnable()
+         {
+
+            @Override
+            public void run()
+            {
+               write();
+            }
+         }, "HID Recorder" );
+         writer.setDaemon( true );
+         writer.setPriority( Thread.MIN_PRIORITY );
+         writer.start();
+
+         // Live actuator commands are traced so replays can be checked
+         ActuatorTrace.setEnabled( true );
+      }
+      else
+      {
+         writer = null;
+      }
+
+      logger.info( "constructed; recording={}", recording );
+   }
+
+
+   private static OutputStream openFile()
+   {
+      final String fileName = findFileName();
+      logger.info( "recording to {}", fileName );
+
+      try
+      {
+         final OutputStream stream =
+            new BufferedOutputStream( new FileOutputStream( fileName ) );
+         final ByteBuffer header = ByteBuffer.allocate( 8 + 4 );
+         header.putLong( magic );
+         header.putInt( version );
+         stream.write( header.array() );
+         return stream;
+      }
+      catch ( final IOException ex )
+      {
+         logger.error( "failed to set up recording; not recording", ex );
+         return null;
+      }
+   }
+
+
+   /**
+    * @return name of first recording not used yet
+    **/
+   private static String findFileName()
+   {
+      final StringBuilder buf = new StringBuilder();
+      buf.append( RioLogger.getLogDirectory() ).append( recordFileName );
+      final int keepBufLen = buf.length();
+      for ( int i = 1; i <= 100; i++ )
+      {
+         buf.setLength( keepBufLen );
+         buf.append( String.format( "%03d", i ) ).append( recordFileExtension );
+         if ( !new File( buf.toString() ).exists() )
+         {
+            break;
+         }
+      }
+      // If we get to 100; we are just going to re-use it regardless
+      return buf.toString();
+   }
+
+
+   public boolean isRecording()
+   {
+      return recording;
+   }
+
+
+   /**
+    * @return how many entries were dropped (not recorded)
+    **/
+   public long getDroppedCount()
+   {
+      return droppedCount.get();
+   }
+
+
+   /**
+    * Records the inputs latched for an update of a gamepad (never blocks).
+    **/
+   void recordUpdate( int stream, long time, long fingerprint,
+      HidInput[] inputs )
+   {
+      if ( !recording )
+      {
+         return;
+      }
+      if ( inputs.length > maxInputs )
+      {
+         droppedCount.incrementAndGet();
+         return;
+      }
+      final long position = claim();
+      if ( position < 0 )
+      {
+         return;
+      }
+      final ByteBuffer slot = slots[ (int) position & mask ];
+      putEntry( slot, updateEntry, stream, time, fingerprint );
+      slot.put( (byte) inputs.length );
+      for ( final HidInput input : inputs )
+      {
+         input.write( slot );
+      }
+      publish( position );
+   }
+
+
+   /**
+    * Records the start of a mode for a gamepad (never blocks).
+    **/
+   void recordModeStart( int stream, long time, long fingerprint )
+   {
+      if ( !recording )
+      {
+         return;
+      }
+      final long position = claim();
+      if ( position < 0 )
+      {
+         return;
+      }
+      putEntry( slots[ (int) position & mask ], modeStartEntry, stream, time,
+         fingerprint );
+      publish( position );
+   }
+
+
+   private static void putEntry( ByteBuffer slot, int type, int stream,
+      long time, long fingerprint )
+   {
+      slot.clear();
+      slot.put( (byte) type );
+      slot.put( (byte) stream );
+      slot.putLong( time );
+      slot.putLong( fingerprint );
+   }
+
+
+   /**
+    * @return position of the slot claimed, or -1 if the entry was dropped
+    **/
+   private long claim()
+   {
+      while ( true )
+      {
+         final long position = tail.get();
+         final long available =
+            sequences.get( (int) position & mask ) - position;
+         if ( available == 0 )
+         {
+            if ( tail.compareAndSet( position, position + 1 ) )
+            {
+               return position;
+            }
+         }
+         else if ( available < 0 )
+         {
+            // Still holding an entry from a lap ago; so full
+            droppedCount.incrementAndGet();
+            return -1;
+         }
+         // Else the other gamepad got this slot first; try the next one
+      }
+   }
+
+
+   private void publish( long position )
+   {
+      sequences.set( (int) position & mask, position + 1 );
+   }
+
+
+   /**
+    * Asks for what has been recorded to be pushed out to the file (e.g., when
+    * disabled); the writer thread does it shortly after.
+    **/
+   public void flush()
+   {
+      if ( !recording )
+      {
+         return;
+      }
+      flushRequested = true;
+      LockSupport.unpark( writer );
+   }
+
+
+   /**
+    * Writer thread; writes out entries until the recording fails.
+    **/
+   private void write()
+   {
+      long loggedDrops = 0;
+      try
+      {
+         while ( recording )
+         {
+            final int count = writeEntries();
+            if ( flushRequested )
+            {
+               flushRequested = false;
+               out.flush();
+            }
+
+            final long drops = droppedCount.get();
+            if ( drops != loggedDrops )
+            {
+               logger.warn( "dropped {} entries (ring full)", drops );
+               loggedDrops = drops;
+            }
+
+            if ( count == 0 )
+            {
+               LockSupport
+                  .parkNanos( TimeUnit.MILLISECONDS.toNanos( idleWait ) );
+            }
+         }
+      }
+      catch ( final IOException ex )
+      {
+         stopRecording( ex );
+      }
+   }
+
+
+   /**
+    * @return how many entries were written
+    **/
+   private int writeEntries()
+      throws IOException
+   {
+      int count = 0;
+      while ( true )
+      {
+         final long position = head;
+         final int index = (int) position & mask;
+         if ( sequences.get( index ) != ( position + 1 ) )
+         {
+            break;
+         }
+         final ByteBuffer slot = slots[ index ];
+         out.write( slot.array(), 0, slot.position() );
+
+         sequences.lazySet( index, position + slots.length );
+         head = position + 1;
+         count++;
+      }
+      return count;
+   }
+
+
+   private void stopRecording( IOException ex )
+   {
+      logger.error( "failed to write recording; stopping", ex );
+      recording = false;
+      try
+      {
+         out.close();
+      }
+      catch ( final IOException ignored )
+      {
+         // Already failed
+      }
+   }
+
+}
@@ -0,0 +1,278 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.robot.ophmi;
+
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import org.slf4j.Logger;
+
+import com.powerknights.frc2016.riolog.RioLogger;
+import com.powerknights.frc2016.utils.ActuatorTrace;
+import com.powerknights.frc2016.utils.SimulatedClock;
+import com.powerknights.frc2016.utils.TimeUtils;
+
+
+/**
+ * Replays a <code>HidRecorder</code> recording through the gamepads: each
+ * recorded update has its inputs loaded and is processed by the gamepad's
+ * <code>performUpdate()</code>, on a simulated clock set to when it was
+ * recorded. Nothing waits for real time, so a match replays in however long
+ * the processing takes.
+ * <p>
+ * Each gamepad's actuator trace is checked against the one recorded; any
+ * mismatch means the replay didn't command exactly what the live run did
+ * (e.g., because a gamepad's behaviour depends on sensors, or was changed).
+ * <p>
+ * The gamepads' traces stand in for the actuators while replaying, so the
+ * replayed commands (and their telemetry) go nowhere but the traces. The
+ * gamepads' controllers must be paused while replaying; it is done in test
+ * mode, on a thread of its own (see <code>BaseRobot</code>).
+ *
+ * @author first.stu
+ **/
+public class HidReplayer
+{
+
+   /** Our classes' logger **/
+   private static final Logger logger =
+      RioLogger.getLogger( HidReplayer.class.getName() );
+
+   /** Gamepads by stream **/
+   private final Gamepad[] gamepads;
+
+   /** Number of updates replayed **/
+   private long updateCount;
+   /** Number of mode starts replayed **/
+   private long modeStartCount;
+   /** Number of entries whose actuator trace didn't match **/
+   private long mismatchCount;
+   /** Recorded time of the first mismatch (usec), or 0 if none **/
+   private long firstMismatchTime;
+   /** Recorded time covered by the replay (usec) **/
+   private long replayedTime;
+   /** Whether to stop replaying (e.g., on leaving test mode) **/
+   private volatile boolean stopRequested;
+
+
+   /**
+    * @param gamepads - gamepads to replay through (any not in the recording
+    *           are left alone; streams without one are skipped)
+    **/
+   public HidReplayer( Gamepad... gamepads )
+   {
+      this.gamepads = new Gamepad[ HidRecorder.streamCount ];
+      for ( final Gamepad gamepad : gamepads )
+      {
+         this.gamepads[ gamepad.getStreamId() ] = gamepad;
+      }
+   }
+
+
+   /**
+    * Replays the whole recording.
+    *
+    * @param fileName - recording to replay
+    * @return number of entries whose actuator trace didn't match
+    * @throws IOException if the recording can't be read
+    **/
+   public long replay( String fileName )
+      throws IOException
+   {
+      logger.info( "replaying {}", fileName );
+
+      updateCount = 0;
+      modeStartCount = 0;
+      mismatchCount = 0;
+      firstMismatchTime = 0;
+      replayedTime = 0;
+
+      final DataInputStream in = new DataInputStream(
+         new BufferedInputStream( new FileInputStream( fileName ) ) );
+      final boolean wasTracing = ActuatorTrace.isEnabled();
+      try
+      {
+         if ( in.readLong() != HidRecorder.magic )
+         {
+            throw new IOException( fileName + " is not a HID recording" );
+         }
+         final int version = in.readInt();
+         if ( version != HidRecorder.version )
+         {
+            throw new IOException( "unknown recording version " + version );
+         }
+
+         ActuatorTrace.setEnabled( true );
+         final long wallStart = System.nanoTime();
+         replayEntries( in );
+         final long wallTime = System.nanoTime() - wallStart;
+         if ( stopRequested )
+         {
+            logger.warn( "replay stopped before the end of {}", fileName );
+         }
+
+         logger.info(
+            "replayed {} updates, {} mode starts, {} sec in {} msec; "
+               + "{} mismatches (first at {})",
+            updateCount, modeStartCount, replayedTime / 1.0e6,
+            TimeUtils.usecToMsec( wallTime / 1000 ), mismatchCount,
+            firstMismatchTime );
+      }
+      finally
+      {
+         ActuatorTrace.setEnabled( wasTracing );
+         in.close();
+      }
+      return mismatchCount;
+   }
+
+
+   private void replayEntries( DataInputStream in )
+      throws IOException
+   {
+      SimulatedClock clock = null;
+      long startTime = 0;
+      try
+      {
+         while ( !stopRequested )
+         {
+            final int type;
+            try
+            {
+               type = in.readUnsignedByte();
+            }
+            catch ( final EOFException ex )
+            {
+               // End of recording
+               break;
+            }
+            final int stream = in.readUnsignedByte();
+            final long time = in.readLong();
+            final long fingerprint = in.readLong();
+
+            if ( clock == null )
+            {
+               clock = new SimulatedClock( time );
+               startTime = time;
+               for ( final Gamepad gamepad : gamepads )
+               {
+                  if ( gamepad != null )
+                  {
+                     gamepad.startReplay( clock );
+                  }
+               }
+            }
+            clock.set( time );
+            replayedTime = time - startTime;
+
+            final Gamepad gamepad =
+               ( stream < gamepads.length ) ? gamepads[ stream ] : null;
+            if ( gamepad == null )
+            {
+               throw new IOException( "no gamepad for stream " + stream );
+            }
+            checkTrace( gamepad, time, fingerprint );
+
+            if ( type == HidRecorder.updateEntry )
+            {
+               gamepad.replayUpdate( in );
+               updateCount++;
+            }
+            else if ( type == HidRecorder.modeStartEntry )
+            {
+               gamepad.startMode();
+               modeStartCount++;
+            }
+            else
+            {
+               throw new IOException( "unknown entry type " + type );
+            }
+         }
+      }
+      finally
+      {
+         for ( final Gamepad gamepad : gamepads )
+         {
+            if ( gamepad != null )
+            {
+               gamepad.stopReplay();
+            }
+         }
+      }
+   }
+
+
+   /**
+    * Stops a replay in progress (from another thread); the rest of the
+    * recording is skipped.
+    **/
+   public void stop()
+   {
+      stopRequested = true;
+   }
+
+
+   private void checkTrace( Gamepad gamepad, long time, long fingerprint )
+   {
+      if ( gamepad.getTrace().getFingerprint() == fingerprint )
+      {
+         return;
+      }
+      if ( mismatchCount == 0 )
+      {
+         firstMismatchTime = time;
+         logger.warn( "actuator trace of stream {} differs at {}",
+            gamepad.getStreamId(), time );
+      }
+      mismatchCount++;
+      // Carry on from the recorded trace, so only new differences count
+      gamepad.getTrace().reset( fingerprint );
+   }
+
+
+   public long getUpdateCount()
+   {
+      return updateCount;
+   }
+
+
+   public long getModeStartCount()
+   {
+      return modeStartCount;
+   }
+
+
+   public long getMismatchCount()
+   {
+      return mismatchCount;
+   }
+
+
+   /**
+    * @return recorded time of the first mismatch (usec), or 0 if none
+    **/
+   public long getFirstMismatchTime()
+   {
+      return firstMismatchTime;
+   }
+
+
+   /**
+    * @return recorded time covered by the last replay (usec)
+    **/
+   public long getReplayedTime()
+   {
+      return replayedTime;
+   }
+
+}
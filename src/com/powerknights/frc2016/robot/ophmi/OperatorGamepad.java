@@ -13,16 +13,19 @@ package com.powerknights.frc2016.robot.ophmi;
 
 import org.slf4j.Logger;
 
+import com.powerknights.frc2016.riolog.PrimitiveLog;
 import com.powerknights.frc2016.riolog.RioLogger;
 import com.powerknights.frc2016.robot.config.hw.GamepadModels;
+import com.powerknights.frc2016.robot.managers.BooleanEntry;
 import com.powerknights.frc2016.robot.modules.FeederPosition;
 import com.powerknights.frc2016.robot.subsystems.Chassis;
 import com.powerknights.frc2016.robot.subsystems.DriveTrain;
 import com.powerknights.frc2016.robot.subsystems.Lifter;
 import com.powerknights.frc2016.robot.subsystems.Shooter;
+import com.powerknights.frc2016.utils.ElapsedTimer;
+import com.powerknights.frc2016.utils.TimeUtils;
 
 import edu.wpi.first.wpilibj.Joystick;
-import edu.wpi.first.wpilibj.Timer;
 
 
 /**
@@ -75,7 +78,7 @@ public class OperatorGamepad
    private boolean lastAutoElevationButton;
 
    /** Shoot timer for automatic control **/
-   private final Timer shootTimer;
+   private final ElapsedTimer shootTimer;
    /** Speed to be used for shooter **/
    private static final double defaultShotSpeed = 1.00;
 
@@ -89,14 +92,16 @@ public class OperatorGamepad
    private boolean feederPositionActive;
 
    /** Hang timer for automatic control **/
-   private final Timer hangTimer;
+   private final ElapsedTimer hangTimer;
    /** Flag to keep state on hanging process **/
    private boolean doingHanging;
    /** Telemetry state name for hanging **/
    private final String doingHangingTelemetryState = "doingHanging";
+   /** Telemetry state handle for hanging **/
+   private final BooleanEntry doingHangingStateEntry;
 
-   /** Handle to Driver's joystick for two-person control **/
-   private final Joystick driverJoystick;
+   /** Latched inputs of Driver's joystick for two-person control **/
+   private final HidInput driverInput;
    /** Driver control button IDs **/
    private final int liftEnableButton1;
    /** Driver control button IDs **/
@@ -105,6 +110,8 @@ public class OperatorGamepad
    private boolean liftEnabled;
    /** Telemetry state name for hanging **/
    private final String liftEnabledTelemetryState = "liftEnabled";
+   /** Telemetry state handle for hanging **/
+   private final BooleanEntry liftEnabledStateEntry;
 
 
    public OperatorGamepad( Joystick joystick, GamepadModels model,
@@ -113,6 +120,11 @@ public class OperatorGamepad
       super( joystick, model );
       logger.info( "constructing for " + model );
 
+      doingHangingStateEntry =
+         smartDashboard.registerBoolean( doingHangingTelemetryState );
+      liftEnabledStateEntry =
+         smartDashboard.registerBoolean( liftEnabledTelemetryState );
+
       drive = DriveTrain.getInstance();
       chassis = Chassis.getInstance();
       shooter = Shooter.getInstance();
@@ -128,14 +140,14 @@ public class OperatorGamepad
       feederSpeedAxis = getFeederSpeedAxis();
       feederPositionPOVIndex = getFeederPositionPOVIndex();
 
-      shootTimer = new Timer();
+      shootTimer = new ElapsedTimer( clock );
 
       latchButton = getLatchButton();
       liftButton = getLiftButton();
 
-      hangTimer = new Timer();
+      hangTimer = new ElapsedTimer( clock );
 
-      this.driverJoystick = driverJoystick;
+      driverInput = addInput( driverJoystick );
       liftEnableButton1 = getLiftEnableButton1();
       liftEnableButton2 = getLiftEnableButton2();
 
@@ -143,6 +155,18 @@ public class OperatorGamepad
    }
 
 
+   /*
+    * (non-Javadoc)
+    *
+    * @see com.powerknights.frc2016.robot.ophmi.Gamepad#getStreamId()
+    */
+   @Override
+   protected int getStreamId()
+   {
+      return HidRecorder.operatorStream;
+   }
+
+
    /*
     * (non-Javadoc)
     *
@@ -182,13 +206,13 @@ public class OperatorGamepad
 
    private void setDoingHanging( boolean hanging )
    {
-      smartDashboard.putBoolean( doingHangingTelemetryState, hanging );
+      doingHangingStateEntry.put( hanging );
    }
 
 
    private void setLiftEnabled( boolean enabled )
    {
-      smartDashboard.putBoolean( liftEnabledTelemetryState, enabled );
+      liftEnabledStateEntry.put( enabled );
    }
 
 
@@ -231,7 +255,7 @@ public class OperatorGamepad
             autoElevationActive = false;
             shooter.homeElevation();
             // FIXME - Put delay in module; not here to wait for home
-            Timer.delay( 2.0 );
+            clock.delay( TimeUtils.msecToUsec( 2000 ) );
             shooter.disableAutoElevation();
          }
       }
@@ -248,7 +272,7 @@ public class OperatorGamepad
             loggedElevationMode = true;
          }
          final double distance = chassis.getDistanceToTower();
-         logger.trace( "distanceToTower={}", distance );
+         PrimitiveLog.trace( logger, "distanceToTower={}", distance );
          if ( distance > 0.0 )
          {
             shooter.setForDistance( distance );
@@ -269,14 +293,14 @@ public class OperatorGamepad
 
    private boolean isAutoElevationButtonPressed()
    {
-      final boolean pressed = joystick.getRawButton( autoElevationButton );
+      final boolean pressed = input.getRawButton( autoElevationButton );
       return pressed;
    }
 
 
    private double getShooterElevationSpeed()
    {
-      final double speed = joystick.getRawAxis( shooterElevationAxis );
+      final double speed = input.getRawAxis( shooterElevationAxis );
       smartDashboard.putNumber( "hmiElevationSpeed", speed );
       if ( isZero( speed ) )
       {
@@ -322,8 +346,8 @@ public class OperatorGamepad
    {
       final boolean isFire = isFireButtonPressed();
       final boolean isKickOut = isKickOutButtonPressed();
-      logger.trace( "autoShoot: isFire = {}, isKickOut = {}", isFire,
-         isKickOut );
+      PrimitiveLog.trace( logger, "autoShoot: isFire = {}, isKickOut = {}",
+         isFire, isKickOut );
 
       if ( isFire && !isKickOut )
       {
@@ -411,21 +435,21 @@ public class OperatorGamepad
 
    private boolean isKickOutButtonPressed()
    {
-      final boolean pressed = joystick.getRawButton( kickOutButton );
+      final boolean pressed = input.getRawButton( kickOutButton );
       return pressed;
    }
 
 
    private boolean isFireButtonPressed()
    {
-      final boolean pressed = joystick.getRawButton( fireButton );
+      final boolean pressed = input.getRawButton( fireButton );
       return pressed;
    }
 
 
    private double getShotSpeed()
    {
-      final double speed = joystick.getRawAxis( shotSpeedAxis );
+      final double speed = input.getRawAxis( shotSpeedAxis );
       smartDashboard.putNumber( "hmiShotSpeed", speed );
       if ( isZero( speed ) )
       {
@@ -466,7 +490,7 @@ public class OperatorGamepad
 
    private FeederPosition getFeederPosition()
    {
-      final int anglePOV = joystick.getPOV( feederPositionPOVIndex );
+      final int anglePOV = input.getPOV( feederPositionPOVIndex );
       if ( anglePOV == -1 )
       {
          return FeederPosition.UNSET;
@@ -513,7 +537,7 @@ public class OperatorGamepad
    private double getFeederSpeed()
    {
       // FIXME - Negative added by Adam
-      final double speed = -( joystick.getRawAxis( feederSpeedAxis ) );
+      final double speed = -( input.getRawAxis( feederSpeedAxis ) );
       smartDashboard.putNumber( "hmiFeederSpeed", speed );
       if ( isZero( speed ) )
       {
@@ -557,8 +581,9 @@ public class OperatorGamepad
       final boolean isLatch = isLatchButtonPressed();
       final boolean isLift = isLiftButtonPressed();
       final boolean isLiftEnabled = isLiftEnableButtonPressed();
-      logger.trace( "hanging: isLatch = {}, isLift = {}, isLiftEnabled",
-         isLatch, isLift, isLiftEnabled );
+      PrimitiveLog.trace( logger,
+         "hanging: isLatch = {}, isLift = {}, isLiftEnabled = {}", isLatch,
+         isLift, isLiftEnabled );
 
       // Starts by pressing latch (which raises hanger hook)
       if ( isLatch && !isLift )
@@ -634,7 +659,7 @@ public class OperatorGamepad
     **/
    private boolean isLatchButtonPressed()
    {
-      final boolean pressed = joystick.getRawButton( latchButton );
+      final boolean pressed = input.getRawButton( latchButton );
       return pressed;
    }
 
@@ -647,7 +672,7 @@ public class OperatorGamepad
     **/
    private boolean isLiftButtonPressed()
    {
-      final boolean pressed = joystick.getRawButton( liftButton );
+      final boolean pressed = input.getRawButton( liftButton );
       return pressed;
    }
 
@@ -661,8 +686,8 @@ public class OperatorGamepad
     **/
    private boolean isLiftEnableButtonPressed()
    {
-      final boolean pressed1 = driverJoystick.getRawButton( liftEnableButton1 );
-      final boolean pressed2 = driverJoystick.getRawButton( liftEnableButton2 );
+      final boolean pressed1 = driverInput.getRawButton( liftEnableButton1 );
+      final boolean pressed2 = driverInput.getRawButton( liftEnableButton2 );
       return pressed1 || pressed2;
    }
 
@@ -12,6 +12,10 @@ package com.powerknights.frc2016.robot.sensors;
 import org.slf4j.Logger;
 
 import com.powerknights.frc2016.riolog.RioLogger;
+import com.powerknights.frc2016.robot.config.DelayTimeConfig;
+import com.powerknights.frc2016.robot.controllers.HistoryCollector;
+import com.powerknights.frc2016.robot.controllers.IHistoryCollector;
+import com.powerknights.frc2016.utils.TimeSeries;
 
 import edu.wpi.first.wpilibj.CANTalon;
 
@@ -20,7 +24,8 @@ import edu.wpi.first.wpilibj.CANTalon;
  * @author first.stu
  **/
 public class FeederRotation
-   extends Sensor< Long >
+   extends LongSensor
+   implements IHistoryCollector
 {
 
    /** Our classes' logger **/
@@ -31,6 +36,9 @@ public class FeederRotation
    /** The sensor we are wrapping (specific type) **/
    private final CANTalon sensor;
 
+   /** History of position (for looking back in time) **/
+   private final TimeSeries history;
+
 
    /**
     * @param sensor
@@ -40,6 +48,10 @@ public class FeederRotation
       super( encoder );
       // Now that it's created in superclass, typecast locally
       sensor = (CANTalon) sendable;
+
+      final HistoryCollector collector = HistoryCollector.getInstance();
+      history = collector.createHistory( "feederPosition" );
+      collector.addCollector( this );
    }
 
 
@@ -58,25 +70,67 @@ public class FeederRotation
    /*
     * (non-Javadoc)
     *
-    * @see com.powerknights.frc2016.robot.sensors.Sensor#get()
+    * @see com.powerknights.frc2016.robot.sensors.LongSensor#sample()
+    */
+   @Override
+   protected long sample()
+   {
+      return sensor.getEncPosition();
+   }
+
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see com.powerknights.frc2016.robot.sensors.Sensor#getSamplePeriod()
     */
    @Override
-   public Long get()
+   public long getSamplePeriod()
    {
-      final long position = sensor.getEncPosition();
-      return position;
+      // Fast moving, so sample faster than the default
+      return DelayTimeConfig.getFeederRotationSampleDelay();
    }
 
 
    /*
     * (non-Javadoc)
     *
-    * @see com.powerknights.frc2016.robot.controllers.ISensorUpdater#update()
+    * @see com.powerknights.frc2016.robot.sensors.LongSensor#publish()
     */
    @Override
-   public void update()
+   protected void publish()
+   {
+      smartDashboard.putNumber( "feederPosition", getAsLong() );
+   }
+
+
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see
+    * com.powerknights.frc2016.robot.controllers.IHistoryCollector#collect(long)
+    */
+   @Override
+   public void collect( long time )
+   {
+      // The cached sample (time first, as it is set after the value), so the
+      // history is what the sensor updater read, and when
+      final long sampleTime = getSampleTime();
+      final long position = getAsLong();
+      if ( ( sampleTime != 0 ) && ( sampleTime > history.getLatestTime() ) )
+      {
+         history.add( sampleTime, position );
+      }
+   }
+
+
+   /**
+    * @return history of position (encoder counts), for looking back in time
+    **/
+   public TimeSeries getHistory()
    {
-      smartDashboard.putNumber( "feederPosition", get() );
+      return history;
    }
 
 }
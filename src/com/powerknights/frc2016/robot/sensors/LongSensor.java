@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.robot.sensors;
+
+
+import org.slf4j.Logger;
+
+import com.powerknights.frc2016.riolog.RioLogger;
+import com.powerknights.frc2016.utils.TimeUtils;
+
+import edu.wpi.first.wpilibj.livewindow.LiveWindowSendable;
+
+
+/**
+ * A sensor with a <code>long</code> value. Each update samples the hardware
+ * once and caches the value (and when it was sampled), so reading it with
+ * <code>getAsLong()</code> doesn't touch the hardware or box the value.
+ *
+ * @author first.stu
+ **/
+abstract public class LongSensor
+   extends Sensor< Long >
+{
+
+   /** Our classes' logger **/
+   @SuppressWarnings( "unused" )
+   private static final Logger logger =
+      RioLogger.getLogger( LongSensor.class.getName() );
+
+   /** Value of the last sample **/
+   private volatile long value;
+
+
+   protected LongSensor( LiveWindowSendable sensor )
+   {
+      super( sensor );
+
+      value = 0;
+   }
+
+
+   /**
+    * Reads the value from the hardware.
+    *
+    * @return current value of sensor
+    **/
+   protected abstract long sample();
+
+
+   /**
+    * Publishes the (cached) value; e.g., to the dashboard. Default does
+    * nothing; override if desired.
+    **/
+   protected void publish()
+   {
+      // Default does nothing; override if desired
+   }
+
+
+   /**
+    * @return value of the last sample
+    **/
+   public long getAsLong()
+   {
+      return value;
+   }
+
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see com.powerknights.frc2016.robot.sensors.Sensor#get()
+    */
+   @Override
+   public Long get()
+   {
+      // Boxes; use getAsLong() where it matters
+      return value;
+   }
+
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see com.powerknights.frc2016.robot.controllers.ISensorUpdater#update()
+    */
+   @Override
+   public void update()
+   {
+      value = sample();
+      // Value first, so the time is never newer than the value
+      sampleTime = TimeUtils.microTime();
+
+      publish();
+   }
+
+}
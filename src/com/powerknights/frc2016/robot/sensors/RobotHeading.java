@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.robot.sensors;
+
+
+import org.slf4j.Logger;
+
+import com.kauailabs.navx.frc.AHRS;
+import com.powerknights.frc2016.riolog.RioLogger;
+import com.powerknights.frc2016.robot.config.DelayTimeConfig;
+import com.powerknights.frc2016.robot.controllers.HistoryCollector;
+import com.powerknights.frc2016.robot.controllers.IHistoryCollector;
+import com.powerknights.frc2016.utils.TimeSeries;
+
+
+/**
+ * Heading of the robot from the gyro of the nav board. The angle is
+ * continuous (it doesn't wrap at 360), and counter-clockwise is positive; the
+ * same way as the vision angle to the target (left of center is positive),
+ * and opposite of the board's own.
+ *
+ * @author first.stu
+ **/
+public class RobotHeading
+   extends DoubleSensor
+   implements IHistoryCollector
+{
+
+   /** Our classes' logger **/
+   private static final Logger logger =
+      RioLogger.getLogger( RobotHeading.class.getName() );
+
+   /** Name of history of heading (degrees, counter-clockwise positive) **/
+   public static final String historyName = "robotHeading";
+
+   /** The sensor we are wrapping (specific type) **/
+   private final AHRS sensor;
+
+   /** History of heading (for looking back in time) **/
+   private final TimeSeries history;
+
+   /** Whether the board was usable at the last collection **/
+   private boolean usable;
+
+
+   /**
+    * @param navBoard
+    **/
+   public RobotHeading( AHRS navBoard )
+   {
+      super( navBoard );
+      // Now that it's created in superclass, typecast locally
+      sensor = (AHRS) sendable;
+
+      usable = false;
+
+      final HistoryCollector collector = HistoryCollector.getInstance();
+      history = collector.createHistory( historyName );
+      collector.addCollector( this );
+   }
+
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see com.powerknights.frc2016.robot.sensors.Sensor#reset()
+    */
+   @Override
+   public void reset()
+   {
+      // Not zeroed; only changes in heading are used, and zeroing would put
+      // a jump in the history
+   }
+
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see com.powerknights.frc2016.robot.sensors.Sensor#getSamplePeriod()
+    */
+   @Override
+   public long getSamplePeriod()
+   {
+      // Sample at the history's rate, so looking back doesn't interpolate
+      // across the default's gaps
+      return DelayTimeConfig.getRobotHeadingSampleDelay();
+   }
+
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see com.powerknights.frc2016.robot.sensors.DoubleSensor#sample()
+    */
+   @Override
+   protected double sample()
+   {
+      return -sensor.getAngle();
+   }
+
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see com.powerknights.frc2016.robot.sensors.DoubleSensor#publish()
+    */
+   @Override
+   protected void publish()
+   {
+      smartDashboard.putNumber( "robotHeading", getAsDouble() );
+   }
+
+
+   /**
+    * @return whether the board is connected, and done calibrating
+    **/
+   public boolean isUsable()
+   {
+      return sensor.isConnected() && !sensor.isCalibrating();
+   }
+
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see
+    * com.powerknights.frc2016.robot.controllers.IHistoryCollector#collect(long)
+    */
+   @Override
+   public void collect( long time )
+   {
+      // No history is better than a wrong one; without it the compensator
+      // passes the angle through
+      final boolean nowUsable = isUsable();
+      if ( nowUsable != usable )
+      {
+         usable = nowUsable;
+         logger.info( "nav board usable={}", usable );
+      }
+      if ( !usable )
+      {
+         return;
+      }
+
+      // The cached sample (time first, as it is set after the value), so the
+      // history is what the sensor updater read, and when
+      final long sampleTime = getSampleTime();
+      final double heading = getAsDouble();
+      if ( ( sampleTime != 0 ) && ( sampleTime > history.getLatestTime() ) )
+      {
+         history.add( sampleTime, heading );
+      }
+   }
+
+
+   /**
+    * @return history of heading (degrees), for looking back in time
+    **/
+   public TimeSeries getHistory()
+   {
+      return history;
+   }
+
+}
@@ -12,6 +12,7 @@ package com.powerknights.frc2016.robot.sensors;
 import org.slf4j.Logger;
 
 import com.powerknights.frc2016.riolog.RioLogger;
+import com.powerknights.frc2016.robot.config.DelayTimeConfig;
 import com.powerknights.frc2016.robot.controllers.ISensorUpdater;
 import com.powerknights.frc2016.robot.controllers.SensorUpdater;
 import com.powerknights.frc2016.robot.managers.DriverStationManager;
@@ -48,6 +49,9 @@ abstract public class Sensor< T >
    /** Handle to the sensor we are wrapping **/
    protected final LiveWindowSendable sendable;
 
+   /** When the sensor was last sampled (usec; 0 if never) **/
+   protected volatile long sampleTime;
+
 
    protected Sensor( LiveWindowSendable sensor )
    {
@@ -59,6 +63,8 @@ abstract public class Sensor< T >
 
       liveWindow = LiveWindowManager.getInstance();
 
+      sampleTime = 0;
+
       SensorUpdater.getInstance().addSensor( this );
    }
 
@@ -78,6 +84,29 @@ abstract public class Sensor< T >
    public abstract T get();
 
 
+   /**
+    * @return when the sensor was last sampled (usec), or 0 if never
+    **/
+   public long getSampleTime()
+   {
+      return sampleTime;
+   }
+
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see
+    * com.powerknights.frc2016.robot.controllers.ISensorUpdater#getSamplePeriod()
+    */
+   @Override
+   public long getSamplePeriod()
+   {
+      // Default; override if sensor needs to be sampled at a different rate
+      return DelayTimeConfig.getSensorSampleDelay();
+   }
+
+
    /*
     * (non-Javadoc)
     *
@@ -12,6 +12,10 @@ package com.powerknights.frc2016.robot.sensors;
 import org.slf4j.Logger;
 
 import com.powerknights.frc2016.riolog.RioLogger;
+import com.powerknights.frc2016.robot.config.DelayTimeConfig;
+import com.powerknights.frc2016.robot.controllers.HistoryCollector;
+import com.powerknights.frc2016.robot.controllers.IHistoryCollector;
+import com.powerknights.frc2016.utils.TimeSeries;
 
 import edu.wpi.first.wpilibj.CANTalon;
 
@@ -20,7 +24,8 @@ import edu.wpi.first.wpilibj.CANTalon;
  * @author first.stu
  **/
 public class ShooterElevation
-   extends Sensor< Long >
+   extends LongSensor
+   implements IHistoryCollector
 {
 
    /** Our classes' logger **/
@@ -28,9 +33,15 @@ public class ShooterElevation
    private static final Logger logger =
       RioLogger.getLogger( ShooterElevation.class.getName() );
 
+   /** Name of history of position **/
+   public static final String historyName = "elevationPosition";
+
    /** The sensor we are wrapping (specific type) **/
    private final CANTalon sensor;
 
+   /** History of position (for looking back in time) **/
+   private final TimeSeries history;
+
 
    /**
     * @param sensor
@@ -40,6 +51,10 @@ public class ShooterElevation
       super( encoder );
       // Now that it's created in superclass, typecast locally
       sensor = (CANTalon) sendable;
+
+      final HistoryCollector collector = HistoryCollector.getInstance();
+      history = collector.createHistory( historyName );
+      collector.addCollector( this );
    }
 
 
@@ -58,25 +73,68 @@ public class ShooterElevation
    /*
     * (non-Javadoc)
     *
-    * @see com.powerknights.frc2016.robot.sensors.Sensor#get()
+    * @see com.powerknights.frc2016.robot.sensors.Sensor#getSamplePeriod()
+    */
+   @Override
+   public long getSamplePeriod()
+   {
+      // Sample at the history's rate, so looking back doesn't interpolate
+      // across the default's gaps
+      return DelayTimeConfig.getShooterElevationSampleDelay();
+   }
+
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see com.powerknights.frc2016.robot.sensors.LongSensor#sample()
+    */
+   @Override
+   protected long sample()
+   {
+      return sensor.getEncPosition();
+   }
+
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see com.powerknights.frc2016.robot.sensors.LongSensor#publish()
     */
    @Override
-   public Long get()
+   protected void publish()
    {
-      final long position = sensor.getEncPosition();
-      return position;
+      smartDashboard.putNumber( "elevationPosition", getAsLong() );
    }
 
 
+
    /*
     * (non-Javadoc)
     *
-    * @see com.powerknights.frc2016.robot.controllers.ISensorUpdater#update()
+    * @see
+    * com.powerknights.frc2016.robot.controllers.IHistoryCollector#collect(long)
     */
    @Override
-   public void update()
+   public void collect( long time )
+   {
+      // The cached sample (time first, as it is set after the value), so the
+      // history is what the sensor updater read, and when
+      final long sampleTime = getSampleTime();
+      final long position = getAsLong();
+      if ( ( sampleTime != 0 ) && ( sampleTime > history.getLatestTime() ) )
+      {
+         history.add( sampleTime, position );
+      }
+   }
+
+
+   /**
+    * @return history of position (encoder counts), for looking back in time
+    **/
+   public TimeSeries getHistory()
    {
-      smartDashboard.putNumber( "elevationPosition", get() );
+      return history;
    }
 
 }
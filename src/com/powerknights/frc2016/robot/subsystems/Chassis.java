@@ -13,9 +13,21 @@ package com.powerknights.frc2016.robot.subsystems;
 
 import org.slf4j.Logger;
 
+import com.kauailabs.navx.frc.AHRS;
+import com.powerknights.frc2016.riolog.PrimitiveLog;
 import com.powerknights.frc2016.riolog.RioLogger;
+import com.powerknights.frc2016.robot.config.ChassisConfig;
+import com.powerknights.frc2016.robot.config.DelayTimeConfig;
 import com.powerknights.frc2016.robot.managers.PreferencesManager;
+import com.powerknights.frc2016.robot.managers.StringEntry;
+import com.powerknights.frc2016.robot.sensors.RobotHeading;
+import com.powerknights.frc2016.robot.vision.CompensatedTarget;
+import com.powerknights.frc2016.robot.vision.IVisionSource;
+import com.powerknights.frc2016.robot.vision.NetworkTablesVision;
 import com.powerknights.frc2016.robot.vision.USBCameraVision;
+import com.powerknights.frc2016.robot.vision.UdpVision;
+import com.powerknights.frc2016.robot.vision.VisionLatencyCompensator;
+import com.powerknights.frc2016.utils.TimeUtils;
 
 
 /**
@@ -79,6 +91,8 @@ public class Chassis
 
    /** State of the chassis subsystem **/
    private DriveMode driveMode;
+   /** Telemetry handle for state (not 'driveMode'; that's the driver's) **/
+   private final StringEntry driveModeEntry;
 
    /** Handle to drive subsystem **/
    private final DriveTrain drive;
@@ -87,6 +101,18 @@ public class Chassis
    @SuppressWarnings( "unused" )
    private final USBCameraVision camera;
 
+   /** Heading from the nav board (null if it couldn't be started) **/
+   private final RobotHeading heading;
+
+   /** Source of the vision updates (null if vision isn't running) **/
+   private final IVisionSource vision;
+   /** Moves the vision updates up to now for aiming **/
+   private final VisionLatencyCompensator compensator;
+   /** Last compensated target (to the tower) **/
+   private final CompensatedTarget towerTarget;
+   /** How old a vision update can be and still be aimed with **/
+   private final long maxVisionAge; // usec
+
    private boolean driving;
    private boolean started;
 
@@ -99,9 +125,19 @@ public class Chassis
       drive = DriveTrain.getInstance();
 
       smartDashboard.putString( "distSource", "" );
+      driveModeEntry = smartDashboard.registerString( "chassisDriveMode" );
 
       camera = constructDashCamera();
 
+      heading = constructHeading();
+
+      // Assumes that vision is constructed first
+      vision = findVisionSource();
+      compensator = new VisionLatencyCompensator();
+      towerTarget = new CompensatedTarget();
+      maxVisionAge =
+         TimeUtils.msecToUsec( DelayTimeConfig.getVisionMaxAgeDelay() );
+
       logger.info( "constructed" );
    }
 
@@ -128,6 +164,52 @@ public class Chassis
    }
 
 
+   /**
+    * Constructs the heading sensor (which records the heading history for
+    * the vision latency compensation) on the nav board.
+    *
+    * @return constructed heading if the board could be started;
+    *         <code>null</code> otherwise
+    **/
+   private RobotHeading constructHeading()
+   {
+      try
+      {
+         final AHRS navBoard = new AHRS( ChassisConfig.getNavBoardPort() );
+         logger.info( "nav board initialized" );
+         return new RobotHeading( navBoard );
+      }
+      catch ( final RuntimeException ex )
+      {
+         logger.error( "nav board failed to start", ex );
+         return null;
+      }
+   }
+
+
+   /**
+    * @return vision source in use (as set in preferences); <code>null</code>
+    *         if vision isn't running
+    **/
+   private IVisionSource findVisionSource()
+   {
+      final PreferencesManager prefs = PreferencesManager.getInstance();
+      if ( !prefs.runVision() )
+      {
+         return null;
+      }
+      if ( prefs.useNetworkTablesVision() )
+      {
+         return NetworkTablesVision.getInstance();
+      }
+      if ( prefs.useUdpVision() )
+      {
+         return UdpVision.getInstance();
+      }
+      return null;
+   }
+
+
    /*
     * (non-Javadoc)
     *
@@ -140,12 +222,99 @@ public class Chassis
    }
 
 
+   /**
+    * @return heading of the robot (degrees, counter-clockwise positive); 0 if
+    *         there is no nav board
+    **/
+   public double getHeading()
+   {
+      return ( heading != null ) ? heading.getAsDouble() : 0.0;
+   }
+
+
+   /**
+    * Compensates the latest vision update up to now.
+    *
+    * @return whether there is a target to the tower, recent enough to use
+    **/
+   private synchronized boolean updateTowerTarget()
+   {
+      if ( vision == null )
+      {
+         return false;
+      }
+      if ( !compensator.compensate( vision.getUpdate(), towerTarget ) )
+      {
+         return false;
+      }
+      return ( towerTarget.age <= maxVisionAge );
+   }
+
+
+   /**
+    * @return angle to the tower as of now (degrees, left of center is
+    *         positive); 0 if there is no (recent) target
+    **/
+   public synchronized double getAngleToTower()
+   {
+      return updateTowerTarget() ? towerTarget.angle : 0.0;
+   }
+
+
+   /**
+    * Rotates in place towards the tower, by the vision target compensated
+    * up to now; so the turn already made since the frame isn't made again.
+    * Stops when aimed, or when there is no (recent) target.
+    *
+    * @return whether aimed at the tower
+    **/
+   public synchronized boolean aimAtTower()
+   {
+      if ( !updateTowerTarget() )
+      {
+         smartDashboard.putBoolean( "aimedAtTower", false );
+         stop();
+         return false;
+      }
+
+      final double angle = towerTarget.angle;
+      PrimitiveLog.trace( logger, "aim: angle={}, headingChange={}", angle,
+         towerTarget.headingChange );
+      smartDashboard.putNumber( "aimElevationChange",
+         towerTarget.elevationNow - towerTarget.elevationAtCapture );
+
+      final boolean aimed =
+         ( Math.abs( angle ) <= ChassisConfig.getAimTolerance() );
+      smartDashboard.putBoolean( "aimedAtTower", aimed );
+      if ( aimed )
+      {
+         stop();
+      }
+      else if ( angle > 0 )
+      {
+         rotateCCW( ChassisConfig.getAimSpeed() );
+      }
+      else
+      {
+         rotateCW( ChassisConfig.getAimSpeed() );
+      }
+      return aimed;
+   }
+
+
    /**
     *
     * @return distance to tower in decimal feet
     **/
-   public double getDistanceToTower()
+   public synchronized double getDistanceToTower()
    {
+      if ( updateTowerTarget() )
+      {
+         smartDashboard.putString( "distSource", "vision" );
+         return towerTarget.distance;
+      }
+      smartDashboard.putString( "distSource", "" );
+
       // final double farDistance = farWallDistance.get();
       // final boolean farValid = farWallDistance.isValidRange( farDistance );
       //
@@ -183,8 +352,7 @@ public class Chassis
       if ( driveMode != mode )
       {
          driveMode = mode;
-         // TODO - Name conflict with 'driveMode'
-         smartDashboard.putString( "driveMode", driveMode.name() );
+         driveModeEntry.put( driveMode.name() );
       }
    }
 
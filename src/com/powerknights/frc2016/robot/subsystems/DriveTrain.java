@@ -15,6 +15,9 @@ import org.slf4j.Logger;
 
 import com.powerknights.frc2016.riolog.RioLogger;
 import com.powerknights.frc2016.robot.config.DriveTrainConfig;
+import com.powerknights.frc2016.robot.managers.BooleanEntry;
+import com.powerknights.frc2016.robot.managers.NumberEntry;
+import com.powerknights.frc2016.utils.ActuatorTrace;
 
 import edu.wpi.first.wpilibj.RobotDrive;
 import edu.wpi.first.wpilibj.SpeedController;
@@ -87,13 +90,21 @@ public class DriveTrain
 
    /** Telemetry state name for motor **/
    private final String leftMotorsTelemetryState = "leftDriveMotor(s)";
+   /** Telemetry state handle for motor **/
+   private final BooleanEntry leftMotorsStateEntry;
    /** Telemetry speed name for motor **/
    private final String leftMotorsTelemetrySpeed = "leftDriveSpeed";
+   /** Telemetry speed handle for motor **/
+   private final NumberEntry leftMotorsSpeedEntry;
 
    /** Telemetry state name for motor **/
    private final String rightMotorsTelemetryState = "rightDriveMotor(s)";
+   /** Telemetry state handle for motor **/
+   private final BooleanEntry rightMotorsStateEntry;
    /** Telemetry speed name for motor **/
    private final String rightMotorsTelemetrySpeed = "rightDriveSpeed";
+   /** Telemetry speed handle for motor **/
+   private final NumberEntry rightMotorsSpeedEntry;
 
    /** WPI's drive for non-straight or rotate **/
    private final RobotDrive robotDrive;
@@ -103,6 +114,15 @@ public class DriveTrain
    {
       logger.info( "constructing" );
 
+      leftMotorsStateEntry =
+         smartDashboard.registerBoolean( leftMotorsTelemetryState );
+      leftMotorsSpeedEntry =
+         smartDashboard.registerNumber( leftMotorsTelemetrySpeed );
+      rightMotorsStateEntry =
+         smartDashboard.registerBoolean( rightMotorsTelemetryState );
+      rightMotorsSpeedEntry =
+         smartDashboard.registerNumber( rightMotorsTelemetrySpeed );
+
       /*
        * Speed Controllers
        */
@@ -223,13 +243,13 @@ public class DriveTrain
 
    private void setLeftMotorsRunning( boolean motor )
    {
-      smartDashboard.putBoolean( leftMotorsTelemetryState, motor );
+      leftMotorsStateEntry.put( motor );
    }
 
 
    private void setRightMotorsRunning( boolean motor )
    {
-      smartDashboard.putBoolean( rightMotorsTelemetryState, motor );
+      rightMotorsStateEntry.put( motor );
    }
 
 
@@ -480,11 +500,18 @@ public class DriveTrain
     **/
    private void setMotorSpeeds( double leftSpeed, double rightSpeed )
    {
-      smartDashboard.putNumber( leftMotorsTelemetrySpeed, leftSpeed );
+      leftMotorsSpeedEntry.put( leftSpeed );
       setLeftMotorsRunning( !isZero( leftSpeed ) );
-      smartDashboard.putNumber( rightMotorsTelemetrySpeed, rightSpeed );
+      rightMotorsSpeedEntry.put( rightSpeed );
       setRightMotorsRunning( !isZero( rightSpeed ) );
 
+      ActuatorTrace.record( leftMotorsTelemetrySpeed, leftSpeed );
+      ActuatorTrace.record( rightMotorsTelemetrySpeed, rightSpeed );
+      if ( ActuatorTrace.isStandIn() )
+      {
+         return;
+      }
+
       leftFrontMotor.set( leftSpeed );
       leftRearMotor.set( leftSpeed );
       rightFrontMotor.set( rightSpeed );
@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.robot.vision;
+
+
+/**
+ * A vision target moved from when its frame was captured up to now, by the
+ * <code>VisionLatencyCompensator</code>. Filled in (not allocated) on each
+ * compensation.
+ *
+ * @author first.stu
+ **/
+public class CompensatedTarget
+{
+
+   /** Whether the update it came from was valid **/
+   public boolean valid;
+   /** (Offset) angle to target (left of center is positive), as of now **/
+   public double angle; // degrees
+   /** Distance to target **/
+   public double distance; // feet
+   /** How old the frame was **/
+   public long age; // usec
+   /** How much the robot turned since the frame was captured **/
+   public double headingChange; // degrees
+   /** Whether there was a heading history to compensate with **/
+   public boolean headingCompensated;
+   /** Shooter elevation when the frame was captured (NaN if no history) **/
+   public double elevationAtCapture; // encoder counts
+   /** Shooter elevation now (NaN if no history) **/
+   public double elevationNow; // encoder counts
+
+}
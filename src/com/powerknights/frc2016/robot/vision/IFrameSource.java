@@ -0,0 +1,37 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.robot.vision;
+
+
+/**
+ * Source of camera frames (or frames from files) for the
+ * <code>TargetFinder</code>.
+ *
+ * @author first.stu
+ **/
+public interface IFrameSource
+{
+
+   public int getWidth();
+
+
+   public int getHeight();
+
+
+   /**
+    * Waits for the next frame, and copies its pixels into the array
+    * (<code>0xRRGGBB</code>, row by row).
+    *
+    * @param pixels - to copy into (at least width x height)
+    * @return when the frame was captured (usec, on the clock of the
+    *         updates), or -1 if there are no more frames
+    **/
+   public long grabFrame( int[] pixels );
+
+}
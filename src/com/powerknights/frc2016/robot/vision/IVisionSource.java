@@ -15,9 +15,20 @@ package com.powerknights.frc2016.robot.vision;
 public interface IVisionSource
 {
 
+   /**
+    * Checks (without waiting) whether an update has arrived since the last
+    * <code>getUpdate()</code>. Meant for a single consumer; others can compare
+    * the sequence of updates instead.
+    *
+    * @return whether there is a new update
+    **/
    public boolean haveUpdate();
 
 
+   /**
+    * @return the latest update (never null; invalid with a sequence of 0 if
+    *         none has arrived yet)
+    **/
    public VisionUpdate getUpdate();
 
 }
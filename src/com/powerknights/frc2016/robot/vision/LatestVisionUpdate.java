@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.robot.vision;
+
+
+/**
+ * Hands the latest update of a vision source from the thread making them to
+ * the one consuming them. A new (immutable) update is published for each
+ * frame, so readers never see a mix of two; and the sequence last read is
+ * kept for <code>haveUpdate()</code>. Vision sources delegate their
+ * <code>IVisionSource</code> methods to one of these.
+ *
+ * @author first.stu
+ **/
+final class LatestVisionUpdate
+   implements IVisionSource
+{
+
+   /** Latest update published **/
+   private volatile VisionUpdate latest;
+   /** Sequence of the update last returned by getUpdate() **/
+   private volatile long readSequence;
+
+
+   LatestVisionUpdate()
+   {
+      latest = new VisionUpdate();
+      readSequence = 0;
+   }
+
+
+   /**
+    * Publishes a new update (from the one thread making them).
+    *
+    * @param update - the new latest update
+    **/
+   void publish( VisionUpdate update )
+   {
+      latest = update;
+   }
+
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see com.powerknights.frc2016.robot.vision.IVisionSource#getUpdate()
+    */
+   @Override
+   public VisionUpdate getUpdate()
+   {
+      final VisionUpdate update = latest;
+      readSequence = update.sequence;
+      return update;
+   }
+
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see com.powerknights.frc2016.robot.vision.IVisionSource#haveUpdate()
+    */
+   @Override
+   public boolean haveUpdate()
+   {
+      return ( latest.sequence != readSequence );
+   }
+
+}
@@ -12,10 +12,11 @@ package com.powerknights.frc2016.robot.vision;
 import org.slf4j.Logger;
 
 import com.powerknights.frc2016.riolog.Level;
+import com.powerknights.frc2016.riolog.PrimitiveLog;
 import com.powerknights.frc2016.riolog.RioLogger;
 import com.powerknights.frc2016.robot.managers.LCDManager;
 import com.powerknights.frc2016.robot.managers.SmartDashboardManager;
-import com.powerknights.frc2016.utils.StringUtils;
+import com.powerknights.frc2016.utils.TimeUtils;
 
 import edu.wpi.first.wpilibj.networktables.NetworkTable;
 import edu.wpi.first.wpilibj.tables.ITable;
@@ -87,31 +88,34 @@ public class NetworkTablesVision
    /** Name of the table published by driver station laptop **/
    private static final String tableName = "/Camera";
 
-   /** **/
-   @SuppressWarnings( "unused" )
-   private long updateCount;
    /** **/
    private long validCount;
    /** **/
    private long invalidCount;
 
-   /** Network tables key for valid update flag **/
-   private final String validUpdateKey = "validUpdate";
    /** Telemetry state name for update **/
    private final String validUpdateTelemetryState = "visionValidUpdate";
-   /** Network tables key for (offset) angle to target **/
-   private final String angleKey = "Angle";
    /** Telemetry angle name for update **/
    private final String visionTelemetryAngle = "visionAngle";
-   /** Network tables key for distance to target **/
-   private final String distanceKey = "Distance";
    /** Telemetry distance name for update **/
    private final String visionTelemetryDistance = "visionDistance";
 
+   /** Telemetry latency name for update **/
+   private final String visionTelemetryLatency = "visionLatency";
+   /** Telemetry compensated angle name for update **/
+   private final String visionTelemetryAngleNow = "visionAngleNow";
+
    /** Telemetry distance name for update **/
    private final String visionTelemetryLock = "targetLock";
 
-   private final VisionUpdate update = new VisionUpdate();
+   /** Puts the frames back together from the keys (and publishes them) **/
+   private final VisionFrameAssembler assembler;
+
+   /** Moves updates from their capture up to now **/
+   private final VisionLatencyCompensator compensator =
+      new VisionLatencyCompensator();
+   /** Last compensated target (for dashboard) **/
+   private final CompensatedTarget target = new CompensatedTarget();
 
 
    private NetworkTablesVision()
@@ -129,14 +133,16 @@ public class NetworkTablesVision
          lcdMgr.setVisionConnected();
       }
 
-      table.putNumber( angleKey, 0.0 );
-      table.putNumber( distanceKey, 0.0 );
+      table.putNumber( VisionFrameAssembler.angleKey, 0.0 );
+      table.putNumber( VisionFrameAssembler.distanceKey, 0.0 );
       // Do the valid update last
-      table.putBoolean( validUpdateKey, false );
+      table.putBoolean( VisionFrameAssembler.validUpdateKey, false );
 
-      table.addTableListener( new UpdateListener() );
+      final UpdateListener listener = new UpdateListener();
+      assembler =
+         new VisionFrameAssembler( TimeUtils.getFPGAClock(), listener );
+      table.addTableListener( listener );
 
-      updateCount = 0;
       validCount = 0;
       invalidCount = 0;
 
@@ -144,7 +150,7 @@ public class NetworkTablesVision
    }
 
    private class UpdateListener
-      implements ITableListener
+      implements ITableListener, VisionFrameAssembler.IFrameListener
    {
 
       private boolean hasUpdated;
@@ -155,9 +161,7 @@ public class NetworkTablesVision
          hasUpdated = false;
 
          // Update the dashboard to initialize it
-         final VisionUpdate update = new VisionUpdate();
-         update.setValid( false );
-         updateDashboard( update );
+         updateDashboard( new VisionUpdate() );
       }
 
       //
@@ -172,6 +176,10 @@ public class NetworkTablesVision
 
          if ( update.isValid() )
          {
+            compensator.compensate( update, target );
+            smartDashboard.putNumber( visionTelemetryAngleNow, target.angle );
+            smartDashboard.putNumber( visionTelemetryLatency,
+               TimeUtils.usecToMsec( target.age ) );
             smartDashboard.putNumber( visionTelemetryAngle, update.angle );
             smartDashboard.putNumber( visionTelemetryDistance,
                update.distance );
@@ -181,15 +189,16 @@ public class NetworkTablesVision
          }
          else
          {
+            smartDashboard.putNumber( visionTelemetryAngleNow, 0 );
+            smartDashboard.putNumber( visionTelemetryLatency, 0 );
             smartDashboard.putNumber( visionTelemetryAngle, 0 );
             smartDashboard.putNumber( visionTelemetryDistance, 0 );
             // Calculated state
             smartDashboard.putBoolean( visionTelemetryLock, false );
          }
 
-         logger.trace( "distance={}, angle={}, valid={}",
-            StringUtils.format( update.distance, 2 ),
-            StringUtils.format( update.angle, 2 ), update.isValid() );
+         PrimitiveLog.trace( logger, "distance={}, angle={}, valid={}",
+            update.distance, update.angle, update.isValid() );
       }
 
 
@@ -212,43 +221,9 @@ public class NetworkTablesVision
 
          try
          {
-            switch ( key )
+            if ( !assembler.valueChanged( key, value ) )
             {
-            case angleKey:
-               update.angle = ( (Double) value ).doubleValue();
-               logger.trace( "update.angle = {}", update.angle );
-               break;
-            case distanceKey:
-               update.distance = ( (Double) value ).doubleValue();
-               logger.trace( "update.distance = {}", update.distance );
-               break;
-            case validUpdateKey:
-               update.setValid( ( (Boolean) value ).booleanValue() );
-               logger.trace( "update.valid = {}", update.isValid() );
-               updateCount++;
-
-               updateDashboard( update );
-
-               if ( update.isValid() )
-               {
-                  validCount++;
-               }
-               else
-               {
-                  invalidCount++;
-               }
-
-               // Arrive every 40 msec; so update 1 per second
-               lcdCount++;
-               if ( lcdCount > 5 )
-               {
-                  lcdMgr.updateVision( validCount, invalidCount );
-                  lcdCount = 0;
-               }
-               break;
-            default:
                logger.error( "unknown key: {}", key );
-               break;
             }
          }
          catch (
@@ -260,6 +235,37 @@ public class NetworkTablesVision
          }
       }
 
+
+      /*
+       * (non-Javadoc)
+       *
+       * @see com.powerknights.frc2016.robot.vision.VisionFrameAssembler.
+       * IFrameListener#frameAssembled(com.powerknights.frc2016.robot.vision.
+       * VisionUpdate)
+       */
+      @Override
+      public void frameAssembled( VisionUpdate update )
+      {
+         updateDashboard( update );
+
+         if ( update.isValid() )
+         {
+            validCount++;
+         }
+         else
+         {
+            invalidCount++;
+         }
+
+         // Arrive every 40 msec; so update 1 per second
+         lcdCount++;
+         if ( lcdCount > 5 )
+         {
+            lcdMgr.updateVision( validCount, invalidCount );
+            lcdCount = 0;
+         }
+      }
+
    }
 
 
@@ -271,7 +277,7 @@ public class NetworkTablesVision
    @Override
    public VisionUpdate getUpdate()
    {
-      return update;
+      return assembler.getUpdate();
    }
 
 
@@ -283,7 +289,7 @@ public class NetworkTablesVision
    @Override
    public boolean haveUpdate()
    {
-      return false;
+      return assembler.haveUpdate();
    }
 
 }
@@ -0,0 +1,983 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.robot.vision;
+
+
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * Java port of the RoboRealm target finding (<code>roborealm/TTv8.py</code>),
+ * to run on the robot. Works on frames of packed RGB pixels
+ * (<code>0xRRGGBB</code>, one <code>int</code> per pixel, row by row):
+ * <ol>
+ * <li>HSV threshold, by a lookup table of the top 6 bits of each channel;
+ * <li>blobs, as 8-connected regions of the thresholded pixels; with each
+ * one's area and 4 corners (the pixels furthest out along the diagonals,
+ * standing in for RoboRealm's best fit rectangle);
+ * <li>the TTv8 checks and scoring (<code>badBlob</code>,
+ * <code>externalContour</code>, <code>xIsValid</code> /
+ * <code>yIsValid</code>, <code>findDistance</code>,
+ * <code>fixDistance</code> and <code>prioritizeTarget</code>).
+ * </ol>
+ * The threshold and blob steps are split into bands of rows, worked on in
+ * parallel by helper threads (one per extra core); the bands' blobs are
+ * joined across the seams afterwards. Everything is allocated up front, so
+ * a frame allocates nothing. If a band fails, the frame still completes (as
+ * no target) and <code>process()</code> throws; <code>close()</code> stops
+ * the helpers.
+ * <p>
+ * Not thread safe; one thread calls <code>process()</code> (and reads the
+ * results).
+ *
+ * @author first.stu
+ **/
+public class TargetFinder
+{
+
+   /*
+    * Camera (from its documentation; swapped as it is on its side)
+    */
+   /** Field of view across the image **/
+   private static final double horizontalFOV = 36.5; // degrees
+   /** Field of view up and down the image **/
+   private static final double verticalFOV = 47.0; // degrees
+   /** From front of robot to camera **/
+   private static final double robotToCamera = 1.5; // feet
+
+   /*
+    * Target (from the game manual)
+    */
+   /** Width of the target's tape **/
+   private static final double targetWidth = 20.0; // inches
+   /** From ground to center of target **/
+   private static final double towerHeight = 89.0 / 12.0; // feet
+
+   /*
+    * Target choice
+    */
+   /** Offset from center (-1 to 1) within which a target counts as centered **/
+   private static final double centeredThreshold = 0.4;
+   /** Distance within which being centered doesn't matter **/
+   private static final double closeDistance = 8.0; // feet
+
+   /** Most blobs kept from a frame (the rest are dropped) **/
+   private static final int maxBlobs = 32;
+
+   /**
+    * Default of the row any corner above is from the bar's blobs (for the
+    * 640x480 frames RoboRealm had)
+    **/
+   public static final int defaultMinY = 220;
+   /** Default of the fewest pixels a blob can have (noise) **/
+   public static final int defaultMinArea = 40;
+
+   /** Size of frames **/
+   private final int width;
+   private final int height;
+
+   /** Whether each (6 bit per channel) color passes the threshold **/
+   private final boolean[] threshold;
+
+   /** Row above which corners are from the bar **/
+   private final int minY;
+   /** Fewest pixels in a blob **/
+   private final int minArea;
+
+   /** Frame being processed **/
+   private int[] pixels;
+
+   /** Blob label of each pixel (0 if below threshold) **/
+   private final int[] labels;
+   /** Parent of each label (its own if a root) **/
+   private final int[] parents;
+   /** Pixels of each root label **/
+   private final int[] areas;
+   /**
+    * Corners of each root label, as pixel index; bottom right (most x + y),
+    * bottom left (most y - x), top left (least x + y), top right (most x - y)
+    **/
+   private final int[] bottomRights;
+   private final int[] bottomLefts;
+   private final int[] topLefts;
+   private final int[] topRights;
+
+   /** First row of each band (and the end of the last) **/
+   private final int[] bandRows;
+   /** First label of each band **/
+   private final int[] bandLabels;
+   /** Next label of each band (after labeling) **/
+   private final int[] bandNextLabels;
+
+   /** Helper threads, for bands 1 and up **/
+   private final BandWorker[] workers;
+   /** Thread calling process() **/
+   private volatile Thread caller;
+   /** Whether closed (helpers stop) **/
+   private volatile boolean closed;
+   /** Count of frames processed **/
+   private long frameCount;
+
+   /**
+    * Blobs, in TTv8's order of 8 coordinates each: bottom right x, y; bottom
+    * left x, y; top left x, y; top right x, y
+    **/
+   private final int[] blobCorners;
+   private int blobCount;
+   /** Area (from the corners) of each blob **/
+   private final double[] blobAreas;
+   /** Offset from center of each blob (-1 to 1; +inf if not valid) **/
+   private final double[] blobOffsets;
+   /** How far each blob is from straight on (+inf if not valid) **/
+   private final double[] blobSkews;
+
+   /*
+    * Results
+    */
+   private boolean valid;
+   private int numTargets;
+   private double angle; // degrees
+   private double distance; // feet
+   private double targetX; // pixels
+   private double targetY; // pixels
+
+
+   /**
+    * @param width - of the frames
+    * @param height - of the frames
+    * @param bands - how many threads to split each frame across (including
+    *           the one calling <code>process()</code>)
+    **/
+   public TargetFinder( int width, int height, int bands )
+   {
+      this( width, height, bands, defaultMinY, defaultMinArea );
+   }
+
+
+   /**
+    * @param width - of the frames
+    * @param height - of the frames
+    * @param bands - how many threads to split each frame across (including
+    *           the one calling <code>process()</code>)
+    * @param minY - row above which any corner makes a blob from the bar
+    * @param minArea - fewest pixels a blob can have
+    **/
+   public TargetFinder( int width, int height, int bands, int minY,
+      int minArea )
+   {
+      if ( ( width <= 0 ) || ( height <= 0 ) || ( bands <= 0 ) )
+      {
+         throw new IllegalArgumentException( "bad size " + width + "x" + height
+            + " or bands " + bands );
+      }
+      bands = Math.min( bands, height );
+
+      this.width = width;
+      this.height = height;
+      this.minY = minY;
+      this.minArea = minArea;
+
+      threshold = new boolean[ 1 << 18 ];
+      // Green of the LED ring, off the retroreflective tape
+      setThreshold( 75, 165, 100, 255, 110, 255 );
+
+      bandRows = new int[ bands + 1 ];
+      bandLabels = new int[ bands ];
+      bandNextLabels = new int[ bands ];
+      int labelCount = 1; // 0 is background
+      for ( int b = 0; b <= bands; b++ )
+      {
+         bandRows[ b ] = ( height * b ) / bands;
+         if ( b > 0 )
+         {
+            // Can't be more labels than half the pixels of the band
+            final int bandPixels =
+               ( bandRows[ b ] - bandRows[ b - 1 ] ) * width;
+            bandLabels[ b - 1 ] = labelCount;
+            labelCount += ( bandPixels / 2 ) + 1;
+         }
+      }
+
+      labels = new int[ width * height ];
+      parents = new int[ labelCount ];
+      areas = new int[ labelCount ];
+      bottomRights = new int[ labelCount ];
+      bottomLefts = new int[ labelCount ];
+      topLefts = new int[ labelCount ];
+      topRights = new int[ labelCount ];
+
+      blobCorners = new int[ maxBlobs * 8 ];
+      blobAreas = new double[ maxBlobs ];
+      blobOffsets = new double[ maxBlobs ];
+      blobSkews = new double[ maxBlobs ];
+
+      workers = new BandWorker[ bands - 1 ];
+      for ( int i = 0; i < workers.length; i++ )
+      {
+         workers[ i ] = new BandWorker( i + 1 );
+         workers[ i ].start();
+      }
+   }
+
+
+   /**
+    * Sets the colors that count as target; only call between frames.
+    *
+    * @param minHue - least hue (degrees, 0 to 360)
+    * @param maxHue - most hue (degrees, 0 to 360)
+    * @param minSaturation - least saturation (0 to 255)
+    * @param maxSaturation - most saturation (0 to 255)
+    * @param minValue - least value (0 to 255)
+    * @param maxValue - most value (0 to 255)
+    **/
+   public void setThreshold( int minHue, int maxHue, int minSaturation,
+      int maxSaturation, int minValue, int maxValue )
+   {
+      for ( int i = 0; i < threshold.length; i++ )
+      {
+         // Middle of the range of colors the entry stands for
+         final int r = ( ( i >> 12 ) << 2 ) | 2;
+         final int g = ( ( ( i >> 6 ) & 0x3F ) << 2 ) | 2;
+         final int b = ( ( i & 0x3F ) << 2 ) | 2;
+
+         final int max = Math.max( r, Math.max( g, b ) );
+         final int min = Math.min( r, Math.min( g, b ) );
+         final int chroma = max - min;
+
+         final int value = max;
+         final int saturation = ( max == 0 ) ? 0 : ( 255 * chroma ) / max;
+         double hue;
+         if ( chroma == 0 )
+         {
+            hue = 0;
+         }
+         else if ( max == r )
+         {
+            hue = 60.0 * ( g - b ) / chroma;
+         }
+         else if ( max == g )
+         {
+            hue = 60.0 * ( ( b - r ) / (double) chroma + 2 );
+         }
+         else
+         {
+            hue = 60.0 * ( ( r - g ) / (double) chroma + 4 );
+         }
+         if ( hue < 0 )
+         {
+            hue += 360;
+         }
+
+         threshold[ i ] = ( hue >= minHue ) && ( hue <= maxHue )
+            && ( saturation >= minSaturation )
+            && ( saturation <= maxSaturation )
+            && ( value >= minValue ) && ( value <= maxValue );
+      }
+   }
+
+
+   /**
+    * Finds the target in a frame.
+    *
+    * @param frame - pixels of the frame (<code>0xRRGGBB</code>, row by row)
+    * @return whether a target was found (same as <code>isValid()</code>)
+    * @throws IllegalStateException if closed, or a band failed (the frame
+    *            then has no target)
+    **/
+   public boolean process( int[] frame )
+   {
+      if ( closed )
+      {
+         throw new IllegalStateException( "TargetFinder Closed" );
+      }
+      if ( frame.length < labels.length )
+      {
+         throw new IllegalArgumentException(
+            "frame of " + frame.length + " pixels; need " + labels.length );
+      }
+      pixels = frame;
+
+      // Bands 1 and up on the helpers, band 0 on this thread
+      frameCount++;
+      caller = Thread.currentThread();
+      for ( final BandWorker worker : workers )
+      {
+         worker.requested = frameCount;
+         LockSupport.unpark( worker );
+      }
+      try
+      {
+         labelBand( 0 );
+      }
+      finally
+      {
+         // Even if band 0 failed, the helpers must be done with the frame
+         awaitWorkers();
+      }
+      for ( final BandWorker worker : workers )
+      {
+         final Throwable failure = worker.failure;
+         if ( failure != null )
+         {
+            worker.failure = null;
+            valid = false;
+            numTargets = 0;
+            angle = 0;
+            distance = 0;
+            targetX = 0;
+            targetY = 0;
+            pixels = null;
+            throw new IllegalStateException(
+               "Target Finder band " + worker.band + " failed", failure );
+         }
+      }
+
+      joinBands();
+      collectBlobs();
+      score();
+
+      pixels = null;
+      return valid;
+   }
+
+
+   /**
+    * Waits for the helpers to be done with the current frame.
+    **/
+   private void awaitWorkers()
+   {
+      for ( final BandWorker worker : workers )
+      {
+         while ( worker.completed != frameCount )
+         {
+            LockSupport.park( this );
+         }
+      }
+   }
+
+
+   /**
+    * Stops the helper threads (waiting up to a second for them); the finder
+    * can't be used after.
+    **/
+   public void close()
+   {
+      closed = true;
+      for ( final BandWorker worker : workers )
+      {
+         LockSupport.unpark( worker );
+      }
+      for ( final BandWorker worker : workers )
+      {
+         try
+         {
+            worker.join( 1000 );
+         }
+         catch ( final InterruptedException ex )
+         {
+            Thread.currentThread().interrupt();
+            return;
+         }
+      }
+   }
+
+
+   /**
+    * Thresholds a band of rows and labels its blobs (with labels only from
+    * the band's own range), then totals each blob's area and corners.
+    **/
+   private void labelBand( int band )
+   {
+      final int firstRow = bandRows[ band ];
+      final int endRow = bandRows[ band + 1 ];
+      int nextLabel = bandLabels[ band ];
+
+      for ( int y = firstRow; y < endRow; y++ )
+      {
+         final int rowStart = y * width;
+         final boolean hasUp = ( y > firstRow );
+         for ( int x = 0; x < width; x++ )
+         {
+            final int i = rowStart + x;
+            final int p = pixels[ i ];
+            if ( !threshold[ ( ( p >> 6 ) & 0x3F000 ) | ( ( p >> 4 ) & 0xFC0 )
+               | ( ( p >> 2 ) & 0x3F ) ] )
+            {
+               labels[ i ] = 0;
+               continue;
+            }
+
+            // Up touches all the others; left and up left touch each other
+            final int up = hasUp ? labels[ i - width ] : 0;
+            int label;
+            if ( up != 0 )
+            {
+               label = up;
+            }
+            else
+            {
+               int left = ( x > 0 ) ? labels[ i - 1 ] : 0;
+               if ( ( left == 0 ) && hasUp && ( x > 0 ) )
+               {
+                  left = labels[ i - width - 1 ];
+               }
+               final int upRight =
+                  ( hasUp && ( x < ( width - 1 ) ) ) ? labels[ i - width + 1 ]
+                     : 0;
+               if ( left != 0 )
+               {
+                  label = left;
+                  if ( upRight != 0 )
+                  {
+                     union( left, upRight );
+                  }
+               }
+               else if ( upRight != 0 )
+               {
+                  label = upRight;
+               }
+               else
+               {
+                  label = nextLabel++;
+                  parents[ label ] = label;
+                  areas[ label ] = 0;
+               }
+            }
+            labels[ i ] = label;
+         }
+      }
+      bandNextLabels[ band ] = nextLabel;
+
+      for ( int i = firstRow * width; i < endRow * width; i++ )
+      {
+         if ( labels[ i ] != 0 )
+         {
+            addPixel( find( labels[ i ] ), i );
+         }
+      }
+   }
+
+
+   private void addPixel( int root, int i )
+   {
+      if ( areas[ root ] == 0 )
+      {
+         bottomRights[ root ] = i;
+         bottomLefts[ root ] = i;
+         topLefts[ root ] = i;
+         topRights[ root ] = i;
+      }
+      areas[ root ]++;
+
+      final int x = i % width;
+      final int y = i / width;
+      if ( ( x + y ) > ( sumOf( bottomRights[ root ] ) ) )
+      {
+         bottomRights[ root ] = i;
+      }
+      if ( ( x + y ) < ( sumOf( topLefts[ root ] ) ) )
+      {
+         topLefts[ root ] = i;
+      }
+      if ( ( y - x ) > ( differenceOf( bottomLefts[ root ] ) ) )
+      {
+         bottomLefts[ root ] = i;
+      }
+      if ( ( y - x ) < ( differenceOf( topRights[ root ] ) ) )
+      {
+         topRights[ root ] = i;
+      }
+   }
+
+
+   /**
+    * Joins blobs that cross the seams between bands, and moves the totals of
+    * the ones joined into their new root.
+    **/
+   private void joinBands()
+   {
+      for ( int b = 1; b < ( bandRows.length - 1 ); b++ )
+      {
+         final int rowStart = bandRows[ b ] * width;
+         for ( int x = 0; x < width; x++ )
+         {
+            final int label = labels[ rowStart + x ];
+            if ( label == 0 )
+            {
+               continue;
+            }
+            final int up = rowStart + x - width;
+            if ( ( x > 0 ) && ( labels[ up - 1 ] != 0 ) )
+            {
+               union( label, labels[ up - 1 ] );
+            }
+            if ( labels[ up ] != 0 )
+            {
+               union( label, labels[ up ] );
+            }
+            if ( ( x < ( width - 1 ) ) && ( labels[ up + 1 ] != 0 ) )
+            {
+               union( label, labels[ up + 1 ] );
+            }
+         }
+      }
+
+      for ( int b = 0; b < bandLabels.length; b++ )
+      {
+         for ( int label = bandLabels[ b ]; label < bandNextLabels[ b ];
+            label++ )
+         {
+            if ( areas[ label ] == 0 )
+            {
+               continue;
+            }
+            final int root = find( label );
+            if ( root != label )
+            {
+               mergeInto( root, label );
+            }
+         }
+      }
+   }
+
+
+   private void mergeInto( int root, int label )
+   {
+      if ( areas[ root ] == 0 )
+      {
+         bottomRights[ root ] = bottomRights[ label ];
+         bottomLefts[ root ] = bottomLefts[ label ];
+         topLefts[ root ] = topLefts[ label ];
+         topRights[ root ] = topRights[ label ];
+      }
+      else
+      {
+         if ( sumOf( bottomRights[ label ] ) > sumOf( bottomRights[ root ] ) )
+         {
+            bottomRights[ root ] = bottomRights[ label ];
+         }
+         if ( sumOf( topLefts[ label ] ) < sumOf( topLefts[ root ] ) )
+         {
+            topLefts[ root ] = topLefts[ label ];
+         }
+         if ( differenceOf( bottomLefts[ label ] ) > differenceOf(
+            bottomLefts[ root ] ) )
+         {
+            bottomLefts[ root ] = bottomLefts[ label ];
+         }
+         if ( differenceOf( topRights[ label ] ) < differenceOf(
+            topRights[ root ] ) )
+         {
+            topRights[ root ] = topRights[ label ];
+         }
+      }
+      areas[ root ] += areas[ label ];
+      areas[ label ] = 0;
+   }
+
+
+   /**
+    * Collects the blobs big enough (and not from the bar; TTv8's
+    * <code>badBlob</code>).
+    **/
+   private void collectBlobs()
+   {
+      blobCount = 0;
+      for ( int b = 0; b < bandLabels.length; b++ )
+      {
+         for ( int label = bandLabels[ b ]; label < bandNextLabels[ b ];
+            label++ )
+         {
+            if ( ( areas[ label ] < minArea ) || ( parents[ label ] != label ) )
+            {
+               continue;
+            }
+            if ( blobCount == maxBlobs )
+            {
+               return;
+            }
+
+            final int base = blobCount * 8;
+            setCorner( base, bottomRights[ label ] );
+            setCorner( base + 2, bottomLefts[ label ] );
+            setCorner( base + 4, topLefts[ label ] );
+            setCorner( base + 6, topRights[ label ] );
+            if ( ( blobCorners[ base + 1 ] < minY )
+               || ( blobCorners[ base + 3 ] < minY )
+               || ( blobCorners[ base + 5 ] < minY )
+               || ( blobCorners[ base + 7 ] < minY ) )
+            {
+               continue;
+            }
+            blobCount++;
+         }
+      }
+   }
+
+
+   private void setCorner( int offset, int i )
+   {
+      blobCorners[ offset ] = i % width;
+      blobCorners[ offset + 1 ] = i / width;
+   }
+
+
+   /**
+    * TTv8's checks and scoring of the blobs.
+    **/
+   private void score()
+   {
+      // No target (nor the last frame's) until one is scored
+      valid = false;
+      numTargets = 0;
+      angle = 0;
+      distance = 0;
+      targetX = 0;
+      targetY = 0;
+
+      // Keep the largest (and the next, unless less than half its size);
+      // externalContour
+      int first = -1;
+      int second = -1;
+      for ( int i = 0; i < blobCount; i++ )
+      {
+         blobAreas[ i ] = cornerArea( i * 8 );
+         if ( ( first < 0 ) || ( blobAreas[ i ] > blobAreas[ first ] ) )
+         {
+            second = first;
+            first = i;
+         }
+         else if ( ( second < 0 ) || ( blobAreas[ i ] > blobAreas[ second ] ) )
+         {
+            second = i;
+         }
+      }
+      if ( first < 0 )
+      {
+         return;
+      }
+      if ( ( second >= 0 )
+         && ( blobAreas[ first ] > ( 2 * blobAreas[ second ] ) ) )
+      {
+         second = -1;
+      }
+      final boolean multiple = ( second >= 0 );
+
+      double pixelHeight = 0;
+      double pixelWidth = 0;
+      for ( int n = 0; n < ( multiple ? 2 : 1 ); n++ )
+      {
+         final int blob = ( n == 0 ) ? first : second;
+         final int c = blob * 8;
+         final int rightX = blobCorners[ c ];
+         final int rightY = blobCorners[ c + 1 ];
+         final int leftX = blobCorners[ c + 2 ];
+         final int leftY = blobCorners[ c + 3 ];
+         final int leftXX = blobCorners[ c + 4 ];
+         final int leftYY = blobCorners[ c + 5 ];
+         final int rightXX = blobCorners[ c + 6 ];
+         final int rightYY = blobCorners[ c + 7 ];
+
+         blobOffsets[ blob ] = Double.POSITIVE_INFINITY;
+         blobSkews[ blob ] = Double.POSITIVE_INFINITY;
+
+         // xIsValid and yIsValid
+         if ( !( ( rightX < width ) && ( rightXX < width ) && ( leftX > 0 )
+            && ( leftXX > 0 ) ) )
+         {
+            continue;
+         }
+         if ( !( ( rightY > 0 ) && ( rightYY < height ) && ( leftY > 0 )
+            && ( leftYY < height ) ) )
+         {
+            continue;
+         }
+
+         // Average of the two sides (removes perspective)
+         pixelHeight += ( ( leftY - leftYY ) + ( rightY - rightYY ) ) / 2.0;
+         pixelWidth += ( ( leftXX - rightXX ) + ( leftX - rightX ) ) / 2.0;
+
+         if ( multiple )
+         {
+            final double x = ( leftX + leftXX + rightX + rightXX ) / 4.0;
+            blobOffsets[ blob ] = Math.abs( ( x - centerX() ) / centerX() );
+            blobSkews[ blob ] = ( Math.abs( leftYY - rightYY )
+               + Math.abs( leftY - rightY ) ) / 2.0;
+         }
+         numTargets++;
+      }
+      if ( numTargets == 0 )
+      {
+         return;
+      }
+
+      pixelHeight = pixelHeight / numTargets;
+      pixelWidth = Math.abs( pixelWidth / numTargets );
+      if ( ( pixelHeight <= 0 ) || ( pixelWidth <= 0 ) )
+      {
+         return;
+      }
+
+      final double distanceW =
+         findDistance( targetWidth, width, pixelWidth, horizontalFOV );
+      final double horizontal =
+         Math.sqrt( ( distanceW * distanceW ) - ( towerHeight * towerHeight ) );
+      if ( Double.isNaN( horizontal ) )
+      {
+         return;
+      }
+      distance = fixDistance( horizontal * 12 );
+
+      final int target =
+         multiple ? prioritizeTarget( first, second, distanceW ) : first;
+      final int c = target * 8;
+      targetX = ( blobCorners[ c ] + blobCorners[ c + 2 ] + blobCorners[ c + 4 ]
+         + blobCorners[ c + 6 ] ) / 4.0;
+      targetY = ( blobCorners[ c + 1 ] + blobCorners[ c + 3 ]
+         + blobCorners[ c + 5 ] + blobCorners[ c + 7 ] ) / 4.0;
+
+      // Proportion of the field of view, averaged across both ways
+      final double offset = centerX() - targetX; // pixels
+      final double angleW = horizontalFOV * ( offset / width );
+      final double angleH = verticalFOV * ( offset / height );
+      angle = ( angleW + angleH ) / 2;
+
+      valid = true;
+   }
+
+
+   /**
+    * @return area of the blob from its corners (not its pixels)
+    **/
+   private double cornerArea( int c )
+   {
+      final double w = ( Math.abs( blobCorners[ c + 4 ] - blobCorners[ c + 6 ] )
+         + Math.abs( blobCorners[ c + 2 ] - blobCorners[ c ] ) ) / 2.0;
+      final double h = ( Math.abs( blobCorners[ c + 5 ] - blobCorners[ c + 3 ] )
+         + Math.abs( blobCorners[ c + 7 ] - blobCorners[ c + 1 ] ) ) / 2.0;
+      return w * h;
+   }
+
+
+   /**
+    * @return blob to aim at; the straightest on if both (or neither) are
+    *         centered or it is close, else the centered (or most centered)
+    *         one
+    **/
+   private int prioritizeTarget( int first, int second,
+      double targetDistance )
+   {
+      final boolean firstCentered =
+         ( blobOffsets[ first ] < centeredThreshold );
+      final boolean secondCentered =
+         ( blobOffsets[ second ] < centeredThreshold );
+      if ( ( firstCentered && secondCentered )
+         || ( targetDistance < closeDistance ) )
+      {
+         return ( blobSkews[ second ] < blobSkews[ first ] ) ? second : first;
+      }
+      else if ( firstCentered )
+      {
+         return first;
+      }
+      else if ( secondCentered )
+      {
+         return second;
+      }
+      return ( blobOffsets[ second ] < blobOffsets[ first ] ) ? second : first;
+   }
+
+
+   /**
+    * @return distance (feet) from front of robot, from the target's size in
+    *         the image (without TTv8's rounding to hundredths)
+    **/
+   private static double findDistance( double targetActual, int imagePixels,
+      double targetPixels, double cameraFOV )
+   {
+      final double totalDistance = ( ( targetActual * imagePixels )
+         / targetPixels / 2 ) / Math.tan( Math.toRadians( cameraFOV ) / 2 );
+      return ( totalDistance / 12 ) + robotToCamera;
+   }
+
+
+   /**
+    * @return distance (feet) corrected by the curve fit (from inches)
+    **/
+   private static double fixDistance( double x )
+   {
+      return ( ( -2.9565e-6 * x * x * x ) + ( 0.0017 * x * x ) + ( 0.6935 * x )
+         + 11.8683 ) / 12;
+   }
+
+
+   private double centerX()
+   {
+      return width / 2.0;
+   }
+
+
+   private int sumOf( int i )
+   {
+      return ( i % width ) + ( i / width );
+   }
+
+
+   private int differenceOf( int i )
+   {
+      return ( i / width ) - ( i % width );
+   }
+
+
+   private int find( int label )
+   {
+      while ( parents[ label ] != label )
+      {
+         // Path halving
+         parents[ label ] = parents[ parents[ label ] ];
+         label = parents[ label ];
+      }
+      return label;
+   }
+
+
+   private void union( int a, int b )
+   {
+      final int rootA = find( a );
+      final int rootB = find( b );
+      if ( rootA < rootB )
+      {
+         parents[ rootB ] = rootA;
+      }
+      else if ( rootB < rootA )
+      {
+         parents[ rootA ] = rootB;
+      }
+   }
+
+
+   /**
+    * @return whether the last frame had a target
+    **/
+   public boolean isValid()
+   {
+      return valid;
+   }
+
+
+   /**
+    * @return how many targets were used in the last frame (1 or 2)
+    **/
+   public int getNumTargets()
+   {
+      return numTargets;
+   }
+
+
+   /**
+    * @return (offset) angle to target (degrees); 0 if no valid target
+    **/
+   public double getAngle()
+   {
+      return angle;
+   }
+
+
+   /**
+    * @return distance to target (feet); 0 if no valid target
+    **/
+   public double getDistance()
+   {
+      return distance;
+   }
+
+
+   /**
+    * @return column of the center of the target (pixels)
+    **/
+   public double getTargetX()
+   {
+      return targetX;
+   }
+
+
+   /**
+    * @return row of the center of the target (pixels)
+    **/
+   public double getTargetY()
+   {
+      return targetY;
+   }
+
+
+   public int getWidth()
+   {
+      return width;
+   }
+
+
+   public int getHeight()
+   {
+      return height;
+   }
+
+
+   /**
+    * Helper thread labeling one band of each frame.
+    **/
+   private final class BandWorker
+      extends Thread
+   {
+
+      private final int band;
+
+      /** Frame asked for, and done **/
+      volatile long requested;
+      volatile long completed;
+      /** What failed labeling the last frame (null if nothing) **/
+      volatile Throwable failure;
+
+
+      BandWorker( int band )
+      {
+         super( "Target Finder " + band );
+         this.band = band;
+         setDaemon( true );
+      }
+
+
+      @Override
+      public void run()
+      {
+         while ( !closed )
+         {
+            final long frame = requested;
+            if ( frame == completed )
+            {
+               LockSupport.park( TargetFinder.this );
+               continue;
+            }
+            try
+            {
+               labelBand( band );
+            }
+            catch ( final Throwable ex )
+            {
+               // Caller must not wait forever; it throws this instead
+               failure = ex;
+            }
+            // Failure first, so the caller sees it once completed
+            completed = frame;
+            LockSupport.unpark( caller );
+         }
+      }
+
+   }
+
+}
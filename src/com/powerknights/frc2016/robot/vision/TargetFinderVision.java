@@ -0,0 +1,225 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.robot.vision;
+
+
+import org.slf4j.Logger;
+
+import com.powerknights.frc2016.riolog.PrimitiveLog;
+import com.powerknights.frc2016.riolog.RioLogger;
+import com.powerknights.frc2016.robot.managers.LCDManager;
+import com.powerknights.frc2016.utils.StoppableThread;
+import com.powerknights.frc2016.utils.TimeUtils;
+
+
+/**
+ * Vision source running the target finding on the robot; takes frames from
+ * an <code>IFrameSource</code>, runs them through the
+ * <code>TargetFinder</code>, and publishes an update for each (same as
+ * <code>NetworkTablesVision</code> does with the RoboRealm results).
+ *
+ * @author first.stu
+ **/
+public class TargetFinderVision
+   implements IVisionSource
+{
+
+   /** Our classes' logger **/
+   private static final Logger logger =
+      RioLogger.getLogger( TargetFinderVision.class.getName() );
+
+   /** Singleton instance of class for all to use **/
+   private static IVisionSource ourInstance;
+
+
+   /**
+    * Constructs instance of the on-robot <code>IVisionSource</code>, and
+    * starts it finding targets in the frames of the source. Assumed to be
+    * called before any usage of the subsystem; and verifies only called once.
+    * Allows controlled startup sequencing of the robot and all it's
+    * subsystems.
+    *
+    * @param source - of the frames
+    **/
+   public static synchronized void constructInstance( IFrameSource source )
+   {
+      if ( ourInstance != null )
+      {
+         throw new IllegalStateException(
+            "Target Finder Vision Already Constructed" );
+      }
+      ourInstance = new TargetFinderVision( source );
+   }
+
+
+   /**
+    * Returns the singleton instance of the <code>IVisionSource</code>. If it
+    * hasn't been constructed yet, throws an <code>IllegalStateException</code>.
+    *
+    * @return singleton instance of vision source
+    **/
+   public static IVisionSource getInstance()
+   {
+      if ( ourInstance == null )
+      {
+         throw new IllegalStateException(
+            "Target Finder Vision Not Constructed Yet" );
+      }
+      return ourInstance;
+   }
+
+   /** Handle to LCD on dashboard **/
+   private final LCDManager lcdMgr;
+
+   /** Where frames come from **/
+   private final IFrameSource source;
+   /** Pipeline finding the target **/
+   private final TargetFinder finder;
+   /** Frame being worked on **/
+   private final int[] pixels;
+
+   /** Count of updates (the sequence of the latest) **/
+   private long updateCount;
+   /** **/
+   private long validCount;
+   /** **/
+   private long invalidCount;
+
+   /** Latest update; a new one is published for each frame **/
+   private final LatestVisionUpdate updates = new LatestVisionUpdate();
+
+
+   private TargetFinderVision( IFrameSource source )
+   {
+      logger.info( "constructing" );
+
+      lcdMgr = LCDManager.getInstance();
+
+      this.source = source;
+      // Split each frame across all the cores
+      finder = new TargetFinder( source.getWidth(), source.getHeight(),
+         Runtime.getRuntime().availableProcessors() );
+      pixels = new int[ source.getWidth() * source.getHeight() ];
+
+      updateCount = 0;
+      validCount = 0;
+      invalidCount = 0;
+
+      lcdMgr.setVisionStarted();
+      new FinderThread().start();
+
+      logger.info( "constructed" );
+   }
+
+   private class FinderThread
+      extends StoppableThread
+   {
+
+      public FinderThread()
+      {
+         // No wait between frames; the source waits for them
+         super( "Target Finder", 0 );
+      }
+
+
+      /*
+       * (non-Javadoc)
+       *
+       * @see com.powerknights.frc2016.utils.StoppableThread#doIt()
+       */
+      @Override
+      public boolean doIt()
+      {
+         final long captureTime = source.grabFrame( pixels );
+         if ( captureTime < 0 )
+         {
+            logger.info( "out of frames" );
+            return true;
+         }
+
+         boolean valid;
+         try
+         {
+            valid = finder.process( pixels );
+         }
+         catch ( final IllegalStateException ex )
+         {
+            // A band failed; publish the frame as no target, and carry on
+            logger.error( "target finding failed", ex );
+            valid = false;
+         }
+         final long receiveTime = TimeUtils.microTime();
+
+         updateCount++;
+         final VisionUpdate update = new VisionUpdate( updateCount, valid,
+            valid ? finder.getAngle() : 0, valid ? finder.getDistance() : 0,
+            captureTime, receiveTime );
+         updates.publish( update );
+
+         PrimitiveLog.trace( logger, "distance={}, angle={}, valid={}",
+            update.distance, update.angle, update.isValid() );
+
+         if ( valid )
+         {
+            validCount++;
+         }
+         else
+         {
+            invalidCount++;
+         }
+         if ( updateCount == 1 )
+         {
+            lcdMgr.setVisionUpdating();
+         }
+         else if ( ( updateCount % 25 ) == 0 )
+         {
+            lcdMgr.updateVision( validCount, invalidCount );
+         }
+         return false;
+      }
+
+
+      /*
+       * (non-Javadoc)
+       *
+       * @see com.powerknights.frc2016.utils.StoppableThread#cleanUp()
+       */
+      @Override
+      public void cleanUp()
+      {
+         finder.close();
+      }
+
+   }
+
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see com.powerknights.frc2016.robot.vision.IVisionSource#getUpdate()
+    */
+   @Override
+   public VisionUpdate getUpdate()
+   {
+      return updates.getUpdate();
+   }
+
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see com.powerknights.frc2016.robot.vision.IVisionSource#haveUpdate()
+    */
+   @Override
+   public boolean haveUpdate()
+   {
+      return updates.haveUpdate();
+   }
+
+}
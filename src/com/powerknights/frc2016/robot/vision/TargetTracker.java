@@ -0,0 +1,363 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.robot.vision;
+
+
+import org.slf4j.Logger;
+
+import com.powerknights.frc2016.riolog.PrimitiveLog;
+import com.powerknights.frc2016.riolog.RioLogger;
+
+
+/**
+ * Tracks the target between the vision source and what aims with it; so the
+ * (noisy, 25 Hz) angle and distance of the frames are smoothed, and can be
+ * predicted up to the time of each control loop.
+ * <p>
+ * Angle and distance each have a Kalman filter, with a constant rate model
+ * (value and rate; the rate changes by white noise acceleration). A frame
+ * moves the filters to its capture time, and is then blended in. A frame too
+ * far (by its innovation) from the prediction is rejected as an outlier;
+ * unless a run of them says the target really moved, when the filters start
+ * over from the latest. Without frames for a while the target is dropped.
+ * <p>
+ * All the state is primitive fields, so tracking allocates nothing. Not
+ * thread safe; meant for the one control loop using it.
+ *
+ * @author first.stu
+ **/
+public class TargetTracker
+{
+
+   /** Our classes' logger **/
+   private static final Logger logger =
+      RioLogger.getLogger( TargetTracker.class.getName() );
+
+   /*
+    * Noise (as standard deviations)
+    */
+   /** Of the angle in one frame **/
+   private static final double angleNoise = 0.5; // degrees
+   /** Of the distance in one frame **/
+   private static final double distanceNoise = 0.3; // feet
+   /** Of how fast the angle rate changes (robot turning) **/
+   private static final double angleAccelNoise = 30.0; // degrees / sec^2
+   /** Of how fast the distance rate changes (robot driving) **/
+   private static final double distanceAccelNoise = 3.0; // feet / sec^2
+   /** Of the angle rate when starting to track **/
+   private static final double initialAngleRateNoise = 20.0; // degrees / sec
+   /** Of the distance rate when starting to track **/
+   private static final double initialDistanceRateNoise = 3.0; // feet / sec
+
+   /** Innovation (in standard deviations) over which a frame is rejected **/
+   private static final double outlierGate = 3.0;
+   /** Rejected frames in a row after which tracking starts over **/
+   private static final int maxOutliers = 5;
+   /** Time since the last frame used after which the target is dropped **/
+   private static final long maxCoast = 500000; // usec
+
+   /** Filters of the angle and distance **/
+   private final Axis angleAxis;
+   private final Axis distanceAxis;
+
+   /** Whether tracking a target **/
+   private boolean tracking;
+   /** Time the filters are at (capture time of the last frame used) **/
+   private long filterTime; // usec
+   /** Sequence of the last update looked at **/
+   private long lastSequence;
+   /** Rejected frames in a row **/
+   private int outlierCount;
+
+   /** Counts of frames used, and rejected **/
+   private long acceptedCount;
+   private long rejectedCount;
+
+
+   public TargetTracker()
+   {
+      angleAxis = new Axis( angleNoise, angleAccelNoise,
+         initialAngleRateNoise );
+      distanceAxis = new Axis( distanceNoise, distanceAccelNoise,
+         initialDistanceRateNoise );
+
+      reset();
+   }
+
+
+   /**
+    * Drops the target (and forgets the updates already seen).
+    **/
+   public void reset()
+   {
+      tracking = false;
+      filterTime = 0;
+      lastSequence = 0;
+      outlierCount = 0;
+   }
+
+
+   /**
+    * Takes in the latest update of the source (if not seen already), and
+    * predicts the target to the time.
+    *
+    * @param source - of the updates
+    * @param now - time to predict to (usec)
+    * @param target - filled in with the prediction
+    * @return whether the target is being tracked
+    **/
+   public boolean track( IVisionSource source, long now, TrackedTarget target )
+   {
+      update( source.getUpdate() );
+      return predict( now, target );
+   }
+
+
+   /**
+    * Takes in an update; ignoring ones already seen, invalid or older than
+    * the last one used.
+    *
+    * @param update - from the vision source
+    **/
+   public void update( VisionUpdate update )
+   {
+      if ( update.sequence == lastSequence )
+      {
+         return;
+      }
+      lastSequence = update.sequence;
+      if ( !update.isValid() )
+      {
+         return;
+      }
+
+      if ( !tracking )
+      {
+         start( update );
+         return;
+      }
+      if ( update.captureTime <= filterTime )
+      {
+         return;
+      }
+
+      final double dt = ( update.captureTime - filterTime ) / 1e6;
+      angleAxis.predict( dt );
+      distanceAxis.predict( dt );
+
+      if ( angleAxis.isOutlier( update.angle )
+         || distanceAxis.isOutlier( update.distance ) )
+      {
+         // Filters stay predicted to the capture time
+         filterTime = update.captureTime;
+         rejectedCount++;
+         outlierCount++;
+         PrimitiveLog.debug( logger, "outlier: angle={}, distance={}",
+            update.angle, update.distance );
+         if ( outlierCount >= maxOutliers )
+         {
+            logger.debug( "too many outliers; starting over" );
+            start( update );
+         }
+         return;
+      }
+
+      angleAxis.correct( update.angle );
+      distanceAxis.correct( update.distance );
+      filterTime = update.captureTime;
+      outlierCount = 0;
+      acceptedCount++;
+   }
+
+
+   /**
+    * Starts tracking from the update.
+    **/
+   private void start( VisionUpdate update )
+   {
+      angleAxis.start( update.angle );
+      distanceAxis.start( update.distance );
+      filterTime = update.captureTime;
+      outlierCount = 0;
+      tracking = true;
+      acceptedCount++;
+   }
+
+
+   /**
+    * Predicts the target to the time (without changing the filters).
+    *
+    * @param now - time to predict to (usec)
+    * @param target - filled in with the prediction
+    * @return whether the target is being tracked
+    **/
+   public boolean predict( long now, TrackedTarget target )
+   {
+      if ( tracking && ( ( now - filterTime ) > maxCoast ) )
+      {
+         logger.debug( "no frames; dropping target" );
+         tracking = false;
+      }
+      target.valid = tracking;
+      if ( !tracking )
+      {
+         target.angle = 0;
+         target.angleRate = 0;
+         target.distance = 0;
+         target.distanceRate = 0;
+         target.confidence = 0;
+         target.age = 0;
+         return false;
+      }
+
+      final double dt = Math.max( 0, now - filterTime ) / 1e6;
+      target.angle = angleAxis.predictValue( dt );
+      target.angleRate = angleAxis.rate;
+      target.distance = distanceAxis.predictValue( dt );
+      target.distanceRate = distanceAxis.rate;
+      target.confidence = Math.min( angleAxis.predictConfidence( dt ),
+         distanceAxis.predictConfidence( dt ) );
+      target.age = now - filterTime;
+      return true;
+   }
+
+
+   /**
+    * @return whether a target is being tracked
+    **/
+   public boolean isTracking()
+   {
+      return tracking;
+   }
+
+
+   /**
+    * @return how many frames have been used
+    **/
+   public long getAcceptedCount()
+   {
+      return acceptedCount;
+   }
+
+
+   /**
+    * @return how many frames have been rejected as outliers
+    **/
+   public long getRejectedCount()
+   {
+      return rejectedCount;
+   }
+
+   /**
+    * Kalman filter of one value and its rate; the state, and the covariance
+    * (symmetric, so 3 terms).
+    **/
+   private static final class Axis
+   {
+
+      /** Variance of the value in one frame **/
+      private final double measurementVariance;
+      /** Variance of the (white noise) acceleration **/
+      private final double accelVariance;
+      /** Variance of the rate when starting **/
+      private final double initialRateVariance;
+
+      double value;
+      double rate;
+      /** Covariance of value, value and rate, and rate **/
+      private double pValue;
+      private double pCross;
+      private double pRate;
+
+
+      Axis( double measurementNoise, double accelNoise,
+         double initialRateNoise )
+      {
+         measurementVariance = measurementNoise * measurementNoise;
+         accelVariance = accelNoise * accelNoise;
+         initialRateVariance = initialRateNoise * initialRateNoise;
+      }
+
+
+      void start( double measurement )
+      {
+         value = measurement;
+         rate = 0;
+         pValue = measurementVariance;
+         pCross = 0;
+         pRate = initialRateVariance;
+      }
+
+
+      void predict( double dt )
+      {
+         value += rate * dt;
+
+         final double dt2 = dt * dt;
+         pValue += ( dt * ( ( 2 * pCross ) + ( dt * pRate ) ) )
+            + ( ( accelVariance * dt2 * dt2 ) / 4 );
+         pCross += ( dt * pRate ) + ( ( accelVariance * dt2 * dt ) / 2 );
+         pRate += accelVariance * dt2;
+      }
+
+
+      /**
+       * @return whether the measurement is further from the (predicted)
+       *         value than the gate allows
+       **/
+      boolean isOutlier( double measurement )
+      {
+         final double innovation = measurement - value;
+         final double innovationVariance = pValue + measurementVariance;
+         return ( innovation * innovation ) > ( outlierGate * outlierGate
+            * innovationVariance );
+      }
+
+
+      void correct( double measurement )
+      {
+         final double innovation = measurement - value;
+         final double innovationVariance = pValue + measurementVariance;
+         final double valueGain = pValue / innovationVariance;
+         final double rateGain = pCross / innovationVariance;
+
+         value += valueGain * innovation;
+         rate += rateGain * innovation;
+
+         pRate -= rateGain * pCross;
+         pValue -= valueGain * pValue;
+         pCross -= valueGain * pCross;
+      }
+
+
+      /**
+       * @return value predicted ahead by the time (sec)
+       **/
+      double predictValue( double dt )
+      {
+         return value + ( rate * dt );
+      }
+
+
+      /**
+       * @return confidence (0 - 1) of the value predicted ahead by the time
+       *         (sec); from its variance against that of one frame
+       **/
+      double predictConfidence( double dt )
+      {
+         final double dt2 = dt * dt;
+         final double variance =
+            pValue + ( dt * ( ( 2 * pCross ) + ( dt * pRate ) ) )
+               + ( ( accelVariance * dt2 * dt2 ) / 4 );
+         return measurementVariance / ( measurementVariance + variance );
+      }
+
+   }
+
+}
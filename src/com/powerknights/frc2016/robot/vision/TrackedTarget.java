@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.robot.vision;
+
+
+/**
+ * A vision target as filtered by the <code>TargetTracker</code>, and
+ * predicted forward to now. Filled in (not allocated) on each prediction.
+ *
+ * @author first.stu
+ **/
+public class TrackedTarget
+{
+
+   /** Whether the target is being tracked (the rest is meaningless if not) **/
+   public boolean valid;
+   /** (Offset) angle to target, as of now **/
+   public double angle; // degrees
+   /** How fast the angle is changing **/
+   public double angleRate; // degrees / sec
+   /** Distance to target, as of now **/
+   public double distance; // feet
+   /** How fast the distance is changing **/
+   public double distanceRate; // feet / sec
+   /**
+    * How much to trust the prediction; 1 when its uncertainty is well under
+    * the noise of a single frame, falling towards 0 as it grows (with time
+    * since the last frame, or from rejected frames)
+    **/
+   public double confidence; // 0 - 1
+   /** How old the last frame used is **/
+   public long age; // usec
+
+}
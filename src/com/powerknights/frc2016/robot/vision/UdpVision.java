@@ -0,0 +1,242 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.robot.vision;
+
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+
+import com.powerknights.frc2016.riolog.PrimitiveLog;
+import com.powerknights.frc2016.riolog.RioLogger;
+import com.powerknights.frc2016.robot.config.DelayTimeConfig;
+import com.powerknights.frc2016.robot.managers.LCDManager;
+import com.powerknights.frc2016.robot.managers.NumberEntry;
+import com.powerknights.frc2016.robot.managers.SmartDashboardManager;
+import com.powerknights.frc2016.utils.StoppableThread;
+import com.powerknights.frc2016.utils.TimeUtils;
+
+
+/**
+ * Vision source taking one datagram (<code>UdpVisionPacket</code>) per frame
+ * from the vision pipeline; instead of the separate NetworkTables keys of
+ * <code>NetworkTablesVision</code>, that take a trip through the
+ * NetworkTables stack each. The receiver's counts (received, lost, out of
+ * order, duplicate, bad and sender restarts) are put to the dashboard.
+ *
+ * @author first.stu
+ **/
+public class UdpVision
+   implements IVisionSource
+{
+
+   /** Our classes' logger **/
+   private static final Logger logger =
+      RioLogger.getLogger( UdpVision.class.getName() );
+
+   /** Singleton instance of class for all to use **/
+   private static IVisionSource ourInstance;
+
+
+   /**
+    * Constructs instance of the UDP-based <code>IVisionSource</code>, and
+    * starts it receiving. Assumed to be called before any usage of the
+    * subsystem; and verifies only called once. Allows controlled startup
+    * sequencing of the robot and all it's subsystems.
+    *
+    * @param port - to receive the datagrams on
+    **/
+   public static synchronized void constructInstance( int port )
+   {
+      if ( ourInstance != null )
+      {
+         throw new IllegalStateException( "UDP Vision Already Constructed" );
+      }
+      ourInstance = new UdpVision( port );
+   }
+
+
+   /**
+    * Returns the singleton instance of the <code>IVisionSource</code>. If it
+    * hasn't been constructed yet, throws an <code>IllegalStateException</code>.
+    *
+    * @return singleton instance of vision source
+    **/
+   public static IVisionSource getInstance()
+   {
+      if ( ourInstance == null )
+      {
+         throw new IllegalStateException( "UDP Vision Not Constructed Yet" );
+      }
+      return ourInstance;
+   }
+
+   /** Handle to LCD on dashboard **/
+   private final LCDManager lcdMgr;
+
+   /** Telemetry handles of the receiver's counts **/
+   private final NumberEntry receivedEntry;
+   private final NumberEntry lostEntry;
+   private final NumberEntry outOfOrderEntry;
+   private final NumberEntry duplicateEntry;
+   private final NumberEntry badEntry;
+   private final NumberEntry restartEntry;
+
+   /** Receiver of the datagrams (null if it couldn't be opened) **/
+   private UdpVisionReceiver receiver;
+
+   /** Count of updates (the sequence of the latest) **/
+   private long updateCount;
+   /** **/
+   private long validCount;
+   /** **/
+   private long invalidCount;
+
+   /** Latest update; a new one is published for each datagram **/
+   private final LatestVisionUpdate updates = new LatestVisionUpdate();
+
+
+   private UdpVision( int port )
+   {
+      logger.info( "constructing" );
+
+      lcdMgr = LCDManager.getInstance();
+
+      final SmartDashboardManager smartDashboard =
+         SmartDashboardManager.getInstance();
+      receivedEntry = smartDashboard.registerNumber( "udpVisionReceived" );
+      lostEntry = smartDashboard.registerNumber( "udpVisionLost" );
+      outOfOrderEntry = smartDashboard.registerNumber( "udpVisionOutOfOrder" );
+      duplicateEntry = smartDashboard.registerNumber( "udpVisionDuplicate" );
+      badEntry = smartDashboard.registerNumber( "udpVisionBad" );
+      restartEntry = smartDashboard.registerNumber( "udpVisionRestarts" );
+
+      updateCount = 0;
+      validCount = 0;
+      invalidCount = 0;
+
+      lcdMgr.setVisionStarted();
+      try
+      {
+         receiver = new UdpVisionReceiver( port );
+         new ReceiverThread().start();
+         lcdMgr.setVisionConnected();
+      }
+      catch ( final IOException ex )
+      {
+         logger.error( "can't receive on port " + port, ex );
+         receiver = null;
+      }
+
+      logger.info( "constructed" );
+   }
+
+   private class ReceiverThread
+      extends StoppableThread
+   {
+
+      public ReceiverThread()
+      {
+         // No wait between datagrams; the receive waits for them
+         super( "UDP Vision", 0 );
+      }
+
+
+      /*
+       * (non-Javadoc)
+       *
+       * @see com.powerknights.frc2016.utils.StoppableThread#doIt()
+       */
+      @Override
+      public boolean doIt()
+      {
+         try
+         {
+            if ( !receiver.receive() )
+            {
+               logger.info( "closed" );
+               return true;
+            }
+         }
+         catch ( final IOException ex )
+         {
+            logger.error( "receive failed; stopping", ex );
+            return true;
+         }
+
+         // Age is from capture to sent; add the time from the camera and
+         // over the network that the pipeline doesn't see
+         final long receiveTime = TimeUtils.microTime();
+         final long captureTime = receiveTime - receiver.getAge()
+            - TimeUtils.msecToUsec(
+               DelayTimeConfig.getVisionTransportLatencyDelay() );
+
+         updateCount++;
+         final VisionUpdate update = new VisionUpdate( updateCount,
+            receiver.isValidUpdate(), receiver.getAngle(),
+            receiver.getDistance(), captureTime, receiveTime );
+         updates.publish( update );
+
+         PrimitiveLog.trace( logger, "distance={}, angle={}, valid={}",
+            update.distance, update.angle, update.isValid() );
+
+         if ( update.isValid() )
+         {
+            validCount++;
+         }
+         else
+         {
+            invalidCount++;
+         }
+         if ( updateCount == 1 )
+         {
+            lcdMgr.setVisionUpdating();
+         }
+         else if ( ( updateCount % 25 ) == 0 )
+         {
+            // Arrive every 40 msec; so update 1 per second
+            lcdMgr.updateVision( validCount, invalidCount );
+         }
+
+         receivedEntry.put( receiver.getReceivedCount() );
+         lostEntry.put( receiver.getLostCount() );
+         outOfOrderEntry.put( receiver.getOutOfOrderCount() );
+         duplicateEntry.put( receiver.getDuplicateCount() );
+         badEntry.put( receiver.getBadCount() );
+         restartEntry.put( receiver.getRestartCount() );
+         return false;
+      }
+
+   }
+
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see com.powerknights.frc2016.robot.vision.IVisionSource#getUpdate()
+    */
+   @Override
+   public VisionUpdate getUpdate()
+   {
+      return updates.getUpdate();
+   }
+
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see com.powerknights.frc2016.robot.vision.IVisionSource#haveUpdate()
+    */
+   @Override
+   public boolean haveUpdate()
+   {
+      return updates.haveUpdate();
+   }
+
+}
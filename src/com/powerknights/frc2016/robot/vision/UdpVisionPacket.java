@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.robot.vision;
+
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * Layout of the datagram the vision pipeline sends for each frame (one
+ * frame per datagram, all fields at fixed offsets, big endian):
+ *
+ * <pre>
+ *  0  int    magic ("TT8V")
+ *  4  byte   version (1)
+ *  5  byte   flags (bit 0 - valid update)
+ *  6  short  number of targets
+ *  8  long   sequence (1 for the first frame; +1 for each)
+ * 16  long   capture time (usec, on the sender's clock)
+ * 24  long   age when sent (usec, from capture)
+ * 32  double (offset) angle to target (degrees)
+ * 40  double distance to target (feet)
+ * </pre>
+ *
+ * @author first.stu
+ **/
+final class UdpVisionPacket
+{
+
+   /** Marks our datagrams ("TT8V") **/
+   static final int magic = 0x54543856;
+   /** Version of the layout **/
+   static final byte version = 1;
+   /** Size of the datagram **/
+   static final int size = 48;
+
+   /** Flag bit for a valid update **/
+   static final byte validFlag = 0x01;
+
+   private static final int magicOffset = 0;
+   private static final int versionOffset = 4;
+   private static final int flagsOffset = 5;
+   private static final int targetsOffset = 6;
+   private static final int sequenceOffset = 8;
+   private static final int captureTimeOffset = 16;
+   private static final int ageOffset = 24;
+   private static final int angleOffset = 32;
+   private static final int distanceOffset = 40;
+
+
+   private UdpVisionPacket()
+   {
+      // Only static methods
+   }
+
+
+   /**
+    * Fills in a datagram (from position 0; leaves the buffer ready to send).
+    **/
+   static void write( ByteBuffer buffer, long sequence, boolean valid,
+      int targets, long captureTime, long age, double angle, double distance )
+   {
+      buffer.clear();
+      buffer.putInt( magicOffset, magic );
+      buffer.put( versionOffset, version );
+      buffer.put( flagsOffset, valid ? validFlag : 0 );
+      buffer.putShort( targetsOffset, (short) targets );
+      buffer.putLong( sequenceOffset, sequence );
+      buffer.putLong( captureTimeOffset, captureTime );
+      buffer.putLong( ageOffset, age );
+      buffer.putDouble( angleOffset, angle );
+      buffer.putDouble( distanceOffset, distance );
+      buffer.limit( size );
+   }
+
+
+   /**
+    * @return whether the datagram received (position at its end) is one of
+    *         ours
+    **/
+   static boolean isValidPacket( ByteBuffer buffer )
+   {
+      return ( buffer.position() == size )
+         && ( buffer.getInt( magicOffset ) == magic )
+         && ( buffer.get( versionOffset ) == version );
+   }
+
+
+   static boolean isValidUpdate( ByteBuffer buffer )
+   {
+      return ( buffer.get( flagsOffset ) & validFlag ) != 0;
+   }
+
+
+   static int getTargets( ByteBuffer buffer )
+   {
+      return buffer.getShort( targetsOffset );
+   }
+
+
+   static long getSequence( ByteBuffer buffer )
+   {
+      return buffer.getLong( sequenceOffset );
+   }
+
+
+   static long getCaptureTime( ByteBuffer buffer )
+   {
+      return buffer.getLong( captureTimeOffset );
+   }
+
+
+   static long getAge( ByteBuffer buffer )
+   {
+      return buffer.getLong( ageOffset );
+   }
+
+
+   static double getAngle( ByteBuffer buffer )
+   {
+      return buffer.getDouble( angleOffset );
+   }
+
+
+   static double getDistance( ByteBuffer buffer )
+   {
+      return buffer.getDouble( distanceOffset );
+   }
+
+}
@@ -0,0 +1,247 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.robot.vision;
+
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+
+
+/**
+ * Receives the vision datagrams (<code>UdpVisionPacket</code>) into one
+ * buffer allocated up front, and keeps count of the ones lost, out of order
+ * or bad. A datagram older than the last one used is dropped (its frame is
+ * already out of date).
+ * <p>
+ * Not thread safe; one thread receives (and reads the fields).
+ *
+ * @author first.stu
+ **/
+final class UdpVisionReceiver
+{
+
+   /**
+    * How far back a sequence can be and still be out of order; further back,
+    * or back to one this low (a sender starts over from 1), means the sender
+    * started over
+    **/
+   private static final long reorderWindow = 64;
+
+   private final DatagramChannel channel;
+   /** Datagram received (one more byte than ours, to catch bigger ones) **/
+   private final ByteBuffer buffer;
+
+   /** Sequence of the last datagram used (0 if none yet) **/
+   private long lastSequence;
+
+   private long receivedCount;
+   private long lostCount;
+   private long outOfOrderCount;
+   private long duplicateCount;
+   private long badCount;
+   private long restartCount;
+
+
+   /**
+    * @param port - to receive on
+    **/
+   UdpVisionReceiver( int port )
+      throws IOException
+   {
+      channel = DatagramChannel.open();
+      channel.bind( new InetSocketAddress( port ) );
+      buffer = ByteBuffer.allocateDirect( UdpVisionPacket.size + 1 );
+
+      lastSequence = 0;
+   }
+
+
+   /**
+    * Waits for the datagram of the next frame (skipping bad and stale ones).
+    *
+    * @return whether one was received (false once closed)
+    **/
+   boolean receive()
+      throws IOException
+   {
+      while ( true )
+      {
+         buffer.clear();
+         try
+         {
+            // (Sender's address is cached by the channel while it is the
+            // same one; so this doesn't allocate)
+            channel.receive( buffer );
+         }
+         catch ( final ClosedChannelException ex )
+         {
+            return false;
+         }
+
+         if ( !UdpVisionPacket.isValidPacket( buffer ) )
+         {
+            badCount++;
+            continue;
+         }
+
+         final long sequence = UdpVisionPacket.getSequence( buffer );
+         if ( lastSequence != 0 )
+         {
+            if ( sequence == lastSequence )
+            {
+               duplicateCount++;
+               continue;
+            }
+            else if ( sequence < lastSequence )
+            {
+               // (A restart soon after the last one must not wait for the
+               // new sequence to pass the old one)
+               if ( ( ( lastSequence - sequence ) < reorderWindow )
+                  && ( sequence >= reorderWindow ) )
+               {
+                  // Counted as lost when skipped over; only late
+                  outOfOrderCount++;
+                  if ( lostCount > 0 )
+                  {
+                     lostCount--;
+                  }
+                  continue;
+               }
+               restartCount++;
+            }
+            else
+            {
+               lostCount += sequence - lastSequence - 1;
+            }
+         }
+         lastSequence = sequence;
+         receivedCount++;
+         return true;
+      }
+   }
+
+
+   /**
+    * Closes the channel (and wakes a thread waiting in
+    * <code>receive()</code>).
+    **/
+   void close()
+   {
+      try
+      {
+         channel.close();
+      }
+      catch ( final IOException ex )
+      {
+         // Closing anyways
+      }
+   }
+
+
+   /*
+    * Fields of the last datagram received
+    */
+
+   long getSequence()
+   {
+      return lastSequence;
+   }
+
+
+   boolean isValidUpdate()
+   {
+      return UdpVisionPacket.isValidUpdate( buffer );
+   }
+
+
+   int getTargets()
+   {
+      return UdpVisionPacket.getTargets( buffer );
+   }
+
+
+   long getCaptureTime()
+   {
+      return UdpVisionPacket.getCaptureTime( buffer );
+   }
+
+
+   long getAge()
+   {
+      return UdpVisionPacket.getAge( buffer );
+   }
+
+
+   double getAngle()
+   {
+      return UdpVisionPacket.getAngle( buffer );
+   }
+
+
+   double getDistance()
+   {
+      return UdpVisionPacket.getDistance( buffer );
+   }
+
+
+   /*
+    * Counts
+    */
+
+   long getReceivedCount()
+   {
+      return receivedCount;
+   }
+
+
+   /**
+    * @return datagrams never seen (skipped over, and not late)
+    **/
+   long getLostCount()
+   {
+      return lostCount;
+   }
+
+
+   /**
+    * @return datagrams that came after a later one (and were dropped)
+    **/
+   long getOutOfOrderCount()
+   {
+      return outOfOrderCount;
+   }
+
+
+   long getDuplicateCount()
+   {
+      return duplicateCount;
+   }
+
+
+   /**
+    * @return datagrams that weren't ours (or the wrong size or version)
+    **/
+   long getBadCount()
+   {
+      return badCount;
+   }
+
+
+   /**
+    * @return times the sequence started over (the sender restarted)
+    **/
+   long getRestartCount()
+   {
+      return restartCount;
+   }
+
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.robot.vision;
+
+
+import org.slf4j.Logger;
+
+import com.powerknights.frc2016.riolog.PrimitiveLog;
+import com.powerknights.frc2016.riolog.RioLogger;
+import com.powerknights.frc2016.robot.config.DelayTimeConfig;
+import com.powerknights.frc2016.utils.IClock;
+import com.powerknights.frc2016.utils.TimeUtils;
+
+
+/**
+ * Puts the frames of the vision pipeline back together from its separate
+ * NetworkTables keys (the valid flag comes last, and completes a frame), and
+ * publishes an update for each. Kept apart from the NetworkTables (and
+ * dashboard) handling of <code>NetworkTablesVision</code>, so recorded key
+ * sequences can be replayed through it off the robot.
+ *
+ * @author first.stu
+ **/
+final class VisionFrameAssembler
+   implements IVisionSource
+{
+
+   /** Our classes' logger **/
+   private static final Logger logger =
+      RioLogger.getLogger( VisionFrameAssembler.class.getName() );
+
+   /** Network tables key for valid update flag **/
+   static final String validUpdateKey = "validUpdate";
+   /** Network tables key for (offset) angle to target **/
+   static final String angleKey = "Angle";
+   /** Network tables key for distance to target **/
+   static final String distanceKey = "Distance";
+   /** Network tables key for latency of pipeline (msec) **/
+   static final String latencyKey = "Latency";
+
+   /**
+    * Told of each frame assembled (on the thread delivering the keys, after
+    * its update is published).
+    **/
+   interface IFrameListener
+   {
+
+      public void frameAssembled( VisionUpdate update );
+
+   }
+
+   /** Clock the updates are stamped with **/
+   private final IClock clock;
+   /** Told of each frame **/
+   private final IFrameListener listener;
+
+   /** Count of updates (the sequence of the latest) **/
+   private long updateCount;
+
+   /** Latest update; a new one is published for each completed frame **/
+   private final LatestVisionUpdate updates = new LatestVisionUpdate();
+
+   /** Values of the frame being received (only used by the key thread) **/
+   private double pendingAngle;
+   private double pendingDistance;
+
+   /** Latency reported by the pipeline (msec; negative if none yet) **/
+   private double pipelineLatency = -1;
+
+
+   /**
+    * @param clock - to stamp the updates with
+    * @param listener - to tell of each frame
+    **/
+   VisionFrameAssembler( IClock clock, IFrameListener listener )
+   {
+      this.clock = clock;
+      this.listener = listener;
+
+      updateCount = 0;
+   }
+
+
+   /**
+    * Takes in the new value of a key (on the one thread delivering them).
+    *
+    * @param key - name of the key
+    * @param value - its value (<code>Double</code>, or <code>Boolean</code>
+    *           for the valid flag)
+    * @return whether the key is one of the pipeline's
+    **/
+   boolean valueChanged( String key, Object value )
+   {
+      switch ( key )
+      {
+      case angleKey:
+         pendingAngle = ( (Double) value ).doubleValue();
+         PrimitiveLog.trace( logger, "update.angle = {}", pendingAngle );
+         return true;
+      case distanceKey:
+         pendingDistance = ( (Double) value ).doubleValue();
+         PrimitiveLog.trace( logger, "update.distance = {}",
+            pendingDistance );
+         return true;
+      case latencyKey:
+         pipelineLatency = ( (Double) value ).doubleValue();
+         return true;
+      case validUpdateKey:
+         // Valid flag comes last; so the frame is complete
+         updateCount++;
+         final VisionUpdate update =
+            completeUpdate( ( (Boolean) value ).booleanValue() );
+         updates.publish( update );
+         PrimitiveLog.trace( logger, "update.valid = {}", update.isValid() );
+
+         listener.frameAssembled( update );
+         return true;
+      default:
+         return false;
+      }
+   }
+
+
+   /**
+    * Makes the update of the frame just received; stamped with when it
+    * arrived, and (from the latency) when its frame was captured.
+    **/
+   private VisionUpdate completeUpdate( boolean valid )
+   {
+      long latency;
+      if ( pipelineLatency >= 0 )
+      {
+         latency = (long) pipelineLatency
+            + DelayTimeConfig.getVisionTransportLatencyDelay();
+      }
+      else
+      {
+         latency = DelayTimeConfig.getVisionLatencyDelay();
+      }
+
+      final long receiveTime = clock.microTime();
+      final long captureTime = receiveTime - TimeUtils.msecToUsec( latency );
+
+      return new VisionUpdate( updateCount, valid, pendingAngle,
+         pendingDistance, captureTime, receiveTime );
+   }
+
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see com.powerknights.frc2016.robot.vision.IVisionSource#getUpdate()
+    */
+   @Override
+   public VisionUpdate getUpdate()
+   {
+      return updates.getUpdate();
+   }
+
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see com.powerknights.frc2016.robot.vision.IVisionSource#haveUpdate()
+    */
+   @Override
+   public boolean haveUpdate()
+   {
+      return updates.haveUpdate();
+   }
+
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.robot.vision;
+
+
+import org.slf4j.Logger;
+
+import com.powerknights.frc2016.riolog.RioLogger;
+import com.powerknights.frc2016.robot.controllers.HistoryCollector;
+import com.powerknights.frc2016.robot.sensors.RobotHeading;
+import com.powerknights.frc2016.robot.sensors.ShooterElevation;
+import com.powerknights.frc2016.utils.TimeSeries;
+import com.powerknights.frc2016.utils.TimeUtils;
+
+
+/**
+ * Moves a vision update from when its frame was captured up to now, using the
+ * robot state kept by the <code>HistoryCollector</code>: the angle to the
+ * target has the robot's turn since the capture taken out of it, and the
+ * shooter elevation at the capture is looked up.
+ * <p>
+ * Heading is taken from the <code>RobotHeading</code> history (the nav board
+ * gyro); while the board isn't usable there is none, and the angle is passed
+ * through unchanged. The <code>Chassis</code> aims with the result.
+ *
+ * @author first.stu
+ **/
+public class VisionLatencyCompensator
+{
+
+   /** Our classes' logger **/
+   @SuppressWarnings( "unused" )
+   private static final Logger logger =
+      RioLogger.getLogger( VisionLatencyCompensator.class.getName() );
+
+   /** History of robot heading (null until one is created) **/
+   private TimeSeries headingHistory;
+   /** History of shooter elevation (null until one is created) **/
+   private TimeSeries elevationHistory;
+
+
+   public VisionLatencyCompensator()
+   {
+      headingHistory = null;
+      elevationHistory = null;
+   }
+
+
+   /**
+    * Compensates the update for its latency, as of now.
+    *
+    * @param update - update to compensate
+    * @param target - filled in with the compensated target
+    * @return whether the target is valid
+    **/
+   public boolean compensate( VisionUpdate update, CompensatedTarget target )
+   {
+      return compensate( update, TimeUtils.microTime(), target );
+   }
+
+
+   /**
+    * Compensates the update for its latency, as of the specified time.
+    *
+    * @param update - update to compensate
+    * @param now - time to compensate to (usec)
+    * @param target - filled in with the compensated target
+    * @return whether the target is valid
+    **/
+   public boolean compensate( VisionUpdate update, long now,
+      CompensatedTarget target )
+   {
+      findHistories();
+
+      target.valid = update.isValid();
+      target.angle = update.angle;
+      target.distance = update.distance;
+      target.age = update.getAge( now );
+
+      if ( ( headingHistory != null ) && ( headingHistory.getCount() > 0 ) )
+      {
+         // Rewind to heading at capture; target has moved opposite of robot
+         target.headingChange = headingHistory.getValueAt( now )
+            - headingHistory.getValueAt( update.captureTime );
+         target.angle = update.angle - target.headingChange;
+         target.headingCompensated = true;
+      }
+      else
+      {
+         target.headingChange = 0;
+         target.headingCompensated = false;
+      }
+
+      if ( ( elevationHistory != null ) && ( elevationHistory.getCount() > 0 ) )
+      {
+         target.elevationAtCapture =
+            elevationHistory.getValueAt( update.captureTime );
+         target.elevationNow = elevationHistory.getValueAt( now );
+      }
+      else
+      {
+         target.elevationAtCapture = Double.NaN;
+         target.elevationNow = Double.NaN;
+      }
+
+      return target.valid;
+   }
+
+
+   /**
+    * Looks for the histories not found yet (they may be created after us).
+    **/
+   private void findHistories()
+   {
+      final HistoryCollector collector = HistoryCollector.getInstance();
+      if ( headingHistory == null )
+      {
+         headingHistory = collector.getHistory( RobotHeading.historyName );
+      }
+      if ( elevationHistory == null )
+      {
+         elevationHistory =
+            collector.getHistory( ShooterElevation.historyName );
+      }
+   }
+
+}
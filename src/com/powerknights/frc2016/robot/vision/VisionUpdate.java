@@ -15,6 +15,10 @@ import com.powerknights.frc2016.riolog.RioLogger;
 
 
 /**
+ * Results of one frame from a vision source. Immutable; the source publishes
+ * a new one for each completed frame, so a reader always sees the values of
+ * a single frame together.
+ *
  * @author first.stu
  **/
 public class VisionUpdate
@@ -25,23 +29,38 @@ public class VisionUpdate
    private static final Logger logger =
       RioLogger.getLogger( VisionUpdate.class.getName() );
 
+   /** Number of update from the source (0 if none yet) **/
+   public final long sequence;
    /** Valid update flag **/
-   private boolean valid;
+   private final boolean valid;
    /** (Offset) angle to target **/
-   public double angle; // degrees
+   public final double angle; // degrees
    /** Distance to target **/
-   public double distance; // feet
+   public final double distance; // feet
+   /** When the frame was captured (estimated, in robot time) **/
+   public final long captureTime; // usec
+   /** When the update arrived at the robot **/
+   public final long receiveTime; // usec
 
 
+   /**
+    * Constructs the (invalid) update for before any have arrived.
+    **/
    public VisionUpdate()
    {
-      setValid( false );
+      this( 0, false, 0, 0, 0, 0 );
    }
 
 
-   void setValid( boolean valid )
+   public VisionUpdate( long sequence, boolean valid, double angle,
+      double distance, long captureTime, long receiveTime )
    {
+      this.sequence = sequence;
       this.valid = valid;
+      this.angle = angle;
+      this.distance = distance;
+      this.captureTime = captureTime;
+      this.receiveTime = receiveTime;
    }
 
 
@@ -50,4 +69,14 @@ public class VisionUpdate
       return valid;
    }
 
+
+   /**
+    * @param now - current time (usec)
+    * @return how long ago (usec) the frame was captured
+    **/
+   public long getAge( long now )
+   {
+      return now - captureTime;
+   }
+
 }
@@ -0,0 +1,190 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.utils;
+
+
+/**
+ * Fingerprint of the actuator commands (name and exact value, in order) made
+ * by whoever has the trace bound to their thread; so a replay of recorded
+ * inputs can be checked to have commanded exactly what the live run did.
+ * <p>
+ * Commands are folded into a 64 bit FNV-1a hash, so tracing doesn't allocate.
+ * Nothing is traced unless tracing is enabled, and then only on threads with
+ * a trace bound.
+ * <p>
+ * A trace can also stand in for the actuators (when replaying): while it is
+ * bound, the commands are only traced, and the actuators' code skips sending
+ * them (or their telemetry) on (see <code>isStandIn()</code>).
+ *
+ * @author first.stu
+ **/
+public class ActuatorTrace
+{
+
+   /** FNV-1a 64 bit offset basis **/
+   private static final long offsetBasis = 0xcbf29ce484222325L;
+   /** FNV-1a 64 bit prime **/
+   private static final long prime = 0x100000001b3L;
+
+   /** Whether anyone is tracing **/
+   private static volatile boolean enabled = false;
+
+   /** Trace bound to each thread (if any) **/
+   private static final ThreadLocal< ActuatorTrace > boundTrace =
+      new ThreadLocal< ActuatorTrace >();
+
+
+   public static void setEnabled( boolean enable )
+   {
+      enabled = enable;
+   }
+
+
+   public static boolean isEnabled()
+   {
+      return enabled;
+   }
+
+
+   /**
+    * Binds the trace to the current thread; commands made by the thread go to
+    * it until unbound.
+    *
+    * @param trace - trace to bind
+    **/
+   public static void bind( ActuatorTrace trace )
+   {
+      if ( enabled )
+      {
+         boundTrace.set( trace );
+      }
+   }
+
+
+   public static void unbind()
+   {
+      if ( enabled )
+      {
+         boundTrace.remove();
+      }
+   }
+
+
+   /**
+    * Adds a command to the trace bound to the current thread (if any).
+    *
+    * @param actuator - name of actuator
+    * @param value - value it was commanded to
+    **/
+   public static void record( String actuator, double value )
+   {
+      if ( !enabled )
+      {
+         return;
+      }
+      final ActuatorTrace trace = boundTrace.get();
+      if ( trace != null )
+      {
+         trace.add( actuator.hashCode(), Double.doubleToRawLongBits( value ) );
+      }
+   }
+
+   /**
+    * @return whether the trace bound to the current thread (if any) stands in
+    *         for the actuators; if so, commands are to be traced only
+    **/
+   public static boolean isStandIn()
+   {
+      if ( !enabled )
+      {
+         return false;
+      }
+      final ActuatorTrace trace = boundTrace.get();
+      return ( trace != null ) && trace.standIn;
+   }
+
+   /** Hash of the commands so far **/
+   private long fingerprint;
+   /** Number of commands so far **/
+   private long count;
+   /** Whether standing in for the actuators **/
+   private volatile boolean standIn;
+
+
+   public ActuatorTrace()
+   {
+      reset();
+   }
+
+
+   public void reset()
+   {
+      reset( offsetBasis );
+   }
+
+
+   /**
+    * @param standIn - whether the trace stands in for the actuators (while
+    *           bound, commands are traced only)
+    **/
+   public void setStandIn( boolean standIn )
+   {
+      this.standIn = standIn;
+   }
+
+
+   /**
+    * Restarts the trace from a fingerprint (e.g., one that was recorded).
+    *
+    * @param start - fingerprint to carry on from
+    **/
+   public synchronized void reset( long start )
+   {
+      fingerprint = start;
+      count = 0;
+   }
+
+
+   private synchronized void add( int actuator, long value )
+   {
+      long hash = fingerprint;
+      hash = mix( hash, actuator );
+      hash = mix( hash, value );
+      fingerprint = hash;
+      count++;
+   }
+
+
+   /**
+    * Folds the bytes of the value (low first) into the hash.
+    **/
+   private static long mix( long hash, long value )
+   {
+      for ( int i = 0; i < 8; i++ )
+      {
+         hash ^= ( value & 0xff );
+         hash *= prime;
+         value >>>= 8;
+      }
+      return hash;
+   }
+
+
+   public synchronized long getFingerprint()
+   {
+      return fingerprint;
+   }
+
+
+   public synchronized long getCount()
+   {
+      return count;
+   }
+
+}
@@ -40,6 +40,19 @@ public abstract class Controller
    }
 
 
+   /**
+    * @param name - name of the controller
+    * @param loopDelay - how long between iterations (msec)
+    * @param timing - backend used to wait for the next iteration
+    * @param policy - what to do when an iteration misses its deadline
+    **/
+   public Controller( String name, long loopDelay, LoopTiming timing,
+      OverrunPolicy policy )
+   {
+      super( name, loopDelay, timing, policy );
+   }
+
+
    public void setConfiguration( String position, String config )
    {
       SmartDashboardManager.getInstance().putString( position, config );
@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.utils;
+
+
+
+/**
+ * Stopwatch with the same behaviour as the WPILib <code>Timer</code> (seconds,
+ * start / stop / reset), but timed against an <code>IClock</code> so it
+ * follows a simulated clock during replay.
+ *
+ * @author first.stu
+ **/
+public class ElapsedTimer
+{
+
+   /** Clock being timed against **/
+   private final IClock clock;
+
+   /** Time accumulated before the last start (usec) **/
+   private long accumulatedTime;
+   /** Time of last start (or reset) (usec) **/
+   private long startTime;
+   /** Whether timer is running **/
+   private boolean running;
+
+
+   public ElapsedTimer( IClock clock )
+   {
+      this.clock = clock;
+      reset();
+   }
+
+
+   /**
+    * @return time elapsed while running (seconds)
+    **/
+   public synchronized double get()
+   {
+      long elapsed = accumulatedTime;
+      if ( running )
+      {
+         elapsed += clock.microTime() - startTime;
+      }
+      return elapsed / 1.0e6;
+   }
+
+
+   public synchronized void reset()
+   {
+      accumulatedTime = 0;
+      startTime = clock.microTime();
+   }
+
+
+   public synchronized void start()
+   {
+      if ( !running )
+      {
+         startTime = clock.microTime();
+         running = true;
+      }
+   }
+
+
+   public synchronized void stop()
+   {
+      if ( running )
+      {
+         accumulatedTime += clock.microTime() - startTime;
+         running = false;
+      }
+   }
+
+}
@@ -0,0 +1,37 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.utils;
+
+
+
+/**
+ * Source of (usec) time; either the FPGA clock (see
+ * <code>TimeUtils.getFPGAClock()</code>) or a simulated one, so code that
+ * takes its time from a clock can be run against recorded inputs faster than
+ * real time.
+ *
+ * @author first.stu
+ **/
+public interface IClock
+{
+
+   /**
+    * @return current time (usec)
+    **/
+   public long microTime();
+
+
+   /**
+    * Waits for the time to pass (a simulated clock just moves forward).
+    *
+    * @param usecs - time to wait (usec)
+    **/
+   public void delay( long usecs );
+
+}
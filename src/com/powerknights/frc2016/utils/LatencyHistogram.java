@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.utils;
+
+
+/**
+ * Fixed memory histogram of (usec) time values, which does no allocation after
+ * construction.
+ * <p>
+ * Values below 16 have their own bucket; above that each power of two is split
+ * into 16 buckets, so a reported percentile is within about 6% of the real
+ * value. Values above about 4 seconds are counted in the last bucket (the
+ * maximum is still tracked exactly).
+ * <p>
+ * Not thread safe; intended to be recorded and read by the same thread.
+ *
+ * @author first.stu
+ **/
+public class LatencyHistogram
+{
+
+   /** Number of bits used for the buckets within a power of two **/
+   private static final int subBucketBits = 4;
+   /** Number of buckets within a power of two **/
+   private static final int subBucketCount = 1 << subBucketBits;
+   /** Largest power of two with its own buckets (2^22 usec is ~4 sec) **/
+   private static final int maxExponent = 22;
+   /** Bucket of values above the largest power of two (after all the rest) **/
+   private static final int overflowIndex =
+      ( ( maxExponent - subBucketBits ) + 2 ) * subBucketCount;
+   /** Total number of buckets (including the overflow one) **/
+   private static final int bucketCount = overflowIndex + 1;
+
+   /** Counts of values in each bucket **/
+   private final long[] counts;
+   /** Number of values recorded **/
+   private long totalCount;
+   /** Largest value recorded **/
+   private long maxValue;
+
+
+   public LatencyHistogram()
+   {
+      counts = new long[ bucketCount ];
+      reset();
+   }
+
+
+   /**
+    * Records the value (negative values are counted as zero).
+    *
+    * @param value - value to record (usec)
+    **/
+   public void record( long value )
+   {
+      if ( value < 0 )
+      {
+         value = 0;
+      }
+      counts[ bucketIndex( value ) ]++;
+      totalCount++;
+      if ( value > maxValue )
+      {
+         maxValue = value;
+      }
+   }
+
+
+   private static int bucketIndex( long value )
+   {
+      if ( value < subBucketCount )
+      {
+         return (int) value;
+      }
+      final int exponent = 63 - Long.numberOfLeadingZeros( value );
+      if ( exponent > maxExponent )
+      {
+         return overflowIndex;
+      }
+      final int shift = exponent - subBucketBits;
+      final int subBucket = (int) ( value >>> shift ) & ( subBucketCount - 1 );
+      return ( ( shift + 1 ) * subBucketCount ) + subBucket;
+   }
+
+
+   /**
+    * @return the largest value that falls in the bucket
+    **/
+   private static long bucketUpperBound( int index )
+   {
+      if ( index < subBucketCount )
+      {
+         return index;
+      }
+      final int exponent = ( ( index / subBucketCount ) - 1 ) + subBucketBits;
+      final long subBucket = index % subBucketCount;
+      final int shift = exponent - subBucketBits;
+      return ( ( ( subBucketCount + subBucket ) + 1 ) << shift ) - 1;
+   }
+
+
+   /**
+    * Returns the value which the specified percent of the recorded values are
+    * at or below (to the resolution of the buckets, and never more than the
+    * maximum recorded).
+    *
+    * @param percentile - percentile to find (0.0 - 100.0)
+    * @return the percentile value (usec), or 0 if nothing recorded
+    **/
+   public long getPercentile( double percentile )
+   {
+      if ( totalCount == 0 )
+      {
+         return 0;
+      }
+
+      long target = (long) Math.ceil( ( percentile / 100.0 ) * totalCount );
+      if ( target < 1 )
+      {
+         target = 1;
+      }
+
+      long count = 0;
+      for ( int i = 0; i < overflowIndex; i++ )
+      {
+         count += counts[ i ];
+         if ( count >= target )
+         {
+            return Math.min( bucketUpperBound( i ), maxValue );
+         }
+      }
+      // Must be in the overflow bucket, which has no upper bound
+      return maxValue;
+   }
+
+
+   /**
+    * Returns how many of the recorded values are at or below the specified
+    * value (to the resolution of the buckets; so may include some values just
+    * above it).
+    *
+    * @param value - value to count up to (usec)
+    * @return count of values at or below
+    **/
+   public long getCountAtOrBelow( long value )
+   {
+      if ( value < 0 )
+      {
+         return 0;
+      }
+      final int last = bucketIndex( value );
+      long count = 0;
+      for ( int i = 0; i <= last; i++ )
+      {
+         count += counts[ i ];
+      }
+      return count;
+   }
+
+
+   public long getMax()
+   {
+      return maxValue;
+   }
+
+
+   public long getCount()
+   {
+      return totalCount;
+   }
+
+
+   public void reset()
+   {
+      for ( int i = 0; i < bucketCount; i++ )
+      {
+         counts[ i ] = 0;
+      }
+      totalCount = 0;
+      maxValue = 0;
+   }
+
+}
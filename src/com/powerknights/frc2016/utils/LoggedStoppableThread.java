@@ -36,6 +36,9 @@ public abstract class LoggedStoppableThread
    /** How long is the minimum time we sleep for in loop **/
    private final long minSleepDelay;
 
+   /** Schedule of (and wait for) next time to run **/
+   private final PeriodicScheduler scheduler;
+
    /** Start time hack for this controller thread **/
    private long startTime;
    /** Next time to run based on multiple of sleep delay from start time **/
@@ -58,6 +61,19 @@ public abstract class LoggedStoppableThread
     * @param delay
     **/
    public LoggedStoppableThread( String name, long delay )
+   {
+      this( name, delay, LoopTiming.SLEEP, OverrunPolicy.CATCH_UP );
+   }
+
+
+   /**
+    * @param name
+    * @param delay
+    * @param timing - backend used to wait for the next loop
+    * @param policy - what to do when the loop misses its deadline
+    **/
+   public LoggedStoppableThread( String name, long delay, LoopTiming timing,
+      OverrunPolicy policy )
    {
       super( name, delay );
 
@@ -65,6 +81,9 @@ public abstract class LoggedStoppableThread
       // TODO - Remove dependency on robot specific code
       minSleepDelay = (long) ( loopDelay * DelayTimeConfig.minLoopPercent );
 
+      scheduler = new PeriodicScheduler( loopDelay, timing, policy,
+         DelayTimeConfig.getSpinWindowUsec(), minSleepDelay );
+
       // Initialize here, just in case we stop before we start
       loopCount = 0;
 
@@ -85,11 +104,28 @@ public abstract class LoggedStoppableThread
 
       initializeRunningState();
       startTime = TimeUtils.microTime();
+      scheduler.start( startTime );
       nextTime = startTime;
 
       while ( !shouldQuit() )
       {
+         if ( waitWhilePaused() )
+         {
+            // Time spent paused isn't an overrun, so start schedule over
+            startTime = TimeUtils.microTime();
+            scheduler.start( startTime );
+            nextTime = startTime;
+            continue;
+         }
+         if ( checkResumed() )
+         {
+            timingStats.restart();
+            onResume();
+         }
+
+         timingStats.recordStart( TimeUtils.microTime() );
          final boolean done = doIt();
+         timingStats.recordEnd( TimeUtils.microTime() );
          if ( done )
          {
             quit = true;
@@ -99,22 +135,23 @@ public abstract class LoggedStoppableThread
          // how many iterations
          loopCount++;
          // target time for next wakeup
-         nextTime += loopDelay;
+         nextTime = scheduler.getNextTime() + loopDelay;
          // did we make it?
          logTimerData();
 
          try
          {
-            // how long to delay?
-            final long sleepDelay = nextTime - TimeUtils.microTime();
-            // did we make it? if not, log error and skip
-            if ( sleepDelay > minSleepDelay )
+            // wait for next deadline (scheduler handles any overrun)
+            final long sleepDelay = scheduler.waitForNextPeriod();
+            if ( scheduler.hasWaited() )
             {
-               // resolution for sleep is msec
-               Thread.sleep( TimeUtils.usecToMsec( sleepDelay ) );
+               timingStats
+                  .recordSleepError( Math.abs( scheduler.getWakeError() ) );
             }
-            else
+            // did we make it? if not, log error
+            if ( sleepDelay <= minSleepDelay )
             {
+               timingStats.recordOverrun();
                logMissedTiming( sleepDelay );
             }
          }
@@ -178,6 +215,8 @@ public abstract class LoggedStoppableThread
       errorBuf.append( TimeUtils.usecToMsec( loopDelay ) );
       errorBuf.append( ", Real: " );
       errorBuf.append( sleepDelay );
+      errorBuf.append( ", Skipped: " );
+      errorBuf.append( scheduler.getSkippedCount() );
 
       logger.warn( errorBuf.toString() );
    }
@@ -191,8 +230,10 @@ public abstract class LoggedStoppableThread
    @Override
    public String toString()
    {
-      return "StoppableThread " + getName() + " [delay=" + loopDelay + ", quit="
-         + quit + ", running=" + running + ", hasRun=" + hasRun + "]";
+      return "StoppableThread " + getName() + " [delay=" + loopDelay
+         + ", timing=" + scheduler.getTiming() + ", policy="
+         + scheduler.getPolicy() + ", quit=" + quit + ", paused="
+         + isPaused() + ", running=" + running + ", hasRun=" + hasRun + "]";
    }
 
 }
@@ -0,0 +1,34 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.utils;
+
+
+/**
+ * The timing backend used by a <code>PeriodicScheduler</code> to wait for the
+ * next loop deadline.
+ *
+ * @author first.stu
+ **/
+public enum LoopTiming
+{
+
+   /**
+    * Uses <code>Thread.sleep()</code>, which only has msec resolution (the
+    * original behavior of the controller threads).
+    **/
+   SLEEP,
+
+   /**
+    * Parks the thread until just short of the deadline, and then spins on the
+    * clock for the remainder. Hits the deadline to within tens of usec, at the
+    * cost of a little CPU at the end of each period.
+    **/
+   PRECISE;
+
+}
@@ -0,0 +1,297 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.utils;
+
+
+import org.slf4j.Logger;
+
+import com.powerknights.frc2016.riolog.RioLogger;
+import com.powerknights.frc2016.robot.managers.NumberEntry;
+import com.powerknights.frc2016.robot.managers.SmartDashboardManager;
+
+
+/**
+ * Loop timing statistics for a thread: histograms of the period between runs
+ * of <code>doIt()</code>, how long <code>doIt()</code> took, and how far off
+ * the thread woke up from its deadline; plus a count of missed deadlines.
+ * <p>
+ * Recording is allocation free and cheap enough to leave on all the time. The
+ * histograms cover the time since the last publish, which resets them.
+ *
+ * @author first.stu
+ **/
+public class LoopTimingStats
+{
+
+   /** Our classes' logger **/
+   private static final Logger logger =
+      RioLogger.getLogger( LoopTimingStats.class.getName() );
+
+   /** How often the statistics are published (usec) **/
+   private static final long publishPeriod = 1000000;
+
+   /** Name of thread (for log) **/
+   private final String name;
+
+   /** Period between start of each <code>doIt()</code> **/
+   private final LatencyHistogram period;
+   /** Time taken by each <code>doIt()</code> **/
+   private final LatencyHistogram duration;
+   /** How far off (early or late) the thread woke up from its deadline **/
+   private final LatencyHistogram sleepError;
+   /** How many deadlines have been missed (since start) **/
+   private long overrunCount;
+
+   /** Start time of the last <code>doIt()</code> (0 if none yet) **/
+   private long lastStartTime;
+   /** Start time of the <code>doIt()</code> in progress (0 if none) **/
+   private volatile long cycleStartTime;
+   /** How many times <code>doIt()</code> has been started **/
+   private volatile long cycleCount;
+   /** Time of the last publish **/
+   private long lastPublishTime;
+
+   /** Prefix of telemetry names **/
+   private final String telemetryPrefix;
+   /** Telemetry handles (registered on first publish) **/
+   private NumberEntry[] periodEntries;
+   private NumberEntry[] durationEntries;
+   private NumberEntry[] sleepErrorEntries;
+   private NumberEntry overrunEntry;
+
+   /** Buffer for logging statistics **/
+   private final StringBuilder logBuf;
+
+
+   /**
+    * @param name - name of the thread the statistics are for
+    **/
+   public LoopTimingStats( String name )
+   {
+      this.name = name;
+
+      period = new LatencyHistogram();
+      duration = new LatencyHistogram();
+      sleepError = new LatencyHistogram();
+      overrunCount = 0;
+
+      lastStartTime = 0;
+      cycleStartTime = 0;
+      cycleCount = 0;
+      lastPublishTime = 0;
+
+      telemetryPrefix = name.replace( " ", "" );
+
+      logBuf = new StringBuilder();
+   }
+
+
+   private void registerEntries( SmartDashboardManager smartDashboard )
+   {
+      periodEntries = registerEntries( smartDashboard, "Period" );
+      durationEntries = registerEntries( smartDashboard, "Duration" );
+      sleepErrorEntries = registerEntries( smartDashboard, "SleepError" );
+      overrunEntry =
+         smartDashboard.registerNumber( telemetryPrefix + "Overruns" );
+   }
+
+
+   private NumberEntry[] registerEntries( SmartDashboardManager smartDashboard,
+      String stat )
+   {
+      final String prefix = telemetryPrefix + stat;
+      return new NumberEntry[] {
+         smartDashboard.registerNumber( prefix + "P50" ),
+         smartDashboard.registerNumber( prefix + "P95" ),
+         smartDashboard.registerNumber( prefix + "P99" ),
+         smartDashboard.registerNumber( prefix + "Max" ) };
+   }
+
+
+   /**
+    * Records the start of a run of <code>doIt()</code>; which also gives the
+    * period since the previous run.
+    *
+    * @param startTime - time (usec)
+    **/
+   public void recordStart( long startTime )
+   {
+      if ( lastStartTime != 0 )
+      {
+         period.record( startTime - lastStartTime );
+      }
+      lastStartTime = startTime;
+
+      cycleCount++;
+      cycleStartTime = startTime;
+   }
+
+
+   /**
+    * Records the end of a run of <code>doIt()</code>; which gives how long it
+    * took. Also publishes the statistics when it is time to.
+    *
+    * @param endTime - time (usec)
+    **/
+   public void recordEnd( long endTime )
+   {
+      cycleStartTime = 0;
+      duration.record( endTime - lastStartTime );
+
+      if ( lastPublishTime == 0 )
+      {
+         lastPublishTime = endTime;
+      }
+      else if ( ( endTime - lastPublishTime ) >= publishPeriod )
+      {
+         publish();
+         lastPublishTime = endTime;
+      }
+   }
+
+
+   /**
+    * Restarts the period measurement (e.g., after the thread has been paused),
+    * so the time between isn't recorded as a period.
+    **/
+   public void restart()
+   {
+      lastStartTime = 0;
+   }
+
+
+   /**
+    * Records how far off (early or late) the thread woke up from the deadline.
+    *
+    * @param error - time (usec)
+    **/
+   public void recordSleepError( long error )
+   {
+      sleepError.record( error );
+   }
+
+
+   /**
+    * Records a missed deadline.
+    **/
+   public void recordOverrun()
+   {
+      overrunCount++;
+   }
+
+
+   public LatencyHistogram getPeriod()
+   {
+      return period;
+   }
+
+
+   public LatencyHistogram getDuration()
+   {
+      return duration;
+   }
+
+
+   public LatencyHistogram getSleepError()
+   {
+      return sleepError;
+   }
+
+
+   /**
+    * Returns the start time of the <code>doIt()</code> currently running; safe
+    * to call from another thread.
+    *
+    * @return time (usec), or 0 if not in <code>doIt()</code>
+    **/
+   public long getCycleStartTime()
+   {
+      return cycleStartTime;
+   }
+
+
+   /**
+    * Returns how many times <code>doIt()</code> has been started; safe to call
+    * from another thread.
+    *
+    * @return count
+    **/
+   public long getCycleCount()
+   {
+      return cycleCount;
+   }
+
+
+   public long getOverrunCount()
+   {
+      return overrunCount;
+   }
+
+
+   /**
+    * Publishes the statistics to the dashboard and log, and then starts a new
+    * set of histograms.
+    **/
+   private void publish()
+   {
+      if ( overrunEntry == null )
+      {
+         registerEntries( SmartDashboardManager.getInstance() );
+      }
+      publish( period, periodEntries );
+      publish( duration, durationEntries );
+      publish( sleepError, sleepErrorEntries );
+      overrunEntry.put( overrunCount );
+
+      if ( logger.isDebugEnabled() )
+      {
+         logBuf.setLength( 0 );
+         logBuf.append( name );
+         append( "period", period );
+         append( "doIt", duration );
+         append( "sleepErr", sleepError );
+         logBuf.append( " overruns=" );
+         logBuf.append( overrunCount );
+
+         logger.debug( logBuf.toString() );
+      }
+
+      period.reset();
+      duration.reset();
+      sleepError.reset();
+   }
+
+
+   private void publish( LatencyHistogram histogram, NumberEntry[] entries )
+   {
+      entries[ 0 ].put( histogram.getPercentile( 50 ) );
+      entries[ 1 ].put( histogram.getPercentile( 95 ) );
+      entries[ 2 ].put( histogram.getPercentile( 99 ) );
+      entries[ 3 ].put( histogram.getMax() );
+   }
+
+
+   private void append( String label, LatencyHistogram histogram )
+   {
+      logBuf.append( ' ' );
+      logBuf.append( label );
+      logBuf.append( "[n=" );
+      logBuf.append( histogram.getCount() );
+      logBuf.append( " p50=" );
+      logBuf.append( histogram.getPercentile( 50 ) );
+      logBuf.append( " p95=" );
+      logBuf.append( histogram.getPercentile( 95 ) );
+      logBuf.append( " p99=" );
+      logBuf.append( histogram.getPercentile( 99 ) );
+      logBuf.append( " max=" );
+      logBuf.append( histogram.getMax() );
+      logBuf.append( ']' );
+   }
+
+}
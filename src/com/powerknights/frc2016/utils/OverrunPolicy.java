@@ -0,0 +1,33 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.utils;
+
+
+/**
+ * What a <code>PeriodicScheduler</code> does when a loop iteration runs past
+ * its deadline.
+ *
+ * @author first.stu
+ **/
+public enum OverrunPolicy
+{
+
+   /**
+    * Keeps the original schedule, and runs the missed iterations back-to-back
+    * until caught up (the original behavior of the controller threads).
+    **/
+   CATCH_UP,
+
+   /**
+    * Drops the missed iterations, and moves the schedule ahead to the next
+    * deadline that is still in the future (stays phase aligned to the start).
+    **/
+   SKIP_AHEAD;
+
+}
@@ -0,0 +1,221 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.utils;
+
+
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+
+import com.powerknights.frc2016.riolog.RioLogger;
+
+
+/**
+ * Keeps a drift-free schedule of loop deadlines (multiples of the period from
+ * the start time), and waits for each deadline using the selected
+ * <code>LoopTiming</code> backend.
+ * <p>
+ * Not thread safe; intended to be owned by the thread it is scheduling.
+ *
+ * @author first.stu
+ **/
+public class PeriodicScheduler
+{
+
+   /** Our classes' logger **/
+   @SuppressWarnings( "unused" )
+   private static final Logger logger =
+      RioLogger.getLogger( PeriodicScheduler.class.getName() );
+
+   /*
+    * Note - All times are kept in microseconds (usec)
+    */
+
+   /** Time between deadlines **/
+   private final long period;
+   /** How we wait for the deadline **/
+   private final LoopTiming timing;
+   /** What we do when we miss a deadline **/
+   private final OverrunPolicy policy;
+   /** How long before the deadline we stop parking and start spinning **/
+   private final long spinWindow;
+   /** Any slack less than this is considered to have missed the deadline **/
+   private final long minSleepDelay;
+
+   /** Next deadline **/
+   private long nextTime;
+   /** How many periods have been dropped (only with SKIP_AHEAD) **/
+   private long skippedCount;
+   /** Whether the last call waited for the deadline **/
+   private boolean waited;
+   /** How late the last wait woke up compared to the deadline **/
+   private long wakeError;
+
+
+   /**
+    * @param period - time between deadlines (usec)
+    * @param timing - backend to use for waiting
+    * @param policy - how to handle missed deadlines
+    * @param spinWindow - time before deadline to start spinning (usec)
+    * @param minSleepDelay - slack below which a deadline is missed (usec)
+    **/
+   public PeriodicScheduler( long period, LoopTiming timing,
+      OverrunPolicy policy, long spinWindow, long minSleepDelay )
+   {
+      this.period = period;
+      this.timing = timing;
+      this.policy = policy;
+      this.spinWindow = spinWindow;
+      this.minSleepDelay = minSleepDelay;
+
+      nextTime = 0;
+      skippedCount = 0;
+      waited = false;
+      wakeError = 0;
+   }
+
+
+   /**
+    * Starts the schedule with the first deadline at the specified time.
+    *
+    * @param startTime - time of the first deadline (usec)
+    **/
+   public void start( long startTime )
+   {
+      nextTime = startTime;
+   }
+
+
+   /**
+    * Moves to the next deadline, and waits for it (unless the deadline has
+    * already been missed).
+    *
+    * @return slack (usec) available before the deadline when the wait started;
+    *         anything less than the minimum sleep delay is a missed deadline
+    * @throws InterruptedException if the thread is interrupted while waiting
+    **/
+   public long waitForNextPeriod()
+      throws InterruptedException
+   {
+      nextTime += period;
+      waited = false;
+
+      final long slack = nextTime - TimeUtils.microTime();
+      if ( slack > minSleepDelay )
+      {
+         waitUntil( nextTime );
+      }
+      else if ( policy == OverrunPolicy.SKIP_AHEAD )
+      {
+         if ( slack <= 0 )
+         {
+            // Drop whole periods until the deadline is in the future again
+            final long missed = ( -slack / period ) + 1;
+            nextTime += missed * period;
+            skippedCount += missed;
+         }
+
+         waitUntil( nextTime );
+      }
+      // else CATCH_UP - no wait; run again right away on the old schedule
+
+      return slack;
+   }
+
+
+   private void waitUntil( long deadline )
+      throws InterruptedException
+   {
+      switch ( timing )
+      {
+      case PRECISE:
+         long remaining = deadline - TimeUtils.microTime();
+         while ( remaining > spinWindow )
+         {
+            LockSupport
+               .parkNanos( TimeUtils.usecToNsec( remaining - spinWindow ) );
+            if ( Thread.interrupted() )
+            {
+               throw new InterruptedException();
+            }
+            remaining = deadline - TimeUtils.microTime();
+         }
+         while ( ( deadline - TimeUtils.microTime() ) > 0 )
+         {
+            // spin for the last little bit
+         }
+         break;
+
+      case SLEEP:
+      default:
+         final long sleepDelay = deadline - TimeUtils.microTime();
+         if ( sleepDelay > 0 )
+         {
+            // resolution for sleep is msec
+            Thread.sleep( TimeUtils.usecToMsec( sleepDelay ) );
+         }
+         break;
+      }
+
+      waited = true;
+      wakeError = TimeUtils.microTime() - deadline;
+   }
+
+
+   /**
+    * @return the current deadline being waited for (usec)
+    **/
+   public long getNextTime()
+   {
+      return nextTime;
+   }
+
+
+   /**
+    * @return the number of periods dropped by the <code>SKIP_AHEAD</code>
+    *         policy
+    **/
+   public long getSkippedCount()
+   {
+      return skippedCount;
+   }
+
+
+   /**
+    * @return whether the last <code>waitForNextPeriod()</code> actually waited
+    *         for the deadline (as opposed to running again right away)
+    **/
+   public boolean hasWaited()
+   {
+      return waited;
+   }
+
+
+   /**
+    * @return how late (usec) the last wait woke up compared to the deadline;
+    *         negative if woke up early
+    **/
+   public long getWakeError()
+   {
+      return wakeError;
+   }
+
+
+   public LoopTiming getTiming()
+   {
+      return timing;
+   }
+
+
+   public OverrunPolicy getPolicy()
+   {
+      return policy;
+   }
+
+}
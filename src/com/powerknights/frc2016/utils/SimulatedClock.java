@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.utils;
+
+
+
+/**
+ * Clock that only moves when told to; used to replay recorded inputs as fast
+ * as they can be processed. Delays advance the clock rather than waiting.
+ *
+ * @author first.stu
+ **/
+public class SimulatedClock
+   implements IClock
+{
+
+   /** Current time (usec) **/
+   private volatile long now;
+
+
+   public SimulatedClock( long startTime )
+   {
+      now = startTime;
+   }
+
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see com.powerknights.frc2016.utils.IClock#microTime()
+    */
+   @Override
+   public long microTime()
+   {
+      return now;
+   }
+
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see com.powerknights.frc2016.utils.IClock#delay(long)
+    */
+   @Override
+   public void delay( long usecs )
+   {
+      now += usecs;
+   }
+
+
+   /**
+    * @param time - new current time (usec); never moves the clock backwards
+    **/
+   public void set( long time )
+   {
+      if ( time > now )
+      {
+         now = time;
+      }
+   }
+
+}
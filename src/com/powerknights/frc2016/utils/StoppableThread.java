@@ -36,6 +36,16 @@ public abstract class StoppableThread
    /** Whether it has finished running **/
    protected boolean hasRun;
 
+   /** Whether paused (still alive, but not invoking the work method) **/
+   private volatile boolean paused;
+   /** Whether resumed, and <code>onResume()</code> not called yet **/
+   private volatile boolean resumed;
+   /** Lock to wait on while paused **/
+   private final Object pauseLock;
+
+   /** Loop timing statistics (always collected) **/
+   protected final LoopTimingStats timingStats;
+
 
    public StoppableThread( String name, long delay )
    {
@@ -47,6 +57,12 @@ public abstract class StoppableThread
       quit = false;
       running = false;
       hasRun = false;
+
+      paused = false;
+      resumed = false;
+      pauseLock = new Object();
+
+      timingStats = new LoopTimingStats( name );
    }
 
 
@@ -73,6 +89,16 @@ public abstract class StoppableThread
    }
 
 
+   /**
+    * This method is invoked (on the thread running the work method) before the
+    * first invocation of the work method after each <code>resumeWork()</code>.
+    **/
+   public void onResume()
+   {
+      // Default does nothing; override if desired
+   }
+
+
    /*
     * (non-Javadoc)
     *
@@ -87,7 +113,19 @@ public abstract class StoppableThread
 
       while ( !shouldQuit() )
       {
+         if ( waitWhilePaused() )
+         {
+            continue;
+         }
+         if ( checkResumed() )
+         {
+            timingStats.restart();
+            onResume();
+         }
+
+         timingStats.recordStart( TimeUtils.microTime() );
          final boolean done = doIt();
+         timingStats.recordEnd( TimeUtils.microTime() );
          if ( done )
          {
             quit = true;
@@ -136,6 +174,104 @@ public abstract class StoppableThread
    }
 
 
+   /**
+    * Pauses the thread; it stays alive, but stops invoking the work method once
+    * the current invocation (if any) finishes.
+    **/
+   public void pauseWork()
+   {
+      paused = true;
+   }
+
+
+   /**
+    * Resumes the thread; <code>onResume()</code> will be invoked before the
+    * next invocation of the work method.
+    **/
+   public void resumeWork()
+   {
+      synchronized ( pauseLock )
+      {
+         // Set before un-pausing, so the resume can't be missed
+         resumed = true;
+         paused = false;
+         pauseLock.notifyAll();
+      }
+   }
+
+
+   public boolean isPaused()
+   {
+      return paused;
+   }
+
+
+   /**
+    * Returns whether the thread has been resumed since the last check, and
+    * clears it. Only for use by whatever is running the work method.
+    *
+    * @return <code>true</code> if <code>onResume()</code> should be invoked
+    **/
+   public boolean checkResumed()
+   {
+      if ( !resumed )
+      {
+         return false;
+      }
+      resumed = false;
+      return true;
+   }
+
+
+   /**
+    * Blocks (without using the processor) while the thread is paused, or until
+    * it is told to quit.
+    *
+    * @return whether it was paused
+    **/
+   protected boolean waitWhilePaused()
+   {
+      if ( !paused )
+      {
+         return false;
+      }
+
+      synchronized ( pauseLock )
+      {
+         while ( paused && !quit )
+         {
+            try
+            {
+               pauseLock.wait();
+            }
+            catch ( final InterruptedException ex )
+            {
+               // quit() interrupts us; loop checks for it
+            }
+         }
+      }
+      return true;
+   }
+
+
+   /**
+    * @return time to sleep between work method invocations (msec)
+    **/
+   public long getLoopDelay()
+   {
+      return loopDelay;
+   }
+
+
+   /**
+    * @return loop timing statistics of the thread
+    **/
+   public LoopTimingStats getTimingStats()
+   {
+      return timingStats;
+   }
+
+
    public boolean isRunning()
    {
       return running;
@@ -157,8 +293,8 @@ public abstract class StoppableThread
    public String toString()
    {
       return "StoppableThread " + getName() + " [loopDelay=" + loopDelay
-         + ", quit=" + quit + ", running=" + running + ", hasRun=" + hasRun
-         + "]";
+         + ", quit=" + quit + ", paused=" + paused + ", running=" + running
+         + ", hasRun=" + hasRun + "]";
    }
 
 }
@@ -28,50 +28,166 @@ public class StringUtils
       RioLogger.getLogger( StringUtils.class.getName() );
 
 
+   /** Most digits to the right of the decimal point we format **/
+   public static final int maxDigits = 9;
+
+   /** Powers of ten by number of digits **/
+   private static final long[] powersOf10 = { 1L, 10L, 100L, 1000L, 10000L,
+      100000L, 1000000L, 10000000L, 100000000L, 1000000000L };
+
+   /**
+    * Largest scaled magnitude formatted directly (leaves room to round);
+    * anything bigger (or not a number) falls back to <code>Double</code>.
+    **/
+   private static final double maxScaled = 1.0e18;
+
+
    /**
     * Formats the provided value to have the specified number of digits of
-    * precision to the right of the decimal point.
+    * precision to the right of the decimal point (rounded half up).
     * <p>
     * Includes a "+" sign if the value is positive, and a " " if the value is
-    * 'exactly' zero.
+    * 'exactly' zero. With no digits there is no decimal point ("+134"; the
+    * old <code>Double.toString</code> based version gave "+134.").
     *
     * @param value - value to format
-    * @param digits - number of digits of precision
+    * @param digits - number of digits of precision (0 to
+    *           <code>maxDigits</code>)
     * @return string with value formatted as specified
     **/
    static public String format( double value, int digits )
    {
-      final String valueString = Double.toString( value );
-      final int dotLoc = valueString.indexOf( '.' );
-      final int numDigits = valueString.length() - dotLoc - 1;
+      return format( new StringBuilder( 24 ), value, digits ).toString();
+   }
 
-      final StringBuffer buf = new StringBuffer( valueString );
-      if ( numDigits < digits )
+
+   /**
+    * Appends the provided value, formatted as for <code>format()</code>, to
+    * the buffer. Doesn't allocate anything (unless the buffer has to grow,
+    * or the value is too big to format directly).
+    *
+    * @param buf - buffer to append to
+    * @param value - value to format
+    * @param digits - number of digits of precision (0 to
+    *           <code>maxDigits</code>)
+    * @return the buffer (for chaining)
+    **/
+   static public StringBuilder format( StringBuilder buf, double value,
+      int digits )
+   {
+      final long pow = getPowerOf10( digits );
+      final double scaledValue = Math.abs( value ) * pow;
+
+      buf.append( getSign( value ) );
+      if ( !( scaledValue < maxScaled ) )
+      {
+         return buf.append( Math.abs( value ) );
+      }
+
+      final long scaled = Math.round( scaledValue );
+      buf.append( scaled / pow );
+      if ( digits > 0 )
       {
-         for ( int i = 0; i < ( digits - numDigits ); i++ )
+         buf.append( '.' );
+         final long fraction = scaled % pow;
+         for ( long p = pow / 10; p > 0; p /= 10 )
          {
-            buf.append( "0" );
+            buf.append( (char) ( '0' + ( ( fraction / p ) % 10 ) ) );
          }
       }
-      else if ( numDigits == digits )
+      return buf;
+   }
+
+
+   /**
+    * Writes the provided value, formatted as for <code>format()</code>, into
+    * the array. Doesn't allocate anything (unless the value is too big to
+    * format directly).
+    *
+    * @param dest - array to write to (must have room)
+    * @param offset - where in the array to start writing
+    * @param value - value to format
+    * @param digits - number of digits of precision (0 to
+    *           <code>maxDigits</code>)
+    * @return offset just past the last character written
+    **/
+   static public int format( char[] dest, int offset, double value,
+      int digits )
+   {
+      final long pow = getPowerOf10( digits );
+      final double scaledValue = Math.abs( value ) * pow;
+
+      int pos = offset;
+      dest[ pos++ ] = getSign( value );
+      if ( !( scaledValue < maxScaled ) )
+      {
+         final String text = Double.toString( Math.abs( value ) );
+         text.getChars( 0, text.length(), dest, pos );
+         return pos + text.length();
+      }
+
+      final long scaled = Math.round( scaledValue );
+
+      // Whole part is written backwards from its last digit
+      long whole = scaled / pow;
+      pos += countDigits( whole );
+      for ( int i = pos - 1; i >= ( offset + 1 ); i-- )
+      {
+         dest[ i ] = (char) ( '0' + ( whole % 10 ) );
+         whole /= 10;
+      }
+
+      if ( digits > 0 )
       {
-         // lucky conversion
+         dest[ pos++ ] = '.';
+         long fraction = scaled % pow;
+         for ( int i = ( pos + digits ) - 1; i >= pos; i-- )
+         {
+            dest[ i ] = (char) ( '0' + ( fraction % 10 ) );
+            fraction /= 10;
+         }
+         pos += digits;
       }
-      else
+      return pos;
+   }
+
+
+   private static long getPowerOf10( int digits )
+   {
+      if ( ( digits < 0 ) || ( digits > maxDigits ) )
       {
-         buf.setLength( ( dotLoc + digits + 1 ) );
+         throw new IllegalArgumentException(
+            "digits must be between 0 and " + maxDigits );
       }
+      return powersOf10[ digits ];
+   }
 
+
+   private static char getSign( double value )
+   {
       if ( value > 0 )
       {
-         buf.insert( 0, '+' );
+         return '+';
       }
-      if ( ( buf.charAt( 0 ) != '+' ) && ( buf.charAt( 0 ) != '-' ) )
+      if ( value < 0 )
       {
-         buf.insert( 0, ' ' );
+         return '-';
       }
+      return ' ';
+   }
 
-      return buf.toString();
+
+   /**
+    * @return number of decimal digits in the (non-negative) value
+    **/
+   private static int countDigits( long value )
+   {
+      int count = 1;
+      for ( long v = value / 10; v > 0; v /= 10 )
+      {
+         count++;
+      }
+      return count;
    }
 
 }
@@ -0,0 +1,289 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.utils;
+
+
+/**
+ * Fixed capacity history of a signal: (usec) timestamps and values kept in
+ * parallel ring buffers of primitives, so adding a sample doesn't box or
+ * allocate. Once full, the oldest sample is overwritten.
+ * <p>
+ * Samples must be added in time order. Methods are synchronized, so one thread
+ * can add while others query.
+ *
+ * @author first.stu
+ **/
+public class TimeSeries
+{
+
+   /** Name of signal **/
+   private final String name;
+
+   /** Times of samples (usec) **/
+   private final long[] times;
+   /** Values of samples **/
+   private final double[] values;
+
+   /** Index the next sample will be written to **/
+   private int head;
+   /** Number of samples held **/
+   private int count;
+
+
+   /**
+    * @param name - name of the signal
+    * @param capacity - how many samples are kept
+    **/
+   public TimeSeries( String name, int capacity )
+   {
+      this.name = name;
+
+      times = new long[ capacity ];
+      values = new double[ capacity ];
+
+      head = 0;
+      count = 0;
+   }
+
+
+   public String getName()
+   {
+      return name;
+   }
+
+
+   public int getCapacity()
+   {
+      return times.length;
+   }
+
+
+   public synchronized int getCount()
+   {
+      return count;
+   }
+
+
+   public synchronized void clear()
+   {
+      head = 0;
+      count = 0;
+   }
+
+
+   /**
+    * Adds a sample, overwriting the oldest if full.
+    *
+    * @param time - time of sample (usec); no earlier than the last one
+    * @param value - value of sample
+    **/
+   public synchronized void add( long time, double value )
+   {
+      times[ head ] = time;
+      values[ head ] = value;
+
+      head = ( head + 1 ) % times.length;
+      if ( count < times.length )
+      {
+         count++;
+      }
+   }
+
+
+   /**
+    * @return ring index of the i'th oldest sample held
+    **/
+   private int index( int i )
+   {
+      return ( ( head - count ) + i + times.length ) % times.length;
+   }
+
+
+   /**
+    * @return time of the newest sample (usec), or 0 if none
+    **/
+   public synchronized long getLatestTime()
+   {
+      if ( count == 0 )
+      {
+         return 0;
+      }
+      return times[ index( count - 1 ) ];
+   }
+
+
+   /**
+    * @return value of the newest sample, or <code>NaN</code> if none
+    **/
+   public synchronized double getLatestValue()
+   {
+      if ( count == 0 )
+      {
+         return Double.NaN;
+      }
+      return values[ index( count - 1 ) ];
+   }
+
+
+   /**
+    * @return time of the oldest sample (usec), or 0 if none
+    **/
+   public synchronized long getOldestTime()
+   {
+      if ( count == 0 )
+      {
+         return 0;
+      }
+      return times[ index( 0 ) ];
+   }
+
+
+   /**
+    * Returns the value at the time, linearly interpolated between the samples
+    * on either side of it. Times outside of the history get the oldest or
+    * newest value.
+    *
+    * @param time - time to get value at (usec)
+    * @return value, or <code>NaN</code> if no samples
+    **/
+   public synchronized double getValueAt( long time )
+   {
+      if ( count == 0 )
+      {
+         return Double.NaN;
+      }
+
+      // Find the first sample after the time
+      final int after = findFirstAfter( time );
+      if ( after == 0 )
+      {
+         return values[ index( 0 ) ];
+      }
+      if ( after == count )
+      {
+         return values[ index( count - 1 ) ];
+      }
+
+      final int i0 = index( after - 1 );
+      final int i1 = index( after );
+      final long span = times[ i1 ] - times[ i0 ];
+      if ( span <= 0 )
+      {
+         return values[ i1 ];
+      }
+      final double fraction = (double) ( time - times[ i0 ] ) / span;
+      return values[ i0 ] + ( fraction * ( values[ i1 ] - values[ i0 ] ) );
+   }
+
+
+   /**
+    * @return position (0 = oldest) of first sample later than the time, or
+    *         the count if none
+    **/
+   private int findFirstAfter( long time )
+   {
+      int low = 0;
+      int high = count;
+      while ( low < high )
+      {
+         final int mid = ( low + high ) >>> 1;
+         if ( times[ index( mid ) ] <= time )
+         {
+            low = mid + 1;
+         }
+         else
+         {
+            high = mid;
+         }
+      }
+      return low;
+   }
+
+
+   /**
+    * @return position (0 = oldest) of first sample at or later than the time,
+    *         or the count if none
+    **/
+   private int findFirstAtOrAfter( long time )
+   {
+      return findFirstAfter( time - 1 );
+   }
+
+
+   /**
+    * Returns the smallest value of the samples in the window.
+    *
+    * @param startTime - start of window (usec, inclusive)
+    * @param endTime - end of window (usec, inclusive)
+    * @return minimum, or <code>NaN</code> if no samples in the window
+    **/
+   public synchronized double getMin( long startTime, long endTime )
+   {
+      final int end = findFirstAfter( endTime );
+      double min = Double.NaN;
+      for ( int i = findFirstAtOrAfter( startTime ); i < end; i++ )
+      {
+         final double value = values[ index( i ) ];
+         if ( Double.isNaN( min ) || ( value < min ) )
+         {
+            min = value;
+         }
+      }
+      return min;
+   }
+
+
+   /**
+    * Returns the largest value of the samples in the window.
+    *
+    * @param startTime - start of window (usec, inclusive)
+    * @param endTime - end of window (usec, inclusive)
+    * @return maximum, or <code>NaN</code> if no samples in the window
+    **/
+   public synchronized double getMax( long startTime, long endTime )
+   {
+      final int end = findFirstAfter( endTime );
+      double max = Double.NaN;
+      for ( int i = findFirstAtOrAfter( startTime ); i < end; i++ )
+      {
+         final double value = values[ index( i ) ];
+         if ( Double.isNaN( max ) || ( value > max ) )
+         {
+            max = value;
+         }
+      }
+      return max;
+   }
+
+
+   /**
+    * Returns the mean value of the samples in the window.
+    *
+    * @param startTime - start of window (usec, inclusive)
+    * @param endTime - end of window (usec, inclusive)
+    * @return mean, or <code>NaN</code> if no samples in the window
+    **/
+   public synchronized double getMean( long startTime, long endTime )
+   {
+      final int start = findFirstAtOrAfter( startTime );
+      final int end = findFirstAfter( endTime );
+      if ( start >= end )
+      {
+         return Double.NaN;
+      }
+
+      double sum = 0;
+      for ( int i = start; i < end; i++ )
+      {
+         sum += values[ index( i ) ];
+      }
+      return sum / ( end - start );
+   }
+
+}
@@ -15,6 +15,7 @@ import org.slf4j.Logger;
 
 import com.powerknights.frc2016.riolog.RioLogger;
 
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.Utility;
 
 
@@ -29,6 +30,34 @@ public class TimeUtils
    private static final Logger logger =
       RioLogger.getLogger( TimeUtils.class.getName() );
 
+   /** Clock of the real (FPGA) time **/
+   private static final IClock fpgaClock = new IClock()
+   {
+
+      @Override
+      public long microTime()
+      {
+         return Utility.getFPGATime();
+      }
+
+
+      @Override
+      public void delay( long usecs )
+      {
+         Timer.delay( usecs / 1.0e6 );
+      }
+
+   };
+
+
+   /**
+    * @return clock of the real (FPGA) time
+    **/
+   public static IClock getFPGAClock()
+   {
+      return fpgaClock;
+   }
+
 
    public static long microTime()
    {
@@ -47,4 +76,10 @@ public class TimeUtils
       return usecs / 1000;
    }
 
+
+   public static long usecToNsec( long usecs )
+   {
+      return usecs * 1000;
+   }
+
 }
@@ -8,6 +8,8 @@
 package com.powerknights.frc2016.wpilibif;
 
 
+import java.util.Arrays;
+
 import edu.wpi.first.wpilibj.SensorBase;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 
@@ -21,6 +23,7 @@ import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
  * the DS Operation tab.
  *
  * Buffer the printed data locally and then send it when UpdateLCD is called.
+ * Only the lines that changed are sent.
  */
 public class DriverStationLCD
    extends SensorBase
@@ -108,7 +111,23 @@ public class DriverStationLCD
       }
    }
 
-   StringBuffer[] m_textBuffer = new StringBuffer[ kNumLines ];
+   /**
+    * Text of each line (guarded by this)
+    */
+   private final char[][] m_textBuffer = new char[ kNumLines ][ kLineLength ];
+   /**
+    * Whether each line has changed since it was last sent (guarded by this)
+    */
+   private final boolean[] m_dirty = new boolean[ kNumLines ];
+
+   /**
+    * Lock held while sending, so only one thread sends at a time
+    */
+   private final Object m_updateLock = new Object();
+   /**
+    * Lines copied out to be sent (guarded by m_updateLock)
+    */
+   private final String[] m_pending = new String[ kNumLines ];
 
 
    /**
@@ -133,29 +152,47 @@ public class DriverStationLCD
     */
    private DriverStationLCD()
    {
-      final StringBuilder buf = new StringBuilder();
-      for ( int i = 0; i < kLineLength; i++ )
-      {
-         buf.append( " " );
-      }
-
       for ( int i = 0; i < kNumLines; i++ )
       {
-         m_textBuffer[ i ] = new StringBuffer( buf.toString() );
+         Arrays.fill( m_textBuffer[ i ], ' ' );
+         // So the blank lines go out on the first update
+         m_dirty[ i ] = true;
       }
    }
 
 
    /**
-    * Send the text data to the Driver Station.
+    * Send the lines that have changed since the last update to the Driver
+    * Station.
+    *
+    * The changed lines are copied out under the lock, and sent after it is
+    * released; so printing never waits on the send. Several prints to a line
+    * between updates only send the last one.
     */
-   public synchronized void updateLCD()
+   public void updateLCD()
    {
-
-      for ( int i = 0; i < kNumLines; ++i )
+      synchronized ( m_updateLock )
       {
-         SmartDashboard.putString( LINE_KEYS[ i ],
-            m_textBuffer[ i ].toString() );
+         synchronized ( this )
+         {
+            for ( int i = 0; i < kNumLines; ++i )
+            {
+               if ( m_dirty[ i ] )
+               {
+                  m_pending[ i ] = new String( m_textBuffer[ i ] );
+                  m_dirty[ i ] = false;
+               }
+            }
+         }
+
+         for ( int i = 0; i < kNumLines; ++i )
+         {
+            if ( m_pending[ i ] != null )
+            {
+               SmartDashboard.putString( LINE_KEYS[ i ], m_pending[ i ] );
+               m_pending[ i ] = null;
+            }
+         }
       }
    }
 
@@ -173,25 +210,24 @@ public class DriverStationLCD
     */
    public void println( Line line, int startingColumn, String text )
    {
-      final int start = startingColumn - 1;
-      final int maxLength = kLineLength - start;
+      print( line, startingColumn, text );
+   }
 
-      if ( ( startingColumn < 1 ) || ( startingColumn > kLineLength ) )
-      {
-         throw new IndexOutOfBoundsException(
-            "Column must be between 1 and " + kLineLength + ", inclusive" );
-      }
 
-      final int length = text.length();
-      final int finalLength = ( length < maxLength ? length : maxLength );
-      synchronized ( this )
-      {
-         for ( int i = 0; i < finalLength; i++ )
-         {
-            m_textBuffer[ line.value ].setCharAt( ( i + start ),
-               text.charAt( i ) );
-         }
-      }
+   /**
+    * Print formatted text to the Driver Station LCD text buffer.
+    *
+    * Use UpdateLCD() periodically to actually send the test to the Driver
+    * Station.
+    *
+    * @param line The line on the LCD to print to.
+    * @param startingColumn The column to start printing to. This is a 1-based
+    *        number.
+    * @param text the text to print
+    */
+   public void println( Line line, int startingColumn, StringBuffer text )
+   {
+      print( line, startingColumn, text );
    }
 
 
@@ -206,7 +242,17 @@ public class DriverStationLCD
     *        number.
     * @param text the text to print
     */
-   public void println( Line line, int startingColumn, StringBuffer text )
+   public void println( Line line, int startingColumn, CharSequence text )
+   {
+      print( line, startingColumn, text );
+   }
+
+
+   /**
+    * Copies the text into the line, marking it dirty only if a character
+    * actually changed.
+    */
+   private void print( Line line, int startingColumn, CharSequence text )
    {
       final int start = startingColumn - 1;
       final int maxLength = kLineLength - start;
@@ -221,10 +267,20 @@ public class DriverStationLCD
       final int finalLength = ( length < maxLength ? length : maxLength );
       synchronized ( this )
       {
+         final char[] lineText = m_textBuffer[ line.value ];
+         boolean changed = false;
          for ( int i = 0; i < finalLength; i++ )
          {
-            m_textBuffer[ line.value ].setCharAt( ( i + start ),
-               text.charAt( i ) );
+            final char c = text.charAt( i );
+            if ( lineText[ i + start ] != c )
+            {
+               lineText[ i + start ] = c;
+               changed = true;
+            }
+         }
+         if ( changed )
+         {
+            m_dirty[ line.value ] = true;
          }
       }
    }
@@ -234,6 +290,7 @@ public class DriverStationLCD
     * Clear User Messages box on DS Operations Tab
     *
     * This method will clear all text currently displayed in the message box
+    * (on the next UpdateLCD())
     */
    public void clear()
    {
@@ -241,13 +298,10 @@ public class DriverStationLCD
       {
          for ( int i = 0; i < kNumLines; i++ )
          {
-            for ( int j = 0; j < kLineLength; j++ )
-            {
-               m_textBuffer[ i ].setCharAt( j, ' ' );
-            }
+            Arrays.fill( m_textBuffer[ i ], ' ' );
+            m_dirty[ i ] = true;
          }
       }
-      updateLCD();
    }
 
 }
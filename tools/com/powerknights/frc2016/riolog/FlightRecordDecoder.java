@@ -0,0 +1,277 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.riolog;
+
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+/**
+ * Offline (laptop) decoder of a <code>FlightRecorder</code> recording; writes
+ * its segments out as CSV (in order), one line per record:
+ *
+ * <pre>
+ * time,key,type,value
+ * </pre>
+ *
+ * where time is seconds since the recording started.
+ * <p>
+ * Usage: <code>FlightRecordDecoder flight-001-*.rec [flight-001.csv]</code>
+ * (the keys file is found next to the segments; the CSV goes to standard out
+ * if no file is given).
+ *
+ * @author first.stu
+ **/
+public class FlightRecordDecoder
+{
+
+   public static void main( String[] args )
+      throws IOException
+   {
+      final List< String > recordFiles = new ArrayList< String >();
+      String csvFile = null;
+      for ( final String arg : args )
+      {
+         if ( arg.endsWith( FlightRecordFormat.recordFileExtension ) )
+         {
+            recordFiles.add( arg );
+         }
+         else if ( csvFile == null )
+         {
+            csvFile = arg;
+         }
+         else
+         {
+            recordFiles.clear();
+            break;
+         }
+      }
+      if ( recordFiles.isEmpty() )
+      {
+         System.err.println(
+            "usage: FlightRecordDecoder <segment.rec> ... [<file.csv>]" );
+         System.exit( 1 );
+      }
+
+      final Map< Integer, String > keys = new HashMap< Integer, String >();
+      final Map< Integer, String > strings = new HashMap< Integer, String >();
+      readKeys( findKeysFile( recordFiles.get( 0 ) ), keys, strings );
+
+      // In the order recorded (the names sort wrong past 99 segments)
+      final Map< Integer, String > segments = new TreeMap< Integer, String >();
+      for ( final String recordFile : recordFiles )
+      {
+         segments.put( Integer.valueOf( readSegment( recordFile ) ),
+            recordFile );
+      }
+
+      final PrintWriter out = ( csvFile != null ) ? new PrintWriter( csvFile )
+         : new PrintWriter( System.out );
+      try
+      {
+         out.println( "time,key,type,value" );
+         long count = 0;
+         for ( final String recordFile : segments.values() )
+         {
+            count += decode( recordFile, keys, strings, out );
+         }
+         System.err.println( "decoded " + count + " records from "
+            + segments.size() + " segments" );
+      }
+      finally
+      {
+         out.close();
+      }
+   }
+
+
+   /**
+    * @return keys file of the recording a segment is part of (its name, less
+    *         the segment number and mode)
+    **/
+   private static String findKeysFile( String recordFile )
+      throws IOException
+   {
+      final String extension = FlightRecordFormat.recordFileExtension;
+      String baseName =
+         recordFile.substring( 0, recordFile.length() - extension.length() );
+      while ( true )
+      {
+         final String keysFile =
+            baseName + FlightRecordFormat.keysFileExtension;
+         if ( new File( keysFile ).exists() )
+         {
+            return keysFile;
+         }
+         final int dash = baseName.lastIndexOf( '-' );
+         if ( dash <= baseName.lastIndexOf( File.separatorChar ) )
+         {
+            throw new IOException( "no keys file for " + recordFile );
+         }
+         baseName = baseName.substring( 0, dash );
+      }
+   }
+
+
+   private static void readKeys( String keysFile, Map< Integer, String > keys,
+      Map< Integer, String > strings )
+      throws IOException
+   {
+      final BufferedReader in =
+         new BufferedReader( new FileReader( keysFile ) );
+      try
+      {
+         String line;
+         while ( ( line = in.readLine() ) != null )
+         {
+            // Name may have commas in it; so only split off the first two
+            final String[] parts = line.split( ",", 3 );
+            if ( parts.length != 3 )
+            {
+               continue;
+            }
+            final Integer id = Integer.valueOf( parts[ 1 ] );
+            if ( parts[ 0 ].equals( FlightRecordFormat.keyPrefix ) )
+            {
+               keys.put( id, parts[ 2 ] );
+            }
+            else if ( parts[ 0 ].equals( FlightRecordFormat.stringPrefix ) )
+            {
+               strings.put( id, parts[ 2 ] );
+            }
+         }
+      }
+      finally
+      {
+         in.close();
+      }
+   }
+
+
+   /**
+    * Maps a segment, and checks its header.
+    **/
+   private static ByteBuffer map( String recordFile )
+      throws IOException
+   {
+      final RandomAccessFile file = new RandomAccessFile( recordFile, "r" );
+      try
+      {
+         final ByteBuffer buffer = file.getChannel()
+            .map( FileChannel.MapMode.READ_ONLY, 0, file.length() );
+
+         if ( buffer.getLong( 0 ) != FlightRecordFormat.magic )
+         {
+            throw new IOException( recordFile + " is not a flight recording" );
+         }
+         final int version = buffer.getInt( 8 );
+         if ( version != FlightRecordFormat.version )
+         {
+            throw new IOException( "unknown recording version " + version );
+         }
+         return buffer;
+      }
+      finally
+      {
+         // Mapping stays valid after the file is closed
+         file.close();
+      }
+   }
+
+
+   private static int readSegment( String recordFile )
+      throws IOException
+   {
+      return map( recordFile ).getInt( 32 );
+   }
+
+
+   private static long decode( String recordFile, Map< Integer, String > keys,
+      Map< Integer, String > strings, PrintWriter out )
+      throws IOException
+   {
+      final ByteBuffer buffer = map( recordFile );
+      final int recordSize = buffer.getInt( 12 );
+      final long startTime = buffer.getLong( 16 );
+
+      long count = 0;
+      for ( int offset = FlightRecordFormat.headerSize; ( offset
+         + recordSize ) <= buffer.limit(); offset += recordSize )
+      {
+         final short type =
+            buffer.getShort( offset + FlightRecordFormat.typeOffset );
+         if ( type == FlightRecordFormat.unusedType )
+         {
+            break;
+         }
+         final int keyId =
+            buffer.getInt( offset + FlightRecordFormat.keyIdOffset );
+         final long time =
+            buffer.getLong( offset + FlightRecordFormat.timeOffset );
+         final long value =
+            buffer.getLong( offset + FlightRecordFormat.valueOffset );
+
+         out.print( ( time - startTime ) / 1.0e6 );
+         out.print( ',' );
+         out.print( quote( name( keys, keyId ) ) );
+         out.print( ',' );
+         switch ( type )
+         {
+         case FlightRecordFormat.numberType:
+            out.print( "number," );
+            out.println( Double.longBitsToDouble( value ) );
+            break;
+         case FlightRecordFormat.booleanType:
+            out.print( "boolean," );
+            out.println( value != 0 );
+            break;
+         case FlightRecordFormat.stringType:
+            out.print( "string," );
+            out.println( quote( name( strings, (int) value ) ) );
+            break;
+         default:
+            out.print( "unknown," );
+            out.println( value );
+            break;
+         }
+         count++;
+      }
+      return count;
+   }
+
+
+   private static String name( Map< Integer, String > names, int id )
+   {
+      final String name = names.get( Integer.valueOf( id ) );
+      return ( name != null ) ? name : ( "#" + id );
+   }
+
+
+   private static String quote( String text )
+   {
+      if ( ( text.indexOf( ',' ) < 0 ) && ( text.indexOf( '"' ) < 0 ) )
+      {
+         return text;
+      }
+      return "\"" + text.replace( "\"", "\"\"" ) + "\"";
+   }
+
+}
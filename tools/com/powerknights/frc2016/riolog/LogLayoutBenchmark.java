@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.riolog;
+
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+
+
+/**
+ * Offline (laptop) benchmark of the per event cost of the log layouts: the
+ * original one with the caller line (<code>%logger{10}[%line]</code>), and
+ * the one without caller data (<code>%shortLogger{10}</code>). Logs the kind
+ * of <code>logger.trace</code> calls the control loops make to an output that
+ * throws the bytes away, and prints the time and bytes allocated per event.
+ * <p>
+ * The caller line costs more on the robot than here, as the stacks of the
+ * robot threads are deeper than this one's.
+ * <p>
+ * Usage: <code>LogLayoutBenchmark [events]</code>
+ *
+ * @author first.stu
+ **/
+public class LogLayoutBenchmark
+{
+
+   public static void main( String[] args )
+   {
+      final int events =
+         ( args.length > 0 ) ? Integer.parseInt( args[ 0 ] ) : 500000;
+
+      // First pass warms up the JIT; second is the one reported
+      for ( int pass = 0; pass < 2; pass++ )
+      {
+         final boolean report = ( pass == 1 );
+         run( "caller line", RioLogger.callerLinePattern, events, report );
+         run( "short logger", RioLogger.shortLoggerPattern, events, report );
+      }
+   }
+
+
+   private static void run( String name, String pattern, int events,
+      boolean report )
+   {
+      final LoggerContext lc = new LoggerContext();
+      ShortLoggerConverter.register( lc );
+
+      final PatternLayoutEncoder ple = new PatternLayoutEncoder();
+      ple.setPattern( pattern );
+      ple.setContext( lc );
+      ple.start();
+
+      final OutputStreamAppender< ILoggingEvent > appender =
+         new OutputStreamAppender< ILoggingEvent >();
+      appender.setEncoder( ple );
+      appender.setContext( lc );
+      appender.setOutputStream( new OutputStream()
+      {
+
+         @Override
+         public void write( int b )
+         {
+         }
+
+
+         @Override
+         public void write( byte[] b, int off, int len )
+         {
+         }
+      } );
+      appender.start();
+
+      final Logger logger = lc
+         .getLogger( "com.powerknights.frc2016.robot.modules.ElevationModule" );
+      logger.addAppender( appender );
+      logger.setAdditive( false );
+      logger.setLevel( ch.qos.logback.classic.Level.TRACE );
+
+      final long startBytes = getAllocatedBytes();
+      final long startTime = System.nanoTime();
+      for ( int i = 0; i < events; i++ )
+      {
+         final double speed = ( i & 0xFF ) / 256.0;
+         logger.trace( "setMotorSpeed = {}", speed );
+      }
+      final long elapsed = System.nanoTime() - startTime;
+      final long bytes = getAllocatedBytes() - startBytes;
+
+      lc.stop();
+
+      if ( report )
+      {
+         System.out.println(
+            String.format( "%-14s %8.0f ns/event %8.0f bytes/event", name,
+               (double) elapsed / events, (double) bytes / events ) );
+      }
+   }
+
+
+   /**
+    * @return bytes allocated by this thread so far, or 0 if the JVM can't say
+    **/
+   private static long getAllocatedBytes()
+   {
+      final java.lang.management.ThreadMXBean bean =
+         ManagementFactory.getThreadMXBean();
+      if ( bean instanceof com.sun.management.ThreadMXBean )
+      {
+         return ( (com.sun.management.ThreadMXBean) bean )
+            .getThreadAllocatedBytes( Thread.currentThread().getId() );
+      }
+      return 0;
+   }
+
+}
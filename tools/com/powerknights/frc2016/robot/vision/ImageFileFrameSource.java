@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.robot.vision;
+
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+
+/**
+ * Frame source (laptop only) of image files (anything
+ * <code>ImageIO</code> reads; PNG, JPEG, ...), in order; optionally paced at
+ * a frame rate. All the images must be the size of the first.
+ *
+ * @author first.stu
+ **/
+public class ImageFileFrameSource
+   implements IFrameSource
+{
+
+   /** Files of the frames **/
+   private final File[] files;
+   /** Time between frames (nsec; 0 for as fast as they load) **/
+   private final long framePeriod;
+
+   private final int width;
+   private final int height;
+
+   /** Next file to grab **/
+   private int next;
+   /** When the next frame is due (nsec) **/
+   private long nextTime;
+
+
+   /**
+    * @param files - of the frames
+    * @param framePeriod - time between frames (msec; 0 for as fast as they
+    *           load)
+    **/
+   public ImageFileFrameSource( File[] files, long framePeriod )
+      throws IOException
+   {
+      if ( files.length == 0 )
+      {
+         throw new IllegalArgumentException( "no frame files" );
+      }
+      this.files = files;
+      this.framePeriod = TimeUnit.MILLISECONDS.toNanos( framePeriod );
+
+      final BufferedImage first = read( files[ 0 ] );
+      width = first.getWidth();
+      height = first.getHeight();
+
+      next = 0;
+      nextTime = System.nanoTime();
+   }
+
+
+   /**
+    * @return the image in the file
+    **/
+   public static BufferedImage read( File file )
+      throws IOException
+   {
+      final BufferedImage image = ImageIO.read( file );
+      if ( image == null )
+      {
+         throw new IOException( "not an image file: " + file );
+      }
+      return image;
+   }
+
+
+   /**
+    * Copies the pixels of the image (<code>0xRRGGBB</code>, row by row).
+    **/
+   public static void getPixels( BufferedImage image, int[] pixels )
+   {
+      image.getRGB( 0, 0, image.getWidth(), image.getHeight(), pixels, 0,
+         image.getWidth() );
+   }
+
+
+   @Override
+   public int getWidth()
+   {
+      return width;
+   }
+
+
+   @Override
+   public int getHeight()
+   {
+      return height;
+   }
+
+
+   /**
+    * @return when the frame was "captured" (usec, from
+    *         <code>System.nanoTime()</code>), or -1 if there are no more
+    *         files (or one can't be read)
+    **/
+   @Override
+   public long grabFrame( int[] pixels )
+   {
+      if ( next >= files.length )
+      {
+         return -1;
+      }
+
+      if ( framePeriod > 0 )
+      {
+         final long wait = nextTime - System.nanoTime();
+         if ( wait > 0 )
+         {
+            try
+            {
+               TimeUnit.NANOSECONDS.sleep( wait );
+            }
+            catch ( final InterruptedException ex )
+            {
+               Thread.currentThread().interrupt();
+               return -1;
+            }
+         }
+         nextTime += framePeriod;
+      }
+      final long captureTime =
+         TimeUnit.NANOSECONDS.toMicros( System.nanoTime() );
+
+      final File file = files[ next++ ];
+      try
+      {
+         final BufferedImage image = read( file );
+         if ( ( image.getWidth() != width ) || ( image.getHeight() != height ) )
+         {
+            System.err.println( "wrong size " + image.getWidth() + "x"
+               + image.getHeight() + ": " + file );
+            return -1;
+         }
+         getPixels( image, pixels );
+      }
+      catch ( final IOException ex )
+      {
+         System.err.println( "can't read " + file + ": " + ex.getMessage() );
+         return -1;
+      }
+      return captureTime;
+   }
+
+}
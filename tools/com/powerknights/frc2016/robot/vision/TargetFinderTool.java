@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.robot.vision;
+
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Offline (laptop) run of the <code>TargetFinder</code> over image files (or
+ * directories of them), e.g. frames saved from the camera; prints what it
+ * finds in each, and the time and bytes allocated per frame.
+ * <p>
+ * Usage: <code>TargetFinderTool [-bands N] [-repeat N] file|dir ...</code>
+ *
+ * @author first.stu
+ **/
+public class TargetFinderTool
+{
+
+   public static void main( String[] args )
+      throws IOException
+   {
+      int bands = Runtime.getRuntime().availableProcessors();
+      int repeat = 200;
+      final List< File > files = new ArrayList< File >();
+      for ( int i = 0; i < args.length; i++ )
+      {
+         if ( args[ i ].equals( "-bands" ) && ( i + 1 < args.length ) )
+         {
+            bands = Integer.parseInt( args[ ++i ] );
+         }
+         else if ( args[ i ].equals( "-repeat" ) && ( i + 1 < args.length ) )
+         {
+            repeat = Integer.parseInt( args[ ++i ] );
+         }
+         else
+         {
+            addFiles( new File( args[ i ] ), files );
+         }
+      }
+      if ( files.isEmpty() )
+      {
+         System.err.println(
+            "Usage: TargetFinderTool [-bands N] [-repeat N] file|dir ..." );
+         System.exit( 1 );
+      }
+
+      System.out.println( "file,valid,targets,angle,distance,x,y,usec,bytes" );
+      TargetFinder finder = null;
+      int[] pixels = null;
+      for ( final File file : files )
+      {
+         final BufferedImage image = ImageFileFrameSource.read( file );
+         if ( ( finder == null ) || ( finder.getWidth() != image.getWidth() )
+            || ( finder.getHeight() != image.getHeight() ) )
+         {
+            if ( finder != null )
+            {
+               finder.close();
+            }
+            finder =
+               new TargetFinder( image.getWidth(), image.getHeight(), bands );
+            pixels = new int[ image.getWidth() * image.getHeight() ];
+         }
+         ImageFileFrameSource.getPixels( image, pixels );
+
+         // Warm up the JIT, then time the repeats
+         for ( int i = 0; i < repeat; i++ )
+         {
+            finder.process( pixels );
+         }
+         final long startBytes = getAllocatedBytes();
+         final long startTime = System.nanoTime();
+         for ( int i = 0; i < repeat; i++ )
+         {
+            finder.process( pixels );
+         }
+         final long elapsed = System.nanoTime() - startTime;
+         final long bytes = getAllocatedBytes() - startBytes;
+
+         System.out.println( String.format(
+            "%s,%b,%d,%.2f,%.2f,%.1f,%.1f,%d,%d", file.getPath(),
+            finder.isValid(), finder.getNumTargets(),
+            finder.getAngle(), finder.getDistance(), finder.getTargetX(),
+            finder.getTargetY(), elapsed / 1000 / repeat, bytes / repeat ) );
+      }
+      if ( finder != null )
+      {
+         finder.close();
+      }
+   }
+
+
+   private static void addFiles( File file, List< File > files )
+   {
+      if ( file.isDirectory() )
+      {
+         final File[] children = file.listFiles();
+         if ( children != null )
+         {
+            Arrays.sort( children );
+            for ( final File child : children )
+            {
+               if ( child.isFile() )
+               {
+                  files.add( child );
+               }
+            }
+         }
+      }
+      else
+      {
+         files.add( file );
+      }
+   }
+
+
+   /**
+    * @return bytes allocated by this thread so far, or 0 if the JVM can't say
+    **/
+   private static long getAllocatedBytes()
+   {
+      final java.lang.management.ThreadMXBean bean =
+         ManagementFactory.getThreadMXBean();
+      if ( bean instanceof com.sun.management.ThreadMXBean )
+      {
+         return ( (com.sun.management.ThreadMXBean) bean )
+            .getThreadAllocatedBytes( Thread.currentThread().getId() );
+      }
+      return 0;
+   }
+
+}
@@ -0,0 +1,244 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.robot.vision;
+
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.powerknights.frc2016.utils.LatencyHistogram;
+
+
+/**
+ * Stand-in (laptop) for the vision pipeline's end of <code>UdpVision</code>;
+ * sends a made up target (sweeping across, and in and out) at a frame rate,
+ * optionally losing or swapping some datagrams.
+ * <p>
+ * With <code>-check</code>, it sends to itself and receives them with the
+ * robot's <code>UdpVisionReceiver</code>; then prints the latency (send to
+ * receive) and jitter (of the time between datagrams), and the lost and out
+ * of order counts.
+ * <p>
+ * Usage:
+ * <code>UdpVisionSender [-host H] [-port P] [-rate Hz] [-count N]
+ * [-loss %] [-reorder %] [-check]</code>
+ *
+ * @author first.stu
+ **/
+public class UdpVisionSender
+{
+
+   public static void main( String[] args )
+      throws Exception
+   {
+      String host = "roboRIO-501-FRC.local";
+      int port = 5801;
+      double rate = 25;
+      long count = Long.MAX_VALUE;
+      double loss = 0;
+      double reorder = 0;
+      boolean check = false;
+      for ( int i = 0; i < args.length; i++ )
+      {
+         final String arg = args[ i ];
+         final boolean hasValue = ( i + 1 < args.length );
+         if ( arg.equals( "-host" ) && hasValue )
+         {
+            host = args[ ++i ];
+         }
+         else if ( arg.equals( "-port" ) && hasValue )
+         {
+            port = Integer.parseInt( args[ ++i ] );
+         }
+         else if ( arg.equals( "-rate" ) && hasValue )
+         {
+            rate = Double.parseDouble( args[ ++i ] );
+         }
+         else if ( arg.equals( "-count" ) && hasValue )
+         {
+            count = Long.parseLong( args[ ++i ] );
+         }
+         else if ( arg.equals( "-loss" ) && hasValue )
+         {
+            loss = Double.parseDouble( args[ ++i ] ) / 100;
+         }
+         else if ( arg.equals( "-reorder" ) && hasValue )
+         {
+            reorder = Double.parseDouble( args[ ++i ] ) / 100;
+         }
+         else if ( arg.equals( "-check" ) )
+         {
+            check = true;
+         }
+         else
+         {
+            System.err.println( "Usage: UdpVisionSender [-host H] [-port P]"
+               + " [-rate Hz] [-count N] [-loss %] [-reorder %] [-check]" );
+            System.exit( 1 );
+         }
+      }
+
+      Checker checker = null;
+      if ( check )
+      {
+         host = "127.0.0.1";
+         if ( count == Long.MAX_VALUE )
+         {
+            count = 1000;
+         }
+         checker = new Checker( port, rate );
+         checker.start();
+      }
+
+      send( new InetSocketAddress( host, port ), rate, count, loss, reorder );
+
+      if ( checker != null )
+      {
+         // Let the last ones arrive
+         Thread.sleep( 200 );
+         checker.finish();
+      }
+   }
+
+
+   private static void send( InetSocketAddress address, double rate,
+      long count, double loss, double reorder )
+      throws IOException, InterruptedException
+   {
+      final DatagramChannel channel = DatagramChannel.open();
+      channel.connect( address );
+      final ByteBuffer buffer =
+         ByteBuffer.allocateDirect( UdpVisionPacket.size );
+      final ByteBuffer held =
+         ByteBuffer.allocateDirect( UdpVisionPacket.size );
+      boolean holding = false;
+      final Random random = new Random( 501 );
+
+      final long period = (long) ( TimeUnit.SECONDS.toNanos( 1 ) / rate );
+      long nextTime = System.nanoTime();
+      for ( long sequence = 1; sequence <= count; sequence++ )
+      {
+         final long wait = nextTime - System.nanoTime();
+         if ( wait > 0 )
+         {
+            TimeUnit.NANOSECONDS.sleep( wait );
+         }
+         nextTime += period;
+
+         final long now = TimeUnit.NANOSECONDS.toMicros( System.nanoTime() );
+         final double t = sequence / rate;
+         final boolean valid = ( ( sequence % 100 ) < 90 );
+         UdpVisionPacket.write( buffer, sequence, valid, valid ? 1 : 0, now, 0,
+            10 * Math.sin( t ), 12 + ( 3 * Math.cos( t / 2 ) ) );
+
+         if ( random.nextDouble() < loss )
+         {
+            continue;
+         }
+         if ( !holding && ( random.nextDouble() < reorder ) )
+         {
+            // Send after the next one
+            held.clear();
+            held.put( buffer );
+            held.flip();
+            holding = true;
+            continue;
+         }
+         channel.write( buffer );
+         if ( holding )
+         {
+            channel.write( held );
+            holding = false;
+         }
+      }
+      channel.close();
+   }
+
+   /**
+    * Receives the datagrams sent (on the same clock), and measures them.
+    **/
+   private static class Checker
+      extends Thread
+   {
+
+      private final UdpVisionReceiver receiver;
+      private final long period; // usec
+
+      /** Send to receive **/
+      private final LatencyHistogram latency = new LatencyHistogram();
+      /** Difference of time between datagrams from the period **/
+      private final LatencyHistogram jitter = new LatencyHistogram();
+
+
+      Checker( int port, double rate )
+         throws IOException
+      {
+         super( "Checker" );
+         setDaemon( true );
+         receiver = new UdpVisionReceiver( port );
+         period = (long) ( TimeUnit.SECONDS.toMicros( 1 ) / rate );
+      }
+
+
+      @Override
+      public void run()
+      {
+         long lastTime = 0;
+         try
+         {
+            while ( receiver.receive() )
+            {
+               final long now =
+                  TimeUnit.NANOSECONDS.toMicros( System.nanoTime() );
+               latency.record( now - receiver.getCaptureTime() );
+               if ( lastTime != 0 )
+               {
+                  jitter.record( Math.abs( now - lastTime - period ) );
+               }
+               lastTime = now;
+            }
+         }
+         catch ( final IOException ex )
+         {
+            ex.printStackTrace();
+         }
+      }
+
+
+      void finish()
+         throws InterruptedException
+      {
+         receiver.close();
+         join( 1000 );
+
+         System.out.println( String.format(
+            "received=%d lost=%d outOfOrder=%d duplicate=%d bad=%d",
+            receiver.getReceivedCount(), receiver.getLostCount(),
+            receiver.getOutOfOrderCount(), receiver.getDuplicateCount(),
+            receiver.getBadCount() ) );
+         print( "latency", latency );
+         print( "jitter", jitter );
+      }
+
+
+      private static void print( String name, LatencyHistogram histogram )
+      {
+         System.out.println( String.format(
+            "%-8s usec: p50=%d p90=%d p99=%d max=%d", name,
+            histogram.getPercentile( 50 ), histogram.getPercentile( 90 ),
+            histogram.getPercentile( 99 ), histogram.getMax() ) );
+      }
+
+   }
+
+}
@@ -0,0 +1,1029 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.robot.vision;
+
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.powerknights.frc2016.robot.config.DelayTimeConfig;
+import com.powerknights.frc2016.utils.IClock;
+import com.powerknights.frc2016.utils.LatencyHistogram;
+
+
+/**
+ * Offline (Linux desktop) benchmark of the vision path, from a frame arriving
+ * to a command made from it. Replays a recorded vision stream at its real
+ * rate into a vision source, while a stand-in control loop consumes the
+ * updates (through the <code>TargetTracker</code>) and works out an
+ * elevation command; then reports the latency of each stage, and how many
+ * frames were dropped (replaced before the loop saw them) or torn (values
+ * not all from their own frame).
+ * <p>
+ * Streams are either:
+ * <ul>
+ * <li>NetworkTables key sequences (lines of <code>msec,key,value</code>);
+ * replayed through the frame assembly of <code>NetworkTablesVision</code>,
+ * with a stand-in for its dashboard and LCD updates (the NetworkTables
+ * library itself only runs on the robot). <code>-synthetic</code> makes up
+ * one, as the RoboRealm pipeline sends them. With <code>-udp</code> the same
+ * frames are sent instead as one datagram each (as TTv8 does for
+ * <code>UdpVision</code>), over loopback to a <code>UdpVisionReceiver</code>;
+ * <code>-compare</code> replays both ways and sums up the difference (the
+ * NetworkTables replay leaves out the NetworkTables transport, so it is the
+ * best that path can do);
+ * <li>frame files; replayed through the <code>TargetFinder</code>.
+ * </ul>
+ * Stages (usec) of each frame:
+ * <ul>
+ * <li>receive - due to delivered (first key, or frame handed over);
+ * <li>assemble - delivered to complete (valid flag key, or frame processed);
+ * <li>publish - complete to its update published;
+ * <li>consume - published to seen by the control loop;
+ * <li>command - seen to command worked out;
+ * <li>arrival - delivered to command;
+ * <li>capture - (estimated) capture to command;
+ * <li>ready - due to published (frame usable by the robot code);
+ * <li>total - due to command.
+ * </ul>
+ * Usage: <code>VisionLatencyHarness (-nt file | -synthetic frames [-save
+ * file] | -frames file|dir ...) [-udp | -compare] [-port n] [-rate Hz]
+ * [-loop msec] [-speed x]</code>
+ *
+ * @author first.stu
+ **/
+public class VisionLatencyHarness
+{
+
+   /** Clock of the replay, and the updates **/
+   private static final IClock clock = new IClock()
+   {
+
+      @Override
+      public long microTime()
+      {
+         return TimeUnit.NANOSECONDS.toMicros( System.nanoTime() );
+      }
+
+
+      @Override
+      public void delay( long usecs )
+      {
+         LockSupport.parkNanos( TimeUnit.MICROSECONDS.toNanos( usecs ) );
+      }
+
+   };
+
+   /** Names of the stages **/
+   private static final String[] stageNames = { "receive", "assemble",
+      "publish", "consume", "command", "arrival", "capture", "ready",
+      "total" };
+   /** Stages summed up when comparing **/
+   private static final int readyStage = 7;
+   private static final int totalStage = 8;
+
+   /** Limits (usec) of the rows of the histograms **/
+   private static final long[] histogramLimits = { 100, 500, 1000, 2000,
+      5000, 10000, 20000, 50000, 100000 };
+
+   /*
+    * Times (usec) of each frame, by sequence (0 if it didn't happen)
+    */
+   private static long[] dueTimes;
+   private static long[] deliveredTimes;
+   private static long[] completeTimes;
+   private static long[] publishedTimes;
+   private static long[] seenTimes;
+   private static long[] commandTimes;
+   private static long[] captureTimes;
+   /** Values each frame should have **/
+   private static double[] expectedAngles;
+   private static double[] expectedDistances;
+   /** Whether the control loop saw a frame torn **/
+   private static boolean[] torn;
+
+
+   public static void main( String[] args )
+      throws Exception
+   {
+      String ntFile = null;
+      int synthetic = 0;
+      String saveFile = null;
+      final List< File > frameFiles = new ArrayList< File >();
+      double rate = 25;
+      long loopPeriod = 20;
+      double speed = 1;
+      boolean udp = false;
+      boolean compare = false;
+      int port = 5801;
+      for ( int i = 0; i < args.length; i++ )
+      {
+         final String arg = args[ i ];
+         final boolean hasValue = ( i + 1 < args.length );
+         if ( arg.equals( "-nt" ) && hasValue )
+         {
+            ntFile = args[ ++i ];
+         }
+         else if ( arg.equals( "-synthetic" ) && hasValue )
+         {
+            synthetic = Integer.parseInt( args[ ++i ] );
+         }
+         else if ( arg.equals( "-save" ) && hasValue )
+         {
+            saveFile = args[ ++i ];
+         }
+         else if ( arg.equals( "-frames" ) && hasValue )
+         {
+            while ( ( i + 1 < args.length )
+               && !args[ i + 1 ].startsWith( "-" ) )
+            {
+               addFiles( new File( args[ ++i ] ), frameFiles );
+            }
+         }
+         else if ( arg.equals( "-rate" ) && hasValue )
+         {
+            rate = Double.parseDouble( args[ ++i ] );
+         }
+         else if ( arg.equals( "-loop" ) && hasValue )
+         {
+            loopPeriod = Long.parseLong( args[ ++i ] );
+         }
+         else if ( arg.equals( "-speed" ) && hasValue )
+         {
+            speed = Double.parseDouble( args[ ++i ] );
+         }
+         else if ( arg.equals( "-udp" ) )
+         {
+            udp = true;
+         }
+         else if ( arg.equals( "-compare" ) )
+         {
+            compare = true;
+         }
+         else if ( arg.equals( "-port" ) && hasValue )
+         {
+            port = Integer.parseInt( args[ ++i ] );
+         }
+         else
+         {
+            usage();
+         }
+      }
+
+      KeyStream keys = null;
+      if ( ntFile != null )
+      {
+         keys = readKeys( new File( ntFile ) );
+      }
+      else if ( synthetic > 0 )
+      {
+         keys = makeKeys( synthetic, rate );
+         if ( saveFile != null )
+         {
+            writeKeys( keys, new File( saveFile ) );
+         }
+      }
+
+      if ( ( keys != null ) && compare )
+      {
+         System.out.println( "== NetworkTables keys" );
+         final LatencyHistogram[] nt =
+            run( new KeyReplay( keys, speed ), loopPeriod );
+         System.out.println( "== UDP datagrams" );
+         final LatencyHistogram[] datagrams =
+            run( new UdpReplay( keys, speed, port ), loopPeriod );
+         summarize( nt, datagrams );
+      }
+      else if ( keys != null )
+      {
+         run( udp ? new UdpReplay( keys, speed, port )
+            : new KeyReplay( keys, speed ), loopPeriod );
+      }
+      else if ( !frameFiles.isEmpty() )
+      {
+         run( new FrameReplay( frameFiles, rate, speed ), loopPeriod );
+      }
+      else
+      {
+         usage();
+      }
+   }
+
+
+   /**
+    * Replays the stream with the control loop consuming it, and reports.
+    *
+    * @return histograms of the stages
+    **/
+   private static LatencyHistogram[] run( Replay replay, long loopPeriod )
+      throws InterruptedException
+   {
+      final int frames = replay.getFrameCount();
+      dueTimes = new long[ frames + 1 ];
+      deliveredTimes = new long[ frames + 1 ];
+      completeTimes = new long[ frames + 1 ];
+      publishedTimes = new long[ frames + 1 ];
+      seenTimes = new long[ frames + 1 ];
+      commandTimes = new long[ frames + 1 ];
+      captureTimes = new long[ frames + 1 ];
+      expectedAngles = new double[ frames + 1 ];
+      expectedDistances = new double[ frames + 1 ];
+      torn = new boolean[ frames + 1 ];
+
+      final ControlLoop loop = new ControlLoop( replay.getSource(),
+         TimeUnit.MILLISECONDS.toMicros( loopPeriod ) );
+      final Thread replayThread = new Thread( replay, "Replay" );
+      loop.start();
+      replayThread.start();
+      replayThread.join();
+      // Give the loop a chance at the last frame
+      Thread.sleep( 2 * loopPeriod );
+      loop.quit = true;
+      loop.join();
+
+      return report( frames );
+   }
+
+
+   private static void usage()
+   {
+      System.err.println( "Usage: VisionLatencyHarness (-nt file"
+         + " | -synthetic frames [-save file] | -frames file|dir ...)"
+         + " [-udp | -compare] [-port n] [-rate Hz] [-loop msec]"
+         + " [-speed x]" );
+      System.exit( 1 );
+   }
+
+
+   private static void addFiles( File file, List< File > files )
+   {
+      if ( file.isDirectory() )
+      {
+         final File[] children = file.listFiles();
+         if ( children != null )
+         {
+            Arrays.sort( children );
+            for ( final File child : children )
+            {
+               if ( child.isFile() )
+               {
+                  files.add( child );
+               }
+            }
+         }
+      }
+      else
+      {
+         files.add( file );
+      }
+   }
+
+
+   /**
+    * Waits (sleeping, then spinning the last bit) until the time.
+    **/
+   private static void waitUntil( long time )
+   {
+      while ( true )
+      {
+         final long wait = time - clock.microTime();
+         if ( wait <= 0 )
+         {
+            return;
+         }
+         if ( wait > 200 )
+         {
+            clock.delay( wait - 200 );
+         }
+      }
+   }
+
+   /**
+    * Replays a stream into a vision source (on its own thread).
+    **/
+   private static abstract class Replay
+      implements Runnable
+   {
+
+      abstract int getFrameCount();
+
+
+      abstract IVisionSource getSource();
+
+   }
+
+   /**
+    * NetworkTables key sequence; time (usec from start), key and value of
+    * each change.
+    **/
+   private static class KeyStream
+   {
+
+      final List< Long > times = new ArrayList< Long >();
+      final List< String > keys = new ArrayList< String >();
+      final List< Object > values = new ArrayList< Object >();
+      int frames;
+
+
+      void add( long time, String key, Object value )
+      {
+         times.add( time );
+         keys.add( key );
+         values.add( value );
+         if ( key.equals( VisionFrameAssembler.validUpdateKey ) )
+         {
+            frames++;
+         }
+      }
+
+   }
+
+
+   private static KeyStream readKeys( File file )
+      throws IOException
+   {
+      final KeyStream keys = new KeyStream();
+      try ( BufferedReader reader =
+         new BufferedReader( new FileReader( file ) ) )
+      {
+         String line;
+         while ( ( line = reader.readLine() ) != null )
+         {
+            line = line.trim();
+            if ( line.isEmpty() || line.startsWith( "#" ) )
+            {
+               continue;
+            }
+            final String[] fields = line.split( "," );
+            if ( fields.length != 3 )
+            {
+               throw new IOException( "bad line: " + line );
+            }
+            final long time =
+               (long) ( Double.parseDouble( fields[ 0 ] ) * 1000 );
+            final String key = fields[ 1 ].trim();
+            final String value = fields[ 2 ].trim();
+            if ( key.equals( VisionFrameAssembler.validUpdateKey ) )
+            {
+               keys.add( time, key, Boolean.valueOf( value ) );
+            }
+            else
+            {
+               keys.add( time, key, Double.valueOf( value ) );
+            }
+         }
+      }
+      return keys;
+   }
+
+
+   private static void writeKeys( KeyStream keys, File file )
+      throws IOException
+   {
+      try ( PrintWriter writer = new PrintWriter( file ) )
+      {
+         writer.println( "# msec,key,value" );
+         for ( int i = 0; i < keys.times.size(); i++ )
+         {
+            writer.println( String.format( "%.3f,%s,%s",
+               keys.times.get( i ) / 1000.0, keys.keys.get( i ),
+               keys.values.get( i ) ) );
+         }
+      }
+   }
+
+
+   /**
+    * Makes up a stream as the RoboRealm pipeline sends it: angle, distance
+    * and latency (a fraction of a msec apart), then the valid flag; just the
+    * latency and valid flag when there is no target.
+    **/
+   private static KeyStream makeKeys( int frames, double rate )
+   {
+      final KeyStream keys = new KeyStream();
+      final Random random = new Random( 501 );
+      final long period = (long) ( TimeUnit.SECONDS.toMicros( 1 ) / rate );
+      for ( int i = 0; i < frames; i++ )
+      {
+         long time = i * period;
+         final double t = time / 1e6;
+         final boolean valid = ( ( i % 20 ) != 19 );
+         if ( valid )
+         {
+            keys.add( time, VisionFrameAssembler.angleKey,
+               Math.round( 1000 * Math.sin( t ) ) / 100.0 );
+            time += 250;
+            keys.add( time, VisionFrameAssembler.distanceKey,
+               Math.round( 100 * ( 12 + ( 3 * Math.cos( t / 2 ) ) ) ) / 100.0 );
+            time += 250;
+         }
+         keys.add( time, VisionFrameAssembler.latencyKey,
+            (double) ( 40 + random.nextInt( 30 ) ) );
+         time += 250;
+         keys.add( time, VisionFrameAssembler.validUpdateKey, valid );
+      }
+      return keys;
+   }
+
+   /**
+    * Replays a key stream through the frame assembly of
+    * <code>NetworkTablesVision</code>.
+    **/
+   private static class KeyReplay
+      extends Replay
+      implements VisionFrameAssembler.IFrameListener
+   {
+
+      private final KeyStream keys;
+      private final double speed;
+      private final VisionFrameAssembler assembler;
+
+      /*
+       * Stand-in for the dashboard and LCD managers
+       */
+      private final Map< String, Object > dashboard =
+         new HashMap< String, Object >();
+      private final StringBuilder lcdLine = new StringBuilder();
+      private long validCount;
+      private long invalidCount;
+
+
+      KeyReplay( KeyStream keys, double speed )
+      {
+         this.keys = keys;
+         this.speed = speed;
+         assembler = new VisionFrameAssembler( clock, this );
+      }
+
+
+      @Override
+      int getFrameCount()
+      {
+         return keys.frames;
+      }
+
+
+      @Override
+      IVisionSource getSource()
+      {
+         return assembler;
+      }
+
+
+      @Override
+      public void run()
+      {
+         final long start = clock.microTime();
+         int sequence = 1;
+         boolean firstKey = true;
+         double angle = 0;
+         double distance = 0;
+         for ( int i = 0; i < keys.times.size(); i++ )
+         {
+            final long due = start + (long) ( keys.times.get( i ) / speed );
+            waitUntil( due );
+            final long now = clock.microTime();
+            final String key = keys.keys.get( i );
+            final Object value = keys.values.get( i );
+
+            if ( firstKey )
+            {
+               dueTimes[ sequence ] = due;
+               deliveredTimes[ sequence ] = now;
+               firstKey = false;
+            }
+            if ( key.equals( VisionFrameAssembler.angleKey ) )
+            {
+               angle = (Double) value;
+            }
+            else if ( key.equals( VisionFrameAssembler.distanceKey ) )
+            {
+               distance = (Double) value;
+            }
+            else if ( key.equals( VisionFrameAssembler.validUpdateKey ) )
+            {
+               completeTimes[ sequence ] = now;
+               expectedAngles[ sequence ] = angle;
+               expectedDistances[ sequence ] = distance;
+            }
+
+            assembler.valueChanged( key, value );
+
+            if ( key.equals( VisionFrameAssembler.validUpdateKey ) )
+            {
+               sequence++;
+               firstKey = true;
+            }
+         }
+      }
+
+
+      /**
+       * Same sort of work as the dashboard and LCD updates of
+       * <code>NetworkTablesVision</code>.
+       **/
+      @Override
+      public void frameAssembled( VisionUpdate update )
+      {
+         publishedTimes[ (int) update.sequence ] = clock.microTime();
+
+         dashboard.put( "visionValidUpdate", update.isValid() );
+         dashboard.put( "visionAngle", update.angle );
+         dashboard.put( "visionDistance", update.distance );
+         dashboard.put( "targetLock", ( update.angle < 5 ) );
+         if ( update.isValid() )
+         {
+            validCount++;
+         }
+         else
+         {
+            invalidCount++;
+         }
+         lcdLine.setLength( 0 );
+         lcdLine.append( "VIS: Update " ).append( validCount ).append( "[" )
+            .append( invalidCount ).append( "]" );
+      }
+
+   }
+
+   /**
+    * Replays the frames of a key stream as datagrams (one per frame, sent
+    * when its first key was), received over loopback by a
+    * <code>UdpVisionReceiver</code>; with a stand-in for the receiver thread
+    * of <code>UdpVision</code> (which needs the robot's dashboard managers).
+    **/
+   private static class UdpReplay
+      extends Replay
+   {
+
+      private final double speed;
+      private final int port;
+
+      /** Frames of the stream **/
+      private final long[] frameTimes; // usec from start
+      private final boolean[] frameValids;
+      private final double[] frameAngles;
+      private final double[] frameDistances;
+      private final long[] frameAges; // usec; the latency key
+
+      private final LatestVisionUpdate updates = new LatestVisionUpdate();
+
+
+      UdpReplay( KeyStream keys, double speed, int port )
+      {
+         this.speed = speed;
+         this.port = port;
+
+         frameTimes = new long[ keys.frames ];
+         frameValids = new boolean[ keys.frames ];
+         frameAngles = new double[ keys.frames ];
+         frameDistances = new double[ keys.frames ];
+         frameAges = new long[ keys.frames ];
+
+         int frame = 0;
+         boolean firstKey = true;
+         double angle = 0;
+         double distance = 0;
+         long age = 0;
+         for ( int i = 0; i < keys.times.size(); i++ )
+         {
+            final String key = keys.keys.get( i );
+            final Object value = keys.values.get( i );
+            if ( firstKey )
+            {
+               frameTimes[ frame ] = keys.times.get( i );
+               firstKey = false;
+            }
+            if ( key.equals( VisionFrameAssembler.angleKey ) )
+            {
+               angle = (Double) value;
+            }
+            else if ( key.equals( VisionFrameAssembler.distanceKey ) )
+            {
+               distance = (Double) value;
+            }
+            else if ( key.equals( VisionFrameAssembler.latencyKey ) )
+            {
+               age = TimeUnit.MILLISECONDS.toMicros( ( (Double) value )
+                  .longValue() );
+            }
+            else if ( key.equals( VisionFrameAssembler.validUpdateKey ) )
+            {
+               frameValids[ frame ] = (Boolean) value;
+               frameAngles[ frame ] = angle;
+               frameDistances[ frame ] = distance;
+               frameAges[ frame ] = age;
+               frame++;
+               firstKey = true;
+            }
+         }
+      }
+
+
+      @Override
+      int getFrameCount()
+      {
+         return frameTimes.length;
+      }
+
+
+      @Override
+      IVisionSource getSource()
+      {
+         return updates;
+      }
+
+
+      @Override
+      public void run()
+      {
+         final UdpVisionReceiver receiver;
+         final DatagramChannel channel;
+         try
+         {
+            receiver = new UdpVisionReceiver( port );
+            channel = DatagramChannel.open();
+            channel.connect( new InetSocketAddress(
+               InetAddress.getLoopbackAddress(), port ) );
+         }
+         catch ( final IOException ex )
+         {
+            throw new IllegalStateException( "can't open port " + port, ex );
+         }
+
+         final Thread receiverThread = new Thread( new Runnable()
+         {
+
+            @Override
+            public void run()
+            {
+               receive( receiver );
+            }
+         }, "UDP Vision" );
+         receiverThread.start();
+
+         final ByteBuffer buffer = ByteBuffer.allocateDirect(
+            UdpVisionPacket.size );
+         final long start = clock.microTime();
+         try
+         {
+            for ( int i = 0; i < frameTimes.length; i++ )
+            {
+               final int sequence = i + 1;
+               final long due = start + (long) ( frameTimes[ i ] / speed );
+               waitUntil( due );
+               dueTimes[ sequence ] = due;
+               expectedAngles[ sequence ] = frameAngles[ i ];
+               expectedDistances[ sequence ] = frameDistances[ i ];
+
+               UdpVisionPacket.write( buffer, sequence, frameValids[ i ],
+                  frameValids[ i ] ? 1 : 0, due, frameAges[ i ],
+                  frameAngles[ i ], frameDistances[ i ] );
+               channel.write( buffer );
+            }
+            // Let the last one arrive
+            clock.delay( TimeUnit.MILLISECONDS.toMicros( 50 ) );
+            channel.close();
+         }
+         catch ( final IOException ex )
+         {
+            throw new IllegalStateException( "send failed", ex );
+         }
+         finally
+         {
+            receiver.close();
+         }
+         try
+         {
+            receiverThread.join();
+         }
+         catch ( final InterruptedException ex )
+         {
+            Thread.currentThread().interrupt();
+         }
+      }
+
+
+      /**
+       * Same work per datagram as the receiver thread of
+       * <code>UdpVision</code> (less its dashboard and LCD updates).
+       **/
+      private void receive( UdpVisionReceiver receiver )
+      {
+         try
+         {
+            while ( receiver.receive() )
+            {
+               final long receiveTime = clock.microTime();
+               final int sequence = (int) receiver.getSequence();
+               deliveredTimes[ sequence ] = receiveTime;
+               // One datagram is the whole frame
+               completeTimes[ sequence ] = receiveTime;
+
+               final long captureTime = receiveTime - receiver.getAge()
+                  - TimeUnit.MILLISECONDS.toMicros(
+                     DelayTimeConfig.getVisionTransportLatencyDelay() );
+               updates.publish( new VisionUpdate( sequence,
+                  receiver.isValidUpdate(), receiver.getAngle(),
+                  receiver.getDistance(), captureTime, receiveTime ) );
+               publishedTimes[ sequence ] = clock.microTime();
+            }
+         }
+         catch ( final IOException ex )
+         {
+            System.err.println( "receive failed: " + ex );
+         }
+         if ( ( receiver.getLostCount() + receiver.getOutOfOrderCount()
+            + receiver.getBadCount() ) > 0 )
+         {
+            System.out.println( String.format(
+               "udp: lost=%d outOfOrder=%d bad=%d", receiver.getLostCount(),
+               receiver.getOutOfOrderCount(), receiver.getBadCount() ) );
+         }
+      }
+
+   }
+
+   /**
+    * Replays frame files through the <code>TargetFinder</code>; the frames
+    * are loaded up front, so are handed over as a camera would.
+    **/
+   private static class FrameReplay
+      extends Replay
+   {
+
+      private final int[][] frames;
+      private final long period; // usec
+      private final TargetFinder finder;
+      private final int[] pixels;
+
+      private final LatestVisionUpdate updates = new LatestVisionUpdate();
+
+
+      FrameReplay( List< File > files, double rate, double speed )
+         throws IOException
+      {
+         final ImageFileFrameSource source =
+            new ImageFileFrameSource( files.toArray( new File[ 0 ] ), 0 );
+         frames = new int[ files.size() ][];
+         for ( int i = 0; i < frames.length; i++ )
+         {
+            frames[ i ] = new int[ source.getWidth() * source.getHeight() ];
+            if ( source.grabFrame( frames[ i ] ) < 0 )
+            {
+               throw new IOException( "can't load " + files.get( i ) );
+            }
+         }
+         period = (long) ( TimeUnit.SECONDS.toMicros( 1 ) / rate / speed );
+         finder = new TargetFinder( source.getWidth(), source.getHeight(),
+            Runtime.getRuntime().availableProcessors() );
+         pixels = new int[ source.getWidth() * source.getHeight() ];
+      }
+
+
+      @Override
+      int getFrameCount()
+      {
+         return frames.length;
+      }
+
+
+      @Override
+      IVisionSource getSource()
+      {
+         return updates;
+      }
+
+
+      @Override
+      public void run()
+      {
+         final long start = clock.microTime();
+         for ( int i = 0; i < frames.length; i++ )
+         {
+            final int sequence = i + 1;
+            final long due = start + ( i * period );
+            waitUntil( due );
+            dueTimes[ sequence ] = due;
+
+            System.arraycopy( frames[ i ], 0, pixels, 0, pixels.length );
+            final long delivered = clock.microTime();
+            deliveredTimes[ sequence ] = delivered;
+
+            final boolean valid = finder.process( pixels );
+            completeTimes[ sequence ] = clock.microTime();
+            expectedAngles[ sequence ] = finder.getAngle();
+            expectedDistances[ sequence ] = finder.getDistance();
+
+            updates.publish( new VisionUpdate( sequence, valid,
+               finder.getAngle(), finder.getDistance(), due, delivered ) );
+            publishedTimes[ sequence ] = clock.microTime();
+         }
+         finder.close();
+      }
+
+   }
+
+   /**
+    * Stand-in control loop; takes each new update through the tracker, and
+    * works out the elevation for the distance.
+    **/
+   private static class ControlLoop
+      extends Thread
+   {
+
+      private final IVisionSource source;
+      private final long period; // usec
+      private final TargetTracker tracker = new TargetTracker();
+      private final TrackedTarget target = new TrackedTarget();
+
+      volatile boolean quit;
+      /** Last elevation worked out (so it isn't optimized away) **/
+      long elevation;
+
+
+      ControlLoop( IVisionSource source, long period )
+      {
+         super( "Control Loop" );
+         this.source = source;
+         this.period = period;
+      }
+
+
+      @Override
+      public void run()
+      {
+         long lastSequence = 0;
+         long next = clock.microTime();
+         while ( !quit )
+         {
+            final VisionUpdate update = source.getUpdate();
+            if ( update.sequence != lastSequence )
+            {
+               final int sequence = (int) update.sequence;
+               seenTimes[ sequence ] = clock.microTime();
+               captureTimes[ sequence ] = update.captureTime;
+               torn[ sequence ] = update.isValid()
+                  && ( ( update.angle != expectedAngles[ sequence ] )
+                     || ( update.distance != expectedDistances[ sequence ] ) );
+               lastSequence = update.sequence;
+
+               if ( tracker.track( source, clock.microTime(), target ) )
+               {
+                  elevation = convertDistanceToEncoder( target.distance );
+               }
+               commandTimes[ sequence ] = clock.microTime();
+            }
+
+            next += period;
+            waitUntil( next );
+         }
+      }
+
+
+      /**
+       * Same as <code>ElevationModule</code>'s
+       **/
+      private static long convertDistanceToEncoder( double distance )
+      {
+         final double clicks = ( ( ( 3.84514610 * Math.pow( distance, 3 ) )
+            + ( 242.179816 * Math.pow( distance, 2 ) ) )
+            + ( -933.87707 * distance ) ) - 4615.47294;
+         return Math.round( clicks );
+      }
+
+   }
+
+
+   private static LatencyHistogram[] report( int frames )
+   {
+      final LatencyHistogram[] stages =
+         new LatencyHistogram[ stageNames.length ];
+      for ( int s = 0; s < stages.length; s++ )
+      {
+         stages[ s ] = new LatencyHistogram();
+      }
+
+      int published = 0;
+      int seen = 0;
+      int tornCount = 0;
+      for ( int i = 1; i <= frames; i++ )
+      {
+         if ( publishedTimes[ i ] == 0 )
+         {
+            continue;
+         }
+         published++;
+         stages[ 0 ].record( deliveredTimes[ i ] - dueTimes[ i ] );
+         stages[ 1 ].record( completeTimes[ i ] - deliveredTimes[ i ] );
+         stages[ 2 ].record( publishedTimes[ i ] - completeTimes[ i ] );
+         if ( seenTimes[ i ] == 0 )
+         {
+            continue;
+         }
+         seen++;
+         if ( torn[ i ] )
+         {
+            tornCount++;
+         }
+         stages[ 3 ].record( seenTimes[ i ] - publishedTimes[ i ] );
+         stages[ 4 ].record( commandTimes[ i ] - seenTimes[ i ] );
+         stages[ 5 ].record( commandTimes[ i ] - deliveredTimes[ i ] );
+         stages[ 6 ].record( commandTimes[ i ] - captureTimes[ i ] );
+         stages[ readyStage ].record( publishedTimes[ i ] - dueTimes[ i ] );
+         stages[ totalStage ].record( commandTimes[ i ] - dueTimes[ i ] );
+      }
+
+      System.out.println( String.format(
+         "frames=%d published=%d consumed=%d dropped=%d torn=%d", frames,
+         published, seen, published - seen, tornCount ) );
+      System.out.println();
+
+      final StringBuilder header = new StringBuilder( "stage     " );
+      header.append( String.format( "%8s %8s %8s %8s |", "p50", "p90", "p99",
+         "max" ) );
+      for ( final long limit : histogramLimits )
+      {
+         header.append( String.format( " %6s", "<=" + formatLimit( limit ) ) );
+      }
+      System.out.println( header );
+      for ( int s = 0; s < stages.length; s++ )
+      {
+         final LatencyHistogram h = stages[ s ];
+         final StringBuilder line = new StringBuilder();
+         line.append( String.format( "%-9s %8d %8d %8d %8d |", stageNames[ s ],
+            h.getPercentile( 50 ), h.getPercentile( 90 ),
+            h.getPercentile( 99 ), h.getMax() ) );
+         for ( final long limit : histogramLimits )
+         {
+            final double percent = ( h.getCount() == 0 ) ? 0
+               : ( 100.0 * h.getCountAtOrBelow( limit ) ) / h.getCount();
+            line.append( String.format( " %5.1f%%", percent ) );
+         }
+         System.out.println( line );
+      }
+      System.out.println();
+      System.out.println( "(usec; columns after | are the percent of frames"
+         + " at or below each time)" );
+      System.out.println();
+      return stages;
+   }
+
+
+   /**
+    * Prints the NetworkTables and UDP latency (median) and jitter (p90 less
+    * p10) of getting a frame to the robot code, and on to a command.
+    **/
+   private static void summarize( LatencyHistogram[] nt,
+      LatencyHistogram[] udp )
+   {
+      System.out.println( "== NetworkTables vs UDP (usec)" );
+      System.out.println( String.format( "%-9s %8s %8s %8s %8s", "",
+         "NT p50", "UDP p50", "NT jit", "UDP jit" ) );
+      for ( final int stage : new int[] { readyStage, totalStage } )
+      {
+         System.out.println( String.format( "%-9s %8d %8d %8d %8d",
+            stageNames[ stage ], nt[ stage ].getPercentile( 50 ),
+            udp[ stage ].getPercentile( 50 ), jitter( nt[ stage ] ),
+            jitter( udp[ stage ] ) ) );
+      }
+   }
+
+
+   private static long jitter( LatencyHistogram h )
+   {
+      return h.getPercentile( 90 ) - h.getPercentile( 10 );
+   }
+
+
+   private static String formatLimit( long usec )
+   {
+      if ( usec < 1000 )
+      {
+         return usec + "u";
+      }
+      return ( usec / 1000 ) + "m";
+   }
+
+}
@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) Team 501 Power Knights 2016. All Rights Reserved. Open Source
+ * Software - May be modified and shared by FRC teams. The code must be
+ * accompanied by the FIRST BSD license file in the root directory of the
+ * project. You may also obtain a copy of it from the following:
+ * http://www.opensource.org/licenses/bsd-license.php.
+ **/
+
+package com.powerknights.frc2016.utils;
+
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+
+/**
+ * Offline (laptop) benchmark of <code>StringUtils.format()</code>: the
+ * original <code>Double.toString</code> based (truncating) version against
+ * the new ones (to a <code>String</code>, appending to a
+ * <code>StringBuilder</code>, and writing to a <code>char[]</code>). Prints
+ * the time and bytes allocated per call of each, and checks the rounding of
+ * the new ones against <code>BigDecimal</code>.
+ * <p>
+ * Usage: <code>StringUtilsBenchmark [iterations]</code>
+ *
+ * @author first.stu
+ **/
+public class StringUtilsBenchmark
+{
+
+   /** How many different values are cycled through **/
+   private static final int valueCount = 1024;
+   /** Digits of precision used (what the trace logs use) **/
+   private static final int digits = 3;
+
+   /** Keeps the results live, so the work isn't optimized away **/
+   private static long sink;
+
+
+   public static void main( String[] args )
+   {
+      final int iterations =
+         ( args.length > 0 ) ? Integer.parseInt( args[ 0 ] ) : 5000000;
+
+      final double[] values = new double[ valueCount ];
+      final Random random = new Random( 501 );
+      for ( int i = 0; i < valueCount; i++ )
+      {
+         values[ i ] = ( random.nextDouble() - 0.5 ) * 20.0;
+      }
+
+      System.out.println( "rounding mismatches: " + checkRounding( random ) );
+
+      // First pass warms up the JIT; second is the one reported
+      for ( int pass = 0; pass < 2; pass++ )
+      {
+         final boolean report = ( pass == 1 );
+         run( "legacy String", 0, values, iterations, report );
+         run( "format String", 1, values, iterations, report );
+         run( "format StringBuilder", 2, values, iterations, report );
+         run( "format char[]", 3, values, iterations, report );
+      }
+      System.out.println( "(sink " + sink + ")" );
+   }
+
+
+   private static void run( String name, int which, double[] values,
+      int iterations, boolean report )
+   {
+      final StringBuilder buf = new StringBuilder( 32 );
+      final char[] chars = new char[ 32 ];
+
+      final long startBytes = getAllocatedBytes();
+      final long startTime = System.nanoTime();
+      for ( int i = 0; i < iterations; i++ )
+      {
+         final double value = values[ i & ( valueCount - 1 ) ];
+         switch ( which )
+         {
+         case 0:
+            sink += legacyFormat( value, digits ).length();
+            break;
+         case 1:
+            sink += StringUtils.format( value, digits ).length();
+            break;
+         case 2:
+            buf.setLength( 0 );
+            sink += StringUtils.format( buf, value, digits ).length();
+            break;
+         default:
+            sink += StringUtils.format( chars, 0, value, digits );
+            break;
+         }
+      }
+      final long elapsed = System.nanoTime() - startTime;
+      final long bytes = getAllocatedBytes() - startBytes;
+
+      if ( report )
+      {
+         System.out.println(
+            String.format( "%-22s %8.1f ns/call %8.1f bytes/call", name,
+               (double) elapsed / iterations, (double) bytes / iterations ) );
+      }
+   }
+
+
+   /**
+    * @return how many random values the new formatter rounds differently
+    *         than rounding their exact decimal expansion half up
+    **/
+   private static int checkRounding( Random random )
+   {
+      int mismatches = 0;
+      final StringBuilder buf = new StringBuilder();
+      final char[] chars = new char[ 32 ];
+      for ( int i = 0; i < 100000; i++ )
+      {
+         final int d = random.nextInt( StringUtils.maxDigits + 1 );
+         final double value = ( random.nextDouble() - 0.5 ) * 2000.0;
+
+         final String expected = new BigDecimal( Math.abs( value ) )
+            .setScale( d, RoundingMode.HALF_UP ).toPlainString();
+
+         buf.setLength( 0 );
+         StringUtils.format( buf, value, d );
+         final int length = StringUtils.format( chars, 0, value, d );
+         if ( !buf.substring( 1 ).equals( expected )
+            || !new String( chars, 1, length - 1 ).equals( expected ) )
+         {
+            mismatches++;
+         }
+      }
+      return mismatches;
+   }
+
+
+   /**
+    * @return bytes allocated by this thread so far, or 0 if the JVM can't say
+    **/
+   private static long getAllocatedBytes()
+   {
+      final java.lang.management.ThreadMXBean bean =
+         ManagementFactory.getThreadMXBean();
+      if ( bean instanceof com.sun.management.ThreadMXBean )
+      {
+         return ( (com.sun.management.ThreadMXBean) bean )
+            .getThreadAllocatedBytes( Thread.currentThread().getId() );
+      }
+      return 0;
+   }
+
+
+   /**
+    * The original <code>StringUtils.format()</code> (truncates, and breaks
+    * on values <code>Double.toString</code> puts in scientific notation).
+    **/
+   private static String legacyFormat( double value, int digits )
+   {
+      final String valueString = Double.toString( value );
+      final int dotLoc = valueString.indexOf( '.' );
+      final int numDigits = valueString.length() - dotLoc - 1;
+
+      final StringBuffer buf = new StringBuffer( valueString );
+      if ( numDigits < digits )
+      {
+         for ( int i = 0; i < ( digits - numDigits ); i++ )
+         {
+            buf.append( "0" );
+         }
+      }
+      else if ( numDigits == digits )
+      {
+         // lucky conversion
+      }
+      else
+      {
+         buf.setLength( ( dotLoc + digits + 1 ) );
+      }
+
+      if ( value > 0 )
+      {
+         buf.insert( 0, '+' );
+      }
+      if ( ( buf.charAt( 0 ) != '+' ) && ( buf.charAt( 0 ) != '-' ) )
+      {
+         buf.insert( 0, ' ' );
+      }
+
+      return buf.toString();
+   }
+
+}